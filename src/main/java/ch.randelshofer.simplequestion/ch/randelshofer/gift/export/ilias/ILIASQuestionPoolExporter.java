@@ -15,6 +15,8 @@ import ch.randelshofer.gift.parser.MatchingPairAnswer;
 import ch.randelshofer.gift.parser.NumberAnswer;
 import ch.randelshofer.gift.parser.Question;
 import ch.randelshofer.io.ConfigurableFileFilter;
+import ch.randelshofer.xml.XMLPrinter;
+import ch.randelshofer.zip.ParallelZipOutStream;
 import nanoxml.XMLElement;
 import org.jhotdraw.util.ResourceBundleUtil;
 
@@ -23,15 +25,12 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Exports a collection of <code>Question</code>'s to an ILIAS question pool.
@@ -67,7 +66,7 @@ public class ILIASQuestionPoolExporter implements Exporter {
             baseName = baseName.substring(0, baseName.length() - 4);
         }
 
-        try (ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(new File(file.getParentFile(), baseName + "_qpl.zip")))) {
+        try (ParallelZipOutStream zout = new ParallelZipOutStream(new FileOutputStream(new File(file.getParentFile(), baseName + "_qpl.zip")))) {
             zout.putNextEntry(new ZipEntry(baseName + "_qpl/" + baseName + "_qpl.xml"));
             exportQPL(questions, baseName, zout);
             zout.closeEntry();
@@ -106,10 +105,6 @@ public class ILIASQuestionPoolExporter implements Exporter {
     }
 
     private void exportQPL(List<Question> questions, String name, OutputStream out) throws IOException {
-        XMLElement contentObject = dom.createElement("ContentObject");
-        contentObject.setAttribute("Type", "Questionpool_Test");
-
-
         // MetaData
         // --------
         XMLElement metaData = dom.createElement("MetaData");
@@ -133,36 +128,47 @@ public class ILIASQuestionPoolExporter implements Exporter {
         elem.setAttribute("Language", language);
         general.addChild(elem);
         metaData.addChild(general);
-        contentObject.addChild(metaData);
 
+        Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        XMLPrinter p = new XMLPrinter(w);
+        p.raw("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        p.raw("<!DOCTYPE Test SYSTEM \"http://www.ilias.uni-koeln.de/download/dtd/ilias_co.dtd\">\n");
+        p.startElement("ContentObject");
+        p.attribute("Type", "Questionpool_Test");
+        p.element(metaData);
 
         // Page Objects
         for (Question q : questions) {
-            XMLElement pageObject = dom.createElement("PageObject");
-            XMLElement pageContent = dom.createElement("PageContent");
-            XMLElement question = dom.createElement("Question");
-            question.setAttribute("QRef", oidMap.get(q));
-            pageContent.addChild(question);
-            pageObject.addChild(pageContent);
-            contentObject.addChild(pageObject);
+            p.startElement("PageObject");
+            p.startElement("PageContent");
+            p.startElement("Question");
+            p.attribute("QRef", oidMap.get(q));
+            p.endElement();
+            p.endElement();
+            p.endElement();
         }
-
-        Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
-        w.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
-        w.write("<!DOCTYPE Test SYSTEM \"http://www.ilias.uni-koeln.de/download/dtd/ilias_co.dtd\">\n");
-        contentObject.write(w);
-        w.flush();
+        p.endElement();
+        p.flush();
     }
 
     /**
      * This method is package private for unit tests.
      */
     void exportQTI(List<Question> questions, OutputStream out) throws IOException {
-        XMLElement questestinterop = dom.createElement("questestinterop");
+        // The items are written as soon as they have been created, so that
+        // only one item is held in memory at a time.
+        // Due to a bug in ILIAS 3.8.3, the QTI file must not contain
+        // any extra spaces and line breaks.
+        String lineSeparator = System.lineSeparator();
+        Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        XMLPrinter p = new XMLPrinter(w);
+        p.raw("<?xml version=\"1.0\" encoding=\"utf-8\"?>" + lineSeparator);
+        p.raw("<!DOCTYPE questestinterop SYSTEM \"http://www.imsglobal.org/question/qtiv1p2p1/XMLSchemav1p2p1/xmla/ims_qtiasiv1p2p1schema/dtds/qtiasifulldtd/ims_qtiasiv1p2p1.dtd\">" + lineSeparator);
+        p.startElement("questestinterop");
         /*
-        questestinterop.setAttribute("xmlns","http://www.imsglobal.org/xsd/ims_qtiasiv1p2");
-        questestinterop.setAttribute("xmlns:xsi","http://www.w3.org/2001/XMLSchema-instance");
-        questestinterop.setAttribute("xsi:schemaLocation","https://www.imsglobal.org/sites/default/files/xsd/ims_qtiasiv1p2p1.xsd");
+        p.attribute("xmlns","http://www.imsglobal.org/xsd/ims_qtiasiv1p2");
+        p.attribute("xmlns:xsi","http://www.w3.org/2001/XMLSchema-instance");
+        p.attribute("xsi:schemaLocation","https://www.imsglobal.org/sites/default/files/xsd/ims_qtiasiv1p2p1.xsd");
 */
         // Items
         for (Question q : questions) {
@@ -194,20 +200,13 @@ public class ILIASQuestionPoolExporter implements Exporter {
                 if (item == null) {
                     throw new IOException("ILIASQuestionPoolExporter ILIAS does not support the question.<br>" + q);
                 } else {
-                    questestinterop.addChild(item);
+                    p.element(item);
                 }
             }
         }
 
-
-        PrintWriter w = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
-        w.println("<?xml version=\"1.0\" encoding=\"utf-8\"?>");
-        w.println("<!DOCTYPE questestinterop SYSTEM \"http://www.imsglobal.org/question/qtiv1p2p1/XMLSchemav1p2p1/xmla/ims_qtiasiv1p2p1schema/dtds/qtiasifulldtd/ims_qtiasiv1p2p1.dtd\">");
-
-        // Due to a bug in ILIAS 3.8.3, the QTI file must not contain
-        // any extra spaces and line breaks.
-        questestinterop.write(w);
-        w.flush();
+        p.endElement();
+        p.flush();
     }
 
     private XMLElement createClozeItem(Question q) throws IOException {
@@ -260,7 +259,7 @@ public class ILIASQuestionPoolExporter implements Exporter {
                         // Never shuffle boolean answers
                         render_choice.setAttribute("shuffle", "No");
 
-                        BooleanAnswer ba = (BooleanAnswer) al.answers().getFirst();
+                        BooleanAnswer ba = (BooleanAnswer) al.get(0);
                         wrongAnswerMap.put(ba, new Object());
 
                         // Create choice for "TRUE" answer
@@ -300,7 +299,7 @@ public class ILIASQuestionPoolExporter implements Exporter {
                         render_fib.setAttribute("prompt", "Box");
 
                         XMLElement response_label = dom.createElement("response_label");
-                        response_label.setAttribute("ident", getOid(al.answers().getFirst()));
+                        response_label.setAttribute("ident", getOid(al.get(0)));
 
                         render_fib.addChild(response_label);
 
@@ -310,7 +309,7 @@ public class ILIASQuestionPoolExporter implements Exporter {
                         break;
                     }
                     case NUMERIC: {
-                        if (al.answers().size() != 1) {
+                        if (al.size() != 1) {
                             throw new IOException("ILIAS does not support multiple numeric answers in a cloze question.<br>" + q);
                         }
 
@@ -323,7 +322,7 @@ public class ILIASQuestionPoolExporter implements Exporter {
                         render_fib.setAttribute("fibtype", "Decimal");
                         render_fib.setAttribute("prompt", "Box");
 
-                        Answer answer = al.answers().get(0);
+                        Answer answer = al.get(0);
                         if (answer instanceof IntervalAnswer) {
                             IntervalAnswer ia = (IntervalAnswer) answer;
                             render_fib.setAttribute("columns", Math.max(5, 1 + Math.max(Double.toString(ia.getMin()).length(), Double.toString(ia.getMax()).length())));
@@ -1234,7 +1233,7 @@ public class ILIASQuestionPoolExporter implements Exporter {
      * Returns null, if there is no suitable question type for ILIAS.
      */
     public AnswerListType getILIASType(Question q) {
-        LinkedList<Object> body = q.getBody();
+        List<Object> body = q.getBody();
 
         // The body must consist of at least two elements
         if (body.size() < 2) {
@@ -1245,9 +1244,9 @@ public class ILIASQuestionPoolExporter implements Exporter {
         // element is text, we can create the corresponding question type in
         // ILIAS in most cases.
         if (body.size() == 2 &&
-                (body.getFirst() instanceof String) &&
-                (body.getLast() instanceof AnswerList)) {
-            AnswerList al = (AnswerList) body.getLast();
+                (body.get(0) instanceof String) &&
+                (body.get(body.size() - 1) instanceof AnswerList)) {
+            AnswerList al = (AnswerList) body.get(body.size() - 1);
             switch (al.getType()) {
             case BOOL:
             case SINGLE_CHOICE:
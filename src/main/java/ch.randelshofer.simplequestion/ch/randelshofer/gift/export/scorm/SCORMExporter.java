@@ -15,14 +15,17 @@ import ch.randelshofer.gift.parser.IntervalAnswer;
 import ch.randelshofer.gift.parser.MatchingPairAnswer;
 import ch.randelshofer.gift.parser.NumberAnswer;
 import ch.randelshofer.gift.parser.Question;
+import ch.randelshofer.gui.ProgressIndicator;
 import ch.randelshofer.gui.ProgressView;
+import ch.randelshofer.gui.SilentProgressIndicator;
 import ch.randelshofer.io.ConfigurableFileFilter;
-import ch.randelshofer.io.Streams;
 import ch.randelshofer.scorm.CourseModel;
+import ch.randelshofer.scorm.IncrementalZipOutDirectory;
 import ch.randelshofer.scorm.cam.DependencyElement;
 import ch.randelshofer.scorm.cam.FileElement;
 import ch.randelshofer.scorm.cam.ResourceElement;
 import ch.randelshofer.scorm.cam.ResourcesElement;
+import ch.randelshofer.text.CompiledTemplate;
 import ch.randelshofer.text.TemplateEngine;
 import ch.randelshofer.util.ArrayUtil;
 import ch.randelshofer.util.Strings;
@@ -31,9 +34,10 @@ import ch.randelshofer.zip.ZipFiles;
 import ch.randelshofer.zip.ZipIn;
 import ch.randelshofer.zip.ZipInDirectory;
 import ch.randelshofer.zip.ZipInStream;
+import ch.randelshofer.zip.ParallelZipOutStream;
 import ch.randelshofer.zip.ZipOut;
+import ch.randelshofer.zip.ZipOutBuffer;
 import ch.randelshofer.zip.ZipOutDirectory;
-import ch.randelshofer.zip.ZipOutStream;
 import nanoxml.XMLElement;
 import org.jhotdraw.util.ResourceBundleUtil;
 import org.xml.sax.SAXException;
@@ -41,26 +45,36 @@ import org.xml.sax.SAXException;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreePath;
 import javax.xml.parsers.ParserConfigurationException;
+import java.awt.GraphicsEnvironment;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.prefs.Preferences;
 import java.util.zip.ZipEntry;
 
@@ -68,7 +82,19 @@ import java.util.zip.ZipEntry;
  * Exports a collection of <code>Question</code>'s to a SCORM content package.
  *
  * @author Werner Randelshofer
- * @version 2.1 2011-06-06 Text in the prototype pages is now localized.
+ * @version 2.9 2026-10-18 Does not close the progress indicator which has
+ * been set with setProgressIndicator.
+ * <br>2.8 2026-10-18 An incremental deployment is only finished if
+ * the export has succeeded.
+ * <br>2.7 2026-10-18 Added property incrementalDeployment.
+ * <br>2.6 2026-10-18 Added setProgressIndicator and setTemplates. Does
+ * not show a ProgressView in a headless environment.
+ * <br>2.5 2026-10-18 Compress the PIF with ParallelZipOutStream.
+ * <br>2.4 2026-10-18 Render the pages of the questions concurrently.
+ * <br>2.3 2026-10-18 Pass the footer to the cloze prototype.
+ * <br>2.2 2026-10-18 The HTML prototypes are loaded and compiled only
+ * once, and rendered directly into the zip entries.
+ * <br>2.1 2011-06-06 Text in the prototype pages is now localized.
  * <br>2.0 2008-10-16 Rewrote matching pair question. Added support for
  * "None"-questions.
  * <br>1.4 2007-11-14 Mark cloze questions elements with classes, so
@@ -99,12 +125,34 @@ public class SCORMExporter implements Exporter {
      * Random source for encryptClozeText
      */
     private static Random random = new Random();
+    /**
+     * The compiled HTML prototypes.
+     * Key = resource name
+     * Value = compiled prototype
+     */
+    private final static HashMap<String, CompiledTemplate> prototypes = new HashMap<String, CompiledTemplate>();
     private boolean isPIFdefault;
-    private ProgressView progress;
+    private ProgressIndicator progress;
+    /**
+     * The progress indicator set with setProgressIndicator, or null.
+     */
+    private ProgressIndicator progressIndicator;
+    /**
+     * The SCORM templates set with setTemplates, or null.
+     */
+    private File templates;
     private File baseDir;
     private String prefix;
     private String xmlPrefix = "_";
     private String organizationName = "Questions";
+    /**
+     * The number of threads which render the pages of the questions.
+     */
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    /**
+     * Whether a content package only rewrites the files which have changed.
+     */
+    private boolean isIncrementalDeployment;
 
     /**
      * This class is used in method exportIMSManifest to create deep structures
@@ -153,7 +201,7 @@ public class SCORMExporter implements Exporter {
     public void exportToPIF(List<Question> questions, File file,
                             String title, String stylesheet, Locale locale, String prefix) throws IOException {
 
-        progress = new ProgressView("Exporting SCORM Package Interchange File", "...", 0, questions.size());
+        progress = createProgressIndicator("Exporting SCORM Package Interchange File", questions.size());
         this.stylesheet = stylesheet;
         this.prefix = (prefix == null) ? "" : prefix;
         labels = new ResourceBundleUtil(ResourceBundle.getBundle("ch.randelshofer.gift.Labels", locale));
@@ -180,26 +228,93 @@ public class SCORMExporter implements Exporter {
 
         ZipOut zout = null;
         try {
-            zout = new ZipOutStream(new FileOutputStream(new File(file.getParentFile(), baseName + "_scorm.zip")));
+            zout = new ParallelZipOutStream(new FileOutputStream(new File(file.getParentFile(), baseName + "_scorm.zip")));
             zout.putNextEntry(new ZipEntry("imsmanifest.xml"));
             externalResourceRefs = new HashMap<String, File>();
             exportIMSManifest(questions, getOrganizationName(), zout.getOutputStream());
             zout.closeEntry();
-            for (Question q : questions) {
-                progress.setNote("Exporting " + q.getDescriptiveTitle());
-                progress.setProgress(progress.getProgress() + 1);
-                exportQuestion(q, zout);
-            }
+            exportQuestions(questions, zout);
             exportResources(zout);
             exportExternalResources(zout);
         } finally {
             if (zout != null) {
                 zout.close();
             }
+            closeProgressIndicator();
+        }
+    }
+
+    /**
+     * Sets the progress indicator which is used by the following exports.
+     * If this is null, a {@code ProgressView} is shown, or if the
+     * graphics environment is headless, no progress is shown.
+     * <p>
+     * The exporter does not close the progress indicator, so that the
+     * caller can use it for more than one export.
+     */
+    public void setProgressIndicator(ProgressIndicator newValue) {
+        progressIndicator = newValue;
+    }
+
+    private ProgressIndicator createProgressIndicator(String message, int max) {
+        if (progressIndicator != null) {
+            progressIndicator.setNote(message);
+            progressIndicator.setMinimum(0);
+            progressIndicator.setMaximum(max);
+            progressIndicator.setProgress(0);
+            return progressIndicator;
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            SilentProgressIndicator p = new SilentProgressIndicator();
+            p.setMaximum(max);
+            return p;
+        }
+        return new ProgressView(message, "...", 0, max);
+    }
+
+    /**
+     * Closes the progress indicator of the current export, unless it has
+     * been set with setProgressIndicator.
+     */
+    private void closeProgressIndicator() {
+        if (progress != progressIndicator) {
             progress.close();
         }
     }
 
+    /**
+     * Returns the number of threads which render the pages of the
+     * questions. The default value is the number of available processors.
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Sets the number of threads which render the pages of the questions.
+     */
+    public void setThreadCount(int newValue) {
+        threadCount = newValue;
+    }
+
+    /**
+     * Returns true if {@link #exportToContentPackage} only writes the files
+     * which have changed since the previous export into the same directory.
+     */
+    public boolean isIncrementalDeployment() {
+        return isIncrementalDeployment;
+    }
+
+    /**
+     * Sets whether {@link #exportToContentPackage} only writes the files
+     * which have changed since the previous export into the same directory,
+     * and deletes the files which are no longer part of the package. The
+     * default value is false.
+     */
+    public void setIncrementalDeployment(boolean newValue) {
+        isIncrementalDeployment = newValue;
+    }
+
     public String getOrganizationName() {
         return organizationName;
     }
@@ -215,7 +330,7 @@ public class SCORMExporter implements Exporter {
         this.prefix = (prefix == null) ? "" : prefix;
         labels = new ResourceBundleUtil(ResourceBundle.getBundle("ch.randelshofer.gift.Labels", locale));
 
-        progress = new ProgressView("Exporting SCORM Content Package", "...", 0, questions.size());
+        progress = createProgressIndicator("Exporting SCORM Content Package", questions.size());
 
         // For each question we need two oids: one for the item-Element and
         // one for the resource-Element.
@@ -242,24 +357,30 @@ public class SCORMExporter implements Exporter {
         setOrganizationName((title == null || title.length() == 0) ? baseName : title);
 
         ZipOut zout = null;
+        IncrementalZipOutDirectory deployment = null;
         try {
-            zout = new ZipOutDirectory(dir);
+            if (isIncrementalDeployment) {
+                deployment = new IncrementalZipOutDirectory(dir);
+                zout = deployment;
+            } else {
+                zout = new ZipOutDirectory(dir);
+            }
             zout.putNextEntry(new ZipEntry("imsmanifest.xml"));
             externalResourceRefs = new HashMap<String, File>();
             exportIMSManifest(questions, getOrganizationName(), zout.getOutputStream());
             zout.closeEntry();
-            for (Question q : questions) {
-                progress.setNote("Exporting " + q.getDescriptiveTitle());
-                progress.setProgress(progress.getProgress() + 1);
-                exportQuestion(q, zout);
-            }
+            exportQuestions(questions, zout);
             exportResources(zout);
             exportExternalResources(zout);
+            if (deployment != null) {
+                // Delete the stale files only if the export has succeeded
+                deployment.finish();
+            }
         } finally {
             if (zout != null) {
                 zout.close();
             }
-            progress.close();
+            closeProgressIndicator();
         }
     }
 
@@ -402,7 +523,7 @@ public class SCORMExporter implements Exporter {
         resource.setAttribute("type", "webcontent");
         ZipIn zin = null;
         try {
-            zin = getSCORMTemplates();
+            zin = openTemplates();
             for (ZipEntry entry = zin.getNextEntry(); entry != null; entry = zin.getNextEntry()) {
                 if (!entry.isDirectory()) {
                     XMLElement file = dom.createElement("file");
@@ -427,6 +548,23 @@ public class SCORMExporter implements Exporter {
         w.flush();
     }
 
+    /**
+     * Sets the SCORM templates which are used by the following exports.
+     * This can be a zip file or a directory. If this is null, the templates
+     * are chosen by the preferences, see {@link #getSCORMTemplates}.
+     */
+    public void setTemplates(File newValue) {
+        templates = newValue;
+    }
+
+    private ZipIn openTemplates() throws IOException {
+        if (templates == null) {
+            return getSCORMTemplates();
+        }
+        return templates.isDirectory() ? new ZipInDirectory(templates)
+                : new ZipInStream(new FileInputStream(templates));
+    }
+
     public static ZipIn getSCORMTemplates() {
         Preferences prefs = Preferences.userNodeForPackage(SCORMExporter.class);
         String choice = prefs.get("scormTemplateChoice", "internal");
@@ -446,7 +584,7 @@ public class SCORMExporter implements Exporter {
     }
 
     private void exportExternalIMSManifestResource(XMLElement resource, Question q) throws IOException {
-        ExternalAnswer ea = (ExternalAnswer) ((AnswerList) q.getBody().get(0)).answers().get(0);
+        ExternalAnswer ea = (ExternalAnswer) q.getAnswerList(0).get(0);
 
         // Parse the external reference
         String externalReference = ea.getExternalReference();
@@ -550,6 +688,76 @@ public class SCORMExporter implements Exporter {
         }
     }
 
+    /**
+     * Exports the pages of the questions.
+     * <p>
+     * The pages are rendered concurrently into {@code ZipOutBuffer}s, and
+     * written to the zip output in the order of the questions. At most
+     * {@code 2 * threadCount} pages are rendered ahead of the page which is
+     * written next, so that the memory usage stays bounded. The progress
+     * is advanced when a page has been written.
+     */
+    private void exportQuestions(List<Question> questions, ZipOut zout) throws IOException {
+        int threads = Math.max(1, Math.min(threadCount, questions.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "SCORMExporter");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            int window = threads * 2;
+            ArrayDeque<Future<ZipOutBuffer>> pending = new ArrayDeque<Future<ZipOutBuffer>>(window);
+            ArrayDeque<Question> pendingQuestions = new ArrayDeque<Question>(window);
+            for (final Question q : questions) {
+                if (pending.size() == window) {
+                    writePage(pendingQuestions.removeFirst(), pending.removeFirst(), zout);
+                }
+                pendingQuestions.add(q);
+                pending.add(executor.submit(new Callable<ZipOutBuffer>() {
+                    @Override
+                    public ZipOutBuffer call() throws IOException {
+                        ZipOutBuffer buf = new ZipOutBuffer();
+                        exportQuestion(q, buf);
+                        return buf;
+                    }
+                }));
+            }
+            while (!pending.isEmpty()) {
+                writePage(pendingQuestions.removeFirst(), pending.removeFirst(), zout);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Waits until the page of the question has been rendered, and writes it
+     * to the zip output.
+     */
+    private void writePage(Question q, Future<ZipOutBuffer> page, ZipOut zout) throws IOException {
+        ZipOutBuffer buf;
+        try {
+            buf = page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        buf.writeTo(zout);
+        progress.setNote("Exporting " + q.getDescriptiveTitle());
+        progress.setProgress(progress.getProgress() + 1);
+    }
+
     private void exportQuestion(Question question, ZipOut out) throws IOException {
         switch (getSCORMType(question)) {
             case SINGLE_CHOICE:
@@ -578,24 +786,15 @@ public class SCORMExporter implements Exporter {
 
     private void exportSingleChoiceQuestion(Question q, ZipOut out) throws IOException {
         // Get HTML Prototype
-        Reader in = null;
-        String htmlPrototype;
-        try {
-            in = new InputStreamReader(getClass().getResourceAsStream("prototype_scorm_sc.html"), "UTF8");
-            htmlPrototype = Streams.toString(in);
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
+        CompiledTemplate htmlPrototype = getPrototype("prototype_scorm_sc.html");
 
         // Get Answer list
-        AnswerList answerList = (AnswerList) q.getBody().get(1);
+        AnswerList answerList = q.getAnswerList(1);
 
         // Generate HTML code for answer list
         StringBuilder htmlAnswer = new StringBuilder();
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i - 1);
             htmlAnswer.append("<p class=\"spacingHalf\">");
             htmlAnswer.append("<span name=\"G01choice" + i + "\" style=\"margin-left:-30px\">");
             htmlAnswer.append("<a name=\"G01choice" + i + "Inp\" href=\"#\"\n");
@@ -616,8 +815,8 @@ public class SCORMExporter implements Exporter {
         StringBuilder unknownResponseProcessing = new StringBuilder();
         resultProcessing.append("function newG01() {\n");
         resultProcessing.append("    G01 = new MM_interaction('G01',0,0,0,null,0,1,0,'','','c','',0);\n");
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i - 1);
             resultProcessing.append("    G01.add('ibtn','choice" + i + "',0,1," + (ca.isCorrect() || ca.getWeight() > 0 ? '1' : '0') + ",0,1,'sdhSDH');\n");
         }
         resultProcessing.append("    G01.init();\n");
@@ -632,8 +831,8 @@ public class SCORMExporter implements Exporter {
         resultProcessing.append("    G01.am('end');\n");
         resultProcessing.append("    G01.am('cond','Incorrect_','G01.correct == (false)',0);\n");
         resultProcessing.append("    G01.am('actn','Call JavaScript','MM_callJS(\\'question_clearFeedbackText()\\')','');\n");
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i - 1);
             String feedbackText = (ca.getFeedbackText() != null) ? ca.getFeedbackText() : (ca.isCorrect() ? labels.getString("feedback.multipleChoice.mustBeChecked") : labels.getString("feedback.multipleChoice.mustNotBeChecked"));
             String str = "    G01.am('actn','Call JavaScript','MM_callJS(\\'question_addFeedbackText("
                     + "\\\\\\'choice" + i + "\\\\\\',"
@@ -652,8 +851,8 @@ public class SCORMExporter implements Exporter {
         resultProcessing.append(unknownResponseProcessing.toString());
         unknownResponseProcessing.setLength(0);
         /*
-        for (int i=1, n = answerList.answers().size(); i <= n; i++) {
-        ChoiceAnswer caj = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i=1, n = answerList.size(); i <= n; i++) {
+        ChoiceAnswer caj = (ChoiceAnswer) answerList.get(i - 1);
         String feedbackText = (caj.getFeedbackText() != null) ? caj.getFeedbackText() : caj.getText();
         resultProcessing.append("G01.am('actn','Call JavaScript','MM_callJS(\\'question_addFeedbackText(G01.e[\\\\\\'choice" +
         i+"\\\\\\'].isCorrect != G01.e[\\\\\\'choice" +
@@ -673,12 +872,12 @@ public class SCORMExporter implements Exporter {
 
 
         // Formatting parameters of the prototype
-        String html = TemplateEngine.process(htmlPrototype,//
+        exportPage(q, out, htmlPrototype,//
                 "chapter", getChapterTitle(q),
                 "title", getPageTitle(q),
                 "middot", getPageTitle(q).length() > 0 ? "&middot;" : "",
                 "stylesheet", stylesheet,
-                "question", encodeHTMLText((String) q.getBody().get(0)),
+                "question", encodeHTMLText(q.getQuestionText(0)),
                 "answer", htmlAnswer.toString(),
                 "resultProcessing", resultProcessing.toString(),
                 "footer", (q.getId() != null) ? q.getId() : "",//
@@ -694,35 +893,19 @@ public class SCORMExporter implements Exporter {
                 "reset", labels.getString("button.reset"),
                 "next", labels.getString("button.next")//
         );
-
-        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
-        out.write(html.getBytes("UTF8"));
-
-        //System.out.println(html);
-
-        out.closeEntry();
     }
 
     private void exportMultipleChoiceQuestion(Question q, ZipOut out) throws IOException {
         // Get HTML Prototype
-        Reader in = null;
-        String htmlPrototype;
-        try {
-            in = new InputStreamReader(getClass().getResourceAsStream("prototype_scorm_mc.html"), "UTF8");
-            htmlPrototype = Streams.toString(in);
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
+        CompiledTemplate htmlPrototype = getPrototype("prototype_scorm_mc.html");
 
         // Get Answer list
-        AnswerList answerList = (AnswerList) q.getBody().get(1);
+        AnswerList answerList = q.getAnswerList(1);
 
         // Generate HTML code for answer list
         StringBuilder htmlAnswer = new StringBuilder();
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i - 1);
 
             htmlAnswer.append("<p class=\"spacingHalf\">");
             htmlAnswer.append("<span name=\"G01choice" + i + "\" style=\"margin-left:-30px\"> ");
@@ -743,8 +926,8 @@ public class SCORMExporter implements Exporter {
 
         // Determine whether all answers are incorrect
         boolean allAnswersAreIncorrect = true;
-        for (int i = 0, n = answerList.answers().size(); i < n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i);
+        for (int i = 0, n = answerList.size(); i < n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i);
             if (ca.isCorrect() || ca.getWeight() > 0) {
                 allAnswersAreIncorrect = false;
                 break;
@@ -756,8 +939,8 @@ public class SCORMExporter implements Exporter {
         StringBuilder unknownResponseProcessing = new StringBuilder();
         resultProcessing.append("function newG01() {\n");
         resultProcessing.append("    G01 = new MM_interaction('G01',0,1,1," + ((allAnswersAreIncorrect) ? "1" : "0") + ",0,1,0,'','','c','',0);\n");
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i - 1);
             resultProcessing.append("    G01.add('ibtn','choice" + i + "',0,1," + (ca.isCorrect() || ca.getWeight() > 0 ? '1' : '0') + ",0,1,'sdhSDH');\n");
         }
         resultProcessing.append("    G01.init();\n");
@@ -772,8 +955,8 @@ public class SCORMExporter implements Exporter {
         resultProcessing.append("    G01.am('end');\n");
         resultProcessing.append("    G01.am('cond','Incorrect_','G01.correct == (false)',0);\n");
         resultProcessing.append("    G01.am('actn','Call JavaScript','MM_callJS(\\'question_clearFeedbackText()\\')','');\n");
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            ChoiceAnswer ca = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            ChoiceAnswer ca = (ChoiceAnswer) answerList.get(i - 1);
             String feedbackText = (ca.getFeedbackText() != null) ? ca.getFeedbackText() : (ca.isCorrect() || ca.getWeight() > 0 ? labels.getString("feedback.multipleChoice.mustBeChecked") : labels.getString("feedback.multipleChoice.mustNotBeChecked"));
             String str = "    G01.am('actn','Call JavaScript','MM_callJS(\\'question_addFeedbackText("
                     + "\\\\\\'choice" + i + "\\\\\\',"
@@ -791,8 +974,8 @@ public class SCORMExporter implements Exporter {
         resultProcessing.append(unknownResponseProcessing.toString());
         unknownResponseProcessing.setLength(0);
         /*
-        for (int i=1, n = answerList.answers().size(); i <= n; i++) {
-        ChoiceAnswer caj = (ChoiceAnswer) answerList.answers().get(i - 1);
+        for (int i=1, n = answerList.size(); i <= n; i++) {
+        ChoiceAnswer caj = (ChoiceAnswer) answerList.get(i - 1);
         String feedbackText = (caj.getFeedbackText() != null) ? caj.getFeedbackText() : caj.getText();
         resultProcessing.append("G01.am('actn','Call JavaScript','MM_callJS(\\'question_addFeedbackText(G01.e[\\\\\\'choice" +
         i+"\\\\\\'].isCorrect != G01.e[\\\\\\'choice" +
@@ -812,12 +995,12 @@ public class SCORMExporter implements Exporter {
 
 
         // Formatting parameters of the prototype
-        String html = TemplateEngine.process(htmlPrototype,//
+        exportPage(q, out, htmlPrototype,//
                 "chapter", getChapterTitle(q),
                 "title", getPageTitle(q),
                 "middot", getPageTitle(q).length() > 0 ? "&middot;" : "",
                 "stylesheet", stylesheet,
-                "question", encodeHTMLText((String) q.getBody().get(0)),
+                "question", encodeHTMLText(q.getQuestionText(0)),
                 "answer", htmlAnswer.toString(),
                 "resultProcessing", resultProcessing.toString(),
                 "footer", (q.getId() != null) ? q.getId() : "",//
@@ -833,34 +1016,18 @@ public class SCORMExporter implements Exporter {
                 "reset", labels.getString("button.reset"),
                 "next", labels.getString("button.next")//
         );
-
-        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
-        out.write(html.getBytes("UTF8"));
-
-        //System.out.println(html);
-
-        out.closeEntry();
     }
 
     private void exportMatchingPairQuestion(Question q, ZipOut out) throws IOException {
         // Get HTML Prototype
-        Reader in = null;
-        String htmlPrototype;
-        try {
-            in = new InputStreamReader(getClass().getResourceAsStream("prototype_scorm_MatchingPair.html"), "UTF8");
-            htmlPrototype = Streams.toString(in);
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
+        CompiledTemplate htmlPrototype = getPrototype("prototype_scorm_MatchingPair.html");
 
         // Get Answer list
-        AnswerList answerList = (AnswerList) q.getBody().get(1);
+        AnswerList answerList = q.getAnswerList(1);
 
         // Create an array of shuffled indices
         // We use this to randomly place the matching pair keys on the page
-        int[] shuffledIndices = new int[answerList.answers().size()];
+        int[] shuffledIndices = new int[answerList.size()];
         for (int i = 0, n = shuffledIndices.length; i < n; i++) {
             shuffledIndices[i] = i;
         }
@@ -873,14 +1040,14 @@ public class SCORMExporter implements Exporter {
 
         // Determine maximal length of the key texts
         int maxKeyTextLength = 0;
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            MatchingPairAnswer mpa = (MatchingPairAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            MatchingPairAnswer mpa = (MatchingPairAnswer) answerList.get(i - 1);
             maxKeyTextLength = Math.max(maxKeyTextLength, mpa.getKey().length());
         }
         // Determine maximal length of the value texts
         int maxValueTextLength = 0;
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            MatchingPairAnswer mpa = (MatchingPairAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            MatchingPairAnswer mpa = (MatchingPairAnswer) answerList.get(i - 1);
             maxValueTextLength = Math.max(maxValueTextLength, mpa.getValue().length());
         }
 
@@ -916,36 +1083,36 @@ public class SCORMExporter implements Exporter {
         int top;
         int height;
         int dy;
-        if (answerList.answers().size() < 4) {
+        if (answerList.size() < 4) {
             top = 80;
-            dy = 400 / answerList.answers().size();
+            dy = 400 / answerList.size();
             height = 100;
             dy = Math.max((dy / 20) * 20, 120);
-        } else if (answerList.answers().size() < 5) {
+        } else if (answerList.size() < 5) {
             top = 80;
-            dy = 400 / answerList.answers().size();
+            dy = 400 / answerList.size();
             height = 80;
             dy = Math.max((dy / 20) * 20, 100);
-        } else if (answerList.answers().size() < 6) {
+        } else if (answerList.size() < 6) {
             top = 80;
-            dy = 400 / answerList.answers().size();
+            dy = 400 / answerList.size();
             height = 60;
             dy = Math.max((dy / 20) * 20, 80);
-        } else if (answerList.answers().size() < 7) {
+        } else if (answerList.size() < 7) {
             top = 80;
-            dy = 400 / answerList.answers().size();
+            dy = 400 / answerList.size();
             height = 40;
             dy = Math.max((dy / 20) * 20, 60);
         } else {
             top = 80;
-            dy = 400 / answerList.answers().size();
+            dy = 400 / answerList.size();
             height = 20;
             dy = Math.max((dy / 20) * 20, 40);
         }
 
 
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            MatchingPairAnswer mpa = (MatchingPairAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            MatchingPairAnswer mpa = (MatchingPairAnswer) answerList.get(i - 1);
 
             int dropY = top + (i - 1) * dy;
             int dragY = top + shuffledIndices[i - 1] * dy;
@@ -973,14 +1140,14 @@ public class SCORMExporter implements Exporter {
 
         // Generate feedback text
         HashMap<MatchingPairAnswer, String> feedbackTextMap = new HashMap<MatchingPairAnswer, String>();
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            MatchingPairAnswer ca = (MatchingPairAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            MatchingPairAnswer ca = (MatchingPairAnswer) answerList.get(i - 1);
             HashSet<String> matches = new HashSet<String>();
             matches.add(ca.getValue());
             for (int j = 1; j <= n; j++) {
                 if (j != i) {
-                    MatchingPairAnswer cai = (MatchingPairAnswer) answerList.answers().get(i - 1);
-                    MatchingPairAnswer caj = (MatchingPairAnswer) answerList.answers().get(j - 1);
+                    MatchingPairAnswer cai = (MatchingPairAnswer) answerList.get(i - 1);
+                    MatchingPairAnswer caj = (MatchingPairAnswer) answerList.get(j - 1);
                     if (cai.getValue().equals(caj.getValue())
                             || cai.getKey().equals(caj.getKey())) {
                         matches.add(caj.getValue());
@@ -996,18 +1163,18 @@ public class SCORMExporter implements Exporter {
 
         // Generate Javascript code for result processing
         StringBuilder resultProcessing = new StringBuilder();
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
-            MatchingPairAnswer ca = (MatchingPairAnswer) answerList.answers().get(i - 1);
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
+            MatchingPairAnswer ca = (MatchingPairAnswer) answerList.get(i - 1);
             String feedbackText = feedbackTextMap.get(ca);
             resultProcessing.append("  Question.addPair('G01Drag" + i + "','G01Drop" + i + "','" + encodeJavaScriptStringLiteral(feedbackText) + "');\n");
         }
 
         // Generate pairs for drag objects which match with multiple drop targets
-        for (int i = 1, n = answerList.answers().size(); i <= n; i++) {
+        for (int i = 1, n = answerList.size(); i <= n; i++) {
             for (int j = 1; j <= n; j++) {
                 if (j != i) {
-                    MatchingPairAnswer cai = (MatchingPairAnswer) answerList.answers().get(i - 1);
-                    MatchingPairAnswer caj = (MatchingPairAnswer) answerList.answers().get(j - 1);
+                    MatchingPairAnswer cai = (MatchingPairAnswer) answerList.get(i - 1);
+                    MatchingPairAnswer caj = (MatchingPairAnswer) answerList.get(j - 1);
                     if (cai.getValue().equals(caj.getValue())
                             || cai.getKey().equals(caj.getKey())) {
                         String feedbackText = feedbackTextMap.get(cai);
@@ -1018,12 +1185,12 @@ public class SCORMExporter implements Exporter {
         }
 
 
-        String html = TemplateEngine.process(htmlPrototype,//
+        exportPage(q, out, htmlPrototype,//
                 "chapter", getChapterTitle(q),
                 "title", getPageTitle(q),
                 "middot", getPageTitle(q).length() > 0 ? "&middot;" : "",
                 "stylesheet", stylesheet,
-                "question", encodeHTMLText((String) q.getBody().get(0)),
+                "question", encodeHTMLText(q.getQuestionText(0)),
                 "dropFields", dropDivs.toString() + dragDivs.toString(),
                 "resultProcessing", resultProcessing.toString(),
                 "dragFields", valueDivs.toString(),
@@ -1040,13 +1207,6 @@ public class SCORMExporter implements Exporter {
                 "reset", labels.getString("button.reset"),
                 "next", labels.getString("button.next")//
         );
-
-        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
-        out.write(html.getBytes("UTF8"));
-
-        //System.out.println(html);
-
-        out.closeEntry();
     }
 
     /**
@@ -1054,16 +1214,7 @@ public class SCORMExporter implements Exporter {
      */
     private void exportClozeQuestion(Question q, ZipOut out) throws IOException {
         // Get HTML Prototype
-        Reader in = null;
-        String htmlPrototype;
-        try {
-            in = new InputStreamReader(getClass().getResourceAsStream("prototype_scorm_cloze.html"), "UTF8");
-            htmlPrototype = Streams.toString(in);
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
+        CompiledTemplate htmlPrototype = getPrototype("prototype_scorm_cloze.html");
 
         // Generate HTML code for cloze text
         StringBuilder htmlCloze = new StringBuilder();
@@ -1133,7 +1284,7 @@ public class SCORMExporter implements Exporter {
                 switch (al.getType()) {
                     case BOOL:
                         resultProcessing.append("    G01.add('text','elem" + count + "','');\n");
-                        BooleanAnswer ba = (BooleanAnswer) al.answers().getFirst();
+                        BooleanAnswer ba = (BooleanAnswer) al.get(0);
                         resultProcessing2.append("    G01.add('textComp','elem" + count + "','Response1','"
                                 + encodeJavaScriptStringLiteral(encryptClozeText(labels.getString("exporter.booleanAnswerTrue")))
                                 + "',"
@@ -1208,7 +1359,7 @@ public class SCORMExporter implements Exporter {
                 count++;
                 switch (al.getType()) {
                     case BOOL: {
-                        BooleanAnswer ba = (BooleanAnswer) al.answers().getFirst();
+                        BooleanAnswer ba = (BooleanAnswer) al.get(0);
                         String feedback = (ba.getFeedbackText() != null) ? /*"<span class=\"feedbackNegativeBullet\">"+count+".</span> "+*/ ba.getFeedbackText() : labels.getString(
                                 ba.isTrue() ? "exporter.booleanAnswerTrue" : "exporter.booleanAnswerFalse");
                         rp = "    G01.am('actn','Call JavaScript',"
@@ -1316,11 +1467,12 @@ public class SCORMExporter implements Exporter {
 
 
         // Formatting parameters of the prototype
-        String html = TemplateEngine.process(htmlPrototype,//
+        exportPage(q, out, htmlPrototype,//
                 "chapter", getChapterTitle(q),
                 "title", getPageTitle(q),
                 "middot", getPageTitle(q).length() > 0 ? "&middot;" : "",
                 "stylesheet", stylesheet,
+                "footer", (q.getId() != null) ? q.getId() : "",//
                 "clozeText", htmlCloze.toString(),
                 "resultProcessing", resultProcessing.toString(),
                 //
@@ -1335,42 +1487,26 @@ public class SCORMExporter implements Exporter {
                 "reset", labels.getString("button.reset"),
                 "next", labels.getString("button.next")//
         );
-
-        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
-        out.write(html.getBytes("UTF8"));
-
-        //System.out.println(html);
-
-        out.closeEntry();
     }
 
     private void exportExternalQuestion(Question q, ZipOut out) throws IOException {
         // Get Answer list
-        AnswerList answerList = (AnswerList) q.getBody().get(0);
-        ExternalAnswer ea = (ExternalAnswer) answerList.answers().get(0);
+        AnswerList answerList = q.getAnswerList(0);
+        ExternalAnswer ea = (ExternalAnswer) answerList.get(0);
 
     }
 
     private void exportBooleanQuestion(Question q, ZipOut out) throws IOException {
         // Get HTML Prototype
         // We use the same HTML prototype like the one for Multiple-Choice Single-Answer questions
-        Reader in = null;
-        String htmlPrototype;
-        try {
-            in = new InputStreamReader(getClass().getResourceAsStream("prototype_scorm_sc.html"), "UTF8");
-            htmlPrototype = Streams.toString(in);
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
+        CompiledTemplate htmlPrototype = getPrototype("prototype_scorm_sc.html");
 
         // Get Answer list
-        AnswerList answerList = (AnswerList) q.getBody().get(1);
+        AnswerList answerList = q.getAnswerList(1);
 
         // Generate HTML code for answer list
         StringBuilder htmlAnswer = new StringBuilder();
-        BooleanAnswer ba = (BooleanAnswer) answerList.answers().get(0);
+        BooleanAnswer ba = (BooleanAnswer) answerList.get(0);
         for (int i = 1; i <= 2; i++) {
             htmlAnswer.append("<p class=\"spacingHalf\">");
             htmlAnswer.append("<span name=\"G01choice" + i + "\" style=\"margin-left:-30px\">");
@@ -1449,12 +1585,12 @@ public class SCORMExporter implements Exporter {
 
 
         // Formatting parameters of the prototype
-        String html = TemplateEngine.process(htmlPrototype,//
+        exportPage(q, out, htmlPrototype,//
                 "chapter", getChapterTitle(q),
                 "title", getPageTitle(q),
                 "middot", getPageTitle(q).length() > 0 ? "&middot;" : "",
                 "stylesheet", stylesheet,
-                "question", encodeHTMLText((String) q.getBody().get(0)),
+                "question", encodeHTMLText(q.getQuestionText(0)),
                 "answer", htmlAnswer.toString(),
                 "resultProcessing", resultProcessing.toString(),
                 "footer", (q.getId() != null) ? q.getId() : "",//
@@ -1470,36 +1606,20 @@ public class SCORMExporter implements Exporter {
                 "reset", labels.getString("button.reset"),
                 "next", labels.getString("button.next")//
         );
-
-        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
-        out.write(html.getBytes("UTF8"));
-
-        //System.out.println(html);
-
-        out.closeEntry();
     }
 
     private void exportNoneQuestion(Question q, ZipOut out) throws IOException {
         // Get HTML Prototype
-        Reader in = null;
-        String htmlPrototype;
-        try {
-            in = new InputStreamReader(getClass().getResourceAsStream("prototype_scorm_None.html"), "UTF8");
-            htmlPrototype = Streams.toString(in);
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
+        CompiledTemplate htmlPrototype = getPrototype("prototype_scorm_None.html");
 
 
         // Formatting parameters of the prototype
-        String html = TemplateEngine.process(htmlPrototype,//
+        exportPage(q, out, htmlPrototype,//
                 "chapter", getChapterTitle(q),
                 "title", getPageTitle(q),
                 "middot", getPageTitle(q).length() > 0 ? "&middot;" : "",
                 "stylesheet", stylesheet,
-                "question", encodeHTMLText((String) q.getBody().get(0)),
+                "question", encodeHTMLText(q.getQuestionText(0)),
                 "footer", (q.getId() != null) ? q.getId() : "",//
                 //
                 "instructions.title", labels.getString("instructions.title"),
@@ -1513,19 +1633,52 @@ public class SCORMExporter implements Exporter {
                 "reset", labels.getString("button.reset"),
                 "next", labels.getString("button.next")//
         );
+    }
 
-        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
-        out.write(html.getBytes("UTF8"));
-
-        //System.out.println(html);
+    /**
+     * Returns the compiled HTML prototype with the specified resource name.
+     * The prototype is loaded and compiled only once.
+     */
+    private static CompiledTemplate getPrototype(String name) throws IOException {
+        synchronized (prototypes) {
+            CompiledTemplate prototype = prototypes.get(name);
+            if (prototype == null) {
+                Reader in = null;
+                try {
+                    in = new InputStreamReader(SCORMExporter.class.getResourceAsStream(name), "UTF8");
+                    prototype = TemplateEngine.compile(in);
+                } finally {
+                    if (in != null) {
+                        in.close();
+                    }
+                }
+                prototypes.put(name, prototype);
+            }
+            return prototype;
+        }
+    }
 
+    /**
+     * Renders the HTML page of a question into a new zip entry.
+     *
+     * @param q             the question
+     * @param out           the zip output
+     * @param htmlPrototype the prototype of the page
+     * @param keyValuePairs the values for the placeholders in the prototype
+     */
+    private void exportPage(Question q, ZipOut out, CompiledTemplate htmlPrototype, String... keyValuePairs) throws IOException {
+        out.putNextEntry(new ZipEntry(getURLid(q) + "_" + q.getDescriptiveURL() + "_sco.html"));
+        Writer w = new BufferedWriter(new OutputStreamWriter(out.getOutputStream(), "UTF8"));
+        htmlPrototype.render(w, keyValuePairs);
+        // We must not close the writer, because this would close the zip output
+        w.flush();
         out.closeEntry();
     }
 
     private void exportResources(ZipOut out) throws IOException {
         ZipIn zin = null;
         try {
-            zin = getSCORMTemplates();
+            zin = openTemplates();
             ZipFiles.rezip(zin, out, null);
         } finally {
             if (zin != null) {
@@ -1538,7 +1691,7 @@ public class SCORMExporter implements Exporter {
         // Remove external resources that conflict with the templates
         ZipIn zin = null;
         try {
-            zin = getSCORMTemplates();
+            zin = openTemplates();
             for (ZipEntry entry = zin.getNextEntry(); entry != null; entry = zin.getNextEntry()) {
                 if (externalResourceRefs.containsKey(entry.getName())) {
                     externalResourceRefs.remove(entry.getName());
@@ -1606,7 +1759,7 @@ public class SCORMExporter implements Exporter {
      * Returns null, if there is no suitable question type for SCORM.
      */
     public AnswerListType getSCORMType(Question q) {
-        LinkedList<Object> body = q.getBody();
+        List<Object> body = q.getBody();
 
         /*
         // The body must consist of at least two elements
@@ -1617,12 +1770,12 @@ public class SCORMExporter implements Exporter {
         // If the body contains one text element, or a text and a answerList
         // element, we can create the corresponding question type for
         // SCORM in most cases.
-        if (body.size() == 1 && (body.getFirst() instanceof String)) {
+        if (body.size() == 1 && (body.get(0) instanceof String)) {
             return AnswerListType.NONE;
         } else if (body.size() == 2
-                && (body.getFirst() instanceof String)
-                && (body.getLast() instanceof AnswerList)) {
-            AnswerList al = (AnswerList) body.getLast();
+                && (body.get(0) instanceof String)
+                && (body.get(body.size() - 1) instanceof AnswerList)) {
+            AnswerList al = (AnswerList) body.get(body.size() - 1);
             switch (al.getType()) {
                 case BOOL:
                     return AnswerListType.BOOL;
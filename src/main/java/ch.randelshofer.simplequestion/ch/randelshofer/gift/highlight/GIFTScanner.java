@@ -10,7 +10,9 @@ import ch.randelshofer.gui.highlight.Scanner;
  * <p>Provide a hand-written scanner for the GIFT language.
  * This scanner is used for syntax highlighting in the editor.
  *
- * @version 2.0.1 2008-12-03 The '.' character was wrongly marked as bad if it was
+ * @version 2.0.2 2026-10-18 Look up the literals TRUE, FALSE, T and F
+ * without creating a String.
+ * <br>2.0.1 2008-12-03 The '.' character was wrongly marked as bad if it was
  * located at CONTEXT_TEXTUAL_ANSWERBEGIN. Multi-line comments were wrongly
  * supported. The second new-line after a single-line comment was wrongly
  * considered as being part of the comment.
@@ -309,7 +311,7 @@ public class GIFTScanner extends Scanner implements GIFTTokenTypes {
             case CONTEXT_ANSWERLIST_BEGIN:
                 switch (type) {
                     case WORD:
-                        if (isSymbol(LITERAL, new String(buffer, begin, start - begin))) {
+                        if (isSymbol(LITERAL, buffer, begin, start - begin)) {
                             type = LITERAL;
                         } else {
                             type = ANSWER;
@@ -990,7 +992,7 @@ public class GIFTScanner extends Scanner implements GIFTTokenTypes {
         type = QUESTION;
         break;
         case CONTEXT_ANSWER :
-        if (isSymbol(LITERAL, new String(buffer, begin, start - begin))) {
+        if (isSymbol(LITERAL, buffer, begin, start - begin)) {
         type = LITERAL;
         } else {
         type = ANSWER;
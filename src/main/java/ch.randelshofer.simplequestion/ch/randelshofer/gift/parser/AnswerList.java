@@ -5,50 +5,104 @@
 
 package ch.randelshofer.gift.parser;
 
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Holds a list of answers.
+ * <p>
+ * The answers are stored in an array, and can be accessed by index with
+ * {@link #size} and {@link #get}.
  *
  * @author Werner Randelshofer
- * @version 1.1 2008-02-19 Added numeric type.
+ * @version 1.3 2026-10-18 Implement QuestionSegment. The list can only be
+ * changed by the parser.
+ * <br>1.2 2026-10-18 Store the answers in an array instead of a
+ * LinkedList.
+ * <br>1.1 2008-02-19 Added numeric type.
  * <br>1.0 28. April 2006 Created.
  */
-public class AnswerList {
-    private LinkedList<Answer> answers;
+public class AnswerList implements QuestionSegment {
+    private static final Answer[] NO_ANSWERS = new Answer[0];
+
+    private Answer[] answers;
+    private int size;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance. Answer lists are created by the parser.
      */
-    public AnswerList() {
-        answers = new LinkedList<Answer>();
+    AnswerList() {
+        answers = NO_ANSWERS;
     }
 
-    public void add(Answer answer) throws IllegalArgumentException {
+    /**
+     * Adds an answer, if it can be in the same list as the other answers.
+     * This is only used while the question is built.
+     */
+    void add(Answer answer) {
         if (canBeInGroup(answer)) {
-            answers.add(answer);
+            if (size == answers.length) {
+                answers = Arrays.copyOf(answers, Math.max(4, size * 2));
+            }
+            answers[size++] = answer;
         }
     }
 
-    public LinkedList<Answer> answers() {
-        return answers;
+    /**
+     * Returns an unmodifiable view of the answers.
+     */
+    public List<Answer> answers() {
+        return new AnswerView();
     }
 
+    /**
+     * Returns the number of answers.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the answer at the specified index.
+     */
+    public Answer get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+        return answers[index];
+    }
+
+    /**
+     * Releases the unused capacity of the list. This is called when the
+     * question which holds the list has been built.
+     */
+    void trimToSize() {
+        if (size < answers.length) {
+            answers = size == 0 ? NO_ANSWERS : Arrays.copyOf(answers, size);
+        }
+    }
 
     public boolean canBeInGroup(Answer answer) {
-        for (Answer a : answers) {
-            if (!a.canBeInSameList(answer)) {
+        for (int i = 0; i < size; i++) {
+            if (!answers[i].canBeInSameList(answer)) {
                 return false;
             }
         }
         return true;
     }
 
+    @Override
+    public boolean isAnswerList() {
+        return true;
+    }
+
     public AnswerListType getType() {
-        if (answers.size() == 0) {
+        if (size == 0) {
             return AnswerListType.ESSAY;
         }
-        Answer answer = answers.getFirst();
+        Answer answer = answers[0];
         if (answer instanceof BooleanAnswer) {
             return AnswerListType.BOOL;
         }
@@ -62,8 +116,8 @@ public class AnswerList {
             int correctAnswerCount = 0;
             int incorrectAnswerCount = 0;
             int partiallyCorrectAnswerCount = 0;
-            for (Answer a : answers) {
-                ChoiceAnswer ta = (ChoiceAnswer) a;
+            for (int i = 0; i < size; i++) {
+                ChoiceAnswer ta = (ChoiceAnswer) answers[i];
                 if (ta.isCorrect()) {
                     correctAnswerCount++;
                 } else if (ta.getWeight() > 0) {
@@ -72,7 +126,7 @@ public class AnswerList {
                     incorrectAnswerCount++;
                 }
             }
-            if (correctAnswerCount == answers.size()) {
+            if (correctAnswerCount == size) {
                 //if (incorrectAnswerCount == 0 && partiallyCorrectAnswerCount == 0) {
                 return AnswerListType.CLOZE;
             } else if (correctAnswerCount == 1 /*&& partiallyCorrectAnswerCount == 0*/) {
@@ -90,6 +144,21 @@ public class AnswerList {
 
 
     public String toString() {
-        return answers.toString();
+        return answers().toString();
+    }
+
+    /**
+     * A read-only view of the answers.
+     */
+    private class AnswerView extends AbstractList<Answer> implements RandomAccess {
+        @Override
+        public Answer get(int index) {
+            return AnswerList.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
     }
 }
@@ -0,0 +1,295 @@
+/*
+ * @(#)GIFTLexer.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+/**
+ * A lexer for the Moodle GIFT Format which scans a character array
+ * directly.
+ * <p>
+ * The lexer produces the same token stream, including the start and end
+ * positions, as the {@code org.jhotdraw.io.StreamPosTokenizer} setup that
+ * {@link GIFTParser} used in version 1.3.1. Word tokens are not
+ * materialized as Strings: a token is described by its type, its offset
+ * and its length in the character array.
+ * <p>
+ * Positions are indices into the character array. If the lexer has been
+ * created with an offset, the positions are therefore relative to the
+ * start of the array and not to the start of the scanned region.
+ * <p>
+ * The end position of a token is the index of its last character. The
+ * {@code TT_EOF} token is an empty token after the last scanned character:
+ * its start position is the end of the scanned region, and its end position
+ * is one less.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 The TT_EOF token is always located after the last
+ * character.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class GIFTLexer implements GIFTTokenizer {
+    private static final byte CT_ORDINARY = 0;
+    private static final byte CT_WHITESPACE = 1;
+    private static final byte CT_ALPHA = 4;
+    /**
+     * A constant indicating that no token has been read yet.
+     */
+    private static final int TT_NOTHING = -4;
+
+    /**
+     * Character types for the characters 0 to 255. All other characters are
+     * word characters.
+     */
+    private static final byte[] CTYPE = new byte[256];
+
+    static {
+        whitespaceChars(0, 31);
+        wordChars('!', '"');
+        wordChars('$', '$');
+        wordChars('&', ',');
+        wordChars('0', '<');
+        wordChars('?', '[');
+        wordChars(']', 'z');
+        wordChars('|', '|');
+        wordChars(0x00a1, 0x00ff);
+        CTYPE[':'] = CT_ORDINARY;
+    }
+
+    private final char[] buf;
+    /**
+     * Index of the next character to be scanned.
+     */
+    private int pos;
+    /**
+     * Index after the last character to be scanned.
+     */
+    private final int end;
+    /**
+     * Set to true after a '\r' line break. If the next character is a '\n',
+     * it belongs to the same line break.
+     */
+    private boolean skipLF;
+    private boolean pushedBack;
+    private int ttype = TT_NOTHING;
+    private int startpos = -1;
+    private int endpos = -1;
+    private int lineno = 1;
+
+    /**
+     * Creates a new instance which scans the specified text.
+     */
+    public GIFTLexer(CharSequence text) {
+        this(toCharArray(text), 0, text.length());
+    }
+
+    /**
+     * Creates a new instance which scans the specified region of a character
+     * array. The array is not copied.
+     *
+     * @param buf    the characters
+     * @param offset the index of the first character to be scanned
+     * @param length the number of characters to be scanned
+     */
+    public GIFTLexer(char[] buf, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buf.length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", buf.length=" + buf.length);
+        }
+        this.buf = buf;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    private static char[] toCharArray(CharSequence text) {
+        if (text instanceof String) {
+            return ((String) text).toCharArray();
+        }
+        char[] chars = new char[text.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = text.charAt(i);
+        }
+        return chars;
+    }
+
+    private static void wordChars(int low, int hi) {
+        while (low <= hi) {
+            CTYPE[low++] = CT_ALPHA;
+        }
+    }
+
+    private static void whitespaceChars(int low, int hi) {
+        while (low <= hi) {
+            CTYPE[low++] = CT_WHITESPACE;
+        }
+    }
+
+    private static int ctype(char c) {
+        return c < 256 ? CTYPE[c] : CT_ALPHA;
+    }
+
+    @Override
+    public int nextToken() {
+        if (pushedBack) {
+            pushedBack = false;
+            return ttype;
+        }
+        if (skipLF) {
+            skipLF = false;
+            if (pos < end && buf[pos] == '\n') {
+                pos++;
+            }
+        }
+
+        while (true) {
+            if (pos >= end) {
+                return eof();
+            }
+            char c = buf[pos];
+            int ct = ctype(c);
+
+            while (ct == CT_WHITESPACE) {
+                if (c == '\r' || c == '\n') {
+                    lineno++;
+                    skipLF = c == '\r';
+                    startpos = endpos = pos++;
+                    return ttype = TT_EOL;
+                }
+                if (++pos >= end) {
+                    return eof();
+                }
+                c = buf[pos];
+                ct = ctype(c);
+            }
+
+            startpos = pos;
+
+            if (ct == CT_ALPHA) {
+                int i = pos + 1;
+                while (i < end && ctype(buf[i]) == CT_ALPHA) {
+                    i++;
+                }
+                endpos = i - 1;
+                pos = i;
+                return ttype = TT_WORD;
+            }
+
+            if (c == '/') {
+                if (pos + 1 < end && buf[pos + 1] == '/') {
+                    // Skip the comment up to the end of the line
+                    pos += 2;
+                    while (pos < end && buf[pos] != '\n' && buf[pos] != '\r') {
+                        pos++;
+                    }
+                    continue;
+                }
+                // StreamPosTokenizer computes the end position of a
+                // slash from the lookahead character
+                endpos = pos + 1 < end ? pos : pos - 1;
+                pos++;
+                return ttype = '/';
+            }
+
+            endpos = pos++;
+            return ttype = c;
+        }
+    }
+
+    /**
+     * The end of the text is an empty token after the last character.
+     */
+    private int eof() {
+        startpos = end;
+        endpos = end - 1;
+        return ttype = TT_EOF;
+    }
+
+    @Override
+    public void pushBack() {
+        if (ttype != TT_NOTHING) {
+            pushedBack = true;
+        }
+    }
+
+    @Override
+    public int getTokenType() {
+        return ttype;
+    }
+
+    @Override
+    public int lineno() {
+        return lineno;
+    }
+
+    /**
+     * Sets the line number of the first line. This is used when the lexer
+     * scans a region which does not start at the beginning of a text.
+     * The default value is 1.
+     */
+    public void setLineNumber(int newValue) {
+        lineno = newValue;
+    }
+
+    @Override
+    public int getStartPosition() {
+        return startpos;
+    }
+
+    @Override
+    public int getEndPosition() {
+        return endpos;
+    }
+
+    /**
+     * Returns the index of the first character of the current token in the
+     * character array.
+     */
+    public int getTokenOffset() {
+        return startpos;
+    }
+
+    /**
+     * Returns the number of characters of the current token.
+     */
+    public int getTokenLength() {
+        switch (ttype) {
+            case TT_NOTHING:
+            case TT_EOF:
+                return 0;
+            case TT_WORD:
+                return endpos - startpos + 1;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Returns the character array that is being scanned.
+     */
+    public char[] getBuffer() {
+        return buf;
+    }
+
+    @Override
+    public void appendStringValue(StringBuilder buf) {
+        buf.append(this.buf, startpos, endpos - startpos + 1);
+    }
+
+    @Override
+    public boolean isStringValue(String str) {
+        int len = endpos - startpos + 1;
+        if (str.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (buf[startpos + i] != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String getStringValue() {
+        return new String(buf, startpos, endpos - startpos + 1);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * @(#)GIFTParseException.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import ch.randelshofer.io.ParseException;
+
+/**
+ * This exception is thrown by {@link GIFTParser}, when it encounters a
+ * syntax error.
+ * <p>
+ * In addition to the localized message and the position of the invalid
+ * token, the exception holds the key of the message in the
+ * {@code ch/randelshofer/gift/Labels} resource bundle.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Keep the arguments of the message, so that the
+ * parser can move the error to another line.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class GIFTParseException extends ParseException {
+    static final long serialVersionUID = 1L;
+
+    private final String messageKey;
+    /**
+     * The arguments of the message, or null. The last argument is the line
+     * number.
+     */
+    private final Object[] arguments;
+
+    /**
+     * Constructs a GIFTParseException.
+     *
+     * @param messageKey the resource bundle key of the message.
+     * @param msg        the localized detail message.
+     * @param startpos   the start position of the invalid token.
+     * @param endpos     the end position of the invalid token.
+     */
+    public GIFTParseException(String messageKey, String msg, int startpos, int endpos) {
+        this(messageKey, null, msg, startpos, endpos);
+    }
+
+    /**
+     * Constructs a GIFTParseException with the arguments of the message.
+     * The last argument is the line number.
+     */
+    GIFTParseException(String messageKey, Object[] arguments, String msg, int startpos, int endpos) {
+        super(msg, startpos, endpos);
+        this.messageKey = messageKey;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Returns the arguments of the message, or null.
+     */
+    Object[] getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Returns the resource bundle key of the message.
+     */
+    public String getMessageKey() {
+        return messageKey;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * @(#)GIFTParseResult.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the result of {@link GIFTParser#parseRecovering}: the questions
+ * which could be parsed, and the syntax errors of the questions which
+ * could not be parsed.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class GIFTParseResult {
+    private final List<Question> questions;
+    private final List<GIFTParseException> errors;
+
+    /**
+     * Creates a new instance.
+     */
+    public GIFTParseResult(List<Question> questions, List<GIFTParseException> errors) {
+        this.questions = Collections.unmodifiableList(new ArrayList<Question>(questions));
+        this.errors = Collections.unmodifiableList(new ArrayList<GIFTParseException>(errors));
+    }
+
+    /**
+     * Returns the successfully parsed questions in document order.
+     */
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    /**
+     * Returns the syntax errors in document order. There is at most one
+     * error per question.
+     */
+    public List<GIFTParseException> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns true if the document has syntax errors.
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
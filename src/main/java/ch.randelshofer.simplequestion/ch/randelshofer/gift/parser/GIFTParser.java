@@ -4,7 +4,6 @@
  */
 package ch.randelshofer.gift.parser;
 
-import org.jhotdraw.io.StreamPosTokenizer;
 import org.jhotdraw.util.ResourceBundleUtil;
 
 import java.io.IOException;
@@ -13,16 +12,24 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ResourceBundle;
 import java.util.StringTokenizer;
+import java.util.concurrent.ForkJoinPool;
 
-import static org.jhotdraw.io.StreamPosTokenizer.TT_EOF;
-import static org.jhotdraw.io.StreamPosTokenizer.TT_EOL;
-import static org.jhotdraw.io.StreamPosTokenizer.TT_WORD;
+import static ch.randelshofer.gift.parser.GIFTTokenizer.TT_EOF;
+import static ch.randelshofer.gift.parser.GIFTTokenizer.TT_EOL;
+import static ch.randelshofer.gift.parser.GIFTTokenizer.TT_WORD;
 
 /**
  * A parser for questions in the Moodle GIFT Format.
  *
  * @author Werner Randelshofer
- * @version 1.3.1 2008-12-03 The character immediately following a colon in a
+ * @version 1.8 2026-10-18 Added deriveError.
+ * <br>1.7 2026-10-18 Build questions with QuestionBuilder.
+ * <br>1.6 2026-10-18 Added parseParallel and parseRecoveringParallel.
+ * <br>1.5 2026-10-18 Added parseRecovering. Fixed endless loop in
+ * parseExternalAnswerList at the end of a line.
+ * <br>1.4 2026-10-18 Scan the text with GIFTLexer instead of
+ * StreamPosTokenizer.
+ * <br>1.3.1 2008-12-03 The character immediately following a colon in a
  * question was suppressed due to the next token being looked ahead but not
  * being pushed back.
  * <br>1.3 2008-02-22 Fixed endless loops in parseExternalAnswerList and
@@ -37,6 +44,28 @@ import static org.jhotdraw.io.StreamPosTokenizer.TT_WORD;
 public class GIFTParser {
 
     private ResourceBundleUtil labels;
+    /**
+     * Set to true to scan the text with the StreamPosTokenizer that was
+     * used up to version 1.3.1.
+     */
+    private boolean isLegacyTokenizer;
+
+    /**
+     * Receives the questions of a text one at a time, in document order.
+     */
+    interface QuestionHandler {
+        /**
+         * Is invoked after a question has been parsed.
+         *
+         * @param q              the question, or null if the question has a
+         *                       syntax error
+         * @param error          the syntax error, or null
+         * @param resumePosition the position after the blank line that
+         *                       terminates the question, or -1 if the
+         *                       question is terminated by the end of the text
+         */
+        void questionParsed(Question q, GIFTParseException error, int resumePosition) throws IOException;
+    }
 
     /**
      * Creates a new instance.
@@ -45,57 +74,197 @@ public class GIFTParser {
         labels = new ResourceBundleUtil(ResourceBundle.getBundle("ch/randelshofer/gift/Labels"));
     }
 
+    /**
+     * If set to true, the parser scans the text with a
+     * {@code StreamPosTokenizer} instead of a {@link GIFTLexer}.
+     * Both produce the same questions, the legacy tokenizer is kept
+     * for comparison.
+     */
+    public void setLegacyTokenizer(boolean newValue) {
+        isLegacyTokenizer = newValue;
+    }
+
+    public boolean isLegacyTokenizer() {
+        return isLegacyTokenizer;
+    }
+
     /**
      * Parses a GIFT text.
      */
     public List<Question> parse(String text) throws IOException {
-        StreamPosTokenizer st = new StreamPosTokenizer(new StringReader(text));
-        st.resetSyntax();
-        st.whitespaceChars(0, 31);
-        st.ordinaryChar(' ');
-        st.wordChars('!', '"');
-        st.ordinaryChar('#');
-        st.wordChars('$', '$');
-        st.ordinaryChar('%');
-        st.wordChars('&', ',');
-        st.ordinaryChar('-');
-        st.ordinaryChar('.');
-        st.ordinaryChar('/');
-        st.wordChars('0', '<');
-        st.ordinaryChar('=');
-        st.ordinaryChar('>');
-        st.wordChars('?', '[');
-        st.ordinaryChar('\\');
-        st.wordChars(']', 'z');
-        st.ordinaryChar('{');
-        st.wordChars('|', '|');
-        st.ordinaryChar('}');
-        st.wordChars(0x00a1, 0xffff);
-        st.ordinaryChar('~');
-        st.ordinaryChar(':');
-        st.slashSlashComments(true);
-        st.eolIsSignificant(true);
-
-        LinkedList<Question> result = new LinkedList<Question>();
+        GIFTTokenizer st = isLegacyTokenizer
+                ? new StreamPosGIFTTokenizer(new StringReader(text))
+                : new GIFTLexer(text);
+        return parse(st);
+    }
+
+    /**
+     * Parses a GIFT text which is stored in the specified region of a
+     * character array. The start and end positions of the questions are
+     * indices into the array.
+     */
+    public List<Question> parse(char[] buf, int offset, int length) throws IOException {
+        return parse(new GIFTLexer(buf, offset, length));
+    }
+
+    /**
+     * Parses a GIFT text and recovers from syntax errors.
+     * <p>
+     * If a question contains a syntax error, the parser records the error
+     * and resumes parsing after the next blank line. The text is parsed
+     * only once, regardless of the number of errors.
+     */
+    public GIFTParseResult parseRecovering(String text) throws IOException {
+        GIFTTokenizer st = isLegacyTokenizer
+                ? new StreamPosGIFTTokenizer(new StringReader(text))
+                : new GIFTLexer(text);
+        LinkedList<GIFTParseException> errors = new LinkedList<GIFTParseException>();
+        List<Question> questions = parse(st, errors);
+        return new GIFTParseResult(questions, errors);
+    }
+
+    /**
+     * Parses a GIFT text in parallel on the common {@link ForkJoinPool}.
+     * <p>
+     * The result is identical to the result of {@link #parse(String)}.
+     * The text is always scanned with a {@link GIFTLexer}.
+     */
+    public List<Question> parseParallel(String text) throws IOException {
+        return parseParallel(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a GIFT text in parallel on the specified pool.
+     * <p>
+     * The text is split into chunks at the blank lines between questions.
+     * The result is identical to the result of {@link #parse(String)}.
+     */
+    public List<Question> parseParallel(String text, ForkJoinPool pool) throws IOException {
+        return new ParallelGIFTParser(this, pool, ParallelGIFTParser.DEFAULT_MIN_CHUNK_SIZE)
+                .parse(text, null);
+    }
+
+    /**
+     * Parses a GIFT text in parallel on the common {@link ForkJoinPool}, and
+     * recovers from syntax errors.
+     * <p>
+     * The result is identical to the result of {@link #parseRecovering}.
+     */
+    public GIFTParseResult parseRecoveringParallel(String text) throws IOException {
+        return parseRecoveringParallel(text, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a GIFT text in parallel on the specified pool, and recovers
+     * from syntax errors.
+     * <p>
+     * The result is identical to the result of {@link #parseRecovering}.
+     */
+    public GIFTParseResult parseRecoveringParallel(String text, ForkJoinPool pool) throws IOException {
+        LinkedList<GIFTParseException> errors = new LinkedList<GIFTParseException>();
+        List<Question> questions = new ParallelGIFTParser(this, pool, ParallelGIFTParser.DEFAULT_MIN_CHUNK_SIZE)
+                .parse(text, errors);
+        return new GIFTParseResult(questions, errors);
+    }
+
+    private List<Question> parse(GIFTTokenizer st) throws IOException {
+        return parse(st, null);
+    }
+
+    /**
+     * Parses all questions.
+     *
+     * @param st     the tokenizer
+     * @param errors if this list is non-null, syntax errors are added to it
+     *               and parsing continues with the next question. If it is
+     *               null, the first syntax error is thrown.
+     */
+    private List<Question> parse(GIFTTokenizer st, final List<GIFTParseException> errors) throws IOException {
+        final LinkedList<Question> result = new LinkedList<Question>();
+
+        parseQuestions(st, new QuestionHandler() {
+            @Override
+            public void questionParsed(Question q, GIFTParseException error, int resumePosition) throws IOException {
+                if (error != null) {
+                    if (errors == null) {
+                        throw error;
+                    }
+                    errors.add(error);
+                } else {
+                    //System.out.println(q);
+                    //System.out.flush();
+                    result.add(q.derive("" + (result.size() + 1), 0));
+                }
+            }
+        });
 
+        return result;
+    }
+
+    /**
+     * Parses all questions and passes them one at a time to the handler.
+     * <p>
+     * If a question has a syntax error, the parser skips to the next blank
+     * line, and passes the error to the handler.
+     */
+    void parseQuestions(GIFTTokenizer st, QuestionHandler handler) throws IOException {
         while (st.nextToken() != TT_EOF) {
-            switch (st.ttype) {
+            switch (st.getTokenType()) {
                 case TT_EOL:
                     // we consume the end of line
                     break;
                 default:
                     st.pushBack();
                     skipWhitespace(st);
-                    Question q = parseQuestion(st);
-                    //System.out.println(q);
-                    //System.out.flush();
-                    result.add(q);
-                    q.setId("" + result.size());
+                    Question q = null;
+                    GIFTParseException error = null;
+                    try {
+                        q = parseQuestion(st);
+                    } catch (GIFTParseException e) {
+                        error = e;
+                        skipToBlankLine(st);
+                    }
+                    // The question ends either with a blank line or with
+                    // the end of the text.
+                    int resumePosition = st.getTokenType() == TT_EOF ? -1 : st.getEndPosition() + 1;
+                    handler.questionParsed(q, error, resumePosition);
                     break;
             }
         }
+    }
 
-        return result;
+    /**
+     * Skips all tokens up to and including the next blank line. This is
+     * used to resynchronize with the start of the next question after a
+     * syntax error.
+     */
+    private void skipToBlankLine(GIFTTokenizer st) throws IOException {
+        // The current token may have been pushed back. We recognize it
+        // by its position, so that we do not count it twice.
+        int eolPosition = st.getTokenType() == TT_EOL ? st.getStartPosition() : -2;
+        boolean isBlankLine = eolPosition != -2;
+        while (true) {
+            switch (st.nextToken()) {
+                case TT_EOF:
+                    st.pushBack();
+                    return;
+                case TT_EOL:
+                    if (st.getStartPosition() == eolPosition) {
+                        break;
+                    }
+                    if (isBlankLine) {
+                        return;
+                    }
+                    eolPosition = st.getStartPosition();
+                    isBlankLine = true;
+                    break;
+                case ' ':
+                    break;
+                default:
+                    isBlankLine = false;
+                    break;
+            }
+        }
     }
 
     /**
@@ -108,8 +277,8 @@ public class GIFTParser {
      * text ::= {word}
      * answerList ::= {answer} "}"
      */
-    private Question parseQuestion(StreamPosTokenizer st) throws IOException {
-        Question question = new Question();
+    private Question parseQuestion(GIFTTokenizer st) throws IOException {
+        QuestionBuilder question = new QuestionBuilder();
         // We build question texts using this StringBuilder
         StringBuilder text = new StringBuilder();
         StringBuilder whitespace = new StringBuilder();
@@ -119,7 +288,7 @@ public class GIFTParser {
         question.setStartPosition(st.getStartPosition());
         question.setEndPosition(st.getEndPosition());
 
-        switch (st.ttype) {
+        switch (st.getTokenType()) {
             case ':':
                 if (st.nextToken() == ':') {
                     question.setTitle(parseTitle(st));
@@ -144,7 +313,7 @@ public class GIFTParser {
                 case TT_WORD:
                     text.append(whitespace.toString());
                     whitespace.setLength(0);
-                    text.append(st.sval);
+                    st.appendStringValue(text);
                     break;
                 case TT_EOL:
                     //skipWhitespace(st);
@@ -165,11 +334,11 @@ public class GIFTParser {
                     if (st.nextToken() >= 0) {
                         text.append(whitespace.toString());
                         whitespace.setLength(0);
-                        text.append((char) st.ttype);
+                        text.append((char) st.getTokenType());
                     } else {
                         //st.pushBack();
                         //text.append('\\');
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalEscapeSequence", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.illegalEscapeSequence", st.getStartPosition(), st.getEndPosition(), st.lineno());
                     }
                     break;
                 case '{':
@@ -185,10 +354,10 @@ public class GIFTParser {
                     question.addAnswerList(answerList);
                     break;
                 case '}':
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                 case ':':
                     if (st.nextToken() == ':') {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                     }
                     st.pushBack();
                     text.append(whitespace.toString());
@@ -196,12 +365,12 @@ public class GIFTParser {
                     text.append(':');
                     break;
                 default:
-                    if (st.ttype <= ' ') {
-                        whitespace.append((char) st.ttype);
+                    if (st.getTokenType() <= ' ') {
+                        whitespace.append((char) st.getTokenType());
                     } else {
                         text.append(whitespace.toString());
                         whitespace.setLength(0);
-                        text.append((char) st.ttype);
+                        text.append((char) st.getTokenType());
                     }
                     break;
             }
@@ -211,7 +380,7 @@ public class GIFTParser {
             whitespace.setLength(0);
             question.addQuestionText(eliminateFullStopLines(text.toString()));
         }
-        return question;
+        return question.build();
     }
 
     /**
@@ -221,27 +390,27 @@ public class GIFTParser {
      * <p>
      * title ::= [{word}] "::"
      */
-    private String parseTitle(StreamPosTokenizer st) throws IOException {
+    private String parseTitle(GIFTTokenizer st) throws IOException {
         StringBuilder title = new StringBuilder();
 
         whileLoop:
         while (true) {
             switch (st.nextToken()) {
                 case TT_WORD:
-                    title.append(st.sval);
+                    st.appendStringValue(title);
                     break;
                 case TT_EOL:
                     title.append('\n');
                     break;
                 case TT_EOF:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOFInTitle", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.unexpectedEOFInTitle", st.getStartPosition(), st.getEndPosition(), st.lineno());
                     //break; not reached
                 case '\\':
                     // Treat next special char like ordinary char
                     if (st.nextToken() >= 0) {
-                        title.append((char) st.ttype);
+                        title.append((char) st.getTokenType());
                     } else {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalEscapeSequence", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.illegalEscapeSequence", st.getStartPosition(), st.getEndPosition(), st.lineno());
                     }
                     break;
                 case ':':
@@ -254,9 +423,9 @@ public class GIFTParser {
                     break;
                 case '{':
                 case '}':
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                 default:
-                    title.append((char) st.ttype);
+                    title.append((char) st.getTokenType());
                     break;
             }
         }
@@ -273,7 +442,7 @@ public class GIFTParser {
      * textualAnswerList = {textualAnswer} "}"
      * numericalAnswerList = {numericalAnswer} "}"
      */
-    private AnswerList parseAnswerList(StreamPosTokenizer st) throws IOException {
+    private AnswerList parseAnswerList(GIFTTokenizer st) throws IOException {
         skipWhitespace(st);
 
         AnswerList answerList;
@@ -303,7 +472,7 @@ public class GIFTParser {
      * <p>
      * textualAnswerList = {textualAnswer} "}"
      */
-    private AnswerList parseTextualAnswerList(StreamPosTokenizer st) throws IOException {
+    private AnswerList parseTextualAnswerList(GIFTTokenizer st) throws IOException {
         AnswerList answerList = new AnswerList();
         StringBuilder text = new StringBuilder();
 
@@ -319,7 +488,7 @@ public class GIFTParser {
                     Answer answer = parseTextualAnswer(st);
                     int endPosition = st.getEndPosition();
                     if (!answerList.canBeInGroup(answer)) {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalAnswerCombination", answer.toString(), lineno), startPosition, endPosition);
+                        throw parseError("parser.illegalAnswerCombination", startPosition, endPosition, answer.toString(), lineno);
                     }
                     answerList.add(answer);
                     break;
@@ -335,15 +504,15 @@ public class GIFTParser {
      * <p>
      * numericalAnswerList = {numericalAnswer} "}"
      */
-    private AnswerList parseNumericalAnswerList(StreamPosTokenizer st) throws IOException {
+    private AnswerList parseNumericalAnswerList(GIFTTokenizer st) throws IOException {
         AnswerList answerList = new AnswerList();
         StringBuilder text = new StringBuilder();
 
         whileLoop:
         while (true) {
             switch (st.nextToken()) {
-                case StreamPosTokenizer.TT_EOF:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOF", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                case TT_EOF:
+                    throw parseError("parser.unexpectedEOF", st.getStartPosition(), st.getEndPosition(), st.lineno());
 
                 case '}':
                     break whileLoop;
@@ -363,15 +532,18 @@ public class GIFTParser {
      * <p>
      * externalAnswerList = externalAnswer "}"
      */
-    private AnswerList parseExternalAnswerList(StreamPosTokenizer st) throws IOException {
+    private AnswerList parseExternalAnswerList(GIFTTokenizer st) throws IOException {
         AnswerList answerList = new AnswerList();
         StringBuilder text = new StringBuilder();
 
         whileLoop:
         while (true) {
             switch (st.nextToken()) {
-                case StreamPosTokenizer.TT_EOF:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOF", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                case TT_EOF:
+                    throw parseError("parser.unexpectedEOF", st.getStartPosition(), st.getEndPosition(), st.lineno());
+                case TT_EOL:
+                    // parseExternalAnswer stops at the end of a line
+                    break;
                 case '}':
                     break whileLoop;
                 default:
@@ -394,17 +566,16 @@ public class GIFTParser {
      * matchingPairAnswer ::= ("=") weight {word} "-" ">" {word} ["#" feedbackComment]
      * weight ::= ["%" number "%"]
      */
-    private Answer parseTextualAnswer(StreamPosTokenizer st) throws IOException {
+    private Answer parseTextualAnswer(GIFTTokenizer st) throws IOException {
         Answer answer;
 
         skipWhitespace(st);
 
         switch (st.nextToken()) {
             case TT_WORD:
-                String w = st.sval;
-                if (w.equals("T") || w.equals("TRUE")) {
+                if (st.isStringValue("T") || st.isStringValue("TRUE")) {
                     answer = new BooleanAnswer(true);
-                } else if (w.equals("F") || w.equals("FALSE")) {
+                } else if (st.isStringValue("F") || st.isStringValue("FALSE")) {
                     answer = new BooleanAnswer(false);
                 } else {
                     st.pushBack();
@@ -430,7 +601,7 @@ public class GIFTParser {
                 break;
 
             default:
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
         }
         return answer;
     }
@@ -445,7 +616,7 @@ public class GIFTParser {
      * weight ::= ["%" number "%"]
      * feedbackComment ::= {word} // until "=","~","}"
      */
-    private Answer parseChoiceAnswerOrMatchingPairAnswer(StreamPosTokenizer st) throws IOException {
+    private Answer parseChoiceAnswerOrMatchingPairAnswer(GIFTTokenizer st) throws IOException {
         boolean isCorrect;
         boolean isMatchingPairAnswer = false;
         int correctnessTokenStartPos = -1;
@@ -460,14 +631,14 @@ public class GIFTParser {
                 correctnessTokenStartPos = st.getStartPosition();
                 correctnessTokenEndPos = st.getEndPosition();
                 correctnessTokenLineno = st.lineno();
-                correctnessToken = (char) st.ttype;
+                correctnessToken = (char) st.getTokenType();
                 isCorrect = false;
                 break;
             case '=':
                 correctnessTokenStartPos = st.getStartPosition();
                 correctnessTokenEndPos = st.getEndPosition();
                 correctnessTokenLineno = st.lineno();
-                correctnessToken = (char) st.ttype;
+                correctnessToken = (char) st.getTokenType();
                 isCorrect = true;
                 break;
             case '\\':
@@ -480,7 +651,7 @@ public class GIFTParser {
                 //throw new ch.randelshofer.io.ParseException("Illegal choice answer \""+st.sval+"\" at "+st.lineno(), st.getStartPosition(), st.getEndPosition());
                 break;
             default:
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
         }
 
         int weight = parseWeight(st);
@@ -494,20 +665,20 @@ public class GIFTParser {
                 case TT_WORD:
                     text.append(whitespace.toString());
                     whitespace.setLength(0);
-                    text.append(st.sval);
+                    st.appendStringValue(text);
                     break;
                 case TT_EOL:
                     whitespace.append('\n');
                     break;
                 case TT_EOF:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOFInChoice", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.unexpectedEOFInChoice", st.getStartPosition(), st.getEndPosition(), st.lineno());
                     //break; not reached
                 case '\\':
                     // Treat next special char like ordinary char
                     if (st.nextToken() >= 0) {
                         text.append(whitespace.toString());
                         whitespace.setLength(0);
-                        text.append((char) st.ttype);
+                        text.append((char) st.getTokenType());
                     } else {
                         st.pushBack();
                         //throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalEscapeSequence", st.lineno()), st.getStartPosition(), st.getEndPosition());
@@ -517,7 +688,7 @@ public class GIFTParser {
                     if (st.nextToken() == '>') {
                         isMatchingPairAnswer = true;
                         if (text.length() == 0) {
-                            throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.missingMatchingPairText", st.lineno()), st.getStartPosition() - 1, st.getEndPosition());
+                            throw parseError("parser.missingMatchingPairText", st.getStartPosition() - 1, st.getEndPosition(), st.lineno());
                         }
                         skipWhitespace(st);
                         break whileLoop;
@@ -537,11 +708,11 @@ public class GIFTParser {
                     break;
                 case '{':
                 case '%':
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                 default:
                     text.append(whitespace.toString());
                     whitespace.setLength(0);
-                    text.append((char) st.ttype);
+                    text.append((char) st.getTokenType());
                     break;
             }
         }
@@ -550,7 +721,7 @@ public class GIFTParser {
 
         if (isMatchingPairAnswer) {
             if (!isCorrect) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalMatchingPair", "" + correctnessToken, correctnessTokenLineno), correctnessTokenStartPos, correctnessTokenEndPos);
+                throw parseError("parser.illegalMatchingPair", correctnessTokenStartPos, correctnessTokenEndPos, "" + correctnessToken, correctnessTokenLineno);
             }
 
             MatchingPairAnswer answer = new MatchingPairAnswer();
@@ -566,22 +737,22 @@ public class GIFTParser {
                     case TT_WORD:
                         text.append(whitespace.toString());
                         whitespace.setLength(0);
-                        text.append(st.sval);
+                        st.appendStringValue(text);
                         break;
                     case TT_EOL:
                         whitespace.append('\n');
                         break;
                     case TT_EOF:
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOFInMatchingPair", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.unexpectedEOFInMatchingPair", st.getStartPosition(), st.getEndPosition(), st.lineno());
                         //break; not reatched
                     case '\\':
                         // Treat next special char like ordinary char
                         if (st.nextToken() >= 0) {
                             text.append(whitespace.toString());
                             whitespace.setLength(0);
-                            text.append((char) st.ttype);
+                            text.append((char) st.getTokenType());
                         } else {
-                            throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalEscapeSequence", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                            throw parseError("parser.illegalEscapeSequence", st.getStartPosition(), st.getEndPosition(), st.lineno());
                         }
                         break;
                     case '~':
@@ -592,7 +763,7 @@ public class GIFTParser {
                         break whileLoop;
                     case '-':
                         if (st.nextToken() == '>') {
-                            throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", "->", st.lineno()), st.getStartPosition() - 1, st.getEndPosition());
+                            throw parseError("parser.illegalCharacter", st.getStartPosition() - 1, st.getEndPosition(), "->", st.lineno());
                         } else {
                             text.append('-');
                             st.pushBack();
@@ -604,12 +775,12 @@ public class GIFTParser {
                     default:
                         text.append(whitespace.toString());
                         whitespace.setLength(0);
-                        text.append((char) st.ttype);
+                        text.append((char) st.getTokenType());
                         break;
                 }
             }
             if (text.length() == 0) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.missingMatchingPairText", st.lineno()), st.getStartPosition() - 1, st.getEndPosition());
+                throw parseError("parser.missingMatchingPairText", st.getStartPosition() - 1, st.getEndPosition(), st.lineno());
             }
             answer.setValue(text.toString());
 
@@ -617,7 +788,7 @@ public class GIFTParser {
 
         } else {
             if (text.length() == 0) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.missingChoiceText", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.missingChoiceText", st.getStartPosition(), st.getEndPosition(), st.lineno());
             }
             st.pushBack();
             ChoiceAnswer answer = new ChoiceAnswer();
@@ -652,7 +823,7 @@ public class GIFTParser {
      * feedbackComment ::= {word} // until "=","~","}"
      * <pre>
      */
-    private Answer parseNumericalAnswer(StreamPosTokenizer st) throws IOException {
+    private Answer parseNumericalAnswer(GIFTTokenizer st) throws IOException {
 
         String number = "";
 
@@ -684,10 +855,10 @@ public class GIFTParser {
         int startpos = st.getStartPosition();
         switch (st.nextToken()) {
             case TT_WORD:
-                number += st.sval;
+                number += st.getStringValue();
                 break;
             default:
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.illegalNumericalValue", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
         }
 
         // Parse decimal point and digits after decimal point
@@ -697,10 +868,10 @@ public class GIFTParser {
             case '.':
                 if (st.nextToken() == '.') {
                     isSpan = Boolean.TRUE;
-                } else if (st.ttype == TT_WORD) {
-                    number += '.' + st.sval;
+                } else if (st.getTokenType() == TT_WORD) {
+                    number += '.' + st.getStringValue();
                 } else {
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", (char) st.ttype, st.lineno()), startpos, st.getEndPosition());
+                    throw parseError("parser.illegalNumericalValue", startpos, st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                 }
                 break;
             default:
@@ -716,7 +887,7 @@ public class GIFTParser {
                     if (st.nextToken() == '.') {
                         isSpan = Boolean.TRUE;
                     } else {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", (char) st.ttype, st.lineno()), startpos, st.getEndPosition());
+                        throw parseError("parser.illegalNumericalValue", startpos, st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                     }
                     break;
                 default:
@@ -733,7 +904,7 @@ public class GIFTParser {
             try {
                 answer.setMin(Double.parseDouble(number));
             } catch (NumberFormatException e) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalSpanMinValue", number, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.illegalSpanMinValue", st.getStartPosition(), st.getEndPosition(), number, st.lineno());
             }
 
             number = "";
@@ -751,20 +922,20 @@ public class GIFTParser {
             // Parse number digits before decimal point
             switch (st.nextToken()) {
                 case TT_WORD:
-                    number = st.sval;
+                    number = st.getStringValue();
                     break;
                 default:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
             }
 
             // Parse decimal point and number digits after decimal point
             switch (st.nextToken()) {
                 case '.':
                     if (st.nextToken() == TT_WORD) {
-                        number += '.' + st.sval;
+                        number += '.' + st.getStringValue();
 
                     } else {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                     }
                     break;
                 default:
@@ -775,7 +946,7 @@ public class GIFTParser {
             try {
                 answer.setMax(Double.parseDouble(number));
             } catch (NumberFormatException e) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalSpanMaxValue", number, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.illegalSpanMaxValue", st.getStartPosition(), st.getEndPosition(), number, st.lineno());
             }
 
             theAnswer = answer;
@@ -785,7 +956,7 @@ public class GIFTParser {
             try {
                 answer.setNumber(Double.parseDouble(number));
             } catch (NumberFormatException e) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", number, st.lineno()), startpos, st.getEndPosition());
+                throw parseError("parser.illegalNumericalValue", startpos, st.getEndPosition(), number, st.lineno());
             }
 
             switch (st.nextToken()) {
@@ -811,20 +982,20 @@ public class GIFTParser {
             // Parse number digits before decimal point
             switch (st.nextToken()) {
                 case TT_WORD:
-                    number = st.sval;
+                    number = st.getStringValue();
                     break;
                 default:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalNumericalValue", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
             }
 
             // Parse decimal point and number digits after decimal point
             switch (st.nextToken()) {
                 case '.':
                     if (st.nextToken() == TT_WORD) {
-                        number += '.' + st.sval;
+                        number += '.' + st.getStringValue();
 
                     } else {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.illegalNumericalValue", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                     }
                     break;
                 default:
@@ -835,7 +1006,7 @@ public class GIFTParser {
             try {
                 answer.setErrorMargin(Double.parseDouble(number));
             } catch (NumberFormatException e) {
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalNumericalValue", number, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.illegalNumericalValue", st.getStartPosition(), st.getEndPosition(), number, st.lineno());
             }
 
 
@@ -861,26 +1032,26 @@ public class GIFTParser {
      * externalAnswer ::= externalReference
      * <pre>
      */
-    private Answer parseExternalAnswer(StreamPosTokenizer st) throws IOException {
+    private Answer parseExternalAnswer(GIFTTokenizer st) throws IOException {
         ExternalAnswer theAnswer = new ExternalAnswer();
 
         String externalReference = "";
         int previousTType = ':';
         int startPosition = st.getStartPosition();
-        while (st.nextToken() != StreamPosTokenizer.TT_EOF &&
-                st.ttype != StreamPosTokenizer.TT_EOL &&
-                st.ttype != '}') {
-            switch (st.ttype) {
-                case StreamPosTokenizer.TT_WORD:
-                    if (previousTType == StreamPosTokenizer.TT_WORD) {
+        while (st.nextToken() != TT_EOF &&
+                st.getTokenType() != TT_EOL &&
+                st.getTokenType() != '}') {
+            switch (st.getTokenType()) {
+                case TT_WORD:
+                    if (previousTType == TT_WORD) {
                         externalReference += ' ';
                     }
-                    externalReference += st.sval;
-                    previousTType = st.ttype;
+                    externalReference += st.getStringValue();
+                    previousTType = st.getTokenType();
                     break;
                 default:
-                    previousTType = st.ttype;
-                    externalReference += (char) st.ttype;
+                    previousTType = st.getTokenType();
+                    externalReference += (char) st.getTokenType();
             }
         }
         st.pushBack();
@@ -888,9 +1059,9 @@ public class GIFTParser {
         return theAnswer;
     }
 
-    private void skipWhitespace(StreamPosTokenizer st) throws IOException {
+    private void skipWhitespace(GIFTTokenizer st) throws IOException {
         // Skip leading whitespace
-        while (st.nextToken() >= 0 && st.ttype <= ' ') {
+        while (st.nextToken() >= 0 && st.getTokenType() <= ' ') {
             ;
         }
         st.pushBack();
@@ -906,7 +1077,7 @@ public class GIFTParser {
      *
      * @return weight, or 0 if not specified
      */
-    private int parseWeight(StreamPosTokenizer st) throws IOException {
+    private int parseWeight(GIFTTokenizer st) throws IOException {
         int weight = 0;
 
         skipWhitespace(st);
@@ -933,13 +1104,13 @@ public class GIFTParser {
         switch (st.nextToken()) {
             case TT_WORD:
                 try {
-                    weight = sign * Integer.parseInt(st.sval);
+                    weight = sign * Integer.parseInt(st.getStringValue());
                 } catch (NumberFormatException e) {
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalPercentageValue", weight, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalPercentageValue", st.getStartPosition(), st.getEndPosition(), weight, st.lineno());
                 }
                 break;
             default:
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.missingPercentageValue", "", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.missingPercentageValue", st.getStartPosition(), st.getEndPosition(), "", st.lineno());
         }
 
         skipWhitespace(st);
@@ -947,7 +1118,7 @@ public class GIFTParser {
             case '%':
                 break;
             default:
-                throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOFInPercentage", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                throw parseError("parser.unexpectedEOFInPercentage", st.getStartPosition(), st.getEndPosition(), st.lineno());
         }
 
         return weight;
@@ -960,7 +1131,7 @@ public class GIFTParser {
      * <p>
      * title ::= [{word}]  // until "~", "=", "}"
      */
-    private String parseFeedbackComment(StreamPosTokenizer st) throws IOException {
+    private String parseFeedbackComment(GIFTTokenizer st) throws IOException {
         StringBuilder text = new StringBuilder();
         StringBuilder whitespace = new StringBuilder();
 
@@ -972,22 +1143,22 @@ public class GIFTParser {
                 case TT_WORD:
                     text.append(whitespace.toString());
                     whitespace.setLength(0);
-                    text.append(st.sval);
+                    st.appendStringValue(text);
                     break;
                 case TT_EOL:
                     whitespace.append('\n');
                     break;
                 case TT_EOF:
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.unexpectedEOFInFeedbackComment", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.unexpectedEOFInFeedbackComment", st.getStartPosition(), st.getEndPosition(), st.lineno());
                     //break; not reached
                 case '\\':
                     // Treat next special char like ordinary char
                     if (st.nextToken() >= 0) {
                         text.append(whitespace.toString());
                         whitespace.setLength(0);
-                        text.append((char) st.ttype);
+                        text.append((char) st.getTokenType());
                     } else {
-                        throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalEscapeSequence", st.lineno()), st.getStartPosition(), st.getEndPosition());
+                        throw parseError("parser.illegalEscapeSequence", st.getStartPosition(), st.getEndPosition(), st.lineno());
                     }
                     break;
                 case '}':
@@ -997,12 +1168,12 @@ public class GIFTParser {
                     break whileLoop;
                 case '{':
                 case '#':
-                    throw new ch.randelshofer.io.ParseException(labels.getFormatted("parser.illegalCharacter", (char) st.ttype, st.lineno()), st.getStartPosition(), st.getEndPosition());
+                    throw parseError("parser.illegalCharacter", st.getStartPosition(), st.getEndPosition(), (char) st.getTokenType(), st.lineno());
                 case ' ':
                     whitespace.append(' ');
                     break;
                 default:
-                    text.append((char) st.ttype);
+                    text.append((char) st.getTokenType());
                     break;
             }
         }
@@ -1010,6 +1181,39 @@ public class GIFTParser {
         return text.toString();
     }
 
+    /**
+     * Creates a parse exception with a localized message.
+     *
+     * @param key      the resource bundle key of the message
+     * @param startpos the start position of the invalid token
+     * @param endpos   the end position of the invalid token
+     * @param args     the arguments of the message
+     */
+    private GIFTParseException parseError(String key, int startpos, int endpos, Object... args) {
+        return new GIFTParseException(key, args, labels.getFormatted(key, args), startpos, endpos);
+    }
+
+    /**
+     * Returns a copy of a syntax error, which is moved by the specified number
+     * of characters and lines. The message is formatted again with the new
+     * line number.
+     *
+     * @param e         a syntax error created by this parser
+     * @param delta     the number of characters
+     * @param lineDelta the number of lines
+     */
+    GIFTParseException deriveError(GIFTParseException e, int delta, int lineDelta) {
+        Object[] args = e.getArguments();
+        String message = e.getMessage();
+        if (lineDelta != 0 && args != null && args.length > 0 && args[args.length - 1] instanceof Integer) {
+            args = args.clone();
+            args[args.length - 1] = (Integer) args[args.length - 1] + lineDelta;
+            message = labels.getFormatted(e.getMessageKey(), args);
+        }
+        return new GIFTParseException(e.getMessageKey(), args, message,
+                e.getStartPosition() + delta, e.getEndPosition() + delta);
+    }
+
     /**
      * Eliminates line containing nothing but a full stop.
      */
@@ -0,0 +1,266 @@
+/*
+ * @(#)GIFTQuestionReader.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedList;
+
+/**
+ * Reads the questions of a GIFT text from a {@link Reader} one at a time.
+ * <p>
+ * A question is returned soon after the blank line which terminates it has
+ * been read. The reader only keeps the text of the current question in
+ * memory, thus texts of any size can be read.
+ * <p>
+ * The questions are the same as the questions returned by
+ * {@link GIFTParser#parseRecovering}: they have the same ids, and their
+ * start and end positions are character positions in the entire text.
+ * Positions beyond {@code Integer.MAX_VALUE} can not be represented, and
+ * are reported as -1.
+ * <p>
+ * The reader parses the text up to a blank line which probably terminates a
+ * question. If the last question extends beyond the blank line, the
+ * questions before it are returned, and the reader parses the last question
+ * again when it has read twice as much text, so that the text is parsed
+ * only a few times, even if it contains many blank lines which do not
+ * terminate a question.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (GIFTQuestionReader r = new GIFTQuestionReader(reader)) {
+ *     for (Question q = r.readQuestion(); q != null; q = r.readQuestion()) {
+ *         ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Werner Randelshofer
+ * @version 1.2 2026-10-18 Count the position in a long. Do not reparse
+ * the text from the start of the buffer at each blank line which does not
+ * terminate a question.
+ * <br>1.1 2026-10-18 Added a constructor with the initial buffer size.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class GIFTQuestionReader implements Closeable {
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private final Reader in;
+    private final GIFTParser parser;
+    private final QuestionBoundaryScanner scanner = new QuestionBoundaryScanner();
+    /**
+     * Holds the text which has been read but not parsed yet.
+     */
+    private char[] buf;
+    /**
+     * The number of characters in the buffer.
+     */
+    private int count;
+    /**
+     * The position of the first character of the buffer in the text.
+     */
+    private long bufferPosition;
+    /**
+     * The line number of the first character of the buffer.
+     */
+    private int bufferLineNumber = 1;
+    private boolean isEndOfText;
+    /**
+     * The number of characters of the buffer which must be available, before
+     * the buffer is parsed again. This is the double of the number of
+     * characters of the question which has not been terminated by the blank
+     * line at the end of the last parsed characters.
+     */
+    private int retryLength;
+    /**
+     * Holds the parsed Question and GIFTParseException objects which have not
+     * been returned yet.
+     */
+    private final LinkedList<Object> pending = new LinkedList<Object>();
+    /**
+     * The number of questions which have been returned.
+     */
+    private int questionCount;
+
+    /**
+     * Creates a new instance.
+     */
+    public GIFTQuestionReader(Reader in) {
+        this(in, new GIFTParser());
+    }
+
+    /**
+     * Creates a new instance which uses the specified parser.
+     */
+    public GIFTQuestionReader(Reader in, GIFTParser parser) {
+        this(in, parser, INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance with the specified initial buffer size.
+     */
+    GIFTQuestionReader(Reader in, GIFTParser parser, int bufferSize) {
+        this.in = in;
+        this.parser = parser;
+        buf = new char[bufferSize];
+    }
+
+    /**
+     * Reads the next question.
+     * <p>
+     * If the question has a syntax error, the error is thrown. The next
+     * invocation of this method continues with the question after the
+     * erroneous question.
+     *
+     * @return the next question, or null if the end of the text has been
+     * reached
+     * @throws GIFTParseException if the question has a syntax error
+     * @throws IOException        if reading fails
+     */
+    public Question readQuestion() throws IOException {
+        while (pending.isEmpty()) {
+            if (!parseNextChunk()) {
+                return null;
+            }
+        }
+        Object entry = pending.removeFirst();
+        if (entry instanceof GIFTParseException) {
+            throw (GIFTParseException) entry;
+        }
+        Question q = (Question) entry;
+        return q.derive("" + (++questionCount), 0);
+    }
+
+    /**
+     * Reads the text up to the next blank line which terminates a question,
+     * and parses it.
+     *
+     * @return false if the end of the text has been reached
+     */
+    private boolean parseNextChunk() throws IOException {
+        while (true) {
+            int boundary = scanner.nextBoundary(buf, count, isEndOfText);
+            if (boundary != -1) {
+                if (boundary >= retryLength) {
+                    parseChunk(boundary, false);
+                    if (!pending.isEmpty()) {
+                        return true;
+                    }
+                }
+                // The last question extends beyond the blank line
+            } else if (isEndOfText) {
+                if (count == 0) {
+                    return false;
+                }
+                parseChunk(count, true);
+                return true;
+            } else {
+                fill();
+            }
+        }
+    }
+
+    /**
+     * Parses the first characters of the buffer. Adds the questions which are
+     * terminated by a blank line to the pending list, and removes their
+     * characters from the buffer. If the end of the text has been reached,
+     * adds all questions.
+     *
+     * @param length  the number of characters to be parsed
+     * @param isAtEnd true if the characters extend to the end of the text
+     */
+    private void parseChunk(int length, boolean isAtEnd) throws IOException {
+        final LinkedList<Object> entries = new LinkedList<Object>();
+        // The number of entries and characters of the terminated questions
+        final int[] terminated = {0, 0};
+        GIFTLexer lexer = new GIFTLexer(buf, 0, length);
+        lexer.setLineNumber(bufferLineNumber);
+        parser.parseQuestions(lexer, new GIFTParser.QuestionHandler() {
+            @Override
+            public void questionParsed(Question q, GIFTParseException error, int resumePosition) {
+                if (q != null) {
+                    entries.add(q.derive(null, toTextPosition(q.getStartPosition()),
+                            toTextPosition(q.getEndPosition())));
+                } else {
+                    entries.add(new GIFTParseException(error.getMessageKey(), error.getArguments(),
+                            error.getMessage(), toTextPosition(error.getStartPosition()),
+                            toTextPosition(error.getEndPosition())));
+                }
+                if (resumePosition != -1) {
+                    terminated[0] = entries.size();
+                    terminated[1] = resumePosition;
+                }
+            }
+        });
+        if (isAtEnd) {
+            terminated[0] = entries.size();
+            terminated[1] = length;
+            retryLength = 0;
+        } else {
+            retryLength = 2 * (length - terminated[1]);
+        }
+        pending.addAll(entries.subList(0, terminated[0]));
+
+        // Discard the characters of the terminated questions
+        int parsed = terminated[1];
+        bufferLineNumber += countLineBreaks(parsed);
+        System.arraycopy(buf, parsed, buf, 0, count - parsed);
+        count -= parsed;
+        bufferPosition += parsed;
+        scanner.setPosition(scanner.getPosition() - parsed);
+    }
+
+    /**
+     * Converts a position in the buffer into a position in the text.
+     *
+     * @return the position, or -1 if it is beyond Integer.MAX_VALUE
+     */
+    private int toTextPosition(int p) {
+        long position = bufferPosition + p;
+        return position <= Integer.MAX_VALUE ? (int) position : -1;
+    }
+
+    /**
+     * Counts the line breaks in the first characters of the buffer in the
+     * same way as {@link GIFTLexer}.
+     */
+    private int countLineBreaks(int length) {
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            char c = buf[i];
+            if (c == '\n' || c == '\r' && (i + 1 >= count || buf[i + 1] != '\n')) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Reads more characters into the buffer. Enlarges the buffer if it is
+     * full.
+     */
+    private void fill() throws IOException {
+        if (count == buf.length) {
+            char[] newBuf = new char[buf.length * 2];
+            System.arraycopy(buf, 0, newBuf, 0, count);
+            buf = newBuf;
+        }
+        int n = in.read(buf, count, buf.length - count);
+        if (n == -1) {
+            isEndOfText = true;
+        } else {
+            count += n;
+        }
+    }
+
+    /**
+     * Closes the underlying reader.
+     */
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
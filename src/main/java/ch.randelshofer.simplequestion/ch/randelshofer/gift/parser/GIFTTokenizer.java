@@ -0,0 +1,82 @@
+/*
+ * @(#)GIFTTokenizer.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import java.io.IOException;
+
+/**
+ * The token stream consumed by {@link GIFTParser}.
+ * <p>
+ * The token types and the start and end positions follow the conventions
+ * of {@code org.jhotdraw.io.StreamPosTokenizer}: a single character token
+ * has its character value as type, the end position is the position of the
+ * last character of the token.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+interface GIFTTokenizer {
+    /**
+     * A constant indicating that the end of the input has been read.
+     */
+    int TT_EOF = -1;
+    /**
+     * A constant indicating that the end of the line has been read.
+     */
+    int TT_EOL = '\n';
+    /**
+     * A constant indicating that a word token has been read.
+     */
+    int TT_WORD = -3;
+
+    /**
+     * Parses the next token and returns its type.
+     */
+    int nextToken() throws IOException;
+
+    /**
+     * Causes the next call to {@link #nextToken} to return the current
+     * token again.
+     */
+    void pushBack();
+
+    /**
+     * Returns the type of the current token.
+     */
+    int getTokenType();
+
+    /**
+     * Returns the line number of the current token.
+     */
+    int lineno();
+
+    /**
+     * Returns the start position of the current token.
+     */
+    int getStartPosition();
+
+    /**
+     * Returns the end position of the current token.
+     */
+    int getEndPosition();
+
+    /**
+     * Appends the characters of the current {@code TT_WORD} token to the
+     * specified buffer.
+     */
+    void appendStringValue(StringBuilder buf);
+
+    /**
+     * Returns true if the current {@code TT_WORD} token consists of the
+     * specified characters.
+     */
+    boolean isStringValue(String str);
+
+    /**
+     * Returns the characters of the current {@code TT_WORD} token as a
+     * String.
+     */
+    String getStringValue();
+}
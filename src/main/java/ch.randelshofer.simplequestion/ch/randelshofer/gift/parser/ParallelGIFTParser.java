@@ -0,0 +1,189 @@
+/*
+ * @(#)ParallelGIFTParser.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a GIFT text in parallel.
+ * <p>
+ * The text is split into chunks at blank lines which are not inside of an
+ * answer list, see {@link QuestionBoundaryScanner}. The chunks are parsed
+ * concurrently on a {@link ForkJoinPool}, each with its own
+ * {@link GIFTLexer} over the shared character array, so that the positions
+ * of the questions are absolute positions in the text.
+ * <p>
+ * The splitting is only a guess. After parsing, each chunk is checked: if
+ * its last question is not terminated by a blank line, the chunk is
+ * reparsed together with the following chunks. This guarantees that the
+ * result is identical to the result of the sequential parser, including
+ * the ids of the questions and the line numbers in the error messages.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+class ParallelGIFTParser {
+    /**
+     * The default minimal number of characters in a chunk.
+     */
+    static final int DEFAULT_MIN_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The questions and syntax errors of a chunk.
+     */
+    private static class ChunkResult {
+        /**
+         * Holds Question and GIFTParseException objects in document order.
+         */
+        final ArrayList<Object> entries = new ArrayList<Object>();
+        /**
+         * False if the last question of the chunk is terminated by the end
+         * of the chunk instead of a blank line.
+         */
+        boolean isTerminated = true;
+    }
+
+    private final GIFTParser parser;
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param parser       the parser which parses the chunks
+     * @param pool         the pool on which the chunks are parsed
+     * @param minChunkSize the minimal number of characters in a chunk
+     */
+    ParallelGIFTParser(GIFTParser parser, ForkJoinPool pool, int minChunkSize) {
+        this.parser = parser;
+        this.pool = pool;
+        this.minChunkSize = Math.max(1, minChunkSize);
+    }
+
+    /**
+     * Parses the text.
+     *
+     * @param text   the text
+     * @param errors if this list is non-null, syntax errors are added to it.
+     *               If it is null, the first syntax error is thrown.
+     */
+    List<Question> parse(String text, List<GIFTParseException> errors) throws IOException {
+        final char[] buf = text.toCharArray();
+        int[] lines = new int[buf.length / minChunkSize + 2];
+        final int[] bounds = split(buf, minChunkSize, lines);
+        final int n = bounds.length - 1;
+
+        ArrayList<Callable<ChunkResult>> tasks = new ArrayList<Callable<ChunkResult>>(n);
+        for (int i = 0; i < n; i++) {
+            final int start = bounds[i];
+            final int end = bounds[i + 1];
+            final int lineno = lines[i];
+            tasks.add(new Callable<ChunkResult>() {
+                @Override
+                public ChunkResult call() throws IOException {
+                    return parseChunk(buf, start, end, lineno);
+                }
+            });
+        }
+        List<Future<ChunkResult>> futures = pool.invokeAll(tasks);
+
+        // Merge the chunks in document order
+        LinkedList<Question> result = new LinkedList<Question>();
+        int i = 0;
+        while (i < n) {
+            ChunkResult r = get(futures.get(i));
+            int j = i + 1;
+            while (!r.isTerminated && j < n) {
+                // The last question extends into the next chunks
+                j = Math.min(n, j + (j - i));
+                r = parseChunk(buf, bounds[i], bounds[j], lines[i]);
+            }
+            for (Object entry : r.entries) {
+                if (entry instanceof Question) {
+                    Question q = (Question) entry;
+                    result.add(q.derive("" + (result.size() + 1), 0));
+                } else if (errors == null) {
+                    throw (GIFTParseException) entry;
+                } else {
+                    errors.add((GIFTParseException) entry);
+                }
+            }
+            i = j;
+        }
+        return result;
+    }
+
+    private ChunkResult get(Future<ChunkResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private ChunkResult parseChunk(char[] buf, int start, int end, int lineno) throws IOException {
+        GIFTLexer lexer = new GIFTLexer(buf, start, end - start);
+        lexer.setLineNumber(lineno);
+        final ChunkResult r = new ChunkResult();
+        parser.parseQuestions(lexer, new GIFTParser.QuestionHandler() {
+            @Override
+            public void questionParsed(Question q, GIFTParseException error, int resumePosition) {
+                r.entries.add(q != null ? q : error);
+                r.isTerminated = resumePosition != -1;
+            }
+        });
+        return r;
+    }
+
+    /**
+     * Splits the text into chunks at the boundaries found by a
+     * {@link QuestionBoundaryScanner}.
+     *
+     * @param buf          the text
+     * @param minChunkSize the minimal number of characters in a chunk
+     * @param lines        on return, holds the line number of the first
+     *                     line of each chunk
+     * @return the start position of each chunk followed by the length of
+     * the text
+     */
+    static int[] split(char[] buf, int minChunkSize, int[] lines) {
+        ArrayList<Integer> bounds = new ArrayList<Integer>();
+        bounds.add(0);
+        lines[0] = 1;
+        QuestionBoundaryScanner scanner = new QuestionBoundaryScanner();
+        int chunkStart = 0;
+        for (int b = scanner.nextBoundary(buf, buf.length, true); b != -1;
+             b = scanner.nextBoundary(buf, buf.length, true)) {
+            if (b - chunkStart >= minChunkSize && b < buf.length) {
+                chunkStart = b;
+                lines[bounds.size()] = scanner.getLineNumber();
+                bounds.add(b);
+            }
+        }
+        bounds.add(buf.length);
+
+        int[] result = new int[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+}
@@ -6,40 +6,52 @@
 package ch.randelshofer.gift.parser;
 
 import java.text.Normalizer;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.StringTokenizer;
 
 /**
  * Question.
+ * <p>
+ * The body of a question is a sequence of {@link QuestionSegment}s. Each
+ * segment is either a {@link QuestionText} or an {@link AnswerList}. The
+ * segments are stored in an array, and can be accessed by index with
+ * {@link #getSegmentCount}, {@link #getSegment}, {@link #isAnswerList},
+ * {@link #getQuestionText} and {@link #getAnswerList}.
+ * <p>
+ * Questions are created by {@link QuestionBuilder}, and can not be changed
+ * afterwards.
  *
  * @author Werner Randelshofer
+ * @version 1.3 2026-10-18 Added derive() with start and end position.
+ * <br>1.2 2026-10-18 Store the body in an array of QuestionSegment
+ * objects. Removed the mutators, added derive().
+ * <br>1.1 2026-10-18 Store the body in arrays instead of a LinkedList.
  */
 public class Question {
-    private String id;
-    private String title;
-    private LinkedList<Object> body;
-    private int startPosition;
-    private int endPosition;
+    private final String id;
+    private final String title;
+    private final QuestionSegment[] segments;
+    private final int startPosition;
+    private final int endPosition;
 
     /**
-     * Creates a new instance.
+     * Creates a new instance with the specified body. The array is not
+     * copied.
      */
-    public Question() {
-        body = new LinkedList<Object>();
-    }
-
-    public void setTitle(String newValue) {
-        title = newValue;
+    Question(String id, String title, QuestionSegment[] segments, int startPosition, int endPosition) {
+        this.id = id;
+        this.title = title;
+        this.segments = segments;
+        this.startPosition = startPosition;
+        this.endPosition = endPosition;
     }
 
     public String getTitle() {
         return title;
     }
 
-    public void setId(String newValue) {
-        id = newValue;
-    }
-
     public String getId() {
         return id;
     }
@@ -55,9 +67,9 @@ public class Question {
             // Get the first two words
             StringBuilder buf = new StringBuilder();
             bodyLoop:
-            for (Object o : getBody()) {
-                if (o instanceof String) {
-                    StringTokenizer st = new StringTokenizer((String) o);
+            for (QuestionSegment segment : segments) {
+                if (!segment.isAnswerList()) {
+                    StringTokenizer st = new StringTokenizer(((QuestionText) segment).getText());
                     while (st.hasMoreTokens()) {
                         if (buf.length() == 0) {
                             buf.append(st.nextToken());
@@ -102,16 +114,52 @@ public class Question {
         return buf.toString();
     }
 
-    public LinkedList<Object> getBody() {
-        return body;
+    /**
+     * Returns an unmodifiable view of the body. The elements are String
+     * objects for question texts and AnswerList objects for answer lists.
+     */
+    public List<Object> getBody() {
+        return new BodyView();
+    }
+
+    /**
+     * Returns the number of segments of the body.
+     */
+    public int getSegmentCount() {
+        return segments.length;
     }
 
-    public void addQuestionText(String newValue) {
-        body.add(newValue);
+    /**
+     * Returns the specified segment.
+     */
+    public QuestionSegment getSegment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Returns true if the specified segment is an answer list, and false if
+     * it is a question text.
+     */
+    public boolean isAnswerList(int index) {
+        return segments[index].isAnswerList();
+    }
+
+    /**
+     * Returns the question text of the specified segment, or null if the
+     * segment is an answer list.
+     */
+    public String getQuestionText(int index) {
+        QuestionSegment segment = segments[index];
+        return segment.isAnswerList() ? null : ((QuestionText) segment).getText();
     }
 
-    public void addAnswerList(AnswerList newValue) {
-        body.add(newValue);
+    /**
+     * Returns the answer list of the specified segment, or null if the
+     * segment is a question text.
+     */
+    public AnswerList getAnswerList(int index) {
+        QuestionSegment segment = segments[index];
+        return segment.isAnswerList() ? (AnswerList) segment : null;
     }
 
     public String toString() {
@@ -122,7 +170,7 @@ public class Question {
             buf.append('\n');
         }
         buf.append("body: ");
-        buf.append(body.toString());
+        buf.append(getBody().toString());
         return buf.toString();
     }
 
@@ -132,20 +180,18 @@ public class Question {
      */
     public boolean isIncomplete() {
         boolean isIncomplete = false;
-        if (getBody().size() == 0) {
+        if (segments.length == 0) {
             isIncomplete = true;
         } else {
             boolean hasQuestionText = false;
             boolean hasAnswerList = false;
             boolean isExternalAnswerList = false;
-            for (Object o : getBody()) {
-                if (o instanceof String) {
+            for (QuestionSegment segment : segments) {
+                if (!segment.isAnswerList()) {
                     hasQuestionText = true;
-                }
-                if (o instanceof AnswerList) {
+                } else {
                     hasAnswerList = true;
-                    AnswerList al = (AnswerList) o;
-                    isExternalAnswerList = isExternalAnswerList | al.getType() == AnswerListType.EXTERNAL;
+                    isExternalAnswerList = isExternalAnswerList | ((AnswerList) segment).getType() == AnswerListType.EXTERNAL;
                 }
             }
             isIncomplete = (!hasQuestionText && !isExternalAnswerList) /*|| ! hasAnswerList*/;
@@ -153,19 +199,44 @@ public class Question {
         return isIncomplete;
     }
 
-    public int getStartPosition() {
-        return startPosition;
+    /**
+     * Returns a copy of this question with the specified id, which is moved
+     * by the specified number of characters. The copy shares the body with
+     * this question.
+     */
+    Question derive(String id, int delta) {
+        return new Question(id, title, segments, startPosition + delta, endPosition + delta);
     }
 
-    public void setStartPosition(int start) {
-        this.startPosition = start;
+    /**
+     * Returns a copy of this question with the specified id and positions.
+     * The copy shares the body with this question.
+     */
+    Question derive(String id, int startPosition, int endPosition) {
+        return new Question(id, title, segments, startPosition, endPosition);
+    }
+
+    public int getStartPosition() {
+        return startPosition;
     }
 
     public int getEndPosition() {
         return endPosition;
     }
 
-    public void setEndPosition(int end) {
-        this.endPosition = end;
+    /**
+     * A read-only view of the body.
+     */
+    private class BodyView extends AbstractList<Object> implements RandomAccess {
+        @Override
+        public Object get(int index) {
+            QuestionSegment segment = segments[index];
+            return segment.isAnswerList() ? segment : ((QuestionText) segment).getText();
+        }
+
+        @Override
+        public int size() {
+            return segments.length;
+        }
     }
 }
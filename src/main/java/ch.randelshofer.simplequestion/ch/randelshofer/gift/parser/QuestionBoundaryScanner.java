@@ -0,0 +1,155 @@
+/*
+ * @(#)QuestionBoundaryScanner.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+/**
+ * Finds the blank lines which probably separate two questions of a GIFT
+ * text, without parsing the text.
+ * <p>
+ * A blank line is considered a question boundary if it is not inside of an
+ * answer list. The scanner recognizes escaped characters and comments, and
+ * counts the lines in the same way as {@link GIFTLexer}. A boundary is
+ * always immediately after a '\n' or after a '\r' which is not followed by
+ * a '\n'. Thus no line break spans a boundary, and the text after a
+ * boundary can be scanned by a new lexer.
+ * <p>
+ * The boundaries are only a guess. Users of this class parse the text up
+ * to a boundary, and check if the last question has been terminated by a
+ * blank line.
+ * <p>
+ * The scanner can scan a text which is not available all at once: it stops
+ * before a character that can only be interpreted with the following
+ * character.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+class QuestionBoundaryScanner {
+    /**
+     * The position of the next character to be scanned.
+     */
+    private int pos;
+    /**
+     * The nesting depth of the answer lists.
+     */
+    private int depth;
+    /**
+     * True if the current line does not contain any characters yet.
+     */
+    private boolean isBlankLine;
+    /**
+     * True if the scanner is inside of a comment.
+     */
+    private boolean isComment;
+    /**
+     * The number of the current line.
+     */
+    private int lineno = 1;
+
+    /**
+     * Creates a new instance.
+     */
+    public QuestionBoundaryScanner() {
+    }
+
+    /**
+     * Returns the position of the next character to be scanned.
+     */
+    public int getPosition() {
+        return pos;
+    }
+
+    /**
+     * Sets the position of the next character to be scanned. This is used
+     * when the scanned text has been moved within its buffer.
+     */
+    public void setPosition(int newValue) {
+        pos = newValue;
+    }
+
+    /**
+     * Returns the number of the line at the current position.
+     */
+    public int getLineNumber() {
+        return lineno;
+    }
+
+    /**
+     * Scans the characters from the current position up to the next
+     * question boundary.
+     *
+     * @param buf         the characters
+     * @param end         the index after the last available character
+     * @param isEndOfText true if the text ends at {@code end}. If this is
+     *                    false, the scanner does not scan a character at the
+     *                    end of the buffer, if its meaning depends on the
+     *                    next character.
+     * @return the position after the next boundary, or -1 if there is no
+     * boundary before {@code end}.
+     */
+    public int nextBoundary(char[] buf, int end, boolean isEndOfText) {
+        while (pos < end) {
+            char c = buf[pos];
+            boolean hasNext = pos + 1 < end;
+            if (!hasNext && !isEndOfText && (c == '\\' || c == '/' || c == '\r')) {
+                return -1;
+            }
+            if (isComment) {
+                if (c != '\n' && c != '\r') {
+                    pos++;
+                    continue;
+                }
+                // A comment line counts as a blank line
+                isComment = false;
+            }
+            switch (c) {
+                case '\\':
+                    // The escaped character can not open or close an
+                    // answer list. Line breaks are always counted.
+                    isBlankLine = false;
+                    pos += hasNext && buf[pos + 1] != '\n' && buf[pos + 1] != '\r' ? 2 : 1;
+                    break;
+                case '/':
+                    if (hasNext && buf[pos + 1] == '/') {
+                        isComment = true;
+                        pos += 2;
+                    } else {
+                        isBlankLine = false;
+                        pos++;
+                    }
+                    break;
+                case '{':
+                    depth++;
+                    isBlankLine = false;
+                    pos++;
+                    break;
+                case '}':
+                    if (depth > 0) {
+                        depth--;
+                    }
+                    isBlankLine = false;
+                    pos++;
+                    break;
+                case '\r':
+                case '\n':
+                    pos += c == '\r' && hasNext && buf[pos + 1] == '\n' ? 2 : 1;
+                    lineno++;
+                    boolean isBoundary = isBlankLine && depth == 0;
+                    isBlankLine = true;
+                    if (isBoundary) {
+                        return pos;
+                    }
+                    break;
+                default:
+                    if (c > ' ') {
+                        isBlankLine = false;
+                    }
+                    pos++;
+                    break;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * @(#)QuestionBuilder.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import java.util.Arrays;
+
+/**
+ * Builds a {@link Question}.
+ * <p>
+ * The builder collects the segments of the body of the question, and
+ * creates a question which holds exactly as many segments as have been
+ * added. The builder is the only way to create a question, the question
+ * can not be changed afterwards.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Store the segments in a single array.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class QuestionBuilder {
+    private String title;
+    private QuestionSegment[] segments = new QuestionSegment[4];
+    private int size;
+    private int startPosition;
+    private int endPosition;
+
+    /**
+     * Creates a new instance.
+     */
+    public QuestionBuilder() {
+    }
+
+    public QuestionBuilder setTitle(String newValue) {
+        title = newValue;
+        return this;
+    }
+
+    public QuestionBuilder setStartPosition(int newValue) {
+        startPosition = newValue;
+        return this;
+    }
+
+    public QuestionBuilder setEndPosition(int newValue) {
+        endPosition = newValue;
+        return this;
+    }
+
+    /**
+     * Appends a question text to the body.
+     */
+    public QuestionBuilder addQuestionText(String newValue) {
+        ensureCapacity();
+        segments[size++] = new QuestionText(newValue);
+        return this;
+    }
+
+    /**
+     * Appends an answer list to the body.
+     */
+    public QuestionBuilder addAnswerList(AnswerList newValue) {
+        ensureCapacity();
+        segments[size++] = newValue;
+        return this;
+    }
+
+    private void ensureCapacity() {
+        if (size == segments.length) {
+            segments = Arrays.copyOf(segments, size * 2);
+        }
+    }
+
+    /**
+     * Creates the question. The builder can not be used anymore afterwards.
+     */
+    public Question build() {
+        for (int i = 0; i < size; i++) {
+            if (segments[i].isAnswerList()) {
+                ((AnswerList) segments[i]).trimToSize();
+            }
+        }
+        Question q = new Question(null, title, Arrays.copyOf(segments, size), startPosition, endPosition);
+        segments = null;
+        return q;
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * @(#)QuestionIndex.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Keeps the parsed questions of a GIFT document up to date, and reparses only
+ * the questions which have been changed by an edit.
+ * <p>
+ * The index divides the document into chunks. A chunk ends after the blank
+ * line which terminates a question, and holds at most one question or one
+ * syntax error. When the document changes, the index invalidates the chunks
+ * which overlap with the edit. The invalid chunks are reparsed lazily when
+ * the parse result is requested. If the reparsed text does not end with a
+ * blank line anymore, for example because a '{' has been inserted, the
+ * index reparses the following chunks as well, until it reaches a chunk
+ * boundary again. This ensures that the result is the same as if the entire
+ * document had been parsed with {@link GIFTParser#parseRecovering}.
+ * <p>
+ * The start positions of the chunks are {@link Position} objects, so that
+ * the document updates them when text is inserted or removed before a chunk.
+ * Each parse result gets its own copies of the questions, with the positions
+ * and ids of the current document. The syntax error of a chunk is kept with
+ * the line number relative to the start of the chunk, and so is the number
+ * of '\r' line breaks in the chunk. The line numbers of the errors are
+ * computed from the line elements of the document and these counts, so
+ * that a parse result costs no more than the reparsing of the edited
+ * chunks.
+ * <p>
+ * Use {@link #getInstance} to get the index of a document.
+ *
+ * @author Werner Randelshofer
+ * @version 1.2 2026-10-18 Keep the syntax errors and the number of '\r'
+ * line breaks of the chunks, instead of reparsing and rescanning the
+ * document for each parse result.
+ * <br>1.1 2026-10-18 Do not modify questions which have been returned
+ * in a previous parse result. Count '\r' line breaks in error messages.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class QuestionIndex implements DocumentListener {
+    /**
+     * A chunk of the document.
+     */
+    private static class Chunk {
+        /**
+         * Start of the chunk. The chunk ends at the start of the next
+         * chunk, or at the end of the document.
+         */
+        Position start;
+        /**
+         * The question of the chunk, or null. The positions of the question
+         * are relative to the start of the chunk. The question is never
+         * passed to a caller, so that it can be shared by all parse results.
+         */
+        Question question;
+        /**
+         * The syntax error of the chunk, or null. The positions of the error
+         * are relative to the start of the chunk, and the line numbers are
+         * relative to the first line of the chunk, which is line 1.
+         */
+        GIFTParseException error;
+        /**
+         * The error which has been returned by the last parse result, or
+         * null.
+         */
+        GIFTParseException lastError;
+        /**
+         * The start and the first line of the chunk in the last parse
+         * result.
+         */
+        int lastStart, lastLineno;
+        /**
+         * The number of '\r' line breaks in the chunk, which are not followed
+         * by a '\n'.
+         */
+        int crCount;
+        /**
+         * False if the chunk overlaps with an edit, and has not been
+         * reparsed yet.
+         */
+        boolean isValid;
+    }
+
+    private final Document doc;
+    private final GIFTParser parser;
+    private final ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+
+    /**
+     * Creates a new instance and adds it as a listener to the document.
+     */
+    private QuestionIndex(Document doc) {
+        this.doc = doc;
+        parser = new GIFTParser();
+        Chunk chunk = new Chunk();
+        chunk.start = doc.getStartPosition();
+        chunks.add(chunk);
+        doc.addDocumentListener(this);
+    }
+
+    /**
+     * Returns the question index of the specified document. Creates a new
+     * index, if the document does not have one yet.
+     */
+    public static QuestionIndex getInstance(Document doc) {
+        synchronized (QuestionIndex.class) {
+            QuestionIndex index = (QuestionIndex) doc.getProperty(QuestionIndex.class);
+            if (index == null) {
+                index = new QuestionIndex(doc);
+                doc.putProperty(QuestionIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Parses the changed parts of the document and returns the questions
+     * and syntax errors of the entire document.
+     * <p>
+     * This method may be called from any thread. It acquires a read lock on
+     * the document.
+     */
+    public GIFTParseResult getParseResult() throws IOException {
+        final GIFTParseResult[] result = new GIFTParseResult[1];
+        final IOException[] exception = new IOException[1];
+        doc.render(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (QuestionIndex.this) {
+                    try {
+                        result[0] = createParseResult();
+                    } catch (IOException e) {
+                        exception[0] = e;
+                    } catch (BadLocationException e) {
+                        exception[0] = new IOException(e);
+                    }
+                }
+            }
+        });
+        if (exception[0] != null) {
+            throw exception[0];
+        }
+        return result[0];
+    }
+
+    private GIFTParseResult createParseResult() throws IOException, BadLocationException {
+        validate();
+
+        LinkedList<Question> questions = new LinkedList<Question>();
+        LinkedList<GIFTParseException> errors = new LinkedList<GIFTParseException>();
+        // Number of '\r' line breaks before the current chunk
+        int crCount = 0;
+        for (int i = 0, n = chunks.size(); i < n; i++) {
+            Chunk chunk = chunks.get(i);
+            int start = chunk.start.getOffset();
+            if (chunk.question != null) {
+                questions.add(chunk.question.derive("" + (questions.size() + 1), start));
+            } else if (chunk.error != null) {
+                // The line number in the error message changes when lines
+                // are inserted above the chunk
+                int lineno = doc.getDefaultRootElement().getElementIndex(start) + 1 + crCount;
+                if (chunk.lastError == null || chunk.lastStart != start || chunk.lastLineno != lineno) {
+                    chunk.lastError = parser.deriveError(chunk.error, start, lineno - 1);
+                    chunk.lastStart = start;
+                    chunk.lastLineno = lineno;
+                }
+                errors.add(chunk.lastError);
+            }
+            crCount += chunk.crCount;
+        }
+        return new GIFTParseResult(questions, errors);
+    }
+
+    /**
+     * Reparses all invalid chunks.
+     */
+    private void validate() throws IOException, BadLocationException {
+        int i = 0;
+        while (i < chunks.size()) {
+            if (chunks.get(i).isValid) {
+                i++;
+            } else {
+                int j = i + 1;
+                while (j < chunks.size() && !chunks.get(j).isValid) {
+                    j++;
+                }
+                i = reparse(i, j);
+            }
+        }
+    }
+
+    /**
+     * Reparses the specified chunks, and replaces them by the new chunks.
+     *
+     * @param from index of the first chunk
+     * @param to   index after the last chunk
+     * @return index after the new chunks
+     */
+    private int reparse(int from, int to) throws IOException, BadLocationException {
+        int start = chunks.get(from).start.getOffset();
+        while (true) {
+            List<Chunk> newChunks = parseChunks(start, getEnd(to - 1), to == chunks.size());
+            if (newChunks != null) {
+                List<Chunk> oldChunks = chunks.subList(from, to);
+                oldChunks.clear();
+                oldChunks.addAll(newChunks);
+                return from + newChunks.size();
+            }
+            // The last question does not end at the chunk boundary:
+            // include the next chunk.
+            to++;
+        }
+    }
+
+    /**
+     * Parses the specified region of the document into chunks.
+     *
+     * @param start    start of the region
+     * @param end      end of the region
+     * @param isAtEnd  true if the region extends to the end of the document
+     * @return the chunks, or null if the last question of the region is not
+     * terminated by a blank line and the region does not extend to the end
+     * of the document
+     */
+    private List<Chunk> parseChunks(final int start, final int end, boolean isAtEnd) throws IOException, BadLocationException {
+        final ArrayList<Chunk> newChunks = new ArrayList<Chunk>();
+        final int[] chunkStart = {start};
+        final boolean[] isTerminated = {true};
+        final Element root = doc.getDefaultRootElement();
+        final int firstLine = root.getElementIndex(start);
+        // Number of '\r' line breaks before the current chunk
+        final int[] crCount = {0};
+        // The line numbers of the errors are counted from the start of the
+        // region, and are converted to line numbers relative to the start of
+        // their chunk
+        parse(start, end, 1, new GIFTParser.QuestionHandler() {
+            @Override
+            public void questionParsed(Question q, GIFTParseException error, int resumePosition) throws IOException {
+                int chunkEnd = resumePosition == -1 ? end : resumePosition;
+                Chunk chunk;
+                try {
+                    chunk = createChunk(chunkStart[0]);
+                    chunk.crCount = countCRLineBreaks(chunkStart[0], chunkEnd);
+                } catch (BadLocationException e) {
+                    throw new IOException(e);
+                }
+                if (q != null) {
+                    chunk.question = q.derive(null, -chunkStart[0]);
+                }
+                if (error != null) {
+                    int chunkLine = root.getElementIndex(chunkStart[0]) - firstLine + crCount[0];
+                    chunk.error = parser.deriveError(error, -chunkStart[0], -chunkLine);
+                }
+                crCount[0] += chunk.crCount;
+                newChunks.add(chunk);
+                isTerminated[0] = resumePosition != -1;
+                chunkStart[0] = chunkEnd;
+            }
+        });
+        if (!isTerminated[0] && !isAtEnd) {
+            return null;
+        }
+        if (chunkStart[0] < end || newChunks.isEmpty()) {
+            // Trailing blank lines
+            Chunk chunk = createChunk(chunkStart[0]);
+            chunk.crCount = countCRLineBreaks(chunkStart[0], end);
+            newChunks.add(chunk);
+        }
+        return newChunks;
+    }
+
+    /**
+     * Counts the '\r' characters in the specified range of the document,
+     * which are not followed by a '\n'. {@link GIFTLexer} counts them as
+     * line breaks, but the document does not create an element for them.
+     */
+    private int countCRLineBreaks(int start, int end) throws BadLocationException {
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+        int count = 0;
+        char prev = 0;
+        for (int p = start; p < end; p += segment.count) {
+            doc.getText(p, end - p, segment);
+            for (char c = segment.first(); c != Segment.DONE; c = segment.next()) {
+                if (prev == '\r' && c != '\n') {
+                    count++;
+                }
+                prev = c;
+            }
+        }
+        if (prev == '\r' && (end == doc.getLength() || !"\n".equals(doc.getText(end, 1)))) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Parses the specified region of the document. The positions passed to
+     * the handler are document positions.
+     *
+     * @param lineno the line number at the start of the region
+     */
+    private void parse(int start, int end, int lineno, final GIFTParser.QuestionHandler handler) throws IOException, BadLocationException {
+        Segment segment = new Segment();
+        doc.getText(start, end - start, segment);
+        final int delta = start - segment.offset;
+        GIFTLexer lexer = new GIFTLexer(segment.array, segment.offset, segment.count);
+        lexer.setLineNumber(lineno);
+        parser.parseQuestions(lexer, new GIFTParser.QuestionHandler() {
+            @Override
+            public void questionParsed(Question q, GIFTParseException error, int resumePosition) throws IOException {
+                if (q != null) {
+                    q = q.derive(q.getId(), delta);
+                }
+                if (error != null) {
+                    error = parser.deriveError(error, delta, 0);
+                }
+                handler.questionParsed(q, error, resumePosition == -1 ? -1 : resumePosition + delta);
+            }
+        });
+    }
+
+    private Chunk createChunk(int start) throws BadLocationException {
+        Chunk chunk = new Chunk();
+        chunk.start = start == 0 ? doc.getStartPosition() : doc.createPosition(start);
+        chunk.isValid = true;
+        return chunk;
+    }
+
+    /**
+     * Returns the end of the specified chunk.
+     */
+    private int getEnd(int index) {
+        return index + 1 < chunks.size() ? chunks.get(index + 1).start.getOffset() : doc.getLength();
+    }
+
+    /**
+     * Invalidates all chunks which overlap with or are adjacent to the
+     * specified range of the document.
+     */
+    private synchronized void invalidate(int start, int end) {
+        // Find the last chunk which starts at or before the end of the range
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks.get(mid).start.getOffset() <= end) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        for (int i = low; i >= 0; i--) {
+            chunks.get(i).isValid = false;
+            if (chunks.get(i).start.getOffset() < start) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void insertUpdate(DocumentEvent e) {
+        invalidate(e.getOffset(), e.getOffset() + e.getLength());
+    }
+
+    @Override
+    public void removeUpdate(DocumentEvent e) {
+        invalidate(e.getOffset(), e.getOffset());
+    }
+
+    @Override
+    public void changedUpdate(DocumentEvent e) {
+        // Attribute changes do not affect the questions
+    }
+}
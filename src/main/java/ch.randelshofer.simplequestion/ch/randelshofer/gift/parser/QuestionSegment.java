@@ -0,0 +1,21 @@
+/*
+ * @(#)QuestionSegment.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+/**
+ * A segment of the body of a {@link Question}.
+ * <p>
+ * A segment is either a {@link QuestionText} or an {@link AnswerList}.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public interface QuestionSegment {
+    /**
+     * Returns true if this segment is an answer list, and false if it is a
+     * question text.
+     */
+    boolean isAnswerList();
+}
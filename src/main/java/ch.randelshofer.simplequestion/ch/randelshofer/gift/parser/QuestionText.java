@@ -0,0 +1,42 @@
+/*
+ * @(#)QuestionText.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+/**
+ * A question text in the body of a {@link Question}.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public final class QuestionText implements QuestionSegment {
+    private final String text;
+
+    /**
+     * Creates a new instance.
+     */
+    QuestionText(String text) {
+        if (text == null) {
+            throw new NullPointerException("text");
+        }
+        this.text = text;
+    }
+
+    /**
+     * Returns the text.
+     */
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public boolean isAnswerList() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
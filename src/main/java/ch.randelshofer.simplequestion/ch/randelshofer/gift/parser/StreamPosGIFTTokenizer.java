@@ -0,0 +1,136 @@
+/*
+ * @(#)StreamPosGIFTTokenizer.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.gift.parser;
+
+import org.jhotdraw.io.StreamPosTokenizer;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Adapts a {@code StreamPosTokenizer} to the {@link GIFTTokenizer} interface.
+ * <p>
+ * This is the tokenizer that was used by {@link GIFTParser} before
+ * {@link GIFTLexer} was introduced. It is kept for comparison.
+ * <p>
+ * {@code StreamPosTokenizer} does not report a consistent position for the
+ * end of the text. Like {@link GIFTLexer}, this adapter reports the
+ * {@code TT_EOF} token as an empty token after the last character.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 The TT_EOF token is always located after the last
+ * character.
+ * <br>1.0 2026-10-18 Created.
+ */
+class StreamPosGIFTTokenizer implements GIFTTokenizer {
+    private final StreamPosTokenizer st;
+    /**
+     * The number of characters that have been read from the reader.
+     */
+    private int length;
+
+    /**
+     * Creates a new instance which reads from the specified reader.
+     */
+    public StreamPosGIFTTokenizer(Reader reader) {
+        st = new StreamPosTokenizer(new FilterReader(reader) {
+            @Override
+            public int read() throws IOException {
+                int c = super.read();
+                if (c != -1) {
+                    length++;
+                }
+                return c;
+            }
+
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                int n = super.read(cbuf, off, len);
+                if (n > 0) {
+                    length += n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                length += (int) skipped;
+                return skipped;
+            }
+        });
+        st.resetSyntax();
+        st.whitespaceChars(0, 31);
+        st.ordinaryChar(' ');
+        st.wordChars('!', '"');
+        st.ordinaryChar('#');
+        st.wordChars('$', '$');
+        st.ordinaryChar('%');
+        st.wordChars('&', ',');
+        st.ordinaryChar('-');
+        st.ordinaryChar('.');
+        st.ordinaryChar('/');
+        st.wordChars('0', '<');
+        st.ordinaryChar('=');
+        st.ordinaryChar('>');
+        st.wordChars('?', '[');
+        st.ordinaryChar('\\');
+        st.wordChars(']', 'z');
+        st.ordinaryChar('{');
+        st.wordChars('|', '|');
+        st.ordinaryChar('}');
+        st.wordChars(0x00a1, 0xffff);
+        st.ordinaryChar('~');
+        st.ordinaryChar(':');
+        st.slashSlashComments(true);
+        st.eolIsSignificant(true);
+    }
+
+    @Override
+    public int nextToken() throws IOException {
+        return st.nextToken();
+    }
+
+    @Override
+    public void pushBack() {
+        st.pushBack();
+    }
+
+    @Override
+    public int getTokenType() {
+        return st.ttype;
+    }
+
+    @Override
+    public int lineno() {
+        return st.lineno();
+    }
+
+    @Override
+    public int getStartPosition() {
+        return st.ttype == TT_EOF ? length : st.getStartPosition();
+    }
+
+    @Override
+    public int getEndPosition() {
+        return st.ttype == TT_EOF ? length - 1 : st.getEndPosition();
+    }
+
+    @Override
+    public void appendStringValue(StringBuilder buf) {
+        buf.append(st.sval);
+    }
+
+    @Override
+    public boolean isStringValue(String str) {
+        return str.equals(st.sval);
+    }
+
+    @Override
+    public String getStringValue() {
+        return st.sval;
+    }
+}
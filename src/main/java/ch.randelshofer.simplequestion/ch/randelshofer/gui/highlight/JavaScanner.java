@@ -813,26 +813,19 @@ public class JavaScanner extends Scanner {
         lookup(LITERAL, "null");
     }
 
-    // *** Override lookup, but what about unicode escape translation?
+    // *** Override lookupType, but what about unicode escape translation?
 
-    private Symbol temp = new Symbol(0, null);
-
-    protected Symbol lookup(int type, String name) {
+    protected int lookupType(int type, char[] buffer, int offset, int length) {
         if (type != IDENTIFIER) {
-            return super.lookup(type, name);
+            return type;
         }
-        temp.type = KEYWORD;
-        temp.name = name;
-        Symbol sym = symbolTable.get(temp);
-        if (sym != null) {
-            return sym;
+        if (isSymbol(KEYWORD, buffer, offset, length)) {
+            return KEYWORD;
         }
-        temp.type = LITERAL;
-        sym = symbolTable.get(temp);
-        if (sym != null) {
-            return sym;
+        if (isSymbol(LITERAL, buffer, offset, length)) {
+            return LITERAL;
         }
-        return super.lookup(type, name);
+        return type;
     }
 
     // Classify the ascii characters using an array of kinds, and classify all
@@ -0,0 +1,143 @@
+/*
+ * @(#)RangeSet.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import java.util.Arrays;
+
+/**
+ * A set of disjoint ranges of text positions, which follows the edits of the
+ * text.
+ * <p>
+ * The ranges are sorted, and are stored in two parallel int arrays. A range
+ * includes its start position, and excludes its end position. Adjacent ranges
+ * are merged.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+class RangeSet {
+    private int[] starts = new int[4];
+    private int[] ends = new int[4];
+    private int size;
+
+    /**
+     * Returns the number of ranges.
+     */
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int getStart(int i) {
+        return starts[i];
+    }
+
+    int getEnd(int i) {
+        return ends[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a range, merging it with the ranges it overlaps or touches.
+     */
+    void add(int start, int end) {
+        if (start >= end) {
+            return;
+        }
+        // The ranges [from, to) are merged into the new range
+        int from = 0;
+        while (from < size && ends[from] < start) {
+            from++;
+        }
+        int to = from;
+        while (to < size && starts[to] <= end) {
+            start = Math.min(start, starts[to]);
+            end = Math.max(end, ends[to]);
+            to++;
+        }
+        if (from == to) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            System.arraycopy(starts, from, starts, from + 1, size - from);
+            System.arraycopy(ends, from, ends, from + 1, size - from);
+            size++;
+        } else {
+            System.arraycopy(starts, to, starts, from + 1, size - to);
+            System.arraycopy(ends, to, ends, from + 1, size - to);
+            size -= to - from - 1;
+        }
+        starts[from] = start;
+        ends[from] = end;
+    }
+
+    /**
+     * Removes a range, splitting the range which contains it.
+     */
+    void remove(int start, int end) {
+        if (start >= end) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            if (ends[i] <= start || starts[i] >= end) {
+                continue;
+            }
+            if (starts[i] < start && ends[i] > end) {
+                int oldEnd = ends[i];
+                ends[i] = start;
+                add(end, oldEnd);
+                return;
+            }
+            if (starts[i] < start) {
+                ends[i] = start;
+            } else if (ends[i] > end) {
+                starts[i] = end;
+            } else {
+                System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                System.arraycopy(ends, i + 1, ends, i, size - i - 1);
+                size--;
+                i--;
+            }
+        }
+    }
+
+    /**
+     * Moves the ranges by an edit of the text. The removed text is removed
+     * from the ranges, and the inserted text is not added to the ranges.
+     */
+    void change(int offset, int removed, int inserted) {
+        int oldSize = size;
+        int[] oldStarts = starts;
+        int[] oldEnds = ends;
+        starts = new int[oldStarts.length];
+        ends = new int[oldEnds.length];
+        size = 0;
+        int shift = inserted - removed;
+        for (int i = 0; i < oldSize; i++) {
+            add(oldStarts[i], Math.min(oldEnds[i], offset));
+            add(Math.max(oldStarts[i], offset + removed) + shift, oldEnds[i] + shift);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(starts[i]).append('-').append(ends[i]);
+        }
+        return buf.append(']').toString();
+    }
+}
@@ -40,8 +40,8 @@ class Scan {
         for (int i = 0; i < scanner.size(); i++) {
             Token t = scanner.getToken(i);
             System.out.print("" + t.position);
-            System.out.print(": " + t.symbol.name);
-            System.out.println(" " + TokenTypes.typeNames[t.symbol.type]);
+            System.out.print(": " + new String(buffer, t.position, t.length));
+            System.out.println(" " + TokenTypes.typeNames[t.type]);
         }
     }
 }
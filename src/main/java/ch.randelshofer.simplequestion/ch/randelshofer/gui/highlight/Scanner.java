@@ -62,10 +62,10 @@ import java.util.HashMap;
  * }
  * for (int i = 0; i < tokensToRedo; i++)
  * {
- *    Token t = scanner.getToken(firstRehighlightToken + i);
- *    int length = t.symbol.name.length();
- *    int type = t.symbol.type;
- *    doc.setCharacterAttributes (t.position, length, styles[type], false);
+ *    int n = firstRehighlightToken + i;
+ *    int type = scanner.getTokenType(n);
+ *    doc.setCharacterAttributes (scanner.getTokenPosition(n),
+ *          scanner.getTokenLength(n), styles[type], false);
  * }
  * firstRehighlightToken += tokensToRedo;
  * if (offset >= 0) repaint(2);
@@ -76,8 +76,20 @@ import java.util.HashMap;
  * calls to <code>scan</code>.  Only small number of characters are passed to
  * <code>scan</code> so that only a small burst of scanning is done, to prevent
  * the program's user interface from freezing.
+ * <p>
+ * The tokens are stored in parallel arrays of primitive values, so that
+ * scanning a large document does not create an object for each token.
  *
- * @version 1.3 2010-09-16 Werner Randelshofer Font Attributes for WHITESPACE
+ * @version 1.6 2026-10-18 Werner Randelshofer Added getTokenAt(), which
+ * does not move the gap.
+ * <br>1.5 2026-10-18 Werner Randelshofer Scanning was never complete,
+ * when the text up to the end of the document had been deleted.
+ * <br>1.4 2026-10-18 Werner Randelshofer Store the tokens in parallel
+ * int arrays instead of Token objects. Fixed stale tokens after insertions,
+ * deletions and rescans up to the end of the text. Scanning does not enter
+ * the words of the text into the symbol table. A deletion keeps the tokens
+ * after the change.
+ * <br>1.3 2010-09-16 Werner Randelshofer Font Attributes for WHITESPACE
  * were not set.
  * <br>1.2 2006-10-09 Werner Randelshofer Don't repaint for each update.
  * <br>1.1 2006-05-11 Werner Randelshofer Font style attributes were not always
@@ -110,13 +122,17 @@ public class Scanner implements TokenTypes {
      */
     protected int state = WHITESPACE;
 
-    // The array of tokens forms a gap buffer.  The total length of the text is
+    // The arrays of tokens form a gap buffer.  The total length of the text is
     // tracked, and tokens after the gap have (negative) positions relative to
     // the end of the text.  While scanning, the gap represents the area to be
     // scanned, no tokens after the gap can be taken as valid, and in particular
-    // the end-of-text sentinel token is after the gap.
+    // the end-of-text sentinel token is after the gap.  A token is stored at
+    // the same index in the arrays of positions, lengths, types and contexts.
 
-    private Token[] tokens;
+    private int[] positions;
+    private int[] lengths;
+    private int[] types;
+    private int[] contexts;
     private int gap, endgap, textLength;
     private boolean scanning;
     private int position;
@@ -125,6 +141,10 @@ public class Scanner implements TokenTypes {
      * <code>lookup</code>, if they are overridden.  Symbols are inserted with
      * <code>symbolTable.put(sym,sym)</code> and extracted with
      * <code>symbolTable.get(sym)</code>.
+     * <p>
+     * The table holds the symbols entered by <code>initSymbolTable</code>,
+     * such as keywords.  Scanning does not enter symbols, so that the table
+     * does not grow with the words of the text.
      */
     protected HashMap<Symbol, Symbol> symbolTable;
 
@@ -135,14 +155,16 @@ public class Scanner implements TokenTypes {
      * input stream, a bufferful at a time.
      */
     protected Scanner() {
-        tokens = new Token[1];
+        // The end-of-text sentinel is a whitespace token of length 0
+        positions = new int[1];
+        lengths = new int[1];
+        types = new int[]{WHITESPACE};
+        contexts = new int[1];
         gap = 0;
         endgap = 0;
         textLength = 0;
         symbolTable = new HashMap<>();
         initSymbolTable();
-        Symbol endOfText = new Symbol(WHITESPACE, "");
-        tokens[0] = new Token(endOfText, 0);
         scanning = false;
         position = 0;
     }
@@ -218,22 +240,32 @@ public class Scanner implements TokenTypes {
         if (scanning) {
             throw new Error("moveGap called while scanning");
         }
-        if (newgap < 0 || newgap > gap + tokens.length - endgap) {
+        if (newgap < 0 || newgap > gap + positions.length - endgap) {
             throw new Error("bad argument to moveGap");
         }
         if (gap < newgap) {
             while (gap < newgap) {
-                tokens[endgap].position += textLength;
-                tokens[gap++] = tokens[endgap++];
+                positions[endgap] += textLength;
+                copyToken(endgap++, gap++);
             }
         } else if (gap > newgap) {
             while (gap > newgap) {
-                tokens[--endgap] = tokens[--gap];
-                tokens[endgap].position -= textLength;
+                copyToken(--gap, --endgap);
+                positions[endgap] -= textLength;
             }
         }
     }
 
+    /**
+     * Copies the token at index from to index to.
+     */
+    private void copyToken(int from, int to) {
+        positions[to] = positions[from];
+        lengths[to] = lengths[from];
+        types[to] = types[from];
+        contexts[to] = contexts[from];
+    }
+
     /**
      * Find the number of available valid tokens, not counting tokens in or
      * after any area yet to be rescanned.
@@ -242,12 +274,13 @@ public class Scanner implements TokenTypes {
         if (scanning) {
             return gap;
         } else {
-            return gap + tokens.length - endgap;
+            return gap + positions.length - endgap;
         }
     }
 
     /**
-     * Find the n'th token, or null if it is not currently valid.
+     * Find the n'th token, or null if it is not currently valid.  The token
+     * is a copy, which does not change when the text is rescanned.
      */
     public Token getToken(int n) {
         if (n < 0 || n >= gap && scanning) {
@@ -256,7 +289,57 @@ public class Scanner implements TokenTypes {
         if (n >= gap) {
             moveGap(n + 1);
         }
-        return tokens[n];
+        return new Token(types[n], positions[n], lengths[n], contexts[n]);
+    }
+
+    /**
+     * Prepares access to the n'th token.
+     *
+     * @throws IndexOutOfBoundsException if the token is not currently valid
+     */
+    private void checkToken(int n) {
+        if (n < 0 || n >= size()) {
+            throw new IndexOutOfBoundsException("token " + n + ", size " + size());
+        }
+        if (n >= gap) {
+            moveGap(n + 1);
+        }
+    }
+
+    /**
+     * Returns the text position of the n'th token.  The token must be valid,
+     * that is n must be less than <code>size()</code>.
+     */
+    public int getTokenPosition(int n) {
+        checkToken(n);
+        return positions[n];
+    }
+
+    /**
+     * Returns the number of characters of the n'th token.  The token must be
+     * valid, that is n must be less than <code>size()</code>.
+     */
+    public int getTokenLength(int n) {
+        checkToken(n);
+        return lengths[n];
+    }
+
+    /**
+     * Returns the type of the n'th token.  The token must be valid, that is n
+     * must be less than <code>size()</code>.
+     */
+    public int getTokenType(int n) {
+        checkToken(n);
+        return types[n];
+    }
+
+    /**
+     * Returns the context of the n'th token.  The token must be valid, that is
+     * n must be less than <code>size()</code>.
+     */
+    public int getTokenContext(int n) {
+        checkToken(n);
+        return contexts[n];
     }
 
     /**
@@ -266,15 +349,15 @@ public class Scanner implements TokenTypes {
     public int find(int p) {
         int start = 0, end, mid, midpos;
         if (!scanning) {
-            moveGap(gap + tokens.length - endgap);
+            moveGap(gap + positions.length - endgap);
         }
         end = gap - 1;
-        if (p > tokens[end].position) {
+        if (p > positions[end]) {
             return end;
         }
         while (end > start + 1) {
             mid = (start + end) / 2;
-            midpos = tokens[mid].position;
+            midpos = positions[mid];
             if (p > midpos) {
                 start = mid;
             } else {
@@ -284,6 +367,61 @@ public class Scanner implements TokenTypes {
         return start;
     }
 
+    /**
+     * Find the token which contains text position p, and store its start and
+     * end position in <code>bounds[0]</code> and <code>bounds[1]</code>.  The
+     * call returns the type of the token.
+     * <p>
+     * Unlike <code>find()</code>, this method does not move the gap, so it can
+     * be called while scanning.  Then the old tokens after the gap are used for
+     * the text which has not been rescanned yet, and the text between them and
+     * the valid tokens is returned as a WHITESPACE token.  The bounds always
+     * contain p.
+     */
+    public int getTokenAt(int p, int[] bounds) {
+        int start, end, mid;
+
+        // The valid tokens before the gap
+        int validEnd = gap > 0 ? positions[gap - 1] + lengths[gap - 1] : 0;
+        if (p < validEnd) {
+            start = 0;
+            end = gap - 1;
+            while (end > start) {
+                mid = (start + end + 1) / 2;
+                if (positions[mid] <= p) {
+                    start = mid;
+                } else {
+                    end = mid - 1;
+                }
+            }
+            bounds[0] = positions[start];
+            bounds[1] = positions[start] + lengths[start];
+            return types[start];
+        }
+
+        // The tokens after the gap, with positions relative to the end of the
+        // text
+        start = endgap - 1;
+        end = positions.length - 1;
+        while (end > start) {
+            mid = (start + end + 1) / 2;
+            if (positions[mid] + textLength <= p) {
+                start = mid;
+            } else {
+                end = mid - 1;
+            }
+        }
+        int tokenEnd = start < endgap ? validEnd : positions[start] + textLength + lengths[start];
+        if (start >= endgap && p < tokenEnd) {
+            bounds[0] = Math.max(validEnd, positions[start] + textLength);
+            bounds[1] = tokenEnd;
+            return types[start];
+        }
+        bounds[0] = Math.max(validEnd, tokenEnd);
+        bounds[1] = start + 1 < positions.length ? positions[start + 1] + textLength : Math.max(p + 1, textLength);
+        return WHITESPACE;
+    }
+
     /**
      * Report the position of an edit, the length of the text being replaced,
      * and the length of the replacement text, to prepare for rescanning.  The
@@ -295,105 +433,92 @@ public class Scanner implements TokenTypes {
             throw new Error("change(" + start + "," + len + "," + newLen + ")");
         }
 
+        // getToken() and find() may have moved the end-of-text sentinel before
+        // the gap
+        if (endgap == positions.length) {
+            moveGap(gap - 1);
+        }
+        int oldTextLength = textLength;
         textLength += newLen - len;
         int newEnd = start + newLen;
-        int maxEnd = Math.max(start + len, newEnd);
 
         if (newLen < len) {
-            while (gap > 0 && tokens[gap - 1].position > start) {
-                gap--;
+            if (scanning) {
+                while (gap > 0 && positions[gap - 1] > start) {
+                    gap--;
+                }
+            } else {
+                moveGapToChange(start, oldTextLength);
             }
-            while (endgap < tokens.length - 1 && tokens[endgap].position < maxEnd) {
+            while (endgap < positions.length - 1 && positions[endgap] + textLength < newEnd) {
                 endgap++;
             }
             if (gap > 1) {
                 gap -= 2;
-                position = tokens[gap].position;
-                context = tokens[gap].context;
-                state = tokens[gap].symbol.type;
+                position = positions[gap];
+                context = contexts[gap];
+                state = types[gap];
             } else {
                 gap = 0;
                 position = 0;
                 context = 0;
                 state = WHITESPACE;
             }
-                /*
-            gap = 0;
-            tokens[tokens.length - 1] = tokens[endgap];
-            endgap = tokens.length - 1;
-            position = 0;
-            state = WHITESPACE;
-            context = 0;*/
         } else {
             if (scanning) {
-                while (gap > 0 && tokens[gap - 1].position > start) {
+                while (gap > 0 && positions[gap - 1] > start) {
                     gap--;
                 }
                 if (gap > 1) {
                     gap -= 2;
-                    position = tokens[gap].position;
-                    state = tokens[gap].symbol.type;
+                    position = positions[gap];
+                    state = types[gap];
                 } else {
                     gap = 0;
                     position = 0;
                     state = WHITESPACE;
                 }
-                while (tokens[endgap].position + textLength < newEnd) {
+                while (positions[endgap] + textLength < newEnd) {
                     endgap++;
                 }
                 return gap;
             }
-            if (endgap == tokens.length) {
-                moveGap(gap - 1);
-            }
-            while (tokens[endgap].position + textLength < start) {
-                tokens[endgap].position += textLength;
-                //System.out.println("shifting token down from "+endgap+" to "+gap);
-                tokens[gap++] = tokens[endgap++];
-            }
-            while (gap > 0 && tokens[gap - 1].position > start) {
-                //System.out.println("shifting token up from "+gap+" to "+endgap);
-                tokens[--endgap] = tokens[--gap];
-                tokens[endgap].position -= textLength;
-            }
+            moveGapToChange(start, oldTextLength);
             if (gap > 2) {
                 gap -= 3;
-                position = tokens[gap].position;
-                state = tokens[gap].symbol.type;
+                position = positions[gap];
+                state = types[gap];
             } else {
                 gap = 0;
                 position = 0;
                 context = 0;
                 state = WHITESPACE;
             }
-            while (tokens[endgap].position + textLength < newEnd) {
+            while (positions[endgap] + textLength < newEnd) {
                 endgap++;
             }
         }
         scanning = true;
 
         return gap;
-        
-/*
-        textLength += newLen - len;
- 
- 
-        // FIXME - The above code is buggy
-        // As a workaround, if we get a negative position, we rescan the whole
-        // text
-        if (position < 0) {
-            gap = 0;
-            endgap = 0;
-            //textLength = 0;
-            Symbol endOfText = new Symbol(WHITESPACE, "");
-            tokens = new Token[1];
-            tokens[0] = new Token(endOfText, 0);
-            position = 0;
-            state = WHITESPACE;
-            System.err.println("SCANNER is BUSTED - Rescanning everything!");
+    }
+
+    /**
+     * Move the gap to the text position of a change, so that the tokens after
+     * the change are kept.  The tokens which are moved across the gap are
+     * still relative to the text before the change.
+     */
+    private void moveGapToChange(int start, int oldTextLength) {
+        while (positions[endgap] + oldTextLength < start) {
+            positions[endgap] += oldTextLength;
+            //System.out.println("shifting token down from "+endgap+" to "+gap);
+            copyToken(endgap++, gap++);
+        }
+        while (gap > 0 && positions[gap - 1] > start) {
+            //System.out.println("shifting token up from "+gap+" to "+endgap);
+            copyToken(--gap, --endgap);
+            positions[endgap] -= oldTextLength;
         }
-        return gap;
- */
     }
 
     /**
@@ -420,10 +545,16 @@ public class Scanner implements TokenTypes {
 
     private Symbol symbol = new Symbol(0, null);
 
+    // Reuse this key to look up a spelling in the symbol table without
+    // creating a String.
+
+    private CharSymbol key = new CharSymbol();
+
     /**
-     * Lookup a symbol in the symbol table.  This can be overridden to implement
-     * keyword detection, for example.  The default implementation just uses the
-     * table to ensure that there is only one shared occurrence of each symbol.
+     * Lookup a symbol in the symbol table, and enter it if it is not yet
+     * there.  The default implementation just uses the table to ensure that
+     * there is only one shared occurrence of each symbol.  This is used by
+     * <code>initSymbolTable</code> to enter keywords, for example.
      */
     protected Symbol lookup(int type, String name) {
         symbol.type = type;
@@ -446,6 +577,75 @@ public class Scanner implements TokenTypes {
         return symbolTable.containsKey(symbol);
     }
 
+    /**
+     * Returns true, if the name given by a range of characters is already in
+     * the symbol table.
+     */
+    protected boolean isSymbol(int type, char[] buffer, int offset, int length) {
+        key.set(type, buffer, offset, length);
+        return symbolTable.containsKey(key);
+    }
+
+    /**
+     * Determine the type of a token, which has been read with the given type
+     * from a range of characters.  This can be overridden to implement
+     * keyword detection with <code>isSymbol</code>, for example.  The default
+     * implementation returns the type which has been read.
+     */
+    protected int lookupType(int type, char[] buffer, int offset, int length) {
+        return type;
+    }
+
+    /**
+     * A symbol, whose name is a range of characters in a buffer.  It has the
+     * same hash code as a symbol with the same type and name, and is equal
+     * to it.
+     */
+    private static class CharSymbol extends Symbol {
+        private char[] buffer;
+        private int offset;
+        private int length;
+
+        CharSymbol() {
+            super(0, null);
+        }
+
+        void set(int type, char[] buffer, int offset, int length) {
+            this.type = type;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Form the same hash value as <code>String.hashCode()</code> of the
+         * name plus the type.
+         */
+        public int hashCode() {
+            int h = 0;
+            for (int i = offset, end = offset + length; i < end; i++) {
+                h = 31 * h + buffer[i];
+            }
+            return h + type;
+        }
+
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Symbol)) {
+                return false;
+            }
+            Symbol that = (Symbol) obj;
+            if (that.type != type || that.name == null || that.name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (that.name.charAt(i) != buffer[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * Scan or rescan a given read-only segment of text.  The segment is assumed
      * to represent a portion of the document starting at
@@ -469,10 +669,18 @@ public class Scanner implements TokenTypes {
         start = offset;
         end = start + length;
 
+        if (all && length == 0) {
+            // Nothing is left to scan, discard the old tokens up to the
+            // end-of-text sentinel
+            endgap = positions.length - 1;
+            scanning = false;
+            return 0;
+        }
+
         // BEGIN PATCH Werner Randelshofer
         if (gap > 0) {
-            state = tokens[gap - 1].symbol.type;
-            context = tokens[gap - 1].context;
+            state = types[gap - 1];
+            context = contexts[gap - 1];
         } else {
             state = WHITESPACE;
             context = 0;
@@ -493,35 +701,39 @@ public class Scanner implements TokenTypes {
             if (tokenStart >= buffer.length || start > buffer.length) {
                 break;
             }
-            String name = type == WHITESPACE ? " "
-                    : new String(buffer, tokenStart, start - tokenStart);
-            Symbol sym = lookup(type, name);
-            Token t = new Token(sym, position);
-            t.context = context;
+            int symbolType = type == WHITESPACE ? WHITESPACE
+                    : lookupType(type, buffer, tokenStart, start - tokenStart);
             if (gap >= endgap) {
-                checkCapacity(gap + tokens.length - endgap + 1);
+                checkCapacity(gap + positions.length - endgap + 1);
             }
-            tokens[gap++] = t;
+            positions[gap] = position;
+            lengths[gap] = start - tokenStart;
+            types[gap] = symbolType;
+            contexts[gap] = context;
+            gap++;
             //}
 
             // Try to synchronise
-            while (tokens[endgap].position + textLength < position) {
+            while (positions[endgap] + textLength < position) {
                 endgap++;
             }
             if (position + start - tokenStart == textLength) {
+                // Discard the old tokens up to the end-of-text sentinel
+                endgap = positions.length - 1;
                 scanning = false;
             } else if (
                     gap > 0
-                            && tokens[endgap].position + textLength == position
-                            && tokens[endgap].symbol.type == type
-                            && tokens[endgap].context == context) {
+                            && positions[endgap] + textLength == position
+                            && lengths[endgap] == start - tokenStart
+                            && types[endgap] == type
+                            && contexts[endgap] == context) {
                 endgap++;
                 scanning = false;
                 break;
             }
             position += start - tokenStart;
         }
-        checkCapacity(gap + tokens.length - endgap);
+        checkCapacity(gap + positions.length - endgap);
         return gap - startGap;
     }
 
@@ -530,11 +742,10 @@ public class Scanner implements TokenTypes {
      * halving if it becomes less than a quarter full.
      */
     private void checkCapacity(int capacity) {
-        int oldCapacity = tokens.length;
+        int oldCapacity = positions.length;
         if (capacity <= oldCapacity && 4 * capacity >= oldCapacity) {
             return;
         }
-        Token[] oldTokens = tokens;
         int newCapacity;
         if (capacity > oldCapacity) {
             newCapacity = oldCapacity * 2;
@@ -545,23 +756,35 @@ public class Scanner implements TokenTypes {
             newCapacity = capacity * 2;
         }
 
-        tokens = new Token[newCapacity];
-        System.arraycopy(oldTokens, 0, tokens, 0, gap);
         int n = oldCapacity - endgap;
-        System.arraycopy(oldTokens, endgap, tokens, newCapacity - n, n);
+        positions = resize(positions, newCapacity, n);
+        lengths = resize(lengths, newCapacity, n);
+        types = resize(types, newCapacity, n);
+        contexts = resize(contexts, newCapacity, n);
         endgap = newCapacity - n;
     }
 
+    /**
+     * Copies the tokens before the gap and the n tokens after the gap into
+     * a new array with the specified capacity.
+     */
+    private int[] resize(int[] oldArray, int newCapacity, int n) {
+        int[] newArray = new int[newCapacity];
+        System.arraycopy(oldArray, 0, newArray, 0, gap);
+        System.arraycopy(oldArray, oldArray.length - n, newArray, newCapacity - n, n);
+        return newArray;
+    }
+
     public void print() {
-        for (int i = 0; i < tokens.length; i++) {
+        for (int i = 0; i < positions.length; i++) {
             if (i >= gap && i < endgap) {
                 continue;
             }
             if (i == endgap) {
                 System.out.print("... ");
             }
-            System.out.print("" + i + ":" + tokens[i].position);
-            System.out.print("-" + (tokens[i].position + tokens[i].symbol.name.length()));
+            System.out.print("" + i + ":" + positions[i]);
+            System.out.print("-" + (positions[i] + lengths[i]));
             System.out.print(" ");
         }
         System.out.println();
@@ -570,7 +793,7 @@ public class Scanner implements TokenTypes {
     public String dump() {
         StringBuilder buf = new StringBuilder();
 
-        for (int i = 0; i < tokens.length; i++) {
+        for (int i = 0; i < positions.length; i++) {
             if (i >= gap && i < endgap) {
                 continue;
             }
@@ -579,9 +802,7 @@ public class Scanner implements TokenTypes {
             }
             buf.append(i);
             buf.append(':');
-            if (tokens[i] != null) {
-                buf.append(tokens[i].dump());
-            }
+            buf.append(new Token(types[i], positions[i], lengths[i], contexts[i]).dump());
             buf.append('\n');
         }
 
@@ -0,0 +1,61 @@
+/*
+ * @(#)StyleRuns.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import javax.swing.text.Style;
+import java.util.Arrays;
+
+/**
+ * The runs of text with the same style in a range of text.
+ * <p>
+ * The runs are stored in two parallel arrays with the end position and the
+ * style of each run. A run starts at the end of the previous run, or at the
+ * start of the range. Adjacent runs with the same style are merged.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+class StyleRuns {
+    private int[] ends = new int[8];
+    private Style[] styles = new Style[8];
+    private int size;
+
+    /**
+     * Returns the number of runs.
+     */
+    int size() {
+        return size;
+    }
+
+    int getEnd(int i) {
+        return ends[i];
+    }
+
+    Style getStyle(int i) {
+        return styles[i];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a run which ends at the specified position.
+     */
+    void add(int end, Style style) {
+        if (size > 0 && styles[size - 1] == style) {
+            ends[size - 1] = end;
+            return;
+        }
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, size * 2);
+            styles = Arrays.copyOf(styles, size * 2);
+        }
+        ends[size] = end;
+        styles[size] = style;
+        size++;
+    }
+}
@@ -13,22 +13,49 @@ import javax.swing.event.DocumentListener;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultStyledDocument;
 import javax.swing.text.Document;
+import javax.swing.text.EditorKit;
+import javax.swing.text.Element;
 import javax.swing.text.Segment;
 import javax.swing.text.Style;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
+import javax.swing.text.View;
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.Graphics;
-import java.io.IOException;
-import java.io.Reader;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Display text with syntax highlighting.  Highlighting is done with full
- * accuracy, using a given language scanner.  Large amounts of re-highlighting
- * are done in small bursts to make sure the user interface doesn't freeze.
+ * accuracy, using a given language scanner.
+ * <p>
+ * The highlighting does not change the attributes of the document. The
+ * {@link TokenView}s paint the text with the styles of the tokens, which
+ * are looked up from the scanner at paint time. So the element tree of the
+ * document stays small, and highlighting does not create undoable edits.
+ * <p>
+ * The document is scanned by a background thread, in chunks which are read
+ * while the document is locked for reading. The text of the rescanned tokens
+ * is marked as dirty. On the event dispatch thread, the views of the dirty
+ * text are updated in time slices, so that the user interface doesn't freeze.
+ * The dirty text in the visible area is updated first, then the dirty text
+ * nearest to it, so that scrolling changes which text is updated next. When
+ * the document is edited, the scanner restarts at the first changed token.
  *
- * @version 1.3 2010-09-16 Werner Randelshofer Font Attributes for WHITESPACE
+ * @version 1.8 2026-10-18 Werner Randelshofer Read the styles of a range
+ * of text at once, with getStyleRuns.
+ * <br>1.7 2026-10-18 Werner Randelshofer Paint the tokens with their
+ * styles, instead of setting character attributes.
+ * <br>1.6 2026-10-18 Werner Randelshofer Style the visible text first.
+ * <br>1.5 2026-10-18 Werner Randelshofer Scan the document in a
+ * background thread, and apply the styles in time slices.
+ * <br>1.4 2026-10-18 Werner Randelshofer Read the tokens from the
+ * scanner without creating Token objects.
+ * <br>1.3 2010-09-16 Werner Randelshofer Font Attributes for WHITESPACE
  * were not set.
  * <br>1.2 2006-10-09 Werner Randelshofer Don't repaint for each update.
  * <br>1.1 2006-05-11 Werner Randelshofer Font style attributes were not always
@@ -36,16 +63,61 @@ import java.io.Reader;
  */
 public class SyntaxHighlighter extends JTextPane implements DocumentListener, TokenTypes {
     static final long serialVersionUID = 1L;
-    private StyledDocument doc;
+    /**
+     * The maximal number of characters which are scanned while the document
+     * is locked.
+     */
+    private final static int CHUNK_SIZE = 16384;
+    /**
+     * The maximal time in nanoseconds which is spent updating views, before
+     * the event dispatch thread gets a go.
+     */
+    private final static long TIME_SLICE = 10000000L;
+    /**
+     * The maximal number of characters, which are updated in one go.
+     */
+    private final static int PIECE_SIZE = 4096;
+    /**
+     * The thread which scans the documents of all highlighters.
+     */
+    private static ExecutorService scanExecutor;
+
+    private volatile StyledDocument doc;
     private Scanner scanner;
+    private final TokenPainter tokenPainter;
 
-    private Runnable highlightUpdater = new Runnable() {
+    /**
+     * Guards the scanner, and the state which is shared between the scanning
+     * thread and the event dispatch thread. When the document is locked too,
+     * the document has to be locked first.
+     */
+    private final Object lock = new Object();
+    /**
+     * The text which has been rescanned, but whose views have not been
+     * updated yet.
+     */
+    private final RangeSet dirty = new RangeSet();
+    private boolean isScanQueued;
+    private boolean isUpdateQueued;
+
+    private final Runnable scanTask = new Runnable() {
         @Override
         public void run() {
-            updateHighlight();
+            scanDocument();
+        }
+    };
+    private final Runnable scanStarter = new Runnable() {
+        @Override
+        public void run() {
+            getScanExecutor().execute(scanTask);
+        }
+    };
+    private final Runnable viewUpdater = new Runnable() {
+        @Override
+        public void run() {
+            updateViews();
         }
     };
-
 
     /**
      * Create a graphics component which displays text with syntax highlighting.
@@ -55,8 +127,12 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
         super(new DefaultStyledDocument());
         doc = (StyledDocument) getDocument();
         this.scanner = scanner;
+        tokenPainter = new TokenPainter(this);
         doc.addDocumentListener(this);
         initStyles();
+        synchronized (lock) {
+            rescan(0, 0, doc.getLength());
+        }
     }
 
     /**
@@ -66,7 +142,7 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
     public void setDocument(Document newValue) {
         int oldLength = 0;
         if (doc != null) {
-            oldLength = getDocument().getLength();
+            oldLength = doc.getLength();
             doc.removeDocumentListener(this);
         }
         doc = (StyledDocument) newValue;
@@ -74,30 +150,25 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
         if (doc != null) {
             doc.addDocumentListener(this);
             if (scanner != null) {
-                int newLength = getDocument().getLength();
-                firstRehighlightToken = scanner.change(0, oldLength, newLength);
-                //scanner.change(0, 0, newLength);
+                synchronized (lock) {
+                    dirty.clear();
+                    rescan(0, oldLength, doc.getLength());
+                }
             }
-            updateLater();
         }
     }
     /** END PATCH Werner Randelshofer. */
 
+    @Override
+    protected EditorKit createDefaultEditorKit() {
+        return new TokenEditorKit();
+    }
+
     /**
-     * Read new text into the component from a <code>Reader</code>.  Overrides
-     * <code>read</code> in <code>JTextComponent</code> in order to highlight
-     * the new text.
+     * Returns the painter of the {@link TokenView}s.
      */
-    @Override
-    public void read(Reader in, Object desc) throws IOException {
-        int oldLength = getDocument().getLength();
-        doc.removeDocumentListener(this);
-        super.read(in, desc);
-        doc = (StyledDocument) getDocument();
-        doc.addDocumentListener(this);
-        int newLength = getDocument().getLength();
-        firstRehighlightToken = scanner.change(0, oldLength, newLength);
-        updateLater();
+    TokenPainter getTokenPainter() {
+        return tokenPainter;
     }
 
     @Override
@@ -105,13 +176,13 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
         super.setFont(font);
         if (doc != null) {
             updateStyles();
-            //setDocument(doc);
             if (scanner != null) {
-                int newLength = getDocument().getLength();
-                firstRehighlightToken = scanner.change(0, newLength, newLength);
-                //scanner.change(0, 0, newLength);
+                // Update the views of the whole document
+                synchronized (lock) {
+                    int length = doc.getLength();
+                    rescan(0, length, length);
+                }
             }
-            updateLater();
         }
     }
 
@@ -210,12 +281,7 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
      */
     @Override
     public void insertUpdate(DocumentEvent e) {
-        int offset = e.getOffset();
-        int length = e.getLength();
-//System.out.println("SyntaxHighlighter.insertUpdate o="+offset+" len="+length);
-        firstRehighlightToken = scanner.change(offset, 0, length);
-        //repaint();
-        updateLater();
+        change(e.getOffset(), 0, e.getLength());
     }
 
     /**
@@ -224,11 +290,7 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
      */
     @Override
     public void removeUpdate(DocumentEvent e) {
-        int offset = e.getOffset();
-        int length = e.getLength();
-        firstRehighlightToken = scanner.change(offset, length, 0);
-        //repaint();
-        updateLater();
+        change(e.getOffset(), e.getLength(), 0);
     }
 
     /**
@@ -240,78 +302,320 @@ public class SyntaxHighlighter extends JTextPane implements DocumentListener, To
         // Do nothing.
     }
 
-    // Scan a small portion of the document.  If more is needed, call repaint()
-    // so the GUI gets a go and doesn't freeze, but calls this again later.
-
     Segment text = new Segment();
     int firstRehighlightToken;
     int smallAmount = 100;
 
     /**
-     * <font style='color:gray;'>Ignore this method. Carries out a small
-     * amount of re-highlighting for each call to <code>repaint</code>.</font>
+     * Moves the dirty text by an edit of the document, and restarts the
+     * scanner at the first changed token. This method is called while the
+     * document is locked for writing.
      */
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        updateHighlight();
+    private void change(int offset, int removed, int inserted) {
+        synchronized (lock) {
+            dirty.change(offset, removed, inserted);
+            rescan(offset, removed, inserted);
+        }
     }
 
-    private void updateHighlight() {
-        synchronized (highlightUpdater) {
-            if (scanner != null) {
-                int offset = scanner.position();
-                //System.out.println("updateHighlight offset:"+offset);
-                if (offset < 0) {
-                    return;
+    /**
+     * Tells the scanner about a change, and schedules scanning. Scanning
+     * starts after the current event has been processed, so that a text which
+     * is inserted in pieces is scanned in one go. The caller must hold the
+     * lock.
+     */
+    private void rescan(int offset, int removed, int inserted) {
+        firstRehighlightToken = scanner.change(offset, removed, inserted);
+        if (!isScanQueued) {
+            isScanQueued = true;
+            SwingUtilities.invokeLater(scanStarter);
+        }
+    }
+
+    private static synchronized ExecutorService getScanExecutor() {
+        if (scanExecutor == null) {
+            scanExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "SyntaxHighlighter");
+                    t.setDaemon(true);
+                    return t;
                 }
+            });
+        }
+        return scanExecutor;
+    }
 
-                int tokensToRedo = 0;
-                int amount = smallAmount;
-                while (tokensToRedo == 0 && offset >= 0) {
-                    int length = doc.getLength() - offset;
-                    if (length > amount) {
-                        length = amount;
-                    }
-                    try {
-                        doc.getText(offset, length, text);
-                    } catch (BadLocationException e) {
-                        return;
-                    }
-                    tokensToRedo = scanner.scan(text.array, text.offset, text.count);
-                    offset = scanner.position();
-                    amount = 2 * amount;
+    /**
+     * Scans the document chunk by chunk, until the scanner is in sync with
+     * the document. This method is invoked on the scanning thread.
+     */
+    private void scanDocument() {
+        final boolean[] isInSync = new boolean[1];
+        do {
+            final StyledDocument d = doc;
+            d.render(new Runnable() {
+                @Override
+                public void run() {
+                    isInSync[0] = scanChunk(d);
                 }
-                for (int i = 0; i < tokensToRedo; i++) {
-                    Token t = scanner.getToken(firstRehighlightToken + i);
-                    if (t == null) {
-                        return;
+            });
+        } while (!isInSync[0]);
+    }
+
+    /**
+     * Scans a chunk of the document, and marks the text of the rescanned
+     * tokens as dirty. This method is invoked on the scanning thread, while
+     * the document is locked for reading.
+     *
+     * @return true if the scanner is in sync with the document.
+     */
+    private boolean scanChunk(StyledDocument d) {
+        synchronized (lock) {
+            int offset = scanner.position();
+            if (offset < 0) {
+                isScanQueued = false;
+                return true;
+            }
+            if (d != doc) {
+                // The document has been replaced, continue with the new one
+                return false;
+            }
+            int scanned = 0;
+            int amount = smallAmount;
+            while (offset >= 0 && scanned < CHUNK_SIZE) {
+                int length = Math.min(amount, d.getLength() - offset);
+                try {
+                    d.getText(offset, length, text);
+                } catch (BadLocationException e) {
+                    isScanQueued = false;
+                    return true;
+                }
+                int tokensToRedo = scanner.scan(text.array, text.offset, text.count);
+                if (tokensToRedo > 0) {
+                    int last = Math.min(firstRehighlightToken + tokensToRedo, scanner.size()) - 1;
+                    if (last >= firstRehighlightToken) {
+                        dirty.add(scanner.getTokenPosition(firstRehighlightToken),
+                                scanner.getTokenPosition(last) + scanner.getTokenLength(last));
                     }
-                    int length = t.symbol.name.length();
-                    int type = t.symbol.type;
-                    if (type < 0) {
-                        type = UNRECOGNIZED;
+                    firstRehighlightToken += tokensToRedo;
+                }
+                scanned += length;
+                offset = scanner.position();
+                amount = 2 * amount;
+            }
+            if (!dirty.isEmpty() && !isUpdateQueued) {
+                isUpdateQueued = true;
+                SwingUtilities.invokeLater(viewUpdater);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Updates the views of the dirty text in time slices, starting with the
+     * visible text, until no dirty text is left. This method is invoked on the
+     * event dispatch thread.
+     */
+    private void updateViews() {
+        long deadline = System.nanoTime() + TIME_SLICE;
+        int visibleStart = getVisibleStart();
+        int visibleEnd = Math.max(visibleStart, getVisibleEnd());
+        for (; ; ) {
+            int start = 0, end = 0;
+            synchronized (lock) {
+                // Only the tokens before the scanning position are valid
+                int limit = scanner.position() < 0 ? Integer.MAX_VALUE : scanner.position();
+
+                // Find the dirty text which is nearest to the visible text
+                int distance = Integer.MAX_VALUE;
+                for (int i = 0; i < dirty.size() && dirty.getStart(i) < limit; i++) {
+                    int s = dirty.getStart(i);
+                    int e = Math.min(dirty.getEnd(i), limit);
+                    int dist = e <= visibleStart ? visibleStart - e + 1
+                            : s > visibleEnd ? s - visibleEnd : 0;
+                    if (dist < distance) {
+                        distance = dist;
+                        if (dist == 0) {
+                            start = Math.max(s, visibleStart);
+                            end = Math.min(e, start + PIECE_SIZE);
+                        } else if (e <= visibleStart) {
+                            start = Math.max(s, e - PIECE_SIZE);
+                            end = e;
+                        } else {
+                            start = s;
+                            end = Math.min(e, s + PIECE_SIZE);
+                        }
                     }
-                    doc.setCharacterAttributes(t.position, length, styles[type], false);
                 }
-                firstRehighlightToken += tokensToRedo;
-                if (offset >= 0) {
-                    updateLater();
-                    //repaint(2);
-            /*
-            javax.swing.Timer timer = new javax.swing.Timer(2, repainter);
-            timer.setRepeats(false);
-            timer.setInitialDelay(2);
-            timer.start();
-             */
+                if (distance == Integer.MAX_VALUE) {
+                    // The remaining dirty text has not been scanned yet
+                    isUpdateQueued = false;
+                    return;
+                }
+                if (System.nanoTime() > deadline) {
+                    SwingUtilities.invokeLater(viewUpdater);
+                    return;
                 }
+                dirty.remove(start, end);
             }
+            updateViews(start, end);
         }
     }
 
-    private void updateLater() {
-        if (highlightUpdater != null) {
-            SwingUtilities.invokeLater(highlightUpdater);
+    /**
+     * Tells the views of the specified text, that the styles of the text have
+     * changed. The views lay out and repaint the text, like they do when
+     * the attributes of the text have changed.
+     */
+    void updateViews(final int start, final int end) {
+        final StyledDocument d = doc;
+        d.render(new Runnable() {
+            @Override
+            public void run() {
+                int length = Math.min(end, d.getLength()) - start;
+                if (length > 0) {
+                    View root = getUI().getRootView(SyntaxHighlighter.this);
+                    root.changedUpdate(new StyleChange(d, start, length), getTextAllocation(), root.getViewFactory());
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the allocation of the text, or null if the highlighter has not
+     * been laid out.
+     */
+    private Rectangle getTextAllocation() {
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            return null;
+        }
+        Insets insets = getInsets();
+        return new Rectangle(insets.left, insets.top,
+                getWidth() - insets.left - insets.right,
+                getHeight() - insets.top - insets.bottom);
+    }
+
+    /**
+     * Returns the position of the first visible character.
+     */
+    int getVisibleStart() {
+        Rectangle r = getVisibleRect();
+        return r.isEmpty() ? 0 : Math.max(0, viewToModel2D(new Point(r.x, r.y)));
+    }
+
+    /**
+     * Returns the position after the last visible character.
+     */
+    int getVisibleEnd() {
+        Rectangle r = getVisibleRect();
+        return r.isEmpty() ? 0 : viewToModel2D(new Point(r.x + r.width, r.y + r.height));
+    }
+
+    /**
+     * Returns the style of the token at the specified position, and stores
+     * the start and end position of the token in the bounds array.
+     */
+    Style getStyleAt(int position, int[] bounds) {
+        synchronized (lock) {
+            int type = scanner.getTokenAt(position, bounds);
+            return styles[type < 0 ? UNRECOGNIZED : type];
+        }
+    }
+
+    /**
+     * Reads the styles of the tokens from p0 to p1 into runs. The lock is
+     * acquired only once, instead of once per token. The last run ends at
+     * p1.
+     */
+    void getStyleRuns(int p0, int p1, StyleRuns runs) {
+        runs.clear();
+        int[] bounds = new int[2];
+        synchronized (lock) {
+            for (int p = p0; p < p1; p = bounds[1]) {
+                int type = scanner.getTokenAt(p, bounds);
+                runs.add(Math.min(bounds[1], p1), styles[type < 0 ? UNRECOGNIZED : type]);
+            }
+        }
+    }
+
+    /**
+     * Returns true while the document is being scanned.
+     */
+    boolean isScanning() {
+        synchronized (lock) {
+            return isScanQueued;
+        }
+    }
+
+    /**
+     * Returns true while the document is being scanned, or while views are
+     * being updated.
+     */
+    boolean isHighlighting() {
+        synchronized (lock) {
+            return isScanQueued || !dirty.isEmpty();
+        }
+    }
+
+    /**
+     * Returns true if the views at the specified position have not been
+     * updated since the text has been rescanned, or if the text has not been
+     * rescanned yet.
+     */
+    boolean isDirty(int position) {
+        synchronized (lock) {
+            int scanned = scanner.position() < 0 ? Integer.MAX_VALUE : scanner.position();
+            if (position >= scanned) {
+                return true;
+            }
+            for (int i = 0; i < dirty.size(); i++) {
+                if (dirty.getStart(i) <= position && position < dirty.getEnd(i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A change of the styles of a range of text. The highlighter fires it
+     * to its views only, not to the listeners of the document.
+     */
+    private static class StyleChange implements DocumentEvent {
+        private final Document document;
+        private final int offset;
+        private final int length;
+
+        StyleChange(Document document, int offset, int length) {
+            this.document = document;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int getOffset() {
+            return offset;
+        }
+
+        @Override
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public Document getDocument() {
+            return document;
+        }
+
+        @Override
+        public EventType getType() {
+            return EventType.CHANGE;
+        }
+
+        @Override
+        public ElementChange getChange(Element elem) {
+            return null;
         }
     }
 }
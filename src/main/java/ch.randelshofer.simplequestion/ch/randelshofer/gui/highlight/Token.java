@@ -1,4 +1,3 @@
-
 /*
  * @(#)Token.java
  * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
@@ -9,12 +8,15 @@ package ch.randelshofer.gui.highlight;
 /**
  * A token represents a smallest meaningful fragment of text, such as a word,
  * recognised by a scanner.
+ * <p>
+ * The scanner stores its tokens in arrays of primitive values. A token
+ * object is a copy of an entry of these arrays.
  */
 public class Token {
     /**
-     * The symbol contains all the properties shared with similar tokens.
+     * The type of the token, for example {@link TokenTypes#KEYWORD}.
      */
-    public Symbol symbol;
+    public int type;
 
     // BEGIN PATCH Werner Randelshofer
     /**
@@ -29,14 +31,21 @@ public class Token {
     public int position;
 
     /**
-     * Create a token with a given symbol and position.
+     * The number of characters of the token.
+     */
+    public int length;
+
+    /**
+     * Create a token with a given type, position, length and context.
      */
-    Token(Symbol symbol, int position) {
-        this.symbol = symbol;
+    Token(int type, int position, int length, int context) {
+        this.type = type;
         this.position = position;
+        this.length = length;
+        this.context = context;
     }
 
     public String dump() {
-        return "p:" + position + " c:" + context + " " + symbol.dump();
+        return "p:" + position + " l:" + length + " c:" + context + " t:" + type;
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * @(#)TokenEditorKit.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.Element;
+import javax.swing.text.StyledEditorKit;
+import javax.swing.text.View;
+import javax.swing.text.ViewFactory;
+
+/**
+ * The editor kit of a {@link SyntaxHighlighter}.
+ * <p>
+ * The content elements get a {@link TokenView}, so that the highlighting does
+ * not change the attributes of the document. The other elements get the views
+ * of a {@code StyledEditorKit}.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+class TokenEditorKit extends StyledEditorKit implements ViewFactory {
+    static final long serialVersionUID = 1L;
+
+    @Override
+    public ViewFactory getViewFactory() {
+        return this;
+    }
+
+    @Override
+    public View create(Element elem) {
+        if (AbstractDocument.ContentElementName.equals(elem.getName())) {
+            return new TokenView(elem);
+        }
+        return super.getViewFactory().create(elem);
+    }
+}
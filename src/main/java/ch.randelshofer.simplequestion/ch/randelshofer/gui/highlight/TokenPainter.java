@@ -0,0 +1,194 @@
+/*
+ * @(#)TokenPainter.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.GlyphView;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.text.Style;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyleContext;
+import javax.swing.text.TabExpander;
+import javax.swing.text.Utilities;
+import java.awt.Color;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+
+/**
+ * Paints the text of a glyph view with the styles of the tokens of a
+ * {@link SyntaxHighlighter}.
+ * <p>
+ * The styles are looked up from the scanner each time the text is measured
+ * or painted, so that the document does not need any character attributes.
+ * The styles of the text are read at once with
+ * {@link SyntaxHighlighter#getStyleRuns}, and each run of text with the same
+ * style is measured and painted with the font of its style. The colors of the styles are used,
+ * unless the view paints the text with another color than its foreground,
+ * for example when the text is selected.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Read the styles of the text at once, instead
+ * of locking the highlighter for each token.
+ * <br>1.0 2026-10-18 Created.
+ */
+class TokenPainter extends GlyphView.GlyphPainter {
+    private final SyntaxHighlighter highlighter;
+
+    TokenPainter(SyntaxHighlighter highlighter) {
+        this.highlighter = highlighter;
+    }
+
+    private FontMetrics getFontMetrics(Style style) {
+        return highlighter.getFontMetrics(StyleContext.getDefaultStyleContext().getFont(style));
+    }
+
+    private FontMetrics getFontMetrics() {
+        return highlighter.getFontMetrics(highlighter.getFont());
+    }
+
+    /**
+     * Returns the style runs of the text from p0 to p1.
+     */
+    private StyleRuns getStyleRuns(int p0, int p1) {
+        StyleRuns runs = new StyleRuns();
+        highlighter.getStyleRuns(p0, p1, runs);
+        return runs;
+    }
+
+    @Override
+    public float getSpan(GlyphView v, int p0, int p1, TabExpander e, float x) {
+        float width = 0;
+        StyleRuns runs = getStyleRuns(p0, p1);
+        for (int i = 0, p = p0; i < runs.size(); i++) {
+            Style style = runs.getStyle(i);
+            int end = runs.getEnd(i);
+            Segment text = v.getText(p, end);
+            width += Utilities.getTabbedTextWidth(text, getFontMetrics(style), x + width, e, p);
+            p = end;
+        }
+        return width;
+    }
+
+    @Override
+    public float getHeight(GlyphView v) {
+        return getFontMetrics().getHeight();
+    }
+
+    @Override
+    public float getAscent(GlyphView v) {
+        return getFontMetrics().getAscent();
+    }
+
+    @Override
+    public float getDescent(GlyphView v) {
+        return getFontMetrics().getDescent();
+    }
+
+    @Override
+    public void paint(GlyphView v, Graphics g, Shape a, int p0, int p1) {
+        Rectangle alloc = a.getBounds();
+        TabExpander expander = v.getTabExpander();
+        float x = alloc.x;
+        if (p0 != v.getStartOffset()) {
+            x += getSpan(v, v.getStartOffset(), p0, expander, x);
+        }
+        FontMetrics metrics = getFontMetrics();
+        float y = alloc.y + metrics.getHeight() - metrics.getDescent();
+
+        boolean isTokenColor = g.getColor().equals(v.getForeground());
+        Color background = highlighter.getBackground();
+        StyleRuns runs = getStyleRuns(p0, p1);
+        for (int i = 0, p = p0; i < runs.size(); i++) {
+            Style style = runs.getStyle(i);
+            int end = runs.getEnd(i);
+            Segment text = v.getText(p, end);
+            FontMetrics fm = getFontMetrics(style);
+            float width = Utilities.getTabbedTextWidth(text, fm, x, expander, p);
+            if (isTokenColor) {
+                if (style.isDefined(StyleConstants.Background)
+                        && !StyleConstants.getBackground(style).equals(background)) {
+                    g.setColor(StyleConstants.getBackground(style));
+                    g.fillRect((int) x, alloc.y, (int) Math.ceil(x + width) - (int) x, alloc.height);
+                }
+                g.setColor(StyleConstants.getForeground(style));
+            }
+            g.setFont(fm.getFont());
+            Utilities.drawTabbedText(text, x, y, (Graphics2D) g, expander, p);
+            x += width;
+            p = end;
+        }
+    }
+
+    @Override
+    public Shape modelToView(GlyphView v, int pos, Position.Bias bias, Shape a) throws BadLocationException {
+        Rectangle alloc = a.getBounds();
+        int p0 = v.getStartOffset();
+        int p1 = v.getEndOffset();
+        int height = getFontMetrics().getHeight();
+        if (pos == p1) {
+            return new Rectangle(alloc.x + alloc.width, alloc.y, 0, height);
+        }
+        if (pos >= p0 && pos <= p1) {
+            float width = getSpan(v, p0, pos, v.getTabExpander(), alloc.x);
+            return new Rectangle(alloc.x + (int) width, alloc.y, 0, height);
+        }
+        throw new BadLocationException("modelToView - can't convert", p1);
+    }
+
+    @Override
+    public int viewToModel(GlyphView v, float x, float y, Shape a, Position.Bias[] biasReturn) {
+        Rectangle alloc = a.getBounds();
+        int p1 = v.getEndOffset();
+        TabExpander expander = v.getTabExpander();
+        float x0 = alloc.x;
+        int offset = p1;
+        int p0 = v.getStartOffset();
+        StyleRuns runs = getStyleRuns(p0, p1);
+        for (int i = 0, p = p0; i < runs.size(); i++) {
+            Style style = runs.getStyle(i);
+            int end = runs.getEnd(i);
+            Segment text = v.getText(p, end);
+            FontMetrics fm = getFontMetrics(style);
+            float width = Utilities.getTabbedTextWidth(text, fm, x0, expander, p);
+            if (x < x0 + width) {
+                offset = p + Utilities.getTabbedTextOffset(text, fm, x0, x, expander, p, true);
+                break;
+            }
+            x0 += width;
+            p = end;
+        }
+        if (offset == p1) {
+            offset--;
+        }
+        biasReturn[0] = Position.Bias.Forward;
+        return offset;
+    }
+
+    @Override
+    public int getBoundedPosition(GlyphView v, int p0, float x, float len) {
+        int p1 = v.getEndOffset();
+        TabExpander expander = v.getTabExpander();
+        float x0 = x;
+        StyleRuns runs = getStyleRuns(p0, p1);
+        for (int i = 0, p = p0; i < runs.size(); i++) {
+            Style style = runs.getStyle(i);
+            int end = runs.getEnd(i);
+            Segment text = v.getText(p, end);
+            FontMetrics fm = getFontMetrics(style);
+            float width = Utilities.getTabbedTextWidth(text, fm, x0, expander, p);
+            if (x0 + width > x + len) {
+                return p + Utilities.getTabbedTextOffset(text, fm, x0, x + len, expander, p, false);
+            }
+            x0 += width;
+            p = end;
+        }
+        return p1;
+    }
+}
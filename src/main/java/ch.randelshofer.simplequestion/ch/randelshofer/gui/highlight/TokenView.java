@@ -0,0 +1,39 @@
+/*
+ * @(#)TokenView.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import javax.swing.text.Element;
+import javax.swing.text.LabelView;
+import java.awt.Container;
+
+/**
+ * A view of a content element, which paints the text with the styles of the
+ * tokens, if it is hosted by a {@link SyntaxHighlighter}. In any other
+ * component it behaves like a {@code LabelView}.
+ * <p>
+ * Editor kits which are installed on a syntax highlighter should create
+ * this view for the content elements.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class TokenView extends LabelView {
+    public TokenView(Element elem) {
+        super(elem);
+    }
+
+    @Override
+    protected void checkPainter() {
+        if (getGlyphPainter() == null) {
+            Container c = getContainer();
+            if (c instanceof SyntaxHighlighter) {
+                setGlyphPainter(((SyntaxHighlighter) c).getTokenPainter());
+            } else {
+                super.checkPainter();
+            }
+        }
+    }
+}
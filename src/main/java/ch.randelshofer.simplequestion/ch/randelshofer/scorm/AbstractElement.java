@@ -10,6 +10,7 @@ import ch.randelshofer.scorm.cam.IMSManifestDocument;
 import org.jhotdraw.util.ResourceBundleUtil;
 
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
 import java.io.PrintWriter;
 import java.util.Enumeration;
@@ -26,7 +27,9 @@ import java.util.Set;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.2 2006-10-07 Got rid of HTML output in method getInfo because
+ * @version 1.3 2026-10-18 Look up identifiers with the indexes of the
+ * IMSManifestDocument. Method getIdentifierref added.
+ * <br>1.2 2006-10-07 Got rid of HTML output in method getInfo because
  * of bug http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4988885
  * <br>1.1 2003-11-03 Method consumeFileNames added.
  * <br>1.0 2003-10-30 HTML output in method toString changed.
@@ -60,12 +63,31 @@ public abstract class AbstractElement extends DefaultMutableTreeNode {
         return null;
     }
 
+    /**
+     * Returns the identifier of the element referenced by this element,
+     * or null if this element does not reference another element.
+     */
+    public String getIdentifierref() {
+        return null;
+    }
+
     /**
      * Searches this subtree for a AbstractElement with the specified identifier.
      * This node is regarded as part of the subtree.
-     * Performance note: this method uses a linear search algorithm!
+     * If this element belongs to an IMSManifestDocument, the identifier
+     * index of the document is used. Otherwise this method uses a linear
+     * search algorithm.
      */
     public AbstractElement findSubtreeByIdentifier(String identifier) {
+        IMSManifestDocument doc = findManifestDocument();
+        if (doc != null) {
+            for (AbstractElement element : doc.getElementsByIdentifier(identifier)) {
+                if (element.isNodeAncestor(this)) {
+                    return element;
+                }
+            }
+            return null;
+        }
         Enumeration<TreeNode> enm = preorderEnumeration();
         while (enm.hasMoreElements()) {
             AbstractElement element = (AbstractElement) enm.nextElement();
@@ -79,9 +101,21 @@ public abstract class AbstractElement extends DefaultMutableTreeNode {
 
     /**
      * Searches the children of this node for a AbstractElement with the specified
-     * identifier. Performance note: this method uses a linear search algorithm!
+     * identifier.
+     * If this element belongs to an IMSManifestDocument, the identifier
+     * index of the document is used. Otherwise this method uses a linear
+     * search algorithm.
      */
     public AbstractElement findChildByIdentifier(String identifier) {
+        IMSManifestDocument doc = findManifestDocument();
+        if (doc != null) {
+            for (AbstractElement element : doc.getElementsByIdentifier(identifier)) {
+                if (element.getParent() == this) {
+                    return element;
+                }
+            }
+            return null;
+        }
         Enumeration<TreeNode> enm = children();
         while (enm.hasMoreElements()) {
             AbstractElement element = (AbstractElement) enm.nextElement();
@@ -93,6 +127,45 @@ public abstract class AbstractElement extends DefaultMutableTreeNode {
         return null;
     }
 
+    /**
+     * Returns the IMSManifestDocument which contains this element, or null
+     * if this element is not part of a document.
+     */
+    private IMSManifestDocument findManifestDocument() {
+        for (TreeNode node = this; node != null; node = node.getParent()) {
+            if (node instanceof IMSManifestDocument) {
+                return (IMSManifestDocument) node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Invalidates the indexes of the IMSManifestDocument, because the
+     * structure of the tree changes.
+     */
+    @Override
+    public void insert(MutableTreeNode newChild, int childIndex) {
+        super.insert(newChild, childIndex);
+        IMSManifestDocument doc = findManifestDocument();
+        if (doc != null) {
+            doc.invalidateIndexes();
+        }
+    }
+
+    /**
+     * Invalidates the indexes of the IMSManifestDocument, because the
+     * structure of the tree changes.
+     */
+    @Override
+    public void remove(int childIndex) {
+        super.remove(childIndex);
+        IMSManifestDocument doc = findManifestDocument();
+        if (doc != null) {
+            doc.invalidateIndexes();
+        }
+    }
+
     public void indent(PrintWriter out, int depth) {
         for (int i = 0; i < depth; i++) {
             out.print("  ");
@@ -134,12 +207,8 @@ public abstract class AbstractElement extends DefaultMutableTreeNode {
 
         isIdentifierValid = true;
         IMSManifestDocument root = getIMSManifestDocument();
-        Enumeration<TreeNode> enm = root.preorderEnumeration();
-        while (enm.hasMoreElements()) {
-            AbstractElement node = (AbstractElement) enm.nextElement();
-            if (node != this && node.getIdentifier() != null
-                    && node.getIdentifier().equals(thisID)
-                    && thisID != null) {
+        for (AbstractElement node : root.getElementsByIdentifier(thisID)) {
+            if (node != this) {
                 isIdentifierValid = false;
                 break;
             }
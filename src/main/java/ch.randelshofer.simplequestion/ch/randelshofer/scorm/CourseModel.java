@@ -21,6 +21,8 @@ import ch.randelshofer.util.SequentialDispatcher;
 import ch.randelshofer.util.Strings;
 import ch.randelshofer.xml.DOMs;
 import ch.randelshofer.zip.DefaultZipEntryFilter;
+import ch.randelshofer.zip.ParallelZipOutStream;
+import ch.randelshofer.zip.ZipEntryFilter;
 import ch.randelshofer.zip.ZipFiles;
 import org.w3c.dom.DOMImplementation;
 import org.w3c.dom.Node;
@@ -45,6 +47,7 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -64,7 +67,6 @@ import java.util.Locale;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 //import java.awt.*;
 //import java.awt.event.*;
@@ -75,7 +77,15 @@ import java.util.zip.ZipOutputStream;
  * The model of a SCORM Course.
  *
  * @author Werner Randelshofer, Staldenmattweg 2, CH-6405 Immensee, Switzerland
- * @version 1.6.3 2006-07-29 writeIndexToHTML sets frame for tree toc to non-
+ * @version 1.12 2026-10-18 Save the incrementalDeployment property in
+ * tinylms.xml.
+ * <br>1.11 2026-10-18 Property incrementalDeployment added.
+ * <br>1.10 2026-10-18 Copy and unzip the course files concurrently.
+ * <br>1.9 2026-10-18 Copy the course files of a PIF without
+ * recompressing them.
+ * <br>1.8 2026-10-18 Read the manifest with readXMLStream.
+ * <br>1.7 2026-10-18 Compress PIF files with ParallelZipOutStream.
+ * <br>1.6.3 2006-07-29 writeIndexToHTML sets frame for tree toc to non-
  * scrollab.e
  * <br>1.6.2. 2006-07-10 Use UTF-8 encoding instead of ISO 8859-1.
  * <br>1.6.1 2006-06-01 Encode non-ascii characters with HTML entities
@@ -206,6 +216,13 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
      */
     private boolean isNavBarVisible = true;
 
+    /**
+     * If this is set to true, createCourse only writes the files of the
+     * course which have changed since the previous deployment into the same
+     * directory, and deletes the files which are no longer needed.
+     */
+    private boolean isIncrementalDeployment = false;
+
     /**
      * The width of the Table of contents in the frameset
      * measured in Pixels.
@@ -347,6 +364,23 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
         propertySupport.firePropertyChange("bugInfoButton", oldValue, newValue);
     }
 
+    /**
+     * Returns the value of the "incrementalDeployment" property.
+     */
+    public boolean isIncrementalDeployment() {
+        return isIncrementalDeployment;
+    }
+
+    /**
+     * Sets the value of the "incrementalDeployment" property.
+     * Notifies property change listeners that the property has changed.
+     */
+    public void setIncrementalDeployment(boolean newValue) {
+        boolean oldValue = isIncrementalDeployment;
+        isIncrementalDeployment = newValue;
+        propertySupport.firePropertyChange("incrementalDeployment", oldValue, newValue);
+    }
+
     /**
      * Returns the organization structure of the course.
      *
@@ -583,7 +617,7 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
                 throw new FileNotFoundException("Couldn't find the entry 'imsmanifest.xml' in '" + inputPIF.getName() + "'.");
             }
             in = zif.getInputStream(entry);
-            mani.readXML(in);
+            mani.readXMLStream(in);
             mani.setPIFFile(inputPIF);
             in.close();
             entry = zif.getEntry("tinylms.xml");
@@ -637,7 +671,7 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
         try {
             final IMSManifestDocument mani = new IMSManifestDocument();
             in = new BufferedInputStream(new FileInputStream(manifestFile));
-            mani.readXML(in);
+            mani.readXMLStream(in);
             mani.setContentPackage(dirFile);
 
             File propertiesFile = new File(dirFile, "tinylms.xml");
@@ -750,8 +784,7 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
         // Create a sub-directory named "course" in the output directory
         File courseDirectory = new File(tgtdir, "course");
 
-        InputStream in = null;
-        OutputStream out = null;
+        final DeploymentManifest deployment = new DeploymentManifest(tgtdir, isIncrementalDeployment);
 
         // Determine the files that need to be copied
         HashSet<ResourceElement> resources = getSelectedOrganization().getReferencedResources();
@@ -761,51 +794,28 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
             resource.addReferencedFileNamesTo(fileNames, exclusionList);
         }
 
-        p.setMaximum(3);
+        p.setMaximum(fileNames.size() + 2);
         p.setNote("Copying " + fileNames.size() + " course files...");
-        int progress = 0;
-
-        // Unzip the PIF file into the course directory.
-        ZipFiles.unzip(inputPIF, courseDirectory, new DefaultZipEntryFilter(fileNames, true));
+        p.setProgress(0);
+
+        // Unzip the PIF file into the course directory. Skip the files
+        // which have the same CRC and size as in the previous deployment.
+        final ZipEntryFilter courseFilter = new DefaultZipEntryFilter(fileNames, true);
+        ZipFiles.unzip(inputPIF, courseDirectory, new ZipEntryFilter() {
+            public boolean accept(ZipEntry entry) {
+                return courseFilter.accept(entry)
+                        && (entry.isDirectory() || !deployment.isUpToDate("course/" + entry.getName(),
+                        DeploymentManifest.contentKey(entry.getCrc(), entry.getSize())));
+            }
+        }, p);
+        int progress = fileNames.size();
 
         p.setNote("Creating LMS files...");
         p.setProgress(++progress);
 
-        // Unzip the LMS HTML files into the output directory
-        in = null;
-        try {
-            in = new BufferedInputStream(getClass().getResourceAsStream("/lmshtml.zip"));
-            HashSet<String> exclude = new HashSet<>();
-            exclude.add("ims_xml.xsd");
-            exclude.add("adlcp_rootv1p2.xsd");
-            exclude.add("imscp_rootv1p1p2.xsd");
-            exclude.add("imsmd_rootv1p2p1.xsd");
-            exclude.add("tinylms/lib/lmsparentstub.js");
-            ZipFiles.unzip(new ZipInputStream(in), tgtdir, new DefaultZipEntryFilter(exclude, false));
-        } finally {
-            if (in != null) {
-                in.close();
-            }
-        }
-
-        out = null;
-        try {
-            out = new FileOutputStream(new File(tgtdir, "imsmanifest.js"));
-            writeIMSManifest(out, false);
-        } finally {
-            if (out != null) {
-                out.close();
-            }
-        }
-        out = null;
-        try {
-            out = new FileOutputStream(new File(tgtdir, "index.html"));
-            writeIndexHTML(out, false);
-        } finally {
-            if (out != null) {
-                out.close();
-            }
-        }
+        writeLMSFiles(tgtdir, deployment);
+        deployment.deleteStale();
+        deployment.save();
 
         p.setNote("Done.");
         p.setProgress(++progress);
@@ -839,43 +849,89 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
             resource.addReferencedFileNamesTo(fileNames, exclusionList);
         }
 
+        // Determine the files which have been modified since the previous
+        // deployment
+        DeploymentManifest deployment = new DeploymentManifest(tgtdir, isIncrementalDeployment);
+        ArrayList<String> modifiedFileNames = new ArrayList<>();
+        for (String fileName : fileNames) {
+            File source = new File(contentPackageDirectory, fileName.replace('/', File.separatorChar));
+            if (!deployment.isUpToDate("course/" + fileName, DeploymentManifest.fileKey(source))) {
+                modifiedFileNames.add(fileName);
+            }
+        }
+
         p.setMaximum(fileNames.size() + 2);
-        p.setNote("Copying " + fileNames.size() + " course files...");
-        int progress = 0;
+        p.setNote("Copying " + modifiedFileNames.size() + " course files...");
+        p.setProgress(fileNames.size() - modifiedFileNames.size());
 
         // Copy the files from the content package directory into the course
         // directory.
-        for (String fileName : fileNames) {
-            String filename = (fileName).replace('/', File.separatorChar);
-            File source = new File(contentPackageDirectory, filename);
-            File target = new File(courseDirectory, filename);
-            Files.copyFile(source, target);
-            p.setProgress(++progress);
-        }
+        Files.copyFiles(contentPackageDirectory, courseDirectory, modifiedFileNames, p);
+        int progress = fileNames.size();
 
         p.setNote("Creating LMS files...");
         p.setProgress(++progress);
 
+        writeLMSFiles(tgtdir, deployment);
+        deployment.deleteStale();
+        deployment.save();
+
+        p.setNote("Done.");
+        p.setProgress(++progress);
+    }
 
+    /**
+     * Writes the LMS HTML files, imsmanifest.js and index.html into the
+     * output directory of a course.
+     */
+    private void writeLMSFiles(File tgtdir, DeploymentManifest deployment)
+            throws IOException {
         // Unzip the LMS HTML files into the output directory
-        try (InputStream in = new BufferedInputStream(getClass().getResourceAsStream("/lmshtml.zip"))) {
-            HashSet<String> exclude = new HashSet<>();
-            exclude.add("ims_xml.xsd");
-            exclude.add("adlcp_rootv1p2.xsd");
-            exclude.add("imscp_rootv1p1p2.xsd");
-            exclude.add("imsmd_rootv1p2p1.xsd");
-            exclude.add("tinylms/lib/lmsparentstub.js");
-            ZipFiles.unzip(new ZipInputStream(in), tgtdir, new DefaultZipEntryFilter(exclude, false));
+        HashSet<String> exclude = new HashSet<>();
+        exclude.add("ims_xml.xsd");
+        exclude.add("adlcp_rootv1p2.xsd");
+        exclude.add("imscp_rootv1p1p2.xsd");
+        exclude.add("imsmd_rootv1p2p1.xsd");
+        exclude.add("tinylms/lib/lmsparentstub.js");
+        try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(getClass().getResourceAsStream("/lmshtml.zip")))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                if (exclude.contains(entry.getName())) {
+                    continue;
+                }
+                if (entry.isDirectory()) {
+                    new File(tgtdir, entry.getName().replace('/', File.separatorChar)).mkdirs();
+                } else {
+                    writeFile(tgtdir, entry.getName(), in.readAllBytes(), deployment);
+                }
+            }
         }
 
-        try (OutputStream out = new FileOutputStream(new File(tgtdir, "imsmanifest.js"))) {
-            writeIMSManifest(out, false);
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        writeIMSManifest(buf, false);
+        writeFile(tgtdir, "imsmanifest.js", buf.toByteArray(), deployment);
+        buf.reset();
+        writeIndexHTML(buf, false);
+        writeFile(tgtdir, "index.html", buf.toByteArray(), deployment);
+    }
+
+    /**
+     * Writes a file of a course, unless it is up to date.
+     *
+     * @param tgtdir The output directory of the course.
+     * @param path   The path of the file relative to the output directory,
+     *               with '/' as the separator.
+     * @param data   The contents of the file.
+     */
+    private void writeFile(File tgtdir, String path, byte[] data, DeploymentManifest deployment)
+            throws IOException {
+        if (deployment.isUpToDate(path, DeploymentManifest.contentKey(data))) {
+            return;
         }
-        try (OutputStream out = new FileOutputStream(new File(tgtdir, "index.html"))) {
-            writeIndexHTML(out, false);
+        File file = new File(tgtdir, path.replace('/', File.separatorChar));
+        file.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(data);
         }
-        p.setNote("Done.");
-        p.setProgress(++progress);
     }
 
     /**
@@ -886,7 +942,7 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
         File inputPIF = ((IMSManifestDocument) getChild(getRoot(), 0)).getPIFFile();
 
         // Create the outputPIF
-        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(outputPIF)))) {
+        try (ParallelZipOutStream out = new ParallelZipOutStream(new FileOutputStream(outputPIF))) {
 
             // Determine the files that need to be copied
             HashSet<ResourceElement> resources = getSelectedOrganization().getReferencedResources();
@@ -896,15 +952,13 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
                 resource.addReferencedFileNamesTo(fileNames, exclusionList);
             }
 
-            // Rezip files from inputPIF to the outputPIF
-            try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(inputPIF)))) {
-                ZipFiles.rezip(
-                        in,
-                        out,
-                        "course",
-                        new DefaultZipEntryFilter(fileNames, true)
-                );
-            }
+            // Copy the compressed files from inputPIF to the outputPIF
+            ZipFiles.rezipRaw(
+                    inputPIF,
+                    out,
+                    "course",
+                    new DefaultZipEntryFilter(fileNames, true)
+            );
 
             // Unzip the LMS HTML files into the output directory
             try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(getClass().getResourceAsStream("/lmshtml.zip")))) {
@@ -933,7 +987,7 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
         IMSManifestDocument manifest = (IMSManifestDocument) getChild(getRoot(), 0);
         File contentPackageDirectory = manifest.getContentPackage();
         int progress = 0;
-        try (ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(outputPif)))) {
+        try (ParallelZipOutStream out = new ParallelZipOutStream(new FileOutputStream(outputPif))) {
 
             // Determine the files that need to be copied
             HashSet<ResourceElement> resources = getSelectedOrganization().getReferencedResources();
@@ -1586,6 +1640,12 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
 
             docRoot.appendChild(elem);
 
+            // ------------------------------------
+            // Write Deployment
+            elem = doc.createElement("deployment");
+            elem.setAttribute("incremental", isIncrementalDeployment() ? "true" : "false");
+            docRoot.appendChild(elem);
+
             // ------------------------------------
             // Write Students
             elem = doc.createElement("users");
@@ -1745,6 +1805,11 @@ public class CourseModel extends DefaultTreeModel implements MutableTreeModel {
             setFramesetPageHeight(DOMs.getAttribute(elem2, "height", "*"));
             setFramesetPageWidth(DOMs.getAttribute(elem2, "width", "*"));
 
+            // Read Deployment element
+            // -------------------------
+            attrValue = DOMs.getElementAttribute(root, "deployment", "incremental", "false");
+            setIncrementalDeployment(attrValue.equals("true"));
+
             // Read Student elements
             // -------------------------
             usersTableModel.clear();
@@ -0,0 +1,220 @@
+/*
+ * @(#)DeploymentManifest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.scorm;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Records the files of a course which has been deployed into a directory,
+ * so that a course can be deployed again incrementally.
+ * <p>
+ * For each file, the manifest holds a key which describes the input the file
+ * has been created from, and the size and the modification time of the
+ * file after it has been written. A file is up to date, if its key is
+ * unchanged, and if the file has not been modified since it has been
+ * written. Files of the previous deployment which are not part of the
+ * current deployment are stale, and are deleted.
+ * <p>
+ * The manifest is stored in the file {@value #FILE_NAME} in the target
+ * directory. If incremental deployment is disabled, the manifest of a
+ * previous deployment is ignored and deleted, and all files are out of
+ * date.
+ * <p>
+ * Usage: call {@link #isUpToDate} for each file of the deployment, and write
+ * the file if it is not up to date. Then call {@link #deleteStale} and
+ * {@link #save}.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+class DeploymentManifest {
+    /**
+     * The name of the manifest file in the target directory.
+     */
+    final static String FILE_NAME = ".tinylms-deployment";
+    private final static String HEADER = "# TinyLMS deployment 1";
+
+    private static class Entry {
+        final String key;
+        long size;
+        long lastModified;
+
+        Entry(String key, long size, long lastModified) {
+            this.key = key;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private final Path dir;
+    private final boolean isIncremental;
+    /**
+     * The files of the previous deployment.
+     */
+    private final HashMap<String, Entry> previous = new HashMap<String, Entry>();
+    /**
+     * The files of the current deployment.
+     */
+    private final LinkedHashMap<String, Entry> current = new LinkedHashMap<String, Entry>();
+
+    /**
+     * Creates a new instance and reads the manifest of the previous
+     * deployment, if incremental deployment is enabled.
+     *
+     * @param tgtdir        The target directory.
+     * @param isIncremental Whether incremental deployment is enabled.
+     */
+    DeploymentManifest(File tgtdir, boolean isIncremental) throws IOException {
+        this.dir = tgtdir.toPath().toAbsolutePath().normalize();
+        this.isIncremental = isIncremental;
+        Path file = dir.resolve(FILE_NAME);
+        if (!isIncremental) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(in.readLine())) {
+                return;
+            }
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] fields = line.split("\t", 4);
+                if (fields.length == 4) {
+                    try {
+                        previous.put(fields[3], new Entry(fields[0],
+                                Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                    } catch (NumberFormatException e) {
+                        // skip the entry, the file will be written again
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // this is the first deployment
+        }
+    }
+
+    /**
+     * Returns the key of a file which is copied from the specified source
+     * file. The key consists of the size and the modification time of the
+     * source file.
+     */
+    static String fileKey(File source) {
+        return "file:" + source.length() + ":" + source.lastModified();
+    }
+
+    /**
+     * Returns the key of a file with the specified CRC-32 and size. This
+     * key can be computed from the central directory of a zip file without
+     * reading the data.
+     */
+    static String contentKey(long crc, long size) {
+        return "crc:" + Long.toHexString(crc) + ":" + size;
+    }
+
+    /**
+     * Returns the key of a file with the specified contents.
+     */
+    static String contentKey(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return contentKey(crc.getValue(), data.length);
+    }
+
+    /**
+     * Adds a file to the current deployment, and returns true if the
+     * file does not need to be written.
+     *
+     * @param path The path of the file relative to the target directory,
+     *             with '/' as the separator.
+     * @param key  The key of the input the file is created from.
+     * @return True if the file has been written by the previous deployment
+     * with the same key, and if it has not been modified since.
+     */
+    boolean isUpToDate(String path, String key) {
+        Entry old = previous.get(path);
+        if (old != null && old.key.equals(key)) {
+            File file = toFile(path);
+            if (file.length() == old.size && file.lastModified() == old.lastModified && file.isFile()) {
+                current.put(path, old);
+                return true;
+            }
+        }
+        current.put(path, new Entry(key, -1, -1));
+        return false;
+    }
+
+    /**
+     * Deletes the files of the previous deployment which are not part of the
+     * current deployment, and the directories which become empty.
+     */
+    void deleteStale() throws IOException {
+        for (String path : previous.keySet()) {
+            if (current.containsKey(path)) {
+                continue;
+            }
+            Path file = dir.resolve(path.replace('/', File.separatorChar)).normalize();
+            if (!file.startsWith(dir) || file.equals(dir)) {
+                continue;
+            }
+            Files.deleteIfExists(file);
+            for (Path parent = file.getParent(); !parent.equals(dir); parent = parent.getParent()) {
+                String[] list = parent.toFile().list();
+                if (list == null || list.length > 0 || !parent.toFile().delete()) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the size and the modification time of the files of the current
+     * deployment, and writes the manifest.
+     */
+    void save() throws IOException {
+        if (!isIncremental) {
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(dir.resolve(FILE_NAME), StandardCharsets.UTF_8))) {
+            out.print(HEADER);
+            out.print('\n');
+            for (Map.Entry<String, Entry> e : current.entrySet()) {
+                Entry entry = e.getValue();
+                if (entry.size == -1) {
+                    File file = toFile(e.getKey());
+                    if (!file.isFile()) {
+                        continue;
+                    }
+                    entry.size = file.length();
+                    entry.lastModified = file.lastModified();
+                }
+                out.print(entry.key);
+                out.print('\t');
+                out.print(entry.size);
+                out.print('\t');
+                out.print(entry.lastModified);
+                out.print('\t');
+                out.print(e.getKey());
+                out.print('\n');
+            }
+            if (out.checkError()) {
+                throw new IOException("Unable to write " + dir.resolve(FILE_NAME));
+            }
+        }
+    }
+
+    private File toFile(String path) {
+        return dir.resolve(path.replace('/', File.separatorChar)).toFile();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * @(#)IncrementalZipOutDirectory.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.scorm;
+
+import ch.randelshofer.zip.ZipOut;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * IncrementalZipOutDirectory writes zip entries as regular files into a
+ * directory, and only writes the files which have changed since the
+ * previous deployment into the same directory.
+ * <p>
+ * The data of each entry is held in memory until the entry is closed. The
+ * file is written, unless the {@link DeploymentManifest} of the directory
+ * has recorded the same content for it, and the file has not been modified
+ * since. When all entries have been written, {@link #finish} deletes the
+ * files of the previous deployment which have not been written again, and
+ * saves the manifest. If the stream is closed without calling finish, for
+ * example because the export has failed, no file is deleted and the manifest
+ * of the previous deployment is kept. The files which have been written
+ * since then no longer match the manifest, and are written again by the
+ * next deployment.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Delete the stale files and save the manifest in
+ * finish instead of close.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class IncrementalZipOutDirectory extends OutputStream implements ZipOut {
+    private final File dir;
+    private final DeploymentManifest deployment;
+    private final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+    private ZipEntry entry;
+    private boolean isClosed;
+    private boolean isFinished;
+
+    /**
+     * Creates a new instance, and reads the manifest of the previous
+     * deployment into the directory.
+     */
+    public IncrementalZipOutDirectory(File directory) throws IOException {
+        this.dir = directory;
+        this.deployment = new DeploymentManifest(directory, true);
+    }
+
+    public void putNextEntry(ZipEntry zipEntry) throws IOException {
+        ensureOpen();
+        if (entry != null) {
+            closeEntry();
+        }
+        entry = zipEntry;
+    }
+
+    public void closeEntry() throws IOException {
+        if (entry == null) {
+            return;
+        }
+        String name = entry.getName();
+        byte[] data = buf.toByteArray();
+        buf.reset();
+        entry = null;
+        File file = new File(dir, name.replace('/', File.separatorChar));
+        if (name.endsWith("/")) {
+            file.mkdirs();
+            return;
+        }
+        if (deployment.isUpToDate(name, DeploymentManifest.contentKey(data))) {
+            return;
+        }
+        if (file.exists() && !file.getCanonicalFile().getName().equals(file.getName())) {
+            // The file exists with a different case
+            file.delete();
+        } else {
+            file.getParentFile().mkdirs();
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Stream closed");
+        }
+        if (isFinished) {
+            throw new IOException("Stream finished");
+        }
+    }
+
+    private void ensureEntry() throws IOException {
+        ensureOpen();
+        if (entry == null) {
+            throw new IOException("no current entry");
+        }
+    }
+
+    public void write(int b) throws IOException {
+        ensureEntry();
+        buf.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureEntry();
+        buf.write(b, off, len);
+    }
+
+    /**
+     * Closes the current entry, deletes the files of the previous deployment
+     * which have not been written again, and saves the manifest. Call this
+     * method after all entries have been written successfully.
+     */
+    public void finish() throws IOException {
+        if (isFinished) {
+            return;
+        }
+        ensureOpen();
+        closeEntry();
+        isFinished = true;
+        deployment.deleteStale();
+        deployment.save();
+    }
+
+    /**
+     * Closes the stream. Unless {@link #finish} has been called, the current
+     * entry is discarded, no file is deleted, and the manifest is not saved.
+     */
+    @Override
+    public void close() throws IOException {
+        isClosed = true;
+        entry = null;
+        buf.reset();
+    }
+
+    public OutputStream getOutputStream() throws IOException {
+        ensureEntry();
+        return this;
+    }
+}
@@ -8,15 +8,17 @@ package ch.randelshofer.scorm.cam;
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.swing.tree.TreeNode;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Enumeration;
 
 /**
  * Represents a SCORM 1.2 CAM 'dependency' element.
@@ -41,7 +43,9 @@ import java.util.Enumeration;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.2 2006-10-10 Parse with XML namespaces.
+ * @version 1.4 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.3 2026-10-18 Validate identifierref with the identifier index.
+ * <br>1.2 2006-10-10 Parse with XML namespaces.
  * <br>1.1 2003-10-29 Method getResource added. HTML output in method
  * toString changed.
  * <br>1.0 August 22, 2003  Created.
@@ -84,6 +88,27 @@ public class DependencyElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'dependency'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "dependency")) {
+            throw new IOException("'imscp:dependency' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        this.identifierref = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "identifierref", "");
+
+        // FIXME - Make this a warning
+        if (in.next() != XMLStreamConstants.END_ELEMENT) {
+            throw new IOException("'dependency' is a leaf element, but found children.");
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
@@ -146,10 +171,10 @@ public class DependencyElement extends AbstractElement {
         }
         if (identifierref != null) {
             isIdentifierrefValid = false;
-            Enumeration<TreeNode> enm = getIMSManifestDocument().getResourcesElement().preorderEnumeration();
-            while (enm.hasMoreElements()) {
-                AbstractElement node = (AbstractElement) enm.nextElement();
-                if (node.getIdentifier() != null && node.getIdentifier().equals(identifierref)) {
+            IMSManifestDocument doc = getIMSManifestDocument();
+            ResourcesElement resources = doc.getResourcesElement();
+            for (AbstractElement node : doc.getElementsByIdentifier(identifierref)) {
+                if (node.isNodeAncestor(resources)) {
                     isIdentifierrefValid = true;
                     break;
                 }
@@ -7,12 +7,15 @@ package ch.randelshofer.scorm.cam;
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.Strings;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.swing.tree.TreeNode;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashSet;
@@ -41,7 +44,8 @@ import java.util.Set;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.2 2006-10-10 Parse with XML namespaces.
+ * @version 1.3 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.2 2006-10-10 Parse with XML namespaces.
  * <br>1.1.1 2004-04-26 Made method getInfo() more verbose.
  * <br>1.1 2003-11-03 Method referencesFile added. HTML output in method
  * toString changed. Remove escapes from unconsolidated HRef.
@@ -100,6 +104,36 @@ public class FileElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'file'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "file")) {
+            throw new IOException("'imscp:file' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+
+        // Read the attributes
+        this.href = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "href", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "file")) {
+                FileElement file = new FileElement();
+                this.fileList.add(file);
+                add(file);
+                file.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Gets a href relative to the resource element or to relative to
      * the content package or an absolute href.
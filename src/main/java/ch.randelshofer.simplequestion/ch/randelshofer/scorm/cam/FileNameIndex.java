@@ -0,0 +1,314 @@
+/*
+ * @(#)FileNameIndex.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.scorm.cam;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Lists the names of the files in a Package Interchange File (PIF) or in a
+ * content package directory, and caches them for the lifetime of the
+ * application, so that a package which is opened again does not have to be
+ * read again.
+ * <p>
+ * The names of a PIF are read from the central directory of the ZIP file,
+ * without inflating the entries. They are cached as long as the length and
+ * the modification time of the file are unchanged.
+ * <p>
+ * A directory is scanned concurrently on a {@link ForkJoinPool} of this
+ * class, with one task per subdirectory. The pool is not shared, because
+ * the tasks block while they read the file system. The contents of each
+ * subdirectory are cached as long as its modification time is unchanged.
+ * Adding, removing or renaming a file changes the modification time of the
+ * directory which contains it. Thus, scanning an unchanged content package
+ * again only reads the modification times of its directories.
+ * <p>
+ * Like the PIFs, only the most recently scanned content package
+ * directories are cached. The cache of a content package only holds the
+ * subdirectories which have been found by its last scan.
+ * <p>
+ * The names are relative to the PIF or to the directory, and use '/' as
+ * the separator. Directories and hidden files are not included.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Limit the number of cached directories. Scan on
+ * a pool of this class.
+ * <br>1.0 2026-10-18 Created.
+ */
+class FileNameIndex {
+    /**
+     * The maximal number of PIFs in the cache.
+     */
+    private final static int MAX_CACHED_PIFS = 8;
+    /**
+     * The maximal number of content package directories in the cache.
+     */
+    private final static int MAX_CACHED_DIRECTORIES = 8;
+    /**
+     * Files and directories which have been modified less than this number
+     * of milliseconds before they are read, are not cached. A second change
+     * within the resolution of the file system clock would go unnoticed.
+     */
+    private final static long MIN_AGE_MILLIS = 2000;
+
+    private static class PIFEntry {
+        final long length;
+        final long lastModified;
+        final Set<String> names;
+
+        PIFEntry(long length, long lastModified, Set<String> names) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.names = names;
+        }
+    }
+
+    private static class DirectoryEntry {
+        final long lastModified;
+        /**
+         * The names of the files in the directory.
+         */
+        final String[] files;
+        /**
+         * The names of the subdirectories.
+         */
+        final String[] directories;
+
+        DirectoryEntry(long lastModified, String[] files, String[] directories) {
+            this.lastModified = lastModified;
+            this.files = files;
+            this.directories = directories;
+        }
+    }
+
+    /**
+     * Maps absolute PIF files to their entries, in access order.
+     */
+    private final static LinkedHashMap<File, PIFEntry> pifCache = new LinkedHashMap<File, PIFEntry>(16, 0.75f, true) {
+        private final static long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, PIFEntry> eldest) {
+            return size() > MAX_CACHED_PIFS;
+        }
+    };
+
+    /**
+     * Maps absolute content package directories to the contents of their
+     * subdirectories, in access order. The contents are mapped by the
+     * absolute paths of the subdirectories.
+     */
+    private final static LinkedHashMap<Path, Map<Path, DirectoryEntry>> directoryCache = new LinkedHashMap<Path, Map<Path, DirectoryEntry>>(16, 0.75f, true) {
+        private final static long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Map<Path, DirectoryEntry>> eldest) {
+            return size() > MAX_CACHED_DIRECTORIES;
+        }
+    };
+
+    /**
+     * Scans the directories. The worker threads are started on demand, and
+     * terminate when they have been idle for a while.
+     */
+    private final static ForkJoinPool scanPool = new ForkJoinPool(
+            Math.max(4, Runtime.getRuntime().availableProcessors()),
+            new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                @Override
+                public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                    ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    t.setName("FileNameIndex-" + t.getPoolIndex());
+                    return t;
+                }
+            }, null, false);
+
+    /**
+     * Prevent instance creation.
+     */
+    private FileNameIndex() {
+    }
+
+    /**
+     * Returns the names of the files in the specified PIF.
+     *
+     * @return Returns an unmodifiable Set.
+     * @throws IOException if the PIF can not be read.
+     */
+    static Set<String> getPIFFileNames(File pif) throws IOException {
+        File key = pif.getAbsoluteFile();
+        long length = key.length();
+        long lastModified = key.lastModified();
+        synchronized (pifCache) {
+            PIFEntry entry = pifCache.get(key);
+            if (entry != null && entry.length == length && entry.lastModified == lastModified) {
+                return entry.names;
+            }
+        }
+
+        HashSet<String> names = new HashSet<>();
+        try (ZipFile zipFile = new ZipFile(key)) {
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    names.add(entry.getName());
+                }
+            }
+        }
+        Set<String> result = Collections.unmodifiableSet(names);
+        synchronized (pifCache) {
+            if (System.currentTimeMillis() - lastModified >= MIN_AGE_MILLIS) {
+                pifCache.put(key, new PIFEntry(length, lastModified, result));
+            } else {
+                pifCache.remove(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the names of the files in the specified directory and in its
+     * subdirectories.
+     *
+     * @return Returns an unmodifiable Set.
+     */
+    static Set<String> getDirectoryFileNames(File dir) {
+        Path root = dir.toPath().toAbsolutePath();
+        Map<Path, DirectoryEntry> oldCache;
+        synchronized (directoryCache) {
+            oldCache = directoryCache.get(root);
+        }
+        if (oldCache == null) {
+            oldCache = Collections.emptyMap();
+        }
+        // The scan only puts the directories which it finds into the new
+        // cache, so that removed directories do not stay in the cache
+        Map<Path, DirectoryEntry> newCache = new ConcurrentHashMap<>();
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        scanPool.invoke(new ScanTask(root, "", names, System.currentTimeMillis(), oldCache, newCache));
+        synchronized (directoryCache) {
+            directoryCache.put(root, newCache);
+        }
+        return Collections.unmodifiableSet(new HashSet<>(names));
+    }
+
+    /**
+     * Returns the number of cached subdirectories of the specified content
+     * package directory, including the directory itself, or -1 if the
+     * content package directory is not in the cache.
+     */
+    static int getCachedDirectoryCount(File dir) {
+        synchronized (directoryCache) {
+            Map<Path, DirectoryEntry> cache = directoryCache.get(dir.toPath().toAbsolutePath());
+            return cache == null ? -1 : cache.size();
+        }
+    }
+
+    /**
+     * Adds the names of the files in a directory to a set, and scans the
+     * subdirectories with subtasks.
+     */
+    private static class ScanTask extends RecursiveAction {
+        private final static long serialVersionUID = 1L;
+        private final Path dir;
+        /**
+         * The relative path of the directory followed by a slash, or the
+         * empty string for the root directory.
+         */
+        private final String prefix;
+        private final Set<String> names;
+        private final long now;
+        private final Map<Path, DirectoryEntry> oldCache;
+        private final Map<Path, DirectoryEntry> newCache;
+
+        ScanTask(Path dir, String prefix, Set<String> names, long now,
+                 Map<Path, DirectoryEntry> oldCache, Map<Path, DirectoryEntry> newCache) {
+            this.dir = dir;
+            this.prefix = prefix;
+            this.names = names;
+            this.now = now;
+            this.oldCache = oldCache;
+            this.newCache = newCache;
+        }
+
+        @Override
+        protected void compute() {
+            DirectoryEntry entry = getDirectoryEntry(dir, now, oldCache, newCache);
+            if (entry == null) {
+                return;
+            }
+            for (String file : entry.files) {
+                names.add(prefix + file);
+            }
+            if (entry.directories.length > 0) {
+                ArrayList<ScanTask> tasks = new ArrayList<ScanTask>(entry.directories.length);
+                for (String subdir : entry.directories) {
+                    tasks.add(new ScanTask(dir.resolve(subdir), prefix + subdir + '/', names, now, oldCache, newCache));
+                }
+                invokeAll(tasks);
+            }
+        }
+    }
+
+    /**
+     * Returns the contents of the directory from the old cache, or reads
+     * them if the directory has been modified. Puts the contents into the
+     * new cache, if they can be cached.
+     *
+     * @return The contents or null if the directory can not be read.
+     */
+    private static DirectoryEntry getDirectoryEntry(Path dir, long now,
+                                                    Map<Path, DirectoryEntry> oldCache, Map<Path, DirectoryEntry> newCache) {
+        long lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(dir).toMillis();
+        } catch (IOException e) {
+            return null;
+        }
+        DirectoryEntry entry = oldCache.get(dir);
+        if (entry != null && entry.lastModified == lastModified) {
+            newCache.put(dir, entry);
+            return entry;
+        }
+
+        ArrayList<String> files = new ArrayList<String>();
+        ArrayList<String> directories = new ArrayList<String>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                if (Files.isHidden(path)) {
+                    continue;
+                }
+                if (Files.isDirectory(path)) {
+                    directories.add(path.getFileName().toString());
+                } else {
+                    files.add(path.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        entry = new DirectoryEntry(lastModified,
+                files.toArray(new String[0]), directories.toArray(new String[0]));
+        if (now - lastModified >= MIN_AGE_MILLIS) {
+            newCache.put(dir, entry);
+        }
+        return entry;
+    }
+}
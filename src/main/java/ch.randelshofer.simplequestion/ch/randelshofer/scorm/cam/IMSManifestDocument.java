@@ -4,26 +4,31 @@
  */
 package ch.randelshofer.scorm.cam;
 
+import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
+import javax.swing.tree.TreeNode;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import java.io.BufferedInputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 /**
  * Represents a top-level SCORM 1.2 CAM 'manifest' element.
@@ -51,7 +56,11 @@ import java.util.zip.ZipInputStream;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.3 2006-10-10 Parse with XML namespaces.
+ * @version 1.6 2026-10-18 Method getFileNames reads the central directory
+ * of the PIF, and caches the file names with FileNameIndex.
+ * <br>1.5 2026-10-18 Method readXMLStream added.
+ * <br>1.4 2026-10-18 Added identifier and identifierref indexes.
+ * <br>1.3 2006-10-10 Parse with XML namespaces.
  * <br>1.2 2006-05-26 Skip hidden files.
  * <br>1.1.6  2004-01-19  Comments updated.
  * <br> 1.1.5 2003-11-05 Method exportToJavaScript assigns the CAM to
@@ -77,7 +86,22 @@ public class IMSManifestDocument extends ManifestElement {
      * The separator used to delimit path elements is the '/' (slash)
      * character.
      */
-    private HashSet<String> fileNames;
+    private Set<String> fileNames;
+    /**
+     * Maps identifiers to the elements which have the identifier.
+     * The elements are stored in preorder. An identifier is unique, if the
+     * list contains only one element.
+     * <p>
+     * This variable is null when the index needs to be rebuilt.
+     */
+    private HashMap<String, List<AbstractElement>> identifierIndex;
+    /**
+     * Maps identifiers to the elements which reference them with an
+     * identifierref attribute. The elements are stored in preorder.
+     * <p>
+     * This variable is null when the index needs to be rebuilt.
+     */
+    private HashMap<String, List<AbstractElement>> referrerIndex;
 
     /**
      * Creates a new instance of CAMModel
@@ -88,6 +112,7 @@ public class IMSManifestDocument extends ManifestElement {
     public void setPIFFile(File pif) {
         pifFile = pif;
         contentPackageFile = null;
+        fileNames = null;
     }
 
     public File getPIFFile() {
@@ -97,6 +122,7 @@ public class IMSManifestDocument extends ManifestElement {
     public void setContentPackage(File dir) {
         contentPackageFile = dir;
         pifFile = null;
+        fileNames = null;
     }
 
     public File getContentPackage() {
@@ -133,7 +159,115 @@ public class IMSManifestDocument extends ManifestElement {
         // Read the "manifest" element
         Element elem = doc.getDocumentElement();
         parse(elem);
+        buildIndexes();
+    }
+
+    /**
+     * Adds the contents of the XML stream to this model.
+     * <p>
+     * Unlike readXML, this method does not build a DOM Document. The elements
+     * of this model are created while the XML stream is being read, so
+     * that large manifests need only half of the memory.
+     * For peak performance, the input stream should be buffered.
+     */
+    public void readXMLStream(InputStream in)
+            throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+
+            // Read the "manifest" element
+            while (reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+                reader.next();
+            }
+            parse(reader);
+        } catch (XMLStreamException e) {
+            IOException e2 = new IOException(e.getMessage());
+            e2.initCause(e);
+            throw e2;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    // The input stream is closed by the caller
+                }
+            }
+        }
+        buildIndexes();
+    }
+
+    /**
+     * Returns the elements with the specified identifier in this document,
+     * in preorder.
+     *
+     * @return Returns a list which must not be modified.
+     */
+    public List<AbstractElement> getElementsByIdentifier(String identifier) {
+        if (identifierIndex == null) {
+            buildIndexes();
+        }
+        List<AbstractElement> elements = identifierIndex.get(identifier);
+        return (elements == null) ? Collections.<AbstractElement>emptyList() : elements;
+    }
 
+    /**
+     * Returns the elements which reference the specified identifier with
+     * their identifierref attribute, in preorder.
+     *
+     * @return Returns a list which must not be modified.
+     */
+    public List<AbstractElement> getReferrers(String identifier) {
+        if (referrerIndex == null) {
+            buildIndexes();
+        }
+        List<AbstractElement> elements = referrerIndex.get(identifier);
+        return (elements == null) ? Collections.<AbstractElement>emptyList() : elements;
+    }
+
+    /**
+     * Discards the identifier and identifierref indexes. They are rebuilt
+     * on the next lookup.
+     * <p>
+     * This method is invoked by AbstractElement when an element is inserted
+     * into or removed from this document.
+     */
+    public void invalidateIndexes() {
+        identifierIndex = null;
+        referrerIndex = null;
+    }
+
+    /**
+     * Builds the identifier and identifierref indexes with a single
+     * traversal of this document.
+     */
+    private void buildIndexes() {
+        HashMap<String, List<AbstractElement>> identifiers = new HashMap<>();
+        HashMap<String, List<AbstractElement>> referrers = new HashMap<>();
+        Enumeration<TreeNode> enm = preorderEnumeration();
+        while (enm.hasMoreElements()) {
+            AbstractElement element = (AbstractElement) enm.nextElement();
+            addToIndex(identifiers, element.getIdentifier(), element);
+            addToIndex(referrers, element.getIdentifierref(), element);
+        }
+        identifierIndex = identifiers;
+        referrerIndex = referrers;
+    }
+
+    private static void addToIndex(HashMap<String, List<AbstractElement>> index, String key, AbstractElement element) {
+        if (key == null) {
+            return;
+        }
+        List<AbstractElement> elements = index.get(key);
+        if (elements == null) {
+            index.put(key, Collections.singletonList(element));
+        } else {
+            if (elements.size() == 1) {
+                elements = new ArrayList<>(elements);
+                index.put(key, elements);
+            }
+            elements.add(element);
+        }
     }
 
     /**
@@ -195,51 +329,19 @@ public class IMSManifestDocument extends ManifestElement {
      */
     public Set<String> getFileNames() {
         if (fileNames == null) {
-            fileNames = new HashSet<>();
             if (pifFile != null) {
-                ZipInputStream zipin = null;
                 try {
-                    zipin = new ZipInputStream(
-                            new BufferedInputStream(
-                                    new FileInputStream(pifFile)
-                            ));
-                    ZipEntry entry = null;
-                    while ((entry = zipin.getNextEntry()) != null) {
-                        if (!entry.isDirectory()) {
-                            fileNames.add(entry.getName());
-                        }
-                    }
+                    fileNames = FileNameIndex.getPIFFileNames(pifFile);
                 } catch (IOException e) {
                     e.printStackTrace();
-                } finally {
-                    if (zipin != null) {
-                        try {
-                            zipin.close();
-                        } catch (IOException e2) {
-                        }
-                    }
+                    fileNames = Collections.emptySet();
                 }
             } else if (contentPackageFile != null) {
-                addDirectorySubtree(contentPackageFile, contentPackageFile, fileNames);
-            }
-        }
-        return Collections.unmodifiableSet(fileNames);
-    }
-
-    private void addDirectorySubtree(File root, File subdir, Set<String> fileNames) {
-        String rootName = root.toString();
-        File[] dir = subdir.listFiles();
-        if (dir != null) {
-            for (int i = 0; i < dir.length; i++) {
-                if (!dir[i].isHidden()) {
-                    if (dir[i].isDirectory()) {
-                        addDirectorySubtree(root, dir[i], fileNames);
-                    } else {
-                        String relativePath = dir[i].toString().replace(File.separatorChar, '/').substring(rootName.length() + 1);
-                        fileNames.add(relativePath);
-                    }
-                }
+                fileNames = FileNameIndex.getDirectoryFileNames(contentPackageFile);
+            } else {
+                fileNames = Collections.emptySet();
             }
         }
+        return fileNames;
     }
 }
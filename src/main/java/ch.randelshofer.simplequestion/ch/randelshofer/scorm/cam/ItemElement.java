@@ -9,16 +9,17 @@ import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import ch.randelshofer.util.Strings;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.swing.tree.TreeNode;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -53,7 +54,9 @@ import java.util.List;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.2 2006-10-10 Parse with XML namespaces.
+ * @version 1.4 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.3 2026-10-18 Validate identifierref with the identifier index.
+ * <br>1.2 2006-10-10 Parse with XML namespaces.
  * <br>1.1.2 2006-06-01 Encode unicode characters with HTML entities.
  * <br>1.1.1 2004-01-07 Fixed a NullPointerException in method getTitle().
  * <br>1.1 2003-11-03 Support for metadata element added.
@@ -170,6 +173,58 @@ public class ItemElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of an 'item'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "item")) {
+            throw new IOException("'adlcp:item' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        this.identifier = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "identifier", null);
+        this.identifierref = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "identifierref", null);
+        this.isVisible = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "isvisible", "true").equals("true");
+        this.parameters = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "parameters", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "title")) {
+                if (this.titleElement != null) {
+                    throw new IOException("'title' element may only occur once whithin an 'item' element.");
+                }
+                this.titleElement = new TitleElement();
+                add(this.titleElement);
+                this.titleElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "datafromlms")) {
+                if (this.dataFromLMSElement != null) {
+                    throw new IOException("'datafromlms' element may only occur once whithin an 'item' element.");
+                }
+                this.dataFromLMSElement = new DataFromLMSElement();
+                add(this.dataFromLMSElement);
+                this.dataFromLMSElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "item")) {
+                ItemElement item = new ItemElement();
+                add(item);
+                this.itemList.add(item);
+                item.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "metadata")) {
+                if (this.metadataElement != null) {
+                    throw new IOException("'metadata' may only be specified once whithin a 'manifest'");
+                }
+                this.metadataElement = new MetadataElement();
+                add(metadataElement);
+                this.metadataElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
@@ -310,10 +365,10 @@ public class ItemElement extends AbstractElement {
         }
         if (identifierref != null) {
             isIdentifierrefValid = false;
-            Enumeration<TreeNode> enm = getIMSManifestDocument().getResourcesElement().preorderEnumeration();
-            while (enm.hasMoreElements()) {
-                AbstractElement node = (AbstractElement) enm.nextElement();
-                if (node.getIdentifier() != null && node.getIdentifier().equals(identifierref)) {
+            IMSManifestDocument doc = getIMSManifestDocument();
+            ResourcesElement resources = doc.getResourcesElement();
+            for (AbstractElement node : doc.getElementsByIdentifier(identifierref)) {
+                if (node.isNodeAncestor(resources)) {
                     isIdentifierrefValid = true;
                     break;
                 }
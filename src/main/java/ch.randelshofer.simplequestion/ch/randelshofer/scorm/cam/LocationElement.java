@@ -8,10 +8,13 @@ package ch.randelshofer.scorm.cam;
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.Strings;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.util.Set;
 
@@ -41,7 +44,8 @@ import java.util.Set;
  * Internet(2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0 5. Januar 2004  Created.
  */
 public class LocationElement extends AbstractElement {
@@ -77,6 +81,24 @@ public class LocationElement extends AbstractElement {
         uri = DOMs.getText(elem);
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'location'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.ADLCP_NS, "location")) {
+            throw new IOException("'adlcp:location' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+
+        // Read the text of the element
+        uri = StAXs.getText(in);
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
@@ -7,11 +7,14 @@ package ch.randelshofer.scorm.cam;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -42,7 +45,8 @@ import java.util.LinkedList;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0.1  2004-01-19  Comments updated.
  * <br>1.1 2003-11-03 Support for metadata element implemented.
  * <br>1.0.1 2003-10-30 HTML output in method toString changed.
@@ -134,6 +138,57 @@ public class ManifestElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'manifest'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "manifest")) {
+            throw new IOException("'imscp:manifest' element expected, but found '" + StAXs.getTagName(in) + "'.");
+        }
+        this.identifier = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "identifier", null);
+        this.version = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "version", null);
+        this.xmlBase = StAXs.getAttributeNS(in, "xml", "base", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "metadata")) {
+                if (this.metadataElement != null) {
+                    throw new IOException("'metadata' may only be specified once whithin a 'manifest'");
+                }
+                this.metadataElement = new MetadataElement();
+                add(metadataElement);
+                this.metadataElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "organizations")) {
+                if (this.organizationsElement != null) {
+                    throw new IOException("The 'organizations' element may only be specified once whithin a 'manifest' element.");
+                }
+                this.organizationsElement = new OrganizationsElement();
+                add(organizationsElement);
+                this.organizationsElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "resources")) {
+                if (this.resourcesElement != null) {
+                    throw new IOException("The 'resources' element may only be specified once whithin a 'manifest' element.");
+                }
+                this.resourcesElement = new ResourcesElement();
+                add(resourcesElement);
+                this.resourcesElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "manifest")) {
+                ManifestElement mani = new ManifestElement();
+                add(mani);
+                this.manifestList.add(mani);
+                mani.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
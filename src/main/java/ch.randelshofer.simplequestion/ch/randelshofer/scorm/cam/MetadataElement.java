@@ -8,11 +8,14 @@ import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.scorm.lom.LOM;
 import ch.randelshofer.scorm.lom.LOMElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
@@ -41,7 +44,8 @@ import java.io.IOException;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0.1  2004-01-19  Comments updated.
  * <br>1.0 2003-11-03 Created.
  */
@@ -136,6 +140,55 @@ public class MetadataElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'metadata'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "metadata")) {
+            throw new IOException("'adlcp:metadata' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "schema")) {
+                if (this.schemaElement != null) {
+                    throw new IOException("'schema' element may only be specified once whithin a 'organization' element.");
+                }
+                this.schemaElement = new SchemaElement();
+                add(schemaElement);
+                this.schemaElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "schemaversion")) {
+                if (this.schemaVersionElement != null) {
+                    throw new IOException("'schemaversion' element may only be specified once whithin a 'organization' element.");
+                }
+                this.schemaVersionElement = new SchemaVersionElement();
+                add(schemaVersionElement);
+                this.schemaVersionElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "location")) {
+                if (this.locationElement != null) {
+                    throw new IOException("'adlcp:location' element may only be specified once whithin a 'organization' element.");
+                }
+                this.locationElement = new LocationElement();
+                add(locationElement);
+                this.locationElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "lom")) {
+                if (this.lomElement != null) {
+                    throw new IOException("'imsmd:lom' element may only be specified once whithin a 'organization' element.");
+                }
+                this.lomElement = new LOMElement();
+                add(lomElement);
+                this.lomElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     public String toString() {
         StringBuffer buf = new StringBuffer();
         buf.append("<html><font size=-1 face=SansSerif>");
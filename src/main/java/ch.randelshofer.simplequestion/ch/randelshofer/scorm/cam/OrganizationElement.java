@@ -9,12 +9,15 @@ import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import ch.randelshofer.util.Strings;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.swing.tree.TreeNode;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
@@ -70,7 +73,8 @@ import java.util.List;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.2 2006-10-10 Parse with XML namespaces.
+ * @version 1.3 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.2 2006-10-10 Parse with XML namespaces.
  * <br>1.1.1 2006-06-01 Encode unicode characters in title with HTML entities.
  * <br>1.1 2002-11-03 Support for Metadata element implemented.
  * <br>1.0 2003-10-30 Method getReferencedResources added. HTML output in
@@ -154,6 +158,49 @@ public class OrganizationElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of an 'organization'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "organization")) {
+            throw new IOException("'adlcp:organization' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        this.identifier = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "identifier", null);
+        this.structure = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "structure", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "title")) {
+                if (this.titleElement != null) {
+                    throw new IOException("'title' element may only be specified once whithin a 'organization' element.");
+                }
+                this.titleElement = new TitleElement();
+                add(titleElement);
+                this.titleElement.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "item")) {
+                ItemElement item = new ItemElement();
+                add(item);
+                this.itemList.add(item);
+                item.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "metadata")) {
+                if (this.metadataElement != null) {
+                    throw new IOException("'metadata' may only be specified once whithin a 'manifest'");
+                }
+                this.metadataElement = new MetadataElement();
+                add(metadataElement);
+                this.metadataElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
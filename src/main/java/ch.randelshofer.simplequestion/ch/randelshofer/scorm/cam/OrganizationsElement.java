@@ -8,11 +8,14 @@ package ch.randelshofer.scorm.cam;
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Iterator;
@@ -40,7 +43,8 @@ import java.util.LinkedList;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0.1 2004-01-19 Comments updated.
  * <br>1.0 2003-10-30 HTML output in method toString changed.
  * <br>0.18 2003-05-09 Export the default organization only.
@@ -98,6 +102,34 @@ public class OrganizationsElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of an 'organizations'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "organizations")) {
+            throw new IOException("'adlcp:organizations' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        this.defaultOrganization = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "default", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "organization")) {
+                OrganizationElement orga = new OrganizationElement();
+                add(orga);
+                this.organizationList.add(orga);
+                orga.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
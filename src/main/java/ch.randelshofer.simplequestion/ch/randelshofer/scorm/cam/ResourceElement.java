@@ -9,15 +9,16 @@ import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import ch.randelshofer.util.Strings;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
-import javax.swing.tree.TreeNode;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
@@ -47,7 +48,10 @@ import java.util.Set;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.2 2006-10-10 Issue a warning when encountering an XML error, but
+ * @version 1.4 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.3 2026-10-18 Look up the referencing elements with the
+ * identifierref index.
+ * <br>1.2 2006-10-10 Issue a warning when encountering an XML error, but
  * continue parsing the XML file. Parse with XML namespaces.
  * <br>1.1.5 2003-11-05 Do not export to JavaScript when we have no href.
  * <br>1.1 2003-11-03 Method getConsolidatedHRef added.
@@ -192,6 +196,70 @@ public class ResourceElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'resource'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        String attr;
+
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "resource")) {
+            throw new IOException("'imscp:resource' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+
+        // Read the attributes
+        this.identifier = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "identifier", null);
+        attr = StAXs.getAttributeNS(in, CAM.IMSCP_NS, "type", null);
+        if (attr == null || !attr.equals("webcontent")) {
+            // XXX - Localize this string
+            xmlWarnings.add("Warning: Attribute 'type' must have the value 'webcontent', but found '" + attr + "'. Assuming value 'webcontent'.");
+        }
+        this.type = TYPE_WEBCONTENT;
+
+        attr = StAXs.getAttributeNS(in, CAM.ADLCP_NS, "scormtype", "");
+        if (attr.equals("") || !(attr.equals("asset") || attr.equals("sco"))) {
+            // XXX - Localize this string
+            xmlWarnings.add("Warning: Attribute 'adlcp:scormtype' must have the value 'asset' or 'sco', but found '" + attr + "'. Assuming value 'sco'.");
+        }
+        this.adlcpScormtype = (attr.equals("asset")) ? SCORMTYPE_ASSET : SCORMTYPE_SCO;
+
+        this.href = StAXs.getAttributeNS(in, CAM.ADLCP_NS, "href", null);
+
+        this.xmlBase = StAXs.getAttributeNS(in, "xml", "base", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "metadata")) {
+                if (this.metadataElement != null) {
+                    xmlWarnings.add("Warning: The 'imscp:metadata' element may only be specified once whithin a 'resource' element. " +
+                            "Ignoring the extreanous 'metadata' element.");
+                    StAXs.skipElement(in);
+                } else {
+                    this.metadataElement = new MetadataElement();
+                    add(metadataElement);
+                    this.metadataElement.parse(in);
+                }
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "file")) {
+                FileElement file = new FileElement();
+                add(file);
+                this.fileList.add(file);
+                file.parse(in);
+            } else if (StAXs.isElement(in, CAM.IMSCP_NS, "dependency")) {
+                DependencyElement dependency = new DependencyElement();
+                add(dependency);
+                this.dependencyList.add(dependency);
+                dependency.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
@@ -289,28 +357,14 @@ public class ResourceElement extends AbstractElement {
         }
         if (identifier != null) {
             isReferenced = false;
-            Enumeration<TreeNode> enm = getIMSManifestDocument().getOrganizationsElement().preorderEnumeration();
-            while (enm.hasMoreElements()) {
-                AbstractElement node = (AbstractElement) enm.nextElement();
-                if (node instanceof ItemElement) {
-                    ItemElement item = (ItemElement) node;
-                    if (item.getIdentifierref() != null
-                            && item.getIdentifierref().equals(identifier)) {
-                        isReferenced = true;
-                        break;
-                    }
-                }
-            }
-            enm = getIMSManifestDocument().getResourcesElement().preorderEnumeration();
-            while (enm.hasMoreElements()) {
-                AbstractElement node = (AbstractElement) enm.nextElement();
-                if (node instanceof DependencyElement) {
-                    DependencyElement dependency = (DependencyElement) node;
-                    if (dependency.getIdentifierref() != null
-                            && dependency.getIdentifierref().equals(identifier)) {
-                        isReferenced = true;
-                        break;
-                    }
+            IMSManifestDocument doc = getIMSManifestDocument();
+            OrganizationsElement organizations = doc.getOrganizationsElement();
+            ResourcesElement resources = doc.getResourcesElement();
+            for (AbstractElement node : doc.getReferrers(identifier)) {
+                if (node instanceof ItemElement && node.isNodeAncestor(organizations)
+                        || node instanceof DependencyElement && node.isNodeAncestor(resources)) {
+                    isReferenced = true;
+                    break;
                 }
             }
 
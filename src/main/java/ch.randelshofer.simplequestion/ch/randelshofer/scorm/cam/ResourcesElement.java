@@ -8,12 +8,15 @@ package ch.randelshofer.scorm.cam;
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.util.IdentifierGenerator;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.swing.tree.TreeNode;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Collections;
@@ -45,7 +48,8 @@ import java.util.Set;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.2 2006-10-10 Parse with XML namespaces.
+ * @version 1.3 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.2 2006-10-10 Parse with XML namespaces.
  * <br>1.1 2006-10-07 Removed HTML output from method toString, due to
  * bug http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4988885
  * <br>1.0 2003-10-29 Method findResource added. HTML output in method
@@ -116,6 +120,34 @@ public class ResourcesElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'resources'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "resources")) {
+            throw new IOException("'imscp:resources' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        this.xmlBase = StAXs.getAttributeNS(in, "xml", "base", null);
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, CAM.IMSCP_NS, "resource")) {
+                ResourceElement resourceElement = new ResourceElement();
+                add(resourceElement);
+                this.resourceList.add(resourceElement);
+                resourceElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
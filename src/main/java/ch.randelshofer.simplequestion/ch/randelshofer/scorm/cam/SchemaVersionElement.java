@@ -8,10 +8,13 @@ package ch.randelshofer.scorm.cam;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
@@ -37,7 +40,8 @@ import java.io.IOException;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0 5. Januar 2004  Created.
  */
 public class SchemaVersionElement extends AbstractElement {
@@ -64,6 +68,24 @@ public class SchemaVersionElement extends AbstractElement {
         version = DOMs.getText(elem);
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'schemaversion'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "schemaversion")) {
+            throw new IOException("'schemaversion' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+
+        // Read the text of the element
+        version = StAXs.getText(in);
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
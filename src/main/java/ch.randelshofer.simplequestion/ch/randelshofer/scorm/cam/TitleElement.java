@@ -7,10 +7,13 @@ package ch.randelshofer.scorm.cam;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
@@ -32,7 +35,8 @@ import java.io.IOException;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer, Staldenmattweg 2, Immensee, CH-6405, Switzerland
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0.1 2003-10-30 HTML output in method toString changed.
  * <br>0.1 2003-02-02 Created.
  */
@@ -64,6 +68,24 @@ public class TitleElement extends AbstractElement {
         this.title = DOMs.getText(elem);
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'title'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, CAM.IMSCP_NS, "title")) {
+            throw new IOException("'adlcp:title' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+
+        // Read the title
+        this.title = StAXs.getText(in);
+    }
+
     /**
      * Dumps the contents of this subtree into the provided string buffer.
      */
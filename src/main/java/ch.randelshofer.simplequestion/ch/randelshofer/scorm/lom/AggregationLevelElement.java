@@ -7,11 +7,14 @@ package ch.randelshofer.scorm.lom;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
@@ -37,7 +40,8 @@ import java.io.IOException;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-11 Parse using XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-11 Parse using XML namespaces.
  * <br>1.0.1  2004-01-19  Comments updated.
  * <br>1.0  2004-01-05  Created.
  */
@@ -95,6 +99,49 @@ public class AggregationLevelElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of an 'aggregationlevel'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, LOM.NS, "aggregationlevel")) {
+            throw new IOException("'aggregationlevel' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, LOM.NS, "vocabulary")) {
+                if (vocabularyElement != null) {
+                    throw new IOException("'vocabulary' element may only be specified once whithin a 'catalogentry' element.");
+                }
+                vocabularyElement = new VocabularyElement();
+                add(vocabularyElement);
+                vocabularyElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "source")) {
+                if (sourceElement != null) {
+                    throw new IOException("'source' element may only be specified once whithin a 'catalogentry' element.");
+                }
+                sourceElement = new SourceElement();
+                add(sourceElement);
+                sourceElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "value")) {
+                if (valueElement != null) {
+                    throw new IOException("'value' element may only be specified once whithin a 'catalogentry' element.");
+                }
+                valueElement = new ValueElement();
+                add(valueElement);
+                valueElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
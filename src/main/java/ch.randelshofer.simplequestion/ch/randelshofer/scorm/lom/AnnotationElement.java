@@ -8,10 +8,13 @@ package ch.randelshofer.scorm.lom;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
@@ -38,7 +41,8 @@ import java.io.IOException;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-11 Parse using XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-11 Parse using XML namespaces.
  * <br>1.0.1  2004-01-19  Comments updated.
  * <br>1.0  2004-01-05  Created.
  */
@@ -63,6 +67,22 @@ public class AnnotationElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of an 'annotation'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, LOM.NS, "annotation")) {
+            throw new IOException("'annotation' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        StAXs.skipElement(in);
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
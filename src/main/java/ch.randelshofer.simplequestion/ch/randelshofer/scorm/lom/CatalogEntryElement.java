@@ -8,11 +8,14 @@ package ch.randelshofer.scorm.lom;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
@@ -41,7 +44,8 @@ import java.io.IOException;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-11 Parse using XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-11 Parse using XML namespaces.
  * <br>1.0.1  2004-01-19  Comments updated.
  * <br>1.0  2004-01-05  Created.
  */
@@ -91,6 +95,41 @@ public class CatalogEntryElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'catalogentry'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, LOM.NS, "catalogentry")) {
+            throw new IOException("'catalogentry' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, LOM.NS, "catalog")) {
+                if (this.catalogElement != null) {
+                    throw new IOException("'catalog' element may only be specified once whithin a 'catalogentry' element.");
+                }
+                this.catalogElement = new CatalogElement();
+                add(catalogElement);
+                this.catalogElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "entry")) {
+                if (this.entryElement != null) {
+                    throw new IOException("'entry' element may only be specified once whithin a 'catalogentry' element.");
+                }
+                this.entryElement = new EntryElement();
+                add(entryElement);
+                this.entryElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
@@ -7,11 +7,14 @@ package ch.randelshofer.scorm.lom;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.util.LinkedList;
 
@@ -45,7 +48,8 @@ import java.util.LinkedList;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-11 Parse using XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-11 Parse using XML namespaces.
  * <br>1.0.1 2004-01-19  Comments updated.
  * <br>1.0 5. Januar 2004  Created.
  */
@@ -138,6 +142,76 @@ public class GeneralElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'general'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, LOM.NS, "general")) {
+            throw new IOException("'general' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, LOM.NS, "identifier")) {
+                if (identifierElement != null) {
+                    throw new IOException("'identifier' element may only be specified once whithin a 'organization' element.");
+                }
+                add(identifierElement = new IdentifierElement());
+                identifierElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "title")) {
+                if (titleElement != null) {
+                    throw new IOException("'title' element may only be specified once whithin a 'organization' element.");
+                }
+                add(titleElement = new TitleElement());
+                titleElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "catalogentry")) {
+                CatalogEntryElement element = new CatalogEntryElement();
+                add(element);
+                catalogEntryList.add(element);
+                element.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "language")) {
+                LanguageElement element = new LanguageElement();
+                add(element);
+                languageList.add(element);
+                element.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "description")) {
+                DescriptionElement element = new DescriptionElement();
+                add(element);
+                descriptionList.add(element);
+                element.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "keyword")) {
+                KeywordElement element = new KeywordElement();
+                add(element);
+                keywordList.add(element);
+                element.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "coverage")) {
+                CoverageElement element = new CoverageElement();
+                add(element);
+                coverageList.add(element);
+                element.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "structure")) {
+                if (structureElement != null) {
+                    throw new IOException("'structure' element may only be specified once whithin a 'organization' element.");
+                }
+                add(structureElement = new StructureElement());
+                structureElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "aggregationlevel")) {
+                if (aggregationLevelElement != null) {
+                    throw new IOException("'aggregationlevel' element may only be specified once whithin a 'organization' element.");
+                }
+                add(aggregationLevelElement = new AggregationLevelElement());
+                aggregationLevelElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
@@ -7,17 +7,21 @@ package ch.randelshofer.scorm.lom;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 
 /**
  * Represents a SCORM 1.2 LOM 'identifier 'Element.
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-11 Parse using XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-11 Parse using XML namespaces.
  * <br>1.0 5. Januar 2004  Created.
  */
 public class IdentifierElement extends AbstractElement {
@@ -42,6 +46,22 @@ public class IdentifierElement extends AbstractElement {
 
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of an 'identifier'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, LOM.NS, "identifier")) {
+            throw new IOException("'identifier' element expected, but found '" + StAXs.getTagName(in) + "' element.");
+        }
+        StAXs.skipElement(in);
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
@@ -7,11 +7,14 @@ package ch.randelshofer.scorm.lom;
 
 import ch.randelshofer.scorm.AbstractElement;
 import ch.randelshofer.xml.DOMs;
+import ch.randelshofer.xml.StAXs;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.util.LinkedList;
 
@@ -45,7 +48,8 @@ import java.util.LinkedList;
  * Internet (2003-01-20): http://www.adlnet.org
  *
  * @author Werner Randelshofer
- * @version 1.1 2006-10-10 Parse with XML namespaces.
+ * @version 1.2 2026-10-18 Method parse(XMLStreamReader) added.
+ * <br>1.1 2006-10-10 Parse with XML namespaces.
  * <br>1.0.1  2004-01-19  Comments updated.
  * <br>1.0  2004-01-05  Created.
  */
@@ -147,6 +151,85 @@ public class LOMElement extends AbstractElement {
         }
     }
 
+    /**
+     * Parses the current element of the specified XML stream and
+     * incorporates its contents into this element.
+     *
+     * @param in An XML stream positioned on the start tag of a 'lom'
+     *           element. On return, the stream is positioned on the end tag
+     *           of the element.
+     */
+    public void parse(XMLStreamReader in)
+            throws IOException, XMLStreamException {
+        if (!StAXs.isElement(in, LOM.NS, "lom")) {
+            throw new IOException("'imsmd:lom' element expected, but found '" + in.getLocalName() + "' element.");
+        }
+
+        // Read the child elements
+        while (StAXs.nextElement(in)) {
+            if (StAXs.isElement(in, LOM.NS, "general")) {
+                if (this.generalElement != null) {
+                    throw new IOException("'general' element may only be specified once whithin a 'organization' element.");
+                }
+                this.generalElement = new GeneralElement();
+                add(generalElement);
+                this.generalElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "lifecycle")) {
+                if (this.lifecycleElement != null) {
+                    throw new IOException("'lifecycle' element may only be specified once whithin a 'organization' element.");
+                }
+                this.lifecycleElement = new LifecycleElement();
+                add(lifecycleElement);
+                this.lifecycleElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "metametadata")) {
+                if (this.metaMetadataElement != null) {
+                    throw new IOException("'metametadata' element may only be specified once whithin a 'organization' element.");
+                }
+                this.metaMetadataElement = new MetaMetadataElement();
+                add(metaMetadataElement);
+                this.metaMetadataElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "technical")) {
+                if (this.technicalElement != null) {
+                    throw new IOException("'general' element may only be specified once whithin a 'organization' element.");
+                }
+                this.technicalElement = new TechnicalElement();
+                add(technicalElement);
+                this.technicalElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "educational")) {
+                if (this.educationalElement != null) {
+                    throw new IOException("'general' element may only be specified once whithin a 'organization' element.");
+                }
+                this.educationalElement = new EducationalElement();
+                add(educationalElement);
+                this.educationalElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "rights")) {
+                if (this.rightsElement != null) {
+                    throw new IOException("'general' element may only be specified once whithin a 'organization' element.");
+                }
+                this.rightsElement = new RightsElement();
+                add(rightsElement);
+                this.rightsElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "relation")) {
+                RelationElement relationElement = new RelationElement();
+                add(relationElement);
+                relationList.add(relationElement);
+                relationElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "annotation")) {
+                AnnotationElement annotationElement = new AnnotationElement();
+                add(annotationElement);
+                annotationList.add(annotationElement);
+                annotationElement.parse(in);
+            } else if (StAXs.isElement(in, LOM.NS, "classification")) {
+                ClassificationElement classificationElement = new ClassificationElement();
+                add(classificationElement);
+                classificationList.add(classificationElement);
+                classificationElement.parse(in);
+            } else {
+                StAXs.skipElement(in);
+            }
+        }
+    }
+
     public void dump(StringBuffer buf, int depth) {
     }
 
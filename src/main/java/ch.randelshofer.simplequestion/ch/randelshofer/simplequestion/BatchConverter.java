@@ -0,0 +1,431 @@
+/*
+ * @(#)BatchConverter.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.simplequestion;
+
+import ch.randelshofer.gift.export.Exporter;
+import ch.randelshofer.gift.export.ilias.ILIASQuestionPoolExporter;
+import ch.randelshofer.gift.export.scorm.SCORMExporter;
+import ch.randelshofer.gift.parser.GIFTParseException;
+import ch.randelshofer.gift.parser.GIFTParseResult;
+import ch.randelshofer.gift.parser.GIFTParser;
+import ch.randelshofer.gui.SilentProgressIndicator;
+import ch.randelshofer.io.ConfigurableFileFilter;
+import ch.randelshofer.io.ExtensionFileFilter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Converts GIFT files into SCORM or ILIAS files from the command line,
+ * without a graphical user interface.
+ * <p>
+ * The files are converted concurrently by a pool of worker threads. For
+ * each file, the number of questions and the time needed for parsing and
+ * exporting are reported. A file with syntax errors is not exported.
+ * <p>
+ * Usage:
+ * <pre>
+ * java ch.randelshofer.simplequestion.BatchConverter [options] file|directory...
+ * </pre>
+ * Directories are searched recursively for files with the extension
+ * ".gift". See {@link #USAGE} for the options.
+ * <p>
+ * The exit code is 0 if all files have been converted, 1 if a file has
+ * syntax errors or could not be exported, and 2 if the command line is
+ * invalid.
+ *
+ * @author Werner Randelshofer
+ * @version 1.2 2026-10-18 Added option --incremental.
+ * <br>1.1 2026-10-18 Detect files with the same target. Delete the
+ * target of a failed export. Files found in a directory keep their relative
+ * path in the output directory.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class BatchConverter {
+
+    public final static String USAGE = ""
+            + "Usage: BatchConverter [options] file|directory...\n"
+            + "Options:\n"
+            + "  -f, --format scorm|scorm-dir|ilias\n"
+            + "                          SCORM package interchange file (default), SCORM\n"
+            + "                          content package directory, or ILIAS question pool\n"
+            + "  -i, --incremental       only rewrite the files of a SCORM content package\n"
+            + "                          directory which have changed since the previous\n"
+            + "                          conversion, and delete the files which are no\n"
+            + "                          longer needed\n"
+            + "  -o, --output dir        output directory (default: next to each input file);\n"
+            + "                          the files found in a directory argument keep their\n"
+            + "                          relative path\n"
+            + "  -j, --jobs n            number of files converted at the same time\n"
+            + "                          (default: number of processors)\n"
+            + "  --encoding charset      encoding of the GIFT files (default: UTF-8)\n"
+            + "  --locale locale         language of the SCORM pages (default: de)\n"
+            + "  --stylesheet path       stylesheet of the SCORM pages\n"
+            + "                          (default: style/style_hslu.css)\n"
+            + "  --title title           title of the SCORM organization (default: file name)\n"
+            + "  --prefix prefix         prefix of the SCORM page names (default: none)\n"
+            + "  --templates file|dir    SCORM templates (default: from the preferences)\n";
+
+    /**
+     * The result of the conversion of a file.
+     */
+    private static class Result {
+        final File file;
+        int questionCount;
+        long parseMillis;
+        long exportMillis;
+        List<GIFTParseException> errors;
+        Exception failure;
+
+        Result(File file) {
+            this.file = file;
+        }
+
+        boolean isSuccess() {
+            return failure == null && (errors == null || errors.isEmpty());
+        }
+    }
+
+    private String format = "scorm";
+    private File outputDir;
+    private int jobs = Runtime.getRuntime().availableProcessors();
+    private Charset encoding = StandardCharsets.UTF_8;
+    private Locale locale = new Locale("de");
+    private String stylesheet = "style/style_hslu.css";
+    private String title;
+    private String prefix = "";
+    private File templates;
+    private boolean isIncremental;
+    private final ArrayList<File> files = new ArrayList<File>();
+    /**
+     * The path of each file relative to the directory argument it has been
+     * found in. The path is empty for the files which are given as arguments.
+     */
+    private final HashMap<File, String> relativeDirs = new HashMap<File, String>();
+    /**
+     * The target of each file.
+     */
+    private final HashMap<File, File> targets = new HashMap<File, File>();
+
+    /**
+     * Creates a new instance.
+     */
+    public BatchConverter() {
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        BatchConverter converter = new BatchConverter();
+        int status;
+        try {
+            converter.parseArguments(args);
+            status = converter.convert(System.out, System.err);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(USAGE);
+            status = 2;
+        }
+        System.exit(status);
+    }
+
+    /**
+     * Parses the command line arguments.
+     *
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("-")) {
+                File f = new File(arg);
+                if (!f.exists()) {
+                    throw new IllegalArgumentException("File not found: " + arg);
+                }
+                collectFiles(f, "");
+                continue;
+            }
+            if (arg.equals("-i") || arg.equals("--incremental")) {
+                isIncremental = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for option " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "-f":
+                case "--format":
+                    if (!Arrays.asList("scorm", "scorm-dir", "ilias").contains(value)) {
+                        throw new IllegalArgumentException("Illegal format: " + value);
+                    }
+                    format = value;
+                    break;
+                case "-o":
+                case "--output":
+                    outputDir = new File(value);
+                    break;
+                case "-j":
+                case "--jobs":
+                    try {
+                        jobs = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        jobs = 0;
+                    }
+                    if (jobs < 1) {
+                        throw new IllegalArgumentException("Illegal number of jobs: " + value);
+                    }
+                    break;
+                case "--encoding":
+                    try {
+                        encoding = Charset.forName(value);
+                    } catch (RuntimeException e) {
+                        throw new IllegalArgumentException("Illegal encoding: " + value);
+                    }
+                    break;
+                case "--locale":
+                    locale = Locale.forLanguageTag(value.replace('_', '-'));
+                    break;
+                case "--stylesheet":
+                    stylesheet = value;
+                    break;
+                case "--title":
+                    title = value;
+                    break;
+                case "--prefix":
+                    prefix = value;
+                    break;
+                case "--templates":
+                    templates = new File(value);
+                    if (!templates.exists()) {
+                        throw new IllegalArgumentException("File not found: " + value);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No GIFT files specified.");
+        }
+        computeTargets();
+    }
+
+    /**
+     * Computes the target of each file.
+     *
+     * @throws IllegalArgumentException if two files have the same target
+     */
+    private void computeTargets() {
+        HashMap<File, File> sources = new HashMap<File, File>();
+        for (File file : files) {
+            String baseName = file.getName();
+            int p = baseName.lastIndexOf('.');
+            if (p > 0) {
+                baseName = baseName.substring(0, p);
+            }
+            File dir = (outputDir != null) ? new File(outputDir, relativeDirs.get(file))
+                    : file.getAbsoluteFile().getParentFile();
+            // The exporters append these suffixes to the file name
+            String suffix = format.equals("scorm") ? "_scorm.zip"
+                    : format.equals("scorm-dir") ? "_scorm" : "_qpl.zip";
+            File target = new File(dir, baseName + suffix);
+            File key = target.getAbsoluteFile().toPath().normalize().toFile();
+            File other = sources.put(key, file);
+            if (other != null) {
+                throw new IllegalArgumentException("The files " + other + " and " + file
+                        + " would both be written to " + target + ".");
+            }
+            targets.put(file, target);
+        }
+    }
+
+    /**
+     * Returns the file into which the specified file is converted.
+     */
+    File getTarget(File file) {
+        return targets.get(file);
+    }
+
+    /**
+     * Adds the file, or the GIFT files in the directory to the list of files.
+     * A file which has been added already is skipped.
+     *
+     * @param f           a file or directory
+     * @param relativeDir the path of the file relative to the directory
+     *                    argument, with a trailing separator
+     */
+    private void collectFiles(File f, String relativeDir) {
+        if (f.isDirectory()) {
+            File[] children = f.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    if (child.isDirectory()) {
+                        collectFiles(child, relativeDir + child.getName() + File.separator);
+                    } else if (child.getName().toLowerCase().endsWith(".gift")) {
+                        collectFiles(child, relativeDir);
+                    }
+                }
+            }
+        } else if (!relativeDirs.containsKey(f)) {
+            files.add(f);
+            relativeDirs.put(f, relativeDir);
+        }
+    }
+
+    /**
+     * Converts the files and reports the results.
+     *
+     * @param out receives a line per converted file and a summary
+     * @param err receives the syntax errors and failures
+     * @return the exit code
+     */
+    int convert(PrintStream out, PrintStream err) {
+        int threads = Math.min(jobs, files.size());
+        // The SCORM exporter renders the pages of a file concurrently as
+        // well. Share the processors among the files.
+        final int threadsPerFile = Math.max(1, Runtime.getRuntime().availableProcessors() / threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        int failed = 0;
+        int questionCount = 0;
+        try {
+            ArrayList<Future<Result>> futures = new ArrayList<Future<Result>>(files.size());
+            for (final File file : files) {
+                futures.add(executor.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() {
+                        return convert(file, threadsPerFile);
+                    }
+                }));
+            }
+            for (Future<Result> future : futures) {
+                Result r;
+                try {
+                    r = future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    err.println("Interrupted.");
+                    return 1;
+                } catch (ExecutionException e) {
+                    // convert(File, int) catches all exceptions
+                    throw new InternalError(e.getCause());
+                }
+                report(r, out, err);
+                if (!r.isSuccess()) {
+                    failed++;
+                }
+                questionCount += r.questionCount;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        out.printf("%d files, %d questions, %d failed, %d ms%n",
+                files.size(), questionCount, failed, (System.nanoTime() - start) / 1000000);
+        return failed == 0 ? 0 : 1;
+    }
+
+    private void report(Result r, PrintStream out, PrintStream err) {
+        if (r.errors != null) {
+            for (GIFTParseException e : r.errors) {
+                err.println(r.file + ": " + e.getMessage());
+            }
+        }
+        if (r.failure != null) {
+            err.println(r.file + ": " + r.failure);
+        }
+        out.printf("%s %s: %d questions, parse %d ms, export %d ms%n",
+                r.isSuccess() ? "OK    " : "FAILED", r.file, r.questionCount, r.parseMillis, r.exportMillis);
+    }
+
+    /**
+     * Converts a file. This method is invoked by the worker threads.
+     */
+    private Result convert(File file, int threadsPerFile) {
+        Result r = new Result(file);
+        File target = null;
+        boolean isTargetNew = false;
+        try {
+            long start = System.nanoTime();
+            String text = new String(Files.readAllBytes(file.toPath()), encoding);
+            GIFTParseResult parsed = new GIFTParser().parseRecovering(text);
+            r.parseMillis = (System.nanoTime() - start) / 1000000;
+            r.questionCount = parsed.getQuestions().size();
+            r.errors = parsed.getErrors();
+            if (parsed.hasErrors()) {
+                return r;
+            }
+
+            start = System.nanoTime();
+            target = targets.get(file);
+            isTargetNew = !target.exists();
+            target.getAbsoluteFile().getParentFile().mkdirs();
+
+            Exporter exporter;
+            ConfigurableFileFilter cff = new ExtensionFileFilter(format, "zip");
+            cff.putClientProperty("title", title);
+            cff.putClientProperty("stylesheet", stylesheet);
+            cff.putClientProperty("locale", locale);
+            cff.putClientProperty("prefix", prefix);
+            if (format.equals("ilias")) {
+                exporter = new ILIASQuestionPoolExporter();
+            } else {
+                boolean isPIF = format.equals("scorm");
+                SCORMExporter scormExporter = new SCORMExporter(isPIF);
+                scormExporter.setProgressIndicator(new SilentProgressIndicator());
+                scormExporter.setThreadCount(threadsPerFile);
+                scormExporter.setTemplates(templates);
+                scormExporter.setIncrementalDeployment(isIncremental);
+                exporter = scormExporter;
+            }
+            exporter.export(parsed.getQuestions(), target, cff, file.getAbsoluteFile());
+            r.exportMillis = (System.nanoTime() - start) / 1000000;
+        } catch (IOException | RuntimeException e) {
+            r.failure = e;
+            if (target != null) {
+                deletePartialTarget(target, isTargetNew);
+            }
+        }
+        return r;
+    }
+
+    private static void deleteRecursively(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        f.delete();
+    }
+
+    /**
+     * Deletes what a failed export has written. A zip file is incomplete,
+     * and is always deleted. A directory is only deleted if the export has
+     * created it.
+     */
+    private static void deletePartialTarget(File target, boolean isTargetNew) {
+        if (target.isFile()) {
+            target.delete();
+        } else if (target.isDirectory() && isTargetNew) {
+            deleteRecursively(target);
+        }
+    }
+}
@@ -7,12 +7,17 @@ package ch.randelshofer.simplequestion;
 import ch.randelshofer.gift.export.Exporter;
 import ch.randelshofer.gift.highlight.GIFTScanner;
 import ch.randelshofer.gift.highlight.GIFTTokenTypes;
-import ch.randelshofer.gift.parser.GIFTParser;
+import ch.randelshofer.gift.parser.GIFTParseException;
+import ch.randelshofer.gift.parser.GIFTParseResult;
 import ch.randelshofer.gift.parser.Question;
+import ch.randelshofer.gift.parser.QuestionIndex;
 import ch.randelshofer.gui.highlight.SyntaxHighlighter;
+import ch.randelshofer.gui.highlight.TokenView;
 import ch.randelshofer.io.ConfigurableFileFilter;
 import ch.randelshofer.teddy.CharacterSetAccessory;
 import ch.randelshofer.teddy.TeddyView;
+import ch.randelshofer.teddy.text.NumberedEditorKit;
+import ch.randelshofer.teddy.text.NumberedViewFactory;
 import org.jhotdraw.app.action.file.LoadFileAction;
 import org.jhotdraw.gui.JFileURIChooser;
 import org.jhotdraw.gui.JSheet;
@@ -26,14 +31,14 @@ import javax.swing.JOptionPane;
 import javax.swing.JTextPane;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
-import javax.swing.event.DocumentEvent;
-import javax.swing.text.AttributeSet;
+import javax.swing.text.AbstractDocument;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.DefaultStyledDocument;
 import javax.swing.text.Element;
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.StyledDocument;
 import javax.swing.text.StyledEditorKit;
+import javax.swing.text.View;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Font;
@@ -72,6 +77,10 @@ public class SimpleQuestionView extends TeddyView {
     private ResourceBundleUtil labels;
     private Preferences prefs;
     private GIFTScanner scanner;
+    /**
+     * Maximal number of syntax errors listed by verifySyntax.
+     */
+    private final static int MAX_LISTED_ERRORS = 10;
     // FIXME - Replace this by a TransferHandler
     private DropTargetListener dropTargetListener = new DropTargetListener() {
 
@@ -174,50 +183,33 @@ public class SimpleQuestionView extends TeddyView {
         return sh;
     }
 
+    /**
+     * Creates an editor kit which paints the text with the styles of the
+     * tokens of the syntax highlighter.
+     */
     @Override
-    protected StyledDocument createDocument() {
-        DefaultStyledDocument doc = new DefaultStyledDocument() {
+    protected NumberedEditorKit createEditorKit() {
+        return new NumberedEditorKit() {
+            public final static long serialVersionUID = 1L;
 
             @Override
-            public void setCharacterAttributes(int offset, int length, AttributeSet s, boolean replace) {
-                if (length == 0) {
-                    return;
-                }
-                try {
-                    writeLock();
-                    DefaultDocumentEvent changes =
-                            new DefaultDocumentEvent(offset, length, DocumentEvent.EventType.CHANGE);
-
-                    // split elements that need it
-                    buffer.change(offset, length, changes);
-
-                    AttributeSet sCopy = (s == null) ? null : s.copyAttributes();
-
-                    // PENDING(prinz) - this isn't a very efficient way to iterate
-                    int lastEnd = Integer.MAX_VALUE;
-                    for (int pos = offset; pos < (offset + length); pos = lastEnd) {
-                        Element run = getCharacterElement(pos);
-                        lastEnd = run.getEndOffset();
-                        if (pos == lastEnd) {
-                            // offset + length beyond length of document, bail.
-                            break;
+            protected NumberedViewFactory createViewFactory() {
+                return new NumberedViewFactory() {
+                    @Override
+                    public View create(Element elem) {
+                        if (AbstractDocument.ContentElementName.equals(elem.getName())) {
+                            return new TokenView(elem);
                         }
-                        MutableAttributeSet attr = (MutableAttributeSet) run.getAttributes();
-                        changes.addEdit(new AttributeUndoableEdit(run, sCopy, replace));
-                        if (replace) {
-                            attr.removeAttributes(attr);
-                        }
-                        attr.addAttributes(s);
+                        return super.create(elem);
                     }
-                    changes.end();
-                    fireChangedUpdate(changes);
-                    // Suppress undoable edit events for attribute changes
-                    //fireUndoableEditUpdate(new UndoableEditEvent(this, changes));
-                } finally {
-                    writeUnlock();
-                }
+                };
             }
         };
+    }
+
+    @Override
+    protected StyledDocument createDocument() {
+        DefaultStyledDocument doc = new DefaultStyledDocument();
         doc.setParagraphAttributes(0, 1, ((StyledEditorKit) editor.getEditorKit()).getInputAttributes(), true);
         return doc;
     }
@@ -339,7 +331,14 @@ public class SimpleQuestionView extends TeddyView {
         prefs.put("projectExportFile", f.getPath());
         prefs.put("projectExportFilter", filter.getDescription());
         try {
-            List<Question> questions = new GIFTParser().parse(editor.getText());
+            GIFTParseResult result = QuestionIndex.getInstance(editor.getDocument()).getParseResult();
+            if (result.hasErrors()) {
+                List<GIFTParseException> errors = result.getErrors();
+                GIFTParseException first = errors.get(0);
+                throw new ch.randelshofer.io.ParseException(formatSyntaxErrors(errors),
+                        first.getStartPosition(), first.getEndPosition());
+            }
+            List<Question> questions = result.getQuestions();
 
             if (filter instanceof ConfigurableFileFilter) {
                 ConfigurableFileFilter cff = (ConfigurableFileFilter) filter;
@@ -370,11 +369,16 @@ public class SimpleQuestionView extends TeddyView {
 
     public void verifySyntax() {
         try {
-            List<Question> questions = new GIFTParser().parse(editor.getText());
+            GIFTParseResult result = QuestionIndex.getInstance(editor.getDocument()).getParseResult();
+            if (result.hasErrors()) {
+                showSyntaxErrors(result.getErrors());
+                return;
+            }
+            List<Question> questions = result.getQuestions();
 
             for (final Question q : questions) {
                 if (q.isIncomplete()) {
-                    String text = editor.getText().substring(q.getStartPosition(), q.getEndPosition() + 1);
+                    String text = editor.getDocument().getText(q.getStartPosition(), q.getEndPosition() + 1 - q.getStartPosition());
                     if (text.length() > 50) {
                         text = text.substring(0, 50) + "...";
                     }
@@ -408,7 +412,7 @@ public class SimpleQuestionView extends TeddyView {
             JSheet.showMessageSheet(editor,
                     "<html>" + UIManager.getString("OptionPane.css") +
                             "<b>" + labels.getString("syntaxIsIncorrect") + "</b><p>" +
-                            e.getMessage(),
+                            escapeHTML(e.getMessage()),
                     JOptionPane.ERROR_MESSAGE, new SheetListener() {
 
                         public void optionSelected(SheetEvent evt) {
@@ -429,6 +433,75 @@ public class SimpleQuestionView extends TeddyView {
         }
     }
 
+    /**
+     * Shows the syntax errors of the document in a sheet and selects the
+     * text of the first error.
+     */
+    private void showSyntaxErrors(List<GIFTParseException> errors) {
+        final GIFTParseException first = errors.get(0);
+        select(first.getStartPosition(), first.getEndPosition() + 1);
+
+        JSheet.showMessageSheet(editor,
+                "<html>" + UIManager.getString("OptionPane.css") +
+                        "<b>" + labels.getString("syntaxIsIncorrect") + "</b><p>" +
+                        formatSyntaxErrors(errors),
+                JOptionPane.ERROR_MESSAGE, new SheetListener() {
+
+                    public void optionSelected(SheetEvent evt) {
+                        select(first.getStartPosition(), first.getEndPosition() + 1);
+                        editor.requestFocus();
+                    }
+                });
+    }
+
+    /**
+     * Returns the number of errors followed by a list of their messages
+     * as HTML. At most MAX_LISTED_ERRORS messages are listed.
+     */
+    private String formatSyntaxErrors(List<GIFTParseException> errors) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(labels.getFormatted("syntaxThereAreNErrors", errors.size()));
+        buf.append("<p>");
+        int n = Math.min(errors.size(), MAX_LISTED_ERRORS);
+        for (int i = 0; i < n; i++) {
+            buf.append(escapeHTML(errors.get(i).getMessage()));
+            buf.append("<br>");
+        }
+        if (errors.size() > n) {
+            buf.append(labels.getFormatted("syntaxThereAreNMoreErrors", errors.size() - n));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Escapes the characters of the specified text which have a meaning
+     * in HTML.
+     */
+    private static String escapeHTML(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder buf = new StringBuilder(text.length());
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    buf.append("&lt;");
+                    break;
+                case '>':
+                    buf.append("&gt;");
+                    break;
+                case '&':
+                    buf.append("&amp;");
+                    break;
+                default:
+                    buf.append(c);
+                    break;
+            }
+        }
+        return buf.toString();
+    }
+
     /**
      * This method is called from within the constructor to
      * initialize the form.
@@ -174,7 +174,7 @@ public class TeddyView extends AbstractView {
         statusBar.setVisible(prefs.getBoolean("statusBarVisible", false));
         editorViewport.setLineWrap(prefs.getBoolean("lineWrap", true));
 
-        NumberedEditorKit editorKit = new NumberedEditorKit();
+        NumberedEditorKit editorKit = createEditorKit();
         ((NumberedViewFactory) editorKit.getViewFactory()).setLineNumbersVisible(prefs.getBoolean("lineNumbersVisible", false));
         editor.setEditorKit(editorKit);
         editor.setDocument(createDocument());
@@ -202,6 +202,10 @@ public class TeddyView extends AbstractView {
         return new JTextPane();
     }
 
+    protected NumberedEditorKit createEditorKit() {
+        return new NumberedEditorKit();
+    }
+
     @Override
     public void setEnabled(boolean newValue) {
         super.setEnabled(newValue);
@@ -27,8 +27,16 @@ public class NumberedEditorKit extends StyledEditorKit {
     @Override
     public ViewFactory getViewFactory() {
         if (viewFactory == null) {
-            viewFactory = new NumberedViewFactory();
+            viewFactory = createViewFactory();
         }
         return viewFactory;
     }
+
+    /**
+     * Creates the view factory. Subclasses can override this method to
+     * create other views for some elements.
+     */
+    protected NumberedViewFactory createViewFactory() {
+        return new NumberedViewFactory();
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * @(#)CompiledTemplate.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.text;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * A template which has been compiled by {@link TemplateEngine#compile}.
+ * <p>
+ * The template consists of literal text chunks and placeholders. The
+ * literal chunk {@code i} is written before placeholder {@code i}, the last
+ * literal chunk is written after the last placeholder. Each distinct key
+ * has a slot; placeholders with the same key share the same slot.
+ * <p>
+ * The values can be passed by slot index with {@link #renderSlots}, or by
+ * key. If the values are passed by key, each slot is looked up once per
+ * rendering, no matter how often its key occurs in the template.
+ * <p>
+ * If there is no value for a slot, its placeholders are rendered as empty
+ * text.
+ * <p>
+ * Instances of this class are immutable and can be rendered concurrently
+ * by multiple threads.
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Added slots and size estimate. Missing values are
+ * rendered as empty text instead of "null".
+ * <br>1.0 2026-10-18 Created.
+ */
+public class CompiledTemplate {
+    /**
+     * The literal chunks. There is one more chunk than there are
+     * placeholders.
+     */
+    private final String[] literals;
+    /**
+     * The slot index of each placeholder.
+     */
+    private final int[] placeholderSlots;
+    /**
+     * The key of each slot.
+     */
+    private final String[] slotKeys;
+    /**
+     * The total length of the literal chunks.
+     */
+    private final int literalLength;
+
+    /**
+     * Creates a new instance. The arrays are not copied.
+     *
+     * @param literals the literal chunks
+     * @param keys     the key of each placeholder
+     */
+    CompiledTemplate(String[] literals, String[] keys) {
+        this.literals = literals;
+        this.placeholderSlots = new int[keys.length];
+        String[] slots = new String[keys.length];
+        int slotCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = indexOf(keys[i], slots, slotCount);
+            if (slot == -1) {
+                slot = slotCount++;
+                slots[slot] = keys[i];
+            }
+            placeholderSlots[i] = slot;
+        }
+        this.slotKeys = new String[slotCount];
+        System.arraycopy(slots, 0, slotKeys, 0, slotCount);
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        literalLength = length;
+    }
+
+    private static int indexOf(String key, String[] keys, int count) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of slots.
+     */
+    public int getSlotCount() {
+        return slotKeys.length;
+    }
+
+    /**
+     * Returns the key of the specified slot.
+     */
+    public String getSlotKey(int slot) {
+        return slotKeys[slot];
+    }
+
+    /**
+     * Returns the index of the slot with the specified key, or -1 if the
+     * template has no placeholder with this key.
+     */
+    public int getSlotIndex(String key) {
+        return indexOf(key, slotKeys, slotKeys.length);
+    }
+
+    /**
+     * Returns the number of characters of the literal chunks. This is a
+     * lower bound for the number of characters of the rendered template.
+     */
+    public int getSizeEstimate() {
+        return literalLength;
+    }
+
+    /**
+     * Returns the exact number of characters of the template rendered with
+     * the specified slot values.
+     */
+    public int getSize(String[] slotValues) {
+        int size = literalLength;
+        for (int slot : placeholderSlots) {
+            String value = slotValues[slot];
+            if (value != null) {
+                size += value.length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the slot values for the specified key-value pairs. If a key
+     * occurs more than once, the last value is used. Keys which do not occur
+     * in the template are ignored.
+     *
+     * @param keyValuePairs alternating keys and values
+     * @return the value of each slot, null for slots without value
+     */
+    public String[] bind(String... keyValuePairs) {
+        String[] slotValues = new String[slotKeys.length];
+        for (int slot = 0; slot < slotKeys.length; slot++) {
+            String key = slotKeys[slot];
+            for (int i = (keyValuePairs.length & ~1) - 2; i >= 0; i -= 2) {
+                if (key.equals(keyValuePairs[i])) {
+                    slotValues[slot] = keyValuePairs[i + 1];
+                    break;
+                }
+            }
+        }
+        return slotValues;
+    }
+
+    /**
+     * Returns the slot values for the specified key-value map.
+     *
+     * @param map key-value pairs
+     * @return the value of each slot, null for slots without value
+     */
+    public String[] bind(Map<String, String> map) {
+        String[] slotValues = new String[slotKeys.length];
+        for (int slot = 0; slot < slotKeys.length; slot++) {
+            slotValues[slot] = map.get(slotKeys[slot]);
+        }
+        return slotValues;
+    }
+
+    /**
+     * Renders the template with values given by slot index.
+     *
+     * @param out        the output
+     * @param slotValues the value of each slot, null for slots without value
+     * @throws IOException if writing fails
+     */
+    public void renderSlots(Writer out, String[] slotValues) throws IOException {
+        if (slotValues.length < slotKeys.length) {
+            throw new IllegalArgumentException("slotValues.length:" + slotValues.length + " < slot count:" + slotKeys.length);
+        }
+        for (int i = 0; i < placeholderSlots.length; i++) {
+            out.write(literals[i]);
+            String value = slotValues[placeholderSlots[i]];
+            if (value != null) {
+                out.write(value);
+            }
+        }
+        out.write(literals[placeholderSlots.length]);
+    }
+
+    /**
+     * Renders the template and replaces all placeholders with the values
+     * from the given key-value map.
+     *
+     * @param out the output
+     * @param map key-value pairs
+     * @throws IOException if writing fails
+     */
+    public void render(Writer out, Map<String, String> map) throws IOException {
+        renderSlots(out, bind(map));
+    }
+
+    /**
+     * Renders the template and replaces all placeholders with the values
+     * from the given key-value pairs. If a key occurs more than once, the
+     * last value is used.
+     *
+     * @param out           the output
+     * @param keyValuePairs alternating keys and values
+     * @throws IOException if writing fails
+     */
+    public void render(Writer out, String... keyValuePairs) throws IOException {
+        renderSlots(out, bind(keyValuePairs));
+    }
+
+    /**
+     * Renders the template into a String.
+     *
+     * @param keyValuePairs alternating keys and values
+     * @throws IOException if writing fails
+     */
+    public String render(String... keyValuePairs) throws IOException {
+        String[] slotValues = bind(keyValuePairs);
+        StringWriter out = new StringWriter(getSize(slotValues));
+        renderSlots(out, slotValues);
+        return out.toString();
+    }
+}
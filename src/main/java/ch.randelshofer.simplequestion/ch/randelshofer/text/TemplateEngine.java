@@ -11,7 +11,7 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
 
 /**
@@ -23,9 +23,20 @@ import java.util.Map;
  * <ul>
  * <li>{@code ${key}} A placeholder with a key from the key-value map.<li>
  * </ul>
+ * <p>
+ * A template which is used more than once should be compiled with
+ * {@link #compile}. The compiled template can be rendered any number of
+ * times without lexing the template again.
+ * <p>
+ * If there is no value for a placeholder, the placeholder is replaced by
+ * empty text.
  *
  * @author Werner Randelshofer
- * @version 1.0 2011-06-06 Created.
+ * @version 1.2 2026-10-18 Process key-value pairs without creating a map.
+ * Missing values are replaced by empty text. A '$' which is not followed
+ * by '{' is kept.
+ * <br>1.1 2026-10-18 Added compile.
+ * <br>1.0 2011-06-06 Created.
  */
 public class TemplateEngine {
 
@@ -47,13 +58,7 @@ public class TemplateEngine {
      * @throws IOException
      */
     public static String process(String in, String... map) throws IOException {
-        StringWriter out = new StringWriter();
-        HashMap<String, String> hm = new HashMap<String, String>();
-        for (int i = 0; i < map.length; i += 2) {
-            hm.put(map[i], map[i + 1]);
-        }
-        process(out, new StringReader(in), hm);
-        return out.toString();
+        return compile(new StringReader(in)).render(map);
     }
 
     /**
@@ -80,6 +85,22 @@ public class TemplateEngine {
      * @throws IOException
      */
     public static void process(Writer out, Reader in, Map<String, String> map) throws IOException {
+        compile(in).render(out, map);
+    }
+
+    /**
+     * Compiles a template.
+     *
+     * @param in the template
+     * @return the compiled template
+     * @throws IOException if reading fails, or if a placeholder is not
+     *                     closed
+     */
+    public static CompiledTemplate compile(Reader in) throws IOException {
+        ArrayList<String> literals = new ArrayList<String>();
+        ArrayList<String> keys = new ArrayList<String>();
+        StringBuilder out = new StringBuilder();
+
         StreamPosTokenizer tt = new StreamPosTokenizer(in);
         tt.resetSyntax();
         //tt.whitespaceChars(0, ' '); Whitespace is significant, don't get rid of it
@@ -94,7 +115,7 @@ public class TemplateEngine {
             switch (tt.ttype) {
                 case '$': {
                     if (tt.nextToken() != '{') {
-                        out.write((char) tt.ttype);
+                        out.append('$');
                         tt.pushBack();
                         break;
                     }
@@ -106,20 +127,26 @@ public class TemplateEngine {
                         throw new IOException("\"}\" missing after \"${" + keyb.toString() + "\" in line " + tt.lineno());
                     }
                     String key = keyb.toString().trim();
-                    out.write(map.get(key));
+                    literals.add(out.toString());
+                    keys.add(key);
+                    out.setLength(0);
                     break;
                 }
                 case '{':
                 case '}':
-                    out.write((char) tt.ttype);
+                    out.append((char) tt.ttype);
                     break;
                 case StreamPosTokenizer.TT_EOL:
-                    out.write('\n');
+                    out.append('\n');
                     break;
                 case StreamPosTokenizer.TT_WORD:
-                    out.write(tt.sval);
+                    out.append(tt.sval);
                     break;
             }
         }
+        literals.add(out.toString());
+
+        return new CompiledTemplate(literals.toArray(new String[literals.size()]),
+                keys.toArray(new String[keys.size()]));
     }
 }
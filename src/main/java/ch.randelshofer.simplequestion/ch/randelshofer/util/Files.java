@@ -5,19 +5,34 @@
 
 package ch.randelshofer.util;
 
+import ch.randelshofer.gui.ProgressIndicator;
+
 import java.io.File;
 import java.io.FileFilter;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Files.
  *
  * @author Werner Randelshofer
- * @version 1.1 2007-09-13 Added method stream.
+ * @version 1.2 2026-10-18 Copy files with java.nio.file.Files. Added
+ * methods copyFiles and invokeAll.
+ * <br>1.1 2007-09-13 Added method stream.
  * <br>1.0 13. Januar 2004  Created.
  */
 public class Files {
@@ -90,27 +105,92 @@ public class Files {
      */
     public static void copyFile(File source, File target)
             throws IOException {
-        FileOutputStream out = null;
-        FileInputStream in = null;
+        Path targetPath = target.toPath();
+        java.nio.file.Files.createDirectories(targetPath.getParent());
+        java.nio.file.Files.copy(source.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    }
 
-        if (!target.getParentFile().exists()) {
-            target.getParentFile().mkdirs();
+    /**
+     * Copies the specified files from the source directory to the target
+     * directory. The files are copied concurrently.
+     *
+     * @param srcdir    The source directory.
+     * @param tgtdir    The target directory.
+     * @param fileNames The names of the files relative to the source
+     *                  directory, with '/' as the separator.
+     * @param p         A progress indicator, which is advanced by one for each
+     *                  copied file, or null.
+     * @throws IOException when an I/O error occurs.
+     */
+    public static void copyFiles(final File srcdir, final File tgtdir, Collection<String> fileNames, ProgressIndicator p)
+            throws IOException {
+        ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>(fileNames.size());
+        for (String fileName : fileNames) {
+            final String filename = fileName.replace('/', File.separatorChar);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    copyFile(new File(srcdir, filename), new File(tgtdir, filename));
+                    return null;
+                }
+            });
         }
+        invokeAll(tasks, p);
+    }
 
+    /**
+     * Performs I/O tasks concurrently on a bounded pool of threads.
+     * <p>
+     * Since the tasks mostly wait for the disk, the pool has at least 4
+     * threads, even on a machine with fewer processors. The progress
+     * indicator is advanced on the calling thread, when a task has
+     * completed. If a task fails, the remaining tasks are cancelled.
+     *
+     * @param tasks The tasks.
+     * @param p     A progress indicator, which is advanced by one for each
+     *              completed task, or null.
+     * @throws IOException the first exception thrown by a task.
+     */
+    public static void invokeAll(List<Callable<Void>> tasks, ProgressIndicator p)
+            throws IOException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        int threads = Math.min(tasks.size(), Math.max(4, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "Files");
+                t.setDaemon(true);
+                return t;
+            }
+        });
         try {
-            in = new FileInputStream(source);
-            out = new FileOutputStream(target);
-            copyStream(in, out);
-        } finally {
-            try {
-                if (in != null) {
-                    in.close();
+            CompletionService<Void> completion = new ExecutorCompletionService<Void>(executor);
+            for (Callable<Void> task : tasks) {
+                completion.submit(task);
+            }
+            for (int i = 0, n = tasks.size(); i < n; i++) {
+                try {
+                    completion.take().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IOException(e.getCause());
                 }
-            } finally {
-                if (out != null) {
-                    out.close();
+                if (p != null) {
+                    p.setProgress(p.getProgress() + 1);
                 }
             }
+        } finally {
+            executor.shutdownNow();
         }
     }
 
@@ -119,7 +199,7 @@ public class Files {
      */
     public static void copyStream(InputStream in, OutputStream out)
             throws IOException {
-        byte[] buf = new byte[512];
+        byte[] buf = new byte[8192];
         int len;
         while ((len = in.read(buf)) != -1) {
             out.write(buf, 0, len);
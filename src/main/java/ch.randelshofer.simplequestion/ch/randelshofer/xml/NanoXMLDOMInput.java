@@ -9,6 +9,7 @@ import nanoxml.XMLElement;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -21,7 +22,9 @@ import java.util.Stack;
  * NanoXMLDOMInput.
  *
  * @author Werner Randelshofer
- * @version 1.0 February 17, 2004 Created.
+ * @version 1.1 2026-10-18 Reads the document into a char array and parses
+ * it with XMLElement.parseCharArray.
+ * <br>1.0 February 17, 2004 Created.
  */
 public class NanoXMLDOMInput implements DOMInput {
     /**
@@ -56,8 +59,13 @@ public class NanoXMLDOMInput implements DOMInput {
 
     public NanoXMLDOMInput(DOMFactory factory, Reader in) throws IOException {
         this.factory = factory;
+        CharArrayWriter buf = new CharArrayWriter();
+        char[] cbuf = new char[8192];
+        for (int n = in.read(cbuf); n != -1; n = in.read(cbuf)) {
+            buf.write(cbuf, 0, n);
+        }
         current = new XMLElement(null, false, false);
-        current.parseFromReader(in);
+        current.parseCharArray(buf.toCharArray(), 0, buf.size());
         document = new XMLElement(null, false, false);
         document.addChild(current);
         current = document;
@@ -0,0 +1,176 @@
+/*
+ * @(#)StAXs.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.xml;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A utility class for reading XML with a StAX {@code XMLStreamReader}.
+ * <p>
+ * The methods are the streaming counterparts of the methods in
+ * {@link DOMs}, and return the same values for the same XML element.
+ * <p>
+ * Methods which read an element expect the reader to be positioned on the
+ * start tag of the element. Methods which consume an element leave the
+ * reader positioned on the end tag of the element.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class StAXs {
+
+    /**
+     * Hide constructor to prevent instance creation.
+     */
+    private StAXs() {
+    }
+
+    /**
+     * Returns true if the current element has the specified namespace and
+     * local name.
+     *
+     * @param in           A reader positioned on a start tag.
+     * @param namespaceURI The namespace URI.
+     * @param name         The local name.
+     */
+    public static boolean isElement(XMLStreamReader in, String namespaceURI, String name) {
+        return namespaceURI.equals(in.getNamespaceURI()) && name.equals(in.getLocalName());
+    }
+
+    /**
+     * Returns the qualified name of the current element, as it appears in the
+     * XML document.
+     *
+     * @param in A reader positioned on a start tag or on an end tag.
+     */
+    public static String getTagName(XMLStreamReader in) {
+        String prefix = in.getPrefix();
+        return (prefix == null || prefix.isEmpty()) ? in.getLocalName() : prefix + ":" + in.getLocalName();
+    }
+
+    /**
+     * Returns an attribute value with a given namespace and name of the
+     * current element.
+     * <p>
+     * Like {@link DOMs#getAttributeNS}, this method falls back to the attribute
+     * with the specified name and no prefix, and treats an empty value like a
+     * missing attribute.
+     *
+     * @param in           A reader positioned on a start tag.
+     * @param namespaceURI The namespace URI.
+     * @param name         The name of the attribute.
+     * @param defaultValue The default value of the attribute.
+     * @return The value of the attribute or the default value if the element
+     * has not an attribute with the specified name.
+     */
+    public static String getAttributeNS(XMLStreamReader in, String namespaceURI, String name, String defaultValue) {
+        String unqualifiedValue = null;
+        for (int i = 0, n = in.getAttributeCount(); i < n; i++) {
+            if (!name.equals(in.getAttributeLocalName(i))) {
+                continue;
+            }
+            String value = in.getAttributeValue(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (namespaceURI.equals(in.getAttributeNamespace(i))) {
+                return value;
+            }
+            String prefix = in.getAttributePrefix(i);
+            if (prefix == null || prefix.isEmpty()) {
+                unqualifiedValue = value;
+            }
+        }
+        return (unqualifiedValue == null) ? defaultValue : unqualifiedValue;
+    }
+
+    /**
+     * Reads the current element and returns its text.
+     * <p>
+     * Like {@link DOMs#getText}, the text is the concatenation of all text,
+     * CDATA sections, comments and processing instruction data within the
+     * element, including the text of nested elements.
+     *
+     * @param in A reader positioned on a start tag. On return, the reader is
+     *           positioned on the matching end tag.
+     */
+    public static String getText(XMLStreamReader in) throws XMLStreamException {
+        StringBuilder buf = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (in.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.COMMENT:
+                    buf.append(in.getTextCharacters(), in.getTextStart(), in.getTextLength());
+                    break;
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    buf.append(in.getText());
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    buf.append(in.getPIData());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Advances the reader to the start tag of the next child element.
+     * Text, comments and processing instructions between the child elements
+     * are skipped.
+     *
+     * @param in A reader positioned on the start tag of the parent element, or
+     *           on the end tag of a child element.
+     * @return true if the reader is positioned on the start tag of a child
+     * element, false if it is positioned on the end tag of the parent element.
+     */
+    public static boolean nextElement(XMLStreamReader in) throws XMLStreamException {
+        while (true) {
+            switch (in.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Skips the current element and all its contents.
+     *
+     * @param in A reader positioned on a start tag. On return, the reader is
+     *           positioned on the matching end tag.
+     */
+    public static void skipElement(XMLStreamReader in) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (in.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
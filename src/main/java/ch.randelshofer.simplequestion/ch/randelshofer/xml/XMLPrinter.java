@@ -0,0 +1,296 @@
+/*
+ * @(#)XMLPrinter.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.xml;
+
+import nanoxml.XMLElement;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * XMLPrinter writes an XML document as a stream of start tags, attributes,
+ * text and end tags, without building a document tree in memory.
+ * <p>
+ * The output is identical to the output of {@link XMLElement#write}: no
+ * whitespace is added between the tags, an element without content is
+ * written as an empty-element tag, and the characters
+ * {@code < > & " '} are written as entity references. Control characters,
+ * and if {@code encodeUnicodeCharacters} is true, all characters above
+ * 126, are written as hexadecimal character references.
+ * <p>
+ * Subtrees which are built with {@code XMLElement} can be mixed into the
+ * stream with {@link #element}.
+ * <p>
+ * The output is buffered. Call {@link #flush} when done.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class XMLPrinter implements Flushable {
+    /**
+     * The entity reference of each ASCII character, or null if the character
+     * can be written as is.
+     */
+    private final static String[] ESCAPES = new String[127];
+
+    static {
+        for (int i = 0; i < 32; i++) {
+            ESCAPES[i] = "&#x" + Integer.toString(i, 16) + ";";
+        }
+        ESCAPES['<'] = "&lt;";
+        ESCAPES['>'] = "&gt;";
+        ESCAPES['&'] = "&amp;";
+        ESCAPES['"'] = "&quot;";
+        ESCAPES['\''] = "&apos;";
+    }
+
+    private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final boolean encodeUnicodeCharacters;
+    private final char[] buf = new char[8192];
+    private int count;
+    /**
+     * The names of the open elements.
+     */
+    private final ArrayList<String> openElements = new ArrayList<String>();
+    /**
+     * True if the start tag of the innermost open element has not been
+     * closed yet.
+     */
+    private boolean isStartTagOpen;
+
+    /**
+     * Creates a new instance which encodes all characters above 126.
+     *
+     * @param out the output
+     */
+    public XMLPrinter(Writer out) {
+        this(out, true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out                     the output
+     * @param encodeUnicodeCharacters whether characters above 126 are written
+     *                                as character references
+     */
+    public XMLPrinter(Writer out, boolean encodeUnicodeCharacters) {
+        this.out = out;
+        this.encodeUnicodeCharacters = encodeUnicodeCharacters;
+    }
+
+    /**
+     * Writes the start tag of an element. The tag is left open, so that
+     * attributes can be added.
+     *
+     * @param name the element name
+     * @throws IOException if writing fails
+     */
+    public void startElement(String name) throws IOException {
+        closeStartTag();
+        write('<');
+        write(name);
+        openElements.add(name);
+        isStartTagOpen = true;
+    }
+
+    /**
+     * Writes an attribute of the element which has been started last.
+     *
+     * @param name  the attribute name
+     * @param value the attribute value
+     * @throws IOException           if writing fails
+     * @throws IllegalStateException if content has already been written to the
+     *                               element
+     */
+    public void attribute(String name, String value) throws IOException {
+        if (!isStartTagOpen) {
+            throw new IllegalStateException("No open start tag for attribute " + name);
+        }
+        write(' ');
+        write(name);
+        write('=');
+        write('"');
+        writeEncoded(value);
+        write('"');
+    }
+
+    /**
+     * Writes text content. Empty text is ignored, so that an element with
+     * empty text is written as an empty-element tag.
+     *
+     * @param text the text
+     * @throws IOException if writing fails
+     */
+    public void text(String text) throws IOException {
+        if (text.length() > 0) {
+            closeStartTag();
+            writeEncoded(text);
+        }
+    }
+
+    /**
+     * Writes the end tag of the element which has been started last.
+     *
+     * @throws IOException           if writing fails
+     * @throws IllegalStateException if there is no open element
+     */
+    public void endElement() throws IOException {
+        if (openElements.isEmpty()) {
+            throw new IllegalStateException("No open element");
+        }
+        String name = openElements.remove(openElements.size() - 1);
+        if (isStartTagOpen) {
+            write('/');
+            write('>');
+            isStartTagOpen = false;
+        } else {
+            write('<');
+            write('/');
+            write(name);
+            write('>');
+        }
+    }
+
+    /**
+     * Writes an element and all its descendants. The output is the same as
+     * the output of {@link XMLElement#write}.
+     *
+     * @param elem the element
+     * @throws IOException if writing fails
+     */
+    public void element(XMLElement elem) throws IOException {
+        String name = elem.getName();
+        String content = elem.getContent();
+        if (name == null) {
+            if (content != null) {
+                text(content);
+            }
+            return;
+        }
+        startElement(name);
+        for (Iterator<String> i = elem.enumerateAttributeNames(); i.hasNext(); ) {
+            String key = i.next();
+            attribute(key, elem.getAttribute(key));
+        }
+        if (content != null && content.length() > 0) {
+            text(content);
+        } else {
+            for (XMLElement child : elem.getChildren()) {
+                element(child);
+            }
+        }
+        endElement();
+    }
+
+    /**
+     * Writes text without encoding. This can be used for the XML declaration
+     * and the document type declaration.
+     *
+     * @param text the text
+     * @throws IOException if writing fails
+     */
+    public void raw(String text) throws IOException {
+        closeStartTag();
+        write(text);
+    }
+
+    /**
+     * Writes the buffered characters and flushes the underlying writer.
+     * Open elements are not closed.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void closeStartTag() throws IOException {
+        if (isStartTagOpen) {
+            write('>');
+            isStartTagOpen = false;
+        }
+    }
+
+    private void writeEncoded(String str) throws IOException {
+        int start = 0;
+        for (int i = 0, n = str.length(); i < n; i++) {
+            char ch = str.charAt(i);
+            String escape;
+            if (ch < ESCAPES.length) {
+                escape = ESCAPES[ch];
+                if (escape == null) {
+                    continue;
+                }
+            } else if (encodeUnicodeCharacters) {
+                escape = null;
+            } else {
+                continue;
+            }
+            write(str, start, i);
+            if (escape != null) {
+                write(escape);
+            } else {
+                writeHex(ch);
+            }
+            start = i + 1;
+        }
+        write(str, start, str.length());
+    }
+
+    /**
+     * Writes a hexadecimal character reference without leading zeros.
+     */
+    private void writeHex(char ch) throws IOException {
+        write('&');
+        write('#');
+        write('x');
+        int shift = 12;
+        while (shift > 0 && (ch >>> shift) == 0) {
+            shift -= 4;
+        }
+        for (; shift >= 0; shift -= 4) {
+            write(HEX_DIGITS[(ch >>> shift) & 0xf]);
+        }
+        write(';');
+    }
+
+    private void write(char ch) throws IOException {
+        if (count == buf.length) {
+            flushBuffer();
+        }
+        buf[count++] = ch;
+    }
+
+    private void write(String str) throws IOException {
+        write(str, 0, str.length());
+    }
+
+    private void write(String str, int from, int to) throws IOException {
+        while (from < to) {
+            if (count == buf.length) {
+                flushBuffer();
+            }
+            int n = Math.min(to - from, buf.length - count);
+            str.getChars(from, from + n, buf, count);
+            count += n;
+            from += n;
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buf, 0, count);
+            count = 0;
+        }
+    }
+}
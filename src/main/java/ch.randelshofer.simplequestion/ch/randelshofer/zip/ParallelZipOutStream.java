@@ -0,0 +1,747 @@
+/*
+ * @(#)ParallelZipOutStream.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * ParallelZipOutStream writes a zip file, and compresses the entries
+ * concurrently.
+ * <p>
+ * The data of a DEFLATED entry is split into blocks of a fixed size. Each
+ * block is compressed by a task of an {@code ExecutorService} with its own
+ * {@code Deflater}. A block is compressed with the last 32 KiB of the
+ * preceding block as preset dictionary, and all blocks except the last one
+ * are terminated with a sync flush. Thus the compressed blocks form a
+ * single standard DEFLATE stream. Small entries consist of a single
+ * block, so that many small entries are compressed concurrently as well.
+ * <p>
+ * The compressed blocks are written to the underlying stream in the order
+ * in which their data has been written to this stream. At most a fixed
+ * number of blocks is compressed ahead of the block which is written next,
+ * so that the memory usage stays bounded.
+ * <p>
+ * The output only depends on the names, times, compression methods and
+ * data of the entries, and on the compression level. It does not depend
+ * on the number of threads, or on how the data has been split into
+ * {@code write} calls. Entries without a time get the default time, which
+ * is the creation time of the stream unless it is set with
+ * {@link #setDefaultTime}.
+ * <p>
+ * Like {@code ZipOutputStream}, DEFLATED entries are followed by a data
+ * descriptor. STORED entries are held in memory until they are closed,
+ * their size and CRC are computed by this stream. Extra fields and comments
+ * of the entries are not written.
+ * <p>
+ * Like {@code ZipOutputStream}, the stream writes ZIP64 records if an
+ * entry or the zip file grows beyond 4 GiB, or if it has more than 65535
+ * entries: a DEFLATED entry which is larger than 4 GiB gets a data
+ * descriptor with 8 byte sizes, and the local and central headers get a
+ * ZIP64 extra field for all sizes and offsets which do not fit into 4
+ * bytes. The central directory is followed by a ZIP64 end of central
+ * directory record and locator, if it has more than 65535 entries or if it
+ * starts beyond 4 GiB.
+ * <p>
+ * Entries of another zip file can be copied with {@link #copyRawEntry}
+ * without inflating and deflating them again. Their compressed data is
+ * transferred with {@code FileChannel.transferTo}, which lets the operating
+ * system copy the data if the underlying stream is a
+ * {@code FileOutputStream}.
+ *
+ * @author Werner Randelshofer
+ * @version 1.2 2026-10-18 ZIP64 support added.
+ * <br>1.1 2026-10-18 Method copyRawEntry added.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class ParallelZipOutStream extends OutputStream implements ZipOut {
+    /**
+     * The default number of uncompressed bytes in a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+    /**
+     * The size of the preset dictionary of a block.
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+    private static final int FLAG_UTF8 = 0x0800;
+    /**
+     * Sizes and offsets which are greater or equal to this value are stored
+     * in ZIP64 records.
+     */
+    private static final long MAX_VALUE = 0xffffffffL;
+    /**
+     * If the number of entries is greater or equal to this value, it is
+     * stored in the ZIP64 end of central directory record.
+     */
+    private static final int MAX_ENTRIES = 0xffff;
+
+    /**
+     * Describes an entry.
+     */
+    private static class EntryRecord {
+        byte[] name;
+        int method;
+        int flag;
+        long dosTime;
+        long crc;
+        long size;
+        long compressedSize;
+        long offset;
+    }
+
+    /**
+     * A part of the output, which is written when all preceding parts have
+     * been written.
+     */
+    private static class Segment {
+        static final int HEADER = 0;
+        static final int DATA = 1;
+        static final int DESCRIPTOR = 2;
+        static final int RAW_DATA = 3;
+
+        final int kind;
+        final EntryRecord record;
+        /**
+         * The compressed data of a DATA segment, if it is computed by a
+         * task.
+         */
+        final Future<byte[]> future;
+        /**
+         * The data of a DATA segment, if it is already available.
+         */
+        final byte[] bytes;
+        /**
+         * The source of a RAW_DATA segment.
+         */
+        final FileChannel channel;
+        final long position;
+
+        Segment(int kind, EntryRecord record, Future<byte[]> future, byte[] bytes) {
+            this(kind, record, future, bytes, null, 0);
+        }
+
+        Segment(int kind, EntryRecord record, Future<byte[]> future, byte[] bytes,
+                FileChannel channel, long position) {
+            this.kind = kind;
+            this.record = record;
+            this.future = future;
+            this.bytes = bytes;
+            this.channel = channel;
+            this.position = position;
+        }
+    }
+
+    private final OutputStream out;
+    /**
+     * The unbuffered underlying stream.
+     */
+    private final OutputStream underlyingOut;
+    /**
+     * The channel of the underlying stream, which is created when the first
+     * raw entry is copied.
+     */
+    private WritableByteChannel underlyingChannel;
+    private final ExecutorService executor;
+    private final int blockSize;
+    private final int maxPendingSegments;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private long defaultTime = System.currentTimeMillis();
+
+    private final ArrayList<EntryRecord> records = new ArrayList<EntryRecord>();
+    private final HashSet<String> names = new HashSet<String>();
+    private final ArrayDeque<Segment> pending = new ArrayDeque<Segment>();
+    /**
+     * The number of bytes which have been written to the underlying
+     * stream.
+     */
+    private long written;
+
+    private EntryRecord current;
+    private final CRC32 crc = new CRC32();
+    /**
+     * Holds the uncompressed data of the current block of a DEFLATED
+     * entry.
+     */
+    private byte[] block;
+    private int blockCount;
+    /**
+     * The preceding block of the current DEFLATED entry, or null.
+     */
+    private byte[] previousBlock;
+    /**
+     * Holds the data of a STORED entry.
+     */
+    private ByteArrayOutputStream storedData;
+    /**
+     * Used by {@link #write(int)}.
+     */
+    private final byte[] singleByte = new byte[1];
+    private boolean isClosed;
+
+    /**
+     * Creates a new instance which compresses on the common
+     * {@code ForkJoinPool}.
+     *
+     * @param out the underlying output stream
+     */
+    public ParallelZipOutStream(OutputStream out) {
+        this(out, ForkJoinPool.commonPool(), DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param out       the underlying output stream
+     * @param executor  the executor which compresses the blocks
+     * @param blockSize the number of uncompressed bytes in a block, must be
+     *                  at least 32 KiB
+     */
+    public ParallelZipOutStream(OutputStream out, ExecutorService executor, int blockSize) {
+        if (blockSize < DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("blockSize:" + blockSize + " < " + DICTIONARY_SIZE);
+        }
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        this.underlyingOut = out;
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.maxPendingSegments = 4 * Runtime.getRuntime().availableProcessors() + 4;
+    }
+
+    /**
+     * Sets the compression level for the following entries.
+     *
+     * @param newValue the compression level (0-9), or
+     *                 {@code Deflater.DEFAULT_COMPRESSION}
+     */
+    public void setLevel(int newValue) {
+        if ((newValue < 0 || newValue > 9) && newValue != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level:" + newValue);
+        }
+        level = newValue;
+    }
+
+    /**
+     * Sets the time of the following entries which have no time.
+     * Set this to a fixed value, to create reproducible zip files.
+     */
+    public void setDefaultTime(long newValue) {
+        defaultTime = newValue;
+    }
+
+    public void putNextEntry(ZipEntry zipEntry) throws IOException {
+        ensureOpen();
+        if (current != null) {
+            closeEntry();
+        }
+        EntryRecord r = createRecord(zipEntry.getName());
+        r.method = zipEntry.getMethod() == ZipEntry.STORED ? ZipEntry.STORED : ZipEntry.DEFLATED;
+        r.flag = r.method == ZipEntry.STORED ? FLAG_UTF8 : FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+        r.dosTime = javaToDosTime(zipEntry.getTime() != -1 ? zipEntry.getTime() : defaultTime);
+        current = r;
+        crc.reset();
+        if (r.method == ZipEntry.STORED) {
+            storedData = new ByteArrayOutputStream();
+        } else {
+            enqueue(new Segment(Segment.HEADER, r, null, null));
+            block = new byte[Math.min(blockSize, 8192)];
+            blockCount = 0;
+            previousBlock = null;
+        }
+    }
+
+    /**
+     * Closes the current entry and copies an entry of a zip file with its
+     * compressed data, its CRC, its sizes and its time. The entry gets the
+     * specified name.
+     * <p>
+     * The data is copied when this stream is flushed or closed, or when
+     * more entries have been written. The zip file must not be closed
+     * before this stream has been flushed.
+     *
+     * @param file  the zip file
+     * @param entry an entry of the zip file
+     * @param name  the name of the copied entry
+     * @throws ZipException if the entry is encrypted, or if it is neither
+     *                      STORED nor DEFLATED
+     */
+    public void copyRawEntry(RawZipFile file, RawZipFile.Entry entry, String name) throws IOException {
+        ensureOpen();
+        if (current != null) {
+            closeEntry();
+        }
+        if (entry.isEncrypted()) {
+            throw new ZipException("encrypted entry: " + entry.getName());
+        }
+        if (entry.getMethod() != ZipEntry.STORED && entry.getMethod() != ZipEntry.DEFLATED) {
+            throw new ZipException("unsupported compression method " + entry.getMethod() + ": " + entry.getName());
+        }
+        long position = file.getDataOffset(entry);
+        EntryRecord r = createRecord(name);
+        r.method = entry.getMethod();
+        // Keep the deflate option bits, the sizes are written in the local
+        // header instead of a data descriptor
+        r.flag = FLAG_UTF8 | (entry.getFlag() & 0x0006);
+        r.dosTime = entry.getDosTime();
+        r.crc = entry.getCrc();
+        r.size = entry.getSize();
+        r.compressedSize = entry.getCompressedSize();
+        enqueue(new Segment(Segment.HEADER, r, null, null));
+        enqueue(new Segment(Segment.RAW_DATA, r, null, null, file.getChannel(), position));
+    }
+
+    /**
+     * Creates the record of a new entry and adds it to the records.
+     */
+    private EntryRecord createRecord(String name) throws IOException {
+        if (!names.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+        EntryRecord r = new EntryRecord();
+        r.name = name.getBytes(StandardCharsets.UTF_8);
+        if (r.name.length > 0xffff) {
+            throw new ZipException("entry name too long: " + name);
+        }
+        records.add(r);
+        return r;
+    }
+
+    public void closeEntry() throws IOException {
+        ensureOpen();
+        if (current == null) {
+            return;
+        }
+        EntryRecord r = current;
+        r.crc = crc.getValue();
+        if (r.method == ZipEntry.STORED) {
+            byte[] data = storedData.toByteArray();
+            storedData = null;
+            r.compressedSize = r.size;
+            enqueue(new Segment(Segment.HEADER, r, null, null));
+            enqueue(new Segment(Segment.DATA, r, null, data));
+        } else {
+            submitBlock(true);
+            block = null;
+            previousBlock = null;
+            enqueue(new Segment(Segment.DESCRIPTOR, r, null, null));
+        }
+        current = null;
+    }
+
+    public void write(int b) throws IOException {
+        singleByte[0] = (byte) b;
+        write(singleByte, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off + len > b.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (current == null) {
+            throw new ZipException("no current ZIP entry");
+        }
+        crc.update(b, off, len);
+        current.size += len;
+        if (storedData != null) {
+            storedData.write(b, off, len);
+            return;
+        }
+        while (len > 0) {
+            if (blockCount == block.length) {
+                if (block.length < blockSize) {
+                    block = Arrays.copyOf(block, Math.min(blockSize, block.length * 2));
+                } else {
+                    submitBlock(false);
+                    block = new byte[blockSize];
+                }
+            }
+            int n = Math.min(len, block.length - blockCount);
+            System.arraycopy(b, off, block, blockCount, n);
+            blockCount += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Submits the current block for compression.
+     *
+     * @param isLast true if this is the last block of the entry
+     */
+    private void submitBlock(final boolean isLast) throws IOException {
+        final byte[] data = block;
+        final int length = blockCount;
+        final byte[] dictionary = previousBlock;
+        final int lvl = level;
+        Future<byte[]> future = executor.submit(new Callable<byte[]>() {
+            @Override
+            public byte[] call() {
+                return deflate(data, length, dictionary, lvl, isLast);
+            }
+        });
+        previousBlock = data;
+        blockCount = 0;
+        enqueue(new Segment(Segment.DATA, current, future, null));
+    }
+
+    /**
+     * Compresses a block.
+     *
+     * @param data       the uncompressed data
+     * @param length     the number of bytes in data
+     * @param dictionary the preceding block, or null
+     * @param level      the compression level
+     * @param isLast     true if the block is the last block of the entry
+     * @return the compressed data
+     */
+    private static byte[] deflate(byte[] data, int length, byte[] dictionary, int level, boolean isLast) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(data, 0, length);
+            byte[] buf = new byte[length + (length >> 3) + 64];
+            int count = 0;
+            if (isLast) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (count == buf.length) {
+                        buf = Arrays.copyOf(buf, buf.length * 2);
+                    }
+                    count += deflater.deflate(buf, count, buf.length - count);
+                }
+            } else {
+                // The flush is complete when the deflater leaves space in
+                // the output buffer
+                do {
+                    if (count == buf.length) {
+                        buf = Arrays.copyOf(buf, buf.length * 2);
+                    }
+                    count += deflater.deflate(buf, count, buf.length - count, Deflater.SYNC_FLUSH);
+                } while (count == buf.length);
+            }
+            return Arrays.copyOf(buf, count);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Adds a segment to the pending segments. Writes the oldest pending
+     * segments, if there are too many.
+     */
+    private void enqueue(Segment s) throws IOException {
+        pending.add(s);
+        while (pending.size() > maxPendingSegments) {
+            writeSegment(pending.removeFirst());
+        }
+    }
+
+    private void writeSegment(Segment s) throws IOException {
+        EntryRecord r = s.record;
+        switch (s.kind) {
+            case Segment.HEADER: {
+                r.offset = written;
+                // The sizes of an entry with a data descriptor are not
+                // known yet, ZipOutputStream does not write a ZIP64 extra
+                // field for them either
+                boolean hasDescriptor = (r.flag & FLAG_DATA_DESCRIPTOR) != 0;
+                boolean isZip64 = !hasDescriptor && (r.size >= MAX_VALUE || r.compressedSize >= MAX_VALUE);
+                writeInt(LOCAL_HEADER_SIGNATURE);
+                writeShort(isZip64 ? 45 : version(r));
+                writeShort(r.flag);
+                writeShort(r.method);
+                writeInt(r.dosTime);
+                if (hasDescriptor) {
+                    writeInt(0);
+                    writeInt(0);
+                    writeInt(0);
+                } else if (isZip64) {
+                    writeInt(r.crc);
+                    writeInt(MAX_VALUE);
+                    writeInt(MAX_VALUE);
+                } else {
+                    writeInt(r.crc);
+                    writeInt(r.compressedSize);
+                    writeInt(r.size);
+                }
+                writeShort(r.name.length);
+                writeShort(isZip64 ? 20 : 0);
+                writeBytes(r.name);
+                if (isZip64) {
+                    writeShort(ZIP64_EXTRA_ID);
+                    writeShort(16);
+                    writeLong(r.size);
+                    writeLong(r.compressedSize);
+                }
+                break;
+            }
+            case Segment.DATA:
+                byte[] data = s.bytes != null ? s.bytes : get(s.future);
+                if (r.method == ZipEntry.DEFLATED) {
+                    r.compressedSize += data.length;
+                }
+                writeBytes(data);
+                break;
+            case Segment.RAW_DATA:
+                transfer(s.channel, s.position, r.compressedSize);
+                break;
+            case Segment.DESCRIPTOR:
+                writeInt(DATA_DESCRIPTOR_SIGNATURE);
+                writeInt(r.crc);
+                if (r.size >= MAX_VALUE || r.compressedSize >= MAX_VALUE) {
+                    writeLong(r.compressedSize);
+                    writeLong(r.size);
+                } else {
+                    writeInt(r.compressedSize);
+                    writeInt(r.size);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Transfers data from a file channel to the underlying stream.
+     */
+    private void transfer(FileChannel channel, long position, long count) throws IOException {
+        out.flush();
+        if (underlyingChannel == null) {
+            underlyingChannel = (underlyingOut instanceof FileOutputStream)
+                    ? ((FileOutputStream) underlyingOut).getChannel()
+                    : Channels.newChannel(underlyingOut);
+        }
+        for (long remaining = count; remaining > 0; ) {
+            long n = channel.transferTo(position, remaining, underlyingChannel);
+            if (n <= 0) {
+                throw new ZipException("unexpected end of zip file");
+            }
+            position += n;
+            remaining -= n;
+        }
+        written += count;
+    }
+
+    private byte[] get(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while compressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private void writePending() throws IOException {
+        while (!pending.isEmpty()) {
+            writeSegment(pending.removeFirst());
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long start = written;
+        for (EntryRecord r : records) {
+            // The ZIP64 extra field holds the values which do not fit
+            // into the header, in this order
+            int extraLength = 0;
+            if (r.size >= MAX_VALUE) {
+                extraLength += 8;
+            }
+            if (r.compressedSize >= MAX_VALUE) {
+                extraLength += 8;
+            }
+            if (r.offset >= MAX_VALUE) {
+                extraLength += 8;
+            }
+            int version = extraLength > 0 ? 45 : version(r);
+            writeInt(CENTRAL_HEADER_SIGNATURE);
+            writeShort(version);
+            writeShort(version);
+            writeShort(r.flag);
+            writeShort(r.method);
+            writeInt(r.dosTime);
+            writeInt(r.crc);
+            writeInt(Math.min(r.compressedSize, MAX_VALUE));
+            writeInt(Math.min(r.size, MAX_VALUE));
+            writeShort(r.name.length);
+            writeShort(extraLength > 0 ? extraLength + 4 : 0); // extra field length
+            writeShort(0); // comment length
+            writeShort(0); // disk number
+            writeShort(0); // internal attributes
+            writeInt(0); // external attributes
+            writeInt(Math.min(r.offset, MAX_VALUE));
+            writeBytes(r.name);
+            if (extraLength > 0) {
+                writeShort(ZIP64_EXTRA_ID);
+                writeShort(extraLength);
+                if (r.size >= MAX_VALUE) {
+                    writeLong(r.size);
+                }
+                if (r.compressedSize >= MAX_VALUE) {
+                    writeLong(r.compressedSize);
+                }
+                if (r.offset >= MAX_VALUE) {
+                    writeLong(r.offset);
+                }
+            }
+        }
+        long size = written - start;
+        int count = records.size();
+        if (count >= MAX_ENTRIES || start >= MAX_VALUE || size >= MAX_VALUE) {
+            long end64 = written;
+            writeInt(ZIP64_END_SIGNATURE);
+            writeLong(44); // size of the remaining record
+            writeShort(45); // version made by
+            writeShort(45); // version needed to extract
+            writeInt(0); // number of this disk
+            writeInt(0); // disk with the start of the central directory
+            writeLong(count); // entries on this disk
+            writeLong(count); // entries
+            writeLong(size);
+            writeLong(start);
+
+            writeInt(ZIP64_LOCATOR_SIGNATURE);
+            writeInt(0); // disk with the ZIP64 end of central directory
+            writeLong(end64);
+            writeInt(1); // total number of disks
+        }
+        writeInt(END_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(count, MAX_ENTRIES));
+        writeShort(Math.min(count, MAX_ENTRIES));
+        writeInt(Math.min(size, MAX_VALUE));
+        writeInt(Math.min(start, MAX_VALUE));
+        writeShort(0);
+    }
+
+    private static int version(EntryRecord r) {
+        return r.method == ZipEntry.STORED ? 10 : 20;
+    }
+
+    private static long javaToDosTime(long time) {
+        LocalDateTime d = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        if (d.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (long) (d.getYear() - 1980) << 25
+                | d.getMonthValue() << 21
+                | d.getDayOfMonth() << 16
+                | d.getHour() << 11
+                | d.getMinute() << 5
+                | d.getSecond() >> 1;
+    }
+
+    private void writeShort(int v) throws IOException {
+        out.write(v & 0xff);
+        out.write((v >>> 8) & 0xff);
+        written += 2;
+    }
+
+    private void writeInt(long v) throws IOException {
+        writeShort((int) (v & 0xffff));
+        writeShort((int) ((v >>> 16) & 0xffff));
+    }
+
+    private void writeLong(long v) throws IOException {
+        writeInt(v & 0xffffffffL);
+        writeInt(v >>> 32);
+    }
+
+    private void writeBytes(byte[] b) throws IOException {
+        out.write(b, 0, b.length);
+        written += b.length;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (isClosed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Waits until all pending blocks have been compressed, and writes them
+     * to the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writePending();
+        out.flush();
+    }
+
+    /**
+     * Closes the current entry, writes the central directory and closes the
+     * underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        try {
+            closeEntry();
+            writePending();
+            writeCentralDirectory();
+            out.flush();
+        } finally {
+            isClosed = true;
+            for (Segment s : pending) {
+                if (s.future != null) {
+                    s.future.cancel(true);
+                }
+            }
+            pending.clear();
+            out.close();
+        }
+    }
+
+    public OutputStream getOutputStream() {
+        return this;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * @(#)RawZipFile.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.zip;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * RawZipFile gives access to the compressed data of the entries of a zip
+ * file, without inflating them.
+ * <p>
+ * The entries are read from the central directory. Together with
+ * {@link ParallelZipOutStream#copyRawEntry}, the compressed data of an
+ * entry can be copied to another zip file with
+ * {@code FileChannel.transferTo}.
+ * <p>
+ * ZIP64 archives are supported. Encrypted entries can be listed, but not
+ * copied.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class RawZipFile implements Closeable {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int END_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+    private static final long MAX_VALUE = 0xffffffffL;
+
+    /**
+     * Describes an entry of the zip file.
+     */
+    public static class Entry {
+        private final String name;
+        private final int flag;
+        private final int method;
+        private final long dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        private Entry(String name, int flag, int method, long dosTime, long crc,
+                      long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.flag = flag;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the general purpose bit flag.
+         */
+        public int getFlag() {
+            return flag;
+        }
+
+        public int getMethod() {
+            return method;
+        }
+
+        /**
+         * Returns the modification time in MS-DOS format.
+         */
+        public long getDosTime() {
+            return dosTime;
+        }
+
+        public long getCrc() {
+            return crc;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        public boolean isEncrypted() {
+            return (flag & 1) != 0;
+        }
+
+        /**
+         * Returns a {@code ZipEntry} with the name, the method, the CRC and
+         * the sizes of this entry, for use with a {@link ZipEntryFilter}.
+         */
+        public ZipEntry toZipEntry() {
+            ZipEntry entry = new ZipEntry(name);
+            entry.setMethod(method);
+            entry.setCrc(crc);
+            entry.setCompressedSize(compressedSize);
+            entry.setSize(size);
+            return entry;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private final FileChannel channel;
+    private final List<Entry> entries;
+
+    /**
+     * Opens the zip file and reads its central directory.
+     *
+     * @param file A zip file.
+     * @throws IOException if the file can not be read or if it is not a zip
+     *                     file.
+     */
+    public RawZipFile(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            entries = Collections.unmodifiableList(readCentralDirectory());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the entries in the order of the central directory.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the channel of the zip file. The channel is closed when this
+     * zip file is closed.
+     */
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Returns the position of the compressed data of the entry in the zip
+     * file. This is the position after the local header of the entry.
+     */
+    public long getDataOffset(Entry entry) throws IOException {
+        ByteBuffer buf = read(entry.localHeaderOffset, LOCAL_HEADER_SIZE);
+        if (buf.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("invalid local header: " + entry.name);
+        }
+        return entry.localHeaderOffset + LOCAL_HEADER_SIZE
+                + (buf.getShort(26) & 0xffff) + (buf.getShort(28) & 0xffff);
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ArrayList<Entry> readCentralDirectory() throws IOException {
+        // Search the end of central directory record backwards, it is
+        // followed by a comment of at most 64 KiB
+        long fileSize = channel.size();
+        if (fileSize < END_SIZE) {
+            throw new ZipException("not a zip file");
+        }
+        int tailSize = (int) Math.min(fileSize, END_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(fileSize - tailSize, tailSize);
+        int endPos = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE
+                    && i + END_SIZE + (tail.getShort(i + 20) & 0xffff) == tailSize) {
+                endPos = i;
+                break;
+            }
+        }
+        if (endPos == -1) {
+            throw new ZipException("end of central directory not found");
+        }
+        long count = tail.getShort(endPos + 10) & 0xffff;
+        long directorySize = tail.getInt(endPos + 12) & MAX_VALUE;
+        long directoryOffset = tail.getInt(endPos + 16) & MAX_VALUE;
+
+        long endOffset = fileSize - tailSize + endPos;
+        if ((count == 0xffff || directorySize == MAX_VALUE || directoryOffset == MAX_VALUE)
+                && endOffset >= ZIP64_LOCATOR_SIZE) {
+            ByteBuffer locator = read(endOffset - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+            if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE) {
+                ByteBuffer end64 = read(locator.getLong(8), 56);
+                if (end64.getInt(0) != ZIP64_END_SIGNATURE) {
+                    throw new ZipException("invalid ZIP64 end of central directory");
+                }
+                count = end64.getLong(32);
+                directorySize = end64.getLong(40);
+                directoryOffset = end64.getLong(48);
+            }
+        }
+        if (directorySize > Integer.MAX_VALUE || directoryOffset + directorySize > fileSize) {
+            throw new ZipException("invalid central directory");
+        }
+
+        ByteBuffer dir = read(directoryOffset, (int) directorySize);
+        ArrayList<Entry> list = new ArrayList<Entry>((int) Math.min(count, 0xffff));
+        int pos = 0;
+        for (long i = 0; i < count; i++) {
+            if (pos + 46 > dir.limit() || dir.getInt(pos) != CENTRAL_HEADER_SIGNATURE) {
+                throw new ZipException("invalid central directory header");
+            }
+            int flag = dir.getShort(pos + 8) & 0xffff;
+            int method = dir.getShort(pos + 10) & 0xffff;
+            long dosTime = dir.getInt(pos + 12) & MAX_VALUE;
+            long crc = dir.getInt(pos + 16) & MAX_VALUE;
+            long compressedSize = dir.getInt(pos + 20) & MAX_VALUE;
+            long size = dir.getInt(pos + 24) & MAX_VALUE;
+            int nameLength = dir.getShort(pos + 28) & 0xffff;
+            int extraLength = dir.getShort(pos + 30) & 0xffff;
+            int commentLength = dir.getShort(pos + 32) & 0xffff;
+            long offset = dir.getInt(pos + 42) & MAX_VALUE;
+            int namePos = pos + 46;
+            int extraPos = namePos + nameLength;
+            pos = extraPos + extraLength + commentLength;
+            if (pos > dir.limit()) {
+                throw new ZipException("invalid central directory header");
+            }
+            byte[] name = new byte[nameLength];
+            dir.position(namePos);
+            dir.get(name);
+
+            // Read the ZIP64 values in the order size, compressed size,
+            // offset. A value is only present if the 32 bit field is full.
+            if (size == MAX_VALUE || compressedSize == MAX_VALUE || offset == MAX_VALUE) {
+                for (int p = extraPos; p + 4 <= extraPos + extraLength; ) {
+                    int id = dir.getShort(p) & 0xffff;
+                    int length = dir.getShort(p + 2) & 0xffff;
+                    if (id == ZIP64_EXTRA_ID) {
+                        int q = p + 4;
+                        int end = Math.min(q + length, extraPos + extraLength);
+                        if (size == MAX_VALUE && q + 8 <= end) {
+                            size = dir.getLong(q);
+                            q += 8;
+                        }
+                        if (compressedSize == MAX_VALUE && q + 8 <= end) {
+                            compressedSize = dir.getLong(q);
+                            q += 8;
+                        }
+                        if (offset == MAX_VALUE && q + 8 <= end) {
+                            offset = dir.getLong(q);
+                        }
+                        break;
+                    }
+                    p += 4 + length;
+                }
+            }
+            list.add(new Entry(new String(name, StandardCharsets.UTF_8), flag, method, dosTime,
+                    crc, compressedSize, size, offset));
+        }
+        return list;
+    }
+
+    /**
+     * Reads the specified number of bytes at the specified position.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new ZipException("unexpected end of zip file");
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+}
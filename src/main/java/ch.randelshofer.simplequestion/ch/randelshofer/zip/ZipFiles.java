@@ -5,14 +5,23 @@
 
 package ch.randelshofer.zip;
 
-import java.io.BufferedInputStream;
+import ch.randelshofer.gui.ProgressIndicator;
+import ch.randelshofer.util.Files;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Callable;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -20,7 +29,9 @@ import java.util.zip.ZipOutputStream;
  * ZipFiles.
  *
  * @author Werner Randelshofer
- * @version 2.2 2008-12-03 Added support for ZipIn.
+ * @version 2.4 2026-10-18 Unzip files concurrently.
+ * <br>2.3 2026-10-18 Added method rezipRaw.
+ * <br>2.2 2008-12-03 Added support for ZipIn.
  * <br>2.1 2006-11-29 Added method zip with ZipOut as parameter.
  * <br>2.0 2006-07-26 Moved to package ch.randelshofer.zip. Added
  * support for ZipOut.
@@ -54,18 +65,58 @@ public class ZipFiles {
      * @throws IOException when an I/O error occurs.
      */
     public static void unzip(File zipFile, File directory, ZipEntryFilter filter) throws IOException {
-        ZipInputStream in = null;
-        try {
-            in = new ZipInputStream(new BufferedInputStream(new FileInputStream(zipFile)));
-            unzip(in, directory, filter);
-        } finally {
-            // Make sure we always close the output stream,
-            // even when we have encountered an I/O exception of some kind.
-            if (in != null) {
-                in.close();
-            }
+        unzip(zipFile, directory, filter, null);
+    }
+
+    /**
+     * Unzips a Zip archive into a directory.
+     * <p>
+     * The entries are read with a {@code ZipFile}, and are inflated and
+     * written concurrently.
+     *
+     * @param zipFile   A Zip File.
+     * @param directory The output directory.
+     * @param filter    A filter.
+     * @param p         A progress indicator, which is advanced by one for each
+     *                  unzipped file, or null.
+     * @throws IOException when an I/O error occurs.
+     */
+    public static void unzip(File zipFile, File directory, ZipEntryFilter filter, ProgressIndicator p) throws IOException {
+        if (!directory.exists()) {
+            directory.mkdirs();
         }
 
+        try (final ZipFile in = new ZipFile(zipFile)) {
+            // If an entry occurs more than once, the last one wins, as it
+            // does with a ZipInputStream
+            LinkedHashMap<String, ZipEntry> files = new LinkedHashMap<>();
+            for (Enumeration<? extends ZipEntry> entries = in.entries(); entries.hasMoreElements(); ) {
+                ZipEntry entry = entries.nextElement();
+                if (filter.accept(entry)) {
+                    if (entry.isDirectory()) {
+                        new File(directory, entry.getName().replace('/', File.separatorChar)).mkdirs();
+                    } else {
+                        files.put(entry.getName(), entry);
+                    }
+                }
+            }
+
+            ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>(files.size());
+            for (final ZipEntry entry : files.values()) {
+                final Path outputFile = new File(directory, entry.getName().replace('/', File.separatorChar)).toPath();
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        java.nio.file.Files.createDirectories(outputFile.getParent());
+                        try (InputStream entryIn = in.getInputStream(entry)) {
+                            java.nio.file.Files.copy(entryIn, outputFile, StandardCopyOption.REPLACE_EXISTING);
+                        }
+                        return null;
+                    }
+                });
+            }
+            Files.invokeAll(tasks, p);
+        }
     }
 
 
@@ -283,6 +334,34 @@ public class ZipFiles {
         }
     }
 
+    /**
+     * Copies the entries of the zip file to the output stream, without
+     * inflating and deflating them. The compressed data, the CRC, the sizes
+     * and the times of the entries are kept.
+     * Prepends the specified directory name to the zip entry names.
+     * Uses the filter to decide which entries to include.
+     */
+    public static void rezipRaw(File zipFile, ParallelZipOutStream out, String directoryName, ZipEntryFilter filter)
+            throws IOException {
+        // Make sure we have a valid directory name
+        if (directoryName == null) {
+            directoryName = "";
+        } else if (directoryName.length() > 0 && !directoryName.endsWith("/")) {
+            directoryName += '/';
+        }
+
+        try (RawZipFile in = new RawZipFile(zipFile)) {
+            for (RawZipFile.Entry entry : in.getEntries()) {
+                if (filter.accept(entry.toZipEntry())) {
+                    out.copyRawEntry(in, entry, directoryName + entry.getName());
+                }
+            }
+            // The data is transferred lazily, so we must flush before we
+            // close the zip file
+            out.flush();
+        }
+    }
+
     /**
      * Adds the contents of the file to the zip file using the specified name.
      * Prepends the specified directory name to the zip entry names.
@@ -37,12 +37,19 @@ public class ZipInDirectory implements ZipIn {
         if (entryList == null) {
             entryList = new LinkedList<ZipEntry>();
 
-            String dirPath = dir.getCanonicalPath();
+            File root = dir.getCanonicalFile();
+            String dirPath = root.getPath();
             if (!dirPath.endsWith(File.separator)) {
                 dirPath += File.separatorChar;
             }
 
-            addEntriesRecursive(entryList, dir, dirPath);
+            // The directory itself is not an entry
+            File[] files = root.listFiles();
+            if (files != null) {
+                for (File f : files) {
+                    addEntriesRecursive(entryList, f, dirPath);
+                }
+            }
         }
     }
 
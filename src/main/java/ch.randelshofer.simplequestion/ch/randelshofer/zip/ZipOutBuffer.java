@@ -0,0 +1,122 @@
+/*
+ * @(#)ZipOutBuffer.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+package ch.randelshofer.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.zip.ZipEntry;
+
+/**
+ * ZipOutBuffer holds zip entries in memory, until they are written to
+ * another {@code ZipOut} with {@link #writeTo}.
+ * <p>
+ * This allows to create the entries of a zip file concurrently, and to
+ * write them into the zip file in a deterministic order.
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class ZipOutBuffer extends OutputStream implements ZipOut {
+    private final ArrayList<ZipEntry> entries = new ArrayList<ZipEntry>();
+    private final ArrayList<byte[]> contents = new ArrayList<byte[]>();
+    private ByteArrayOutputStream out;
+    private ZipEntry entry;
+    private long size;
+
+    /**
+     * Creates a new instance.
+     */
+    public ZipOutBuffer() {
+    }
+
+    public void putNextEntry(ZipEntry zipEntry) throws IOException {
+        if (entry != null) {
+            closeEntry();
+        }
+        entry = zipEntry;
+        out = new ByteArrayOutputStream();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (entry == null) {
+            throw new IOException("no current ZIP entry");
+        }
+    }
+
+    public void closeEntry() throws IOException {
+        if (entry != null) {
+            byte[] content = out.toByteArray();
+            entries.add(entry);
+            contents.add(content);
+            size += content.length;
+            entry = null;
+            out = null;
+        }
+    }
+
+    public void write(int b) throws IOException {
+        ensureOpen();
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    /**
+     * Closes the current entry. The buffered entries are kept.
+     */
+    @Override
+    public void close() throws IOException {
+        closeEntry();
+    }
+
+    @Override
+    public void flush() throws IOException {
+    }
+
+    public OutputStream getOutputStream() throws IOException {
+        return this;
+    }
+
+    /**
+     * Returns the number of buffered entries.
+     */
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the total number of bytes of the buffered entries.
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Writes the buffered entries to the specified output in the order in
+     * which they have been created.
+     *
+     * @param zout the output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(ZipOut zout) throws IOException {
+        closeEntry();
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            zout.putNextEntry(entries.get(i));
+            zout.write(contents.get(i));
+            zout.closeEntry();
+        }
+    }
+}
@@ -16,11 +16,15 @@
  * Added method getBooleanAttribute(String name, boolean defaultValue);
  * Added method print(Writer w);
  * Method writeEncoded can be changed to not encode unicode characters. 2006-05-02
+ * Methods write, print and writeEncoded write runs of characters which need
+ * no encoding in one call, and use precomputed entities and indentation.
+ * 2026-10-18
+ * Methods parseCharArray and parseString scan the characters directly from
+ * an array instead of reading them through a PushbackReader. 2026-10-18
  */
 package nanoxml;
 
 
-import java.io.CharArrayReader;
 import java.io.CharArrayWriter;
 import java.io.EOFException;
 import java.io.IOException;
@@ -28,7 +32,6 @@ import java.io.LineNumberReader;
 import java.io.PrintWriter;
 import java.io.PushbackReader;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -210,6 +213,33 @@ public class XMLElement {
      * to the underlying writer.
      */
     private boolean isEncodeUnicodeCharacters = true;
+    /**
+     * The encoded form of the ASCII characters below 127. The entry is null
+     * if the character is written as is.
+     */
+    private final static char[][] ENCODED_ASCII = new char[127][];
+
+    static {
+        for (int i = 0; i < 32; i++) {
+            ENCODED_ASCII[i] = ("&#x" + Integer.toString(i, 16) + ';').toCharArray();
+        }
+        ENCODED_ASCII['<'] = "&lt;".toCharArray();
+        ENCODED_ASCII['>'] = "&gt;".toCharArray();
+        ENCODED_ASCII['&'] = "&amp;".toCharArray();
+        ENCODED_ASCII['"'] = "&quot;".toCharArray();
+        ENCODED_ASCII['\''] = "&apos;".toCharArray();
+    }
+
+    private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    /**
+     * Spaces for the indentation of {@link #print}. Deeper indentations are
+     * written in several chunks.
+     */
+    private final static char[] SPACES = new char[64];
+
+    static {
+        Arrays.fill(SPACES, ' ');
+    }
 
     /**
      * Creates and initializes a new XML element.
@@ -1310,12 +1340,7 @@ public class XMLElement {
      */
     public void parseString(String string)
             throws XMLParseException {
-        try {
-            this.parseFromReader(new StringReader(string),
-                    /*startingLineNr*/ 1);
-        } catch (IOException e) {
-            // Java exception handling suxx
-        }
+        this.parseString(string, 0, string.length(), /*startingLineNr*/ 1);
     }
 
     /**
@@ -1412,12 +1437,9 @@ public class XMLElement {
             int end,
             int startingLineNr)
             throws XMLParseException {
-        string = string.substring(offset, end);
-        try {
-            this.parseFromReader(new StringReader(string), startingLineNr);
-        } catch (IOException e) {
-            // Java exception handling suxx
-        }
+        char[] input = new char[end - offset];
+        string.getChars(offset, end, input, 0);
+        this.parseCharArray(input, 0, input.length, startingLineNr);
     }
 
     /**
@@ -1455,6 +1477,12 @@ public class XMLElement {
 
     /**
      * Reads one XML element from a char array and parses it.
+     * <P>
+     * The characters are scanned directly from the array, which is
+     * considerably faster than {@link #parseFromReader}. As with
+     * {@code parseFromReader}, line terminators are read as a single
+     * '\n' character. An incomplete element causes an
+     * {@code XMLParseException}.
      *
      * @param input
      *     The reader from which to retrieve the XML data.
@@ -1486,12 +1514,12 @@ public class XMLElement {
             int end,
             int startingLineNr)
             throws XMLParseException {
-        try {
-            Reader reader = new CharArrayReader(input, offset, end);
-            this.parseFromReader(reader, startingLineNr);
-        } catch (IOException e) {
-            // This exception will never happen.
-        }
+        this.name = null;
+        this.contents = "";
+        this.attributes = new HashMap<String,String>();
+        this.children = new ArrayList<XMLElement>();
+        this.parserLineNr = startingLineNr;
+        new CharArrayParser(input, offset, end, startingLineNr).parse(this);
     }
 
     /**
@@ -1650,38 +1678,42 @@ public class XMLElement {
         }
         writer.write('<');
         writer.write(this.name);
-        if (!this.attributes.isEmpty()) {
-            for (Map.Entry<String,String> entry : attributes.entrySet()) {
-                writer.write(' ');
-                writer.write(entry.getKey());
-                writer.write('=');
-                writer.write('"');
-                this.writeEncoded(writer, entry.getValue());
-                writer.write('"');
-            }
-        }
+        this.writeAttributes(writer);
         if ((this.contents != null) && (this.contents.length() > 0)) {
             writer.write('>');
             this.writeEncoded(writer, this.contents);
-            writer.write('<');
-            writer.write('/');
-            writer.write(this.name);
-            writer.write('>');
+            this.writeEndTag(writer);
         } else if (this.children.isEmpty()) {
-            writer.write('/');
-            writer.write('>');
+            writer.write("/>");
         } else {
             writer.write('>');
             for (XMLElement child : children) {
                 child.write(writer);
             }
-            writer.write('<');
-            writer.write('/');
-            writer.write(this.name);
-            writer.write('>');
+            this.writeEndTag(writer);
+        }
+    }
+
+    private void writeAttributes(Writer writer)
+            throws IOException {
+        if (!this.attributes.isEmpty()) {
+            for (Map.Entry<String,String> entry : attributes.entrySet()) {
+                writer.write(' ');
+                writer.write(entry.getKey());
+                writer.write("=\"");
+                this.writeEncoded(writer, entry.getValue());
+                writer.write('"');
+            }
         }
     }
 
+    private void writeEndTag(Writer writer)
+            throws IOException {
+        writer.write("</");
+        writer.write(this.name);
+        writer.write('>');
+    }
+
     /**
      * Writes the XML element to a print writer and indents the elements.
      *
@@ -1727,43 +1759,23 @@ public class XMLElement {
                 this.writeEncoded(writer, this.contents);
                 return;
             }
-            char[] spaces = new char[indent * 2];
-            Arrays.fill(spaces, ' ');
-
-            writer.write(spaces);
+            writeIndent(writer, indent * 2);
             writer.write('<');
             writer.write(this.name);
-            if (!this.attributes.isEmpty()) {
-                for (Map.Entry<String,String> entry: attributes.entrySet()) {
-                    writer.write(' ');
-                    writer.write(entry.getKey());
-                    writer.write('=');
-                    writer.write('"');
-                    this.writeEncoded(writer, entry.getValue());
-                    writer.write('"');
-                }
-            }
+            this.writeAttributes(writer);
             if ((this.contents != null) && (this.contents.length() > 0)) {
                 writer.write('>');
                 this.writeEncoded(writer, this.contents);
-                writer.write('<');
-                writer.write('/');
-                writer.write(this.name);
-                writer.write('>');
+                this.writeEndTag(writer);
             } else if (this.children.isEmpty()) {
-                writer.write('/');
-                writer.write('>');
+                writer.write("/>");
             } else {
-                writer.write('>');
-                writer.write('\n');
+                writer.write(">\n");
                 for (XMLElement child : children) {
                     child.print(writer, indent + 1);
                 }
-                writer.write(spaces);
-                writer.write('<');
-                writer.write('/');
-                writer.write(this.name);
-                writer.write('>');
+                writeIndent(writer, indent * 2);
+                this.writeEndTag(writer);
             }
             writer.write('\n');
         } catch (IOException e) {
@@ -1773,6 +1785,15 @@ public class XMLElement {
         }
     }
 
+    private static void writeIndent(Writer writer, int count)
+            throws IOException {
+        while (count > 0) {
+            int n = Math.min(count, SPACES.length);
+            writer.write(SPACES, 0, n);
+            count -= n;
+        }
+    }
+
     /**
      * Writes a string encoded to a writer.
      *
@@ -1790,56 +1811,43 @@ public class XMLElement {
     protected void writeEncoded(Writer writer,
             String str)
             throws IOException {
-        for (int i = 0; i < str.length(); i += 1) {
+        int start = 0;
+        char[] hex = null;
+        for (int i = 0, n = str.length(); i < n; i += 1) {
             char ch = str.charAt(i);
-            switch (ch) {
-                case '<':
-                    writer.write('&');
-                    writer.write('l');
-                    writer.write('t');
-                    writer.write(';');
-                    break;
-                case '>':
-                    writer.write('&');
-                    writer.write('g');
-                    writer.write('t');
-                    writer.write(';');
-                    break;
-                case '&':
-                    writer.write('&');
-                    writer.write('a');
-                    writer.write('m');
-                    writer.write('p');
-                    writer.write(';');
-                    break;
-                case '"':
-                    writer.write('&');
-                    writer.write('q');
-                    writer.write('u');
-                    writer.write('o');
-                    writer.write('t');
-                    writer.write(';');
-                    break;
-                case '\'':
-                    writer.write('&');
-                    writer.write('a');
-                    writer.write('p');
-                    writer.write('o');
-                    writer.write('s');
-                    writer.write(';');
-                    break;
-                default:
-                    int unicode = (int) ch;
-                    if (unicode < 32 || (isEncodeUnicodeCharacters && unicode > 126)) {
-                        writer.write('&');
-                        writer.write('#');
-                        writer.write('x');
-                        writer.write(Integer.toString(unicode, 16));
-                        writer.write(';');
-                    } else {
-                        writer.write(ch);
-                    }
+            char[] encoded;
+            int length;
+            if (ch < ENCODED_ASCII.length) {
+                encoded = ENCODED_ASCII[ch];
+                if (encoded == null) {
+                    continue;
+                }
+                length = encoded.length;
+            } else if (isEncodeUnicodeCharacters) {
+                if (hex == null) {
+                    hex = new char[] {'&', '#', 'x', 0, 0, 0, 0, 0};
+                }
+                encoded = hex;
+                length = 3;
+                int shift = 12;
+                while (shift > 0 && (ch >>> shift) == 0) {
+                    shift -= 4;
+                }
+                for (; shift >= 0; shift -= 4) {
+                    hex[length++] = HEX_DIGITS[(ch >>> shift) & 0xf];
+                }
+                hex[length++] = ';';
+            } else {
+                continue;
+            }
+            if (start < i) {
+                writer.write(str, start, i - start);
             }
+            writer.write(encoded, 0, length);
+            start = i + 1;
+        }
+        if (start < str.length()) {
+            writer.write(str, start, str.length() - start);
         }
     }
 
@@ -2404,4 +2412,605 @@ public class XMLElement {
         return ((LineNumberReader)in).getLineNumber();
     }
     }
+
+    /**
+     * A parser which scans the characters directly from a char array.
+     * <P>
+     * The parser accepts the same syntax as {@link XMLParser}. Instead of
+     * reading one character at a time through a reader, it scans runs of
+     * text and attribute values in one go. Element and attribute names are
+     * interned, so that each distinct name is only created once per parse.
+     * Line terminators are read as '\n', like {@code LineNumberReader}
+     * does, and are counted for the line numbers.
+     */
+    private static class CharArrayParser {
+        private final char[] input;
+        private final int end;
+        private int pos;
+        private int lineNr;
+        /**
+         * The position and line number before the last character read.
+         */
+        private int unreadPos;
+        private int unreadLineNr;
+        /**
+         * Open hash table with the names which have been scanned so far.
+         */
+        private String[] names = new String[64];
+        private int nameCount;
+        /**
+         * The attributes of the current element.
+         */
+        private String[] attributeNames = new String[8];
+        private String[] attributeValues = new String[8];
+        /**
+         * The text buffers for each nesting level of the elements.
+         */
+        private final ArrayList<StringBuilder> buffers = new ArrayList<StringBuilder>();
+        private int depth;
+        private final StringBuilder keyBuf = new StringBuilder();
+        /**
+         * The element which is being scanned.
+         */
+        private XMLElement elem;
+
+        CharArrayParser(char[] input, int offset, int end, int startingLineNr) {
+            this.input = input;
+            this.pos = offset;
+            this.end = end;
+            this.lineNr = startingLineNr;
+        }
+
+        void parse(XMLElement root) {
+            elem = root;
+            for (;;) {
+                char ch = scanWhitespace();
+                if (ch != '<') {
+                    throw expectedInput("<");
+                }
+                ch = readChar();
+                if ((ch == '!') || (ch == '?')) {
+                    skipSpecialTag(0);
+                } else {
+                    unread();
+                    scanElement(root);
+                    return;
+                }
+            }
+        }
+
+        private char readChar() {
+            unreadPos = pos;
+            unreadLineNr = lineNr;
+            if (pos >= end) {
+                throw unexpectedEndOfData();
+            }
+            char ch = input[pos++];
+            if (ch == '\r') {
+                if (pos < end && input[pos] == '\n') {
+                    pos++;
+                }
+                lineNr++;
+                return '\n';
+            }
+            if (ch == '\n') {
+                lineNr++;
+            }
+            return ch;
+        }
+
+        /**
+         * Unreads the last character read.
+         */
+        private void unread() {
+            pos = unreadPos;
+            lineNr = unreadLineNr;
+        }
+
+        private static boolean isIdentifierChar(char ch) {
+            return ((ch >= 'A') && (ch <= 'Z')) || ((ch >= 'a') && (ch <= 'z')) || ((ch >= '0') && (ch <= '9'))
+                    || (ch == '_') || (ch == '.') || (ch == ':') || (ch == '-') || (ch > '\u007E');
+        }
+
+        private String scanIdentifier() {
+            int start = pos;
+            while (pos < end && isIdentifierChar(input[pos])) {
+                pos++;
+            }
+            if (pos >= end) {
+                throw unexpectedEndOfData();
+            }
+            return name(start, pos - start);
+        }
+
+        /**
+         * Returns the interned name for the specified characters.
+         */
+        private String name(int start, int length) {
+            int h = 0;
+            for (int i = start, n = start + length; i < n; i++) {
+                h = 31 * h + input[i];
+            }
+            int mask = names.length - 1;
+            for (int i = h & mask; ; i = (i + 1) & mask) {
+                String name = names[i];
+                if (name == null) {
+                    name = new String(input, start, length).intern();
+                    names[i] = name;
+                    if (++nameCount * 2 > names.length) {
+                        rehashNames();
+                    }
+                    return name;
+                }
+                if (name.hashCode() == h && equals(name, start, length)) {
+                    return name;
+                }
+            }
+        }
+
+        private boolean equals(String name, int start, int length) {
+            if (name.length() != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name.charAt(i) != input[start + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehashNames() {
+            String[] old = names;
+            names = new String[old.length * 2];
+            int mask = names.length - 1;
+            for (String name : old) {
+                if (name != null) {
+                    int i = name.hashCode() & mask;
+                    while (names[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    names[i] = name;
+                }
+            }
+        }
+
+        private void scanElement(XMLElement elt) {
+            StringBuilder buf;
+            if (depth < buffers.size()) {
+                buf = buffers.get(depth);
+                buf.setLength(0);
+            } else {
+                buf = new StringBuilder();
+                buffers.add(buf);
+            }
+            depth++;
+            scanElement(elt, buf);
+            depth--;
+        }
+
+        private void scanElement(XMLElement elt, StringBuilder buf) {
+            elem = elt;
+            elt.lineNr = lineNr;
+            String name = scanIdentifier();
+            elt.setName(name);
+            int attributeCount = 0;
+            char ch = scanWhitespace();
+            while ((ch != '>') && (ch != '/')) {
+                unread();
+                String key = scanIdentifier();
+                ch = scanWhitespace();
+                if (ch != '=') {
+                    throw expectedInput("=");
+                }
+                scanWhitespace();
+                unread();
+                buf.setLength(0);
+                scanString(buf);
+                if (attributeCount == attributeNames.length) {
+                    attributeNames = Arrays.copyOf(attributeNames, attributeCount * 2);
+                    attributeValues = Arrays.copyOf(attributeValues, attributeCount * 2);
+                }
+                attributeNames[attributeCount] = key;
+                attributeValues[attributeCount] = buf.toString();
+                attributeCount++;
+                ch = scanWhitespace();
+            }
+            if (attributeCount > 0) {
+                setAttributes(elt, attributeCount);
+            }
+            if (ch == '/') {
+                ch = readChar();
+                if (ch != '>') {
+                    throw expectedInput(">");
+                }
+                return;
+            }
+            buf.setLength(0);
+            ch = scanWhitespace(buf);
+            if (ch != '<') {
+                unread();
+                scanPCData(buf);
+            } else {
+                for (;;) {
+                    ch = readChar();
+                    if (ch == '!') {
+                        if (checkCDATA(buf)) {
+                            scanPCData(buf);
+                            break;
+                        } else {
+                            ch = scanWhitespace(buf);
+                            if (ch != '<') {
+                                unread();
+                                scanPCData(buf);
+                                break;
+                            }
+                        }
+                    } else {
+                        if ((ch != '/') || elt.ignoreWhitespace) {
+                            buf.setLength(0);
+                        }
+                        if (ch == '/') {
+                            unread();
+                        }
+                        break;
+                    }
+                }
+            }
+            if (buf.length() == 0) {
+                while (ch != '/') {
+                    if (ch == '!') {
+                        ch = readChar();
+                        if (ch != '-') {
+                            throw expectedInput("Comment or Element");
+                        }
+                        ch = readChar();
+                        if (ch != '-') {
+                            throw expectedInput("Comment or Element");
+                        }
+                        skipComment();
+                    } else {
+                        unread();
+                        XMLElement child = elt.createElement();
+                        scanElement(child);
+                        elt.addChild(child);
+                        elem = elt;
+                    }
+                    ch = scanWhitespace();
+                    if (ch != '<') {
+                        throw expectedInput("<");
+                    }
+                    ch = readChar();
+                }
+                unread();
+            } else {
+                if (elt.ignoreWhitespace) {
+                    elt.setContent(buf.toString().trim());
+                } else {
+                    elt.setContent(buf.toString());
+                }
+            }
+            ch = readChar();
+            if (ch != '/') {
+                throw expectedInput("/");
+            }
+            scanWhitespace();
+            unread();
+            if (!checkLiteral(name)) {
+                throw expectedInput(name);
+            }
+            if (scanWhitespace() != '>') {
+                throw expectedInput(">");
+            }
+        }
+
+        /**
+         * Puts the scanned attributes into a map which is large enough to
+         * hold them without rehashing. The map has the same capacity as a
+         * map which has grown to this size, so that the attributes are
+         * iterated in the same order.
+         */
+        private void setAttributes(XMLElement elt, int count) {
+            int capacity = 16;
+            while (capacity / 4 * 3 < count) {
+                capacity <<= 1;
+            }
+            HashMap<String, String> map = new HashMap<String, String>(capacity);
+            for (int i = 0; i < count; i++) {
+                String key = attributeNames[i];
+                if (elt.ignoreCase) {
+                    key = key.toUpperCase();
+                }
+                map.put(key, attributeValues[i]);
+                attributeValues[i] = null;
+            }
+            elt.attributes = map;
+        }
+
+        /**
+         * Scans #PCDATA up to the next tag. CDATA sections and entities are
+         * resolved. The &lt; of the next tag is skipped.
+         */
+        private void scanPCData(StringBuilder data) {
+            for (;;) {
+                int start = pos;
+                while (pos < end) {
+                    char ch = input[pos];
+                    if (ch == '<' || ch == '&' || ch == '\r') {
+                        break;
+                    }
+                    if (ch == '\n') {
+                        lineNr++;
+                    }
+                    pos++;
+                }
+                data.append(input, start, pos - start);
+                char ch = readChar();
+                if (ch == '<') {
+                    ch = readChar();
+                    if (ch == '!') {
+                        checkCDATA(data);
+                    } else {
+                        unread();
+                        return;
+                    }
+                } else if (ch == '&') {
+                    resolveEntity(data);
+                } else {
+                    data.append(ch);
+                }
+            }
+        }
+
+        /**
+         * Scans a special tag and if the tag is a CDATA section, appends its
+         * content to <code>buf</code>. The &lt;! has already been read.
+         */
+        private boolean checkCDATA(StringBuilder buf) {
+            char ch = readChar();
+            if (ch != '[') {
+                unread();
+                skipSpecialTag(0);
+                return false;
+            } else if (!checkLiteral("CDATA[")) {
+                skipSpecialTag(1); // one [ has already been read
+                return false;
+            } else {
+                int delimiterCharsSkipped = 0;
+                while (delimiterCharsSkipped < 3) {
+                    ch = readChar();
+                    switch (ch) {
+                        case ']':
+                            if (delimiterCharsSkipped < 2) {
+                                delimiterCharsSkipped += 1;
+                            } else {
+                                buf.append(']');
+                                buf.append(']');
+                                delimiterCharsSkipped = 0;
+                            }
+                            break;
+                        case '>':
+                            if (delimiterCharsSkipped < 2) {
+                                for (int i = 0; i < delimiterCharsSkipped; i++) {
+                                    buf.append(']');
+                                }
+                                delimiterCharsSkipped = 0;
+                                buf.append('>');
+                            } else {
+                                delimiterCharsSkipped = 3;
+                            }
+                            break;
+                        default:
+                            for (int i = 0; i < delimiterCharsSkipped; i += 1) {
+                                buf.append(']');
+                            }
+                            buf.append(ch);
+                            delimiterCharsSkipped = 0;
+                    }
+                }
+                return true;
+            }
+        }
+
+        /**
+         * Skips whitespace.
+         *
+         * @return the next character following the whitespace.
+         */
+        private char scanWhitespace() {
+            for (;;) {
+                char ch = readChar();
+                switch (ch) {
+                    case ' ':
+                    case '\t':
+                    case '\n':
+                        break;
+                    default:
+                        return ch;
+                }
+            }
+        }
+
+        /**
+         * Scans whitespace and appends it to <code>result</code>.
+         *
+         * @return the next character following the whitespace.
+         */
+        private char scanWhitespace(StringBuilder result) {
+            for (;;) {
+                char ch = readChar();
+                switch (ch) {
+                    case ' ':
+                    case '\t':
+                    case '\n':
+                        result.append(ch);
+                        break;
+                    default:
+                        return ch;
+                }
+            }
+        }
+
+        /**
+         * Scans a delimited string and appends it without the delimiters
+         * to <code>string</code>.
+         */
+        private void scanString(StringBuilder string) {
+            char delimiter = readChar();
+            if ((delimiter != '\'') && (delimiter != '"')) {
+                throw expectedInput("' or \"");
+            }
+            for (;;) {
+                int start = pos;
+                while (pos < end) {
+                    char ch = input[pos];
+                    if (ch == delimiter || ch == '&' || ch == '\r') {
+                        break;
+                    }
+                    if (ch == '\n') {
+                        lineNr++;
+                    }
+                    pos++;
+                }
+                string.append(input, start, pos - start);
+                char ch = readChar();
+                if (ch == delimiter) {
+                    return;
+                } else if (ch == '&') {
+                    resolveEntity(string);
+                } else {
+                    string.append(ch);
+                }
+            }
+        }
+
+        /**
+         * Skips a comment. The &lt;!-- has already been read.
+         */
+        private void skipComment() {
+            int dashesToRead = 2;
+            while (dashesToRead > 0) {
+                char ch = readChar();
+                if (ch == '-') {
+                    dashesToRead -= 1;
+                } else {
+                    dashesToRead = 2;
+                }
+            }
+            if (readChar() != '>') {
+                throw expectedInput(">");
+            }
+        }
+
+        /**
+         * Skips a special tag or comment.
+         *
+         * @param bracketLevel The number of open square brackets ([) that have
+         *                     already been read.
+         */
+        private void skipSpecialTag(int bracketLevel) {
+            int tagLevel = 1; // <
+            char stringDelimiter = '\0';
+            if (bracketLevel == 0) {
+                char ch = readChar();
+                if (ch == '[') {
+                    bracketLevel += 1;
+                } else if (ch == '-') {
+                    ch = readChar();
+                    if (ch == '[') {
+                        bracketLevel += 1;
+                    } else if (ch == ']') {
+                        bracketLevel -= 1;
+                    } else if (ch == '-') {
+                        skipComment();
+                        return;
+                    }
+                }
+            }
+            while (tagLevel > 0) {
+                char ch = readChar();
+                if (stringDelimiter == '\0') {
+                    if ((ch == '"') || (ch == '\'')) {
+                        stringDelimiter = ch;
+                    } else if (bracketLevel <= 0) {
+                        if (ch == '<') {
+                            tagLevel += 1;
+                        } else if (ch == '>') {
+                            tagLevel -= 1;
+                        }
+                    }
+                    if (ch == '[') {
+                        bracketLevel += 1;
+                    } else if (ch == ']') {
+                        bracketLevel -= 1;
+                    }
+                } else {
+                    if (ch == stringDelimiter) {
+                        stringDelimiter = '\0';
+                    }
+                }
+            }
+        }
+
+        /**
+         * Scans the data for literal text. Scanning stops when a character
+         * does not match or after the complete text has been checked.
+         */
+        private boolean checkLiteral(String literal) {
+            int length = literal.length();
+            for (int i = 0; i < length; i += 1) {
+                if (readChar() != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Resolves an entity and appends its value to <code>buf</code>.
+         * The &amp; has already been read.
+         */
+        private void resolveEntity(StringBuilder buf) {
+            keyBuf.setLength(0);
+            for (;;) {
+                char ch = readChar();
+                if (ch == ';') {
+                    break;
+                }
+                keyBuf.append(ch);
+            }
+            String key = keyBuf.toString();
+            if (key.length() > 1 && key.charAt(0) == '#') {
+                char ch;
+                try {
+                    if (key.charAt(1) == 'x') {
+                        ch = (char) Integer.parseInt(key.substring(2), 16);
+                    } else {
+                        ch = (char) Integer.parseInt(key.substring(1), 10);
+                    }
+                } catch (NumberFormatException e) {
+                    throw unknownEntity(key);
+                }
+                buf.append(ch);
+            } else {
+                char[] value = elem.entities.get(key);
+                if (value == null) {
+                    throw unknownEntity(key);
+                }
+                buf.append(value);
+            }
+        }
+
+        private XMLParseException expectedInput(String charSet) {
+            return new XMLParseException(elem.getName(), lineNr, "Expected: " + charSet);
+        }
+
+        private XMLParseException unknownEntity(String name) {
+            return new XMLParseException(elem.getName(), lineNr, "Unknown or invalid entity: &" + name + ";");
+        }
+
+        private XMLParseException unexpectedEndOfData() {
+            return new XMLParseException(elem.getName(), lineNr, "Unexpected end of data reached");
+        }
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * @(#)GIFTScannerTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gift.highlight;
+
+import ch.randelshofer.gui.highlight.Scanner;
+import ch.randelshofer.gui.highlight.Token;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link GIFTScanner} keeps the tokens consistent with the
+ * text, when the text is rescanned after each edit.
+ */
+class GIFTScannerTest {
+    private static final String NOISE = "{}{}\\//\n\n\r\n  =~#:%-.>TF";
+
+    @Test
+    void testFullScan() throws IOException {
+        String text = loadExampleQuestions();
+        Scanner scanner = new GIFTScanner();
+        scanner.change(0, 0, text.length());
+        scan(scanner, text.toCharArray(), 100);
+        assertTokensCoverText(scanner, text);
+
+        // The last token is the end-of-text sentinel
+        Token sentinel = scanner.getToken(scanner.size() - 1);
+        assertEquals(text.length(), sentinel.position);
+        assertEquals(0, sentinel.length);
+        assertEquals(scanner.size() - 2, scanner.find(text.length() - 1));
+    }
+
+    @Test
+    void testRescanAfterEdits() throws IOException {
+        String examples = loadExampleQuestions();
+        Random random = new Random(21);
+        StringBuilder buf = new StringBuilder(examples);
+        Scanner scanner = new GIFTScanner();
+        scanner.change(0, 0, buf.length());
+        scan(scanner, buf.toString().toCharArray(), 100);
+
+        for (int i = 0; i < 500; i++) {
+            // Edit the text like a document does, with separate removals
+            // and insertions
+            int start = random.nextInt(buf.length());
+            if (random.nextBoolean()) {
+                int len = Math.min(1 + random.nextInt(8), buf.length() - start);
+                buf.delete(start, start + len);
+                scanner.change(start, len, 0);
+            } else {
+                int from = random.nextInt(examples.length() - 10);
+                String insert = NOISE.charAt(random.nextInt(NOISE.length()))
+                        + examples.substring(from, from + random.nextInt(10));
+                buf.insert(start, insert);
+                scanner.change(start, 0, insert.length());
+            }
+            scan(scanner, buf.toString().toCharArray(), 1 + random.nextInt(200));
+
+            // Reading tokens after the gap moves the gap
+            if (random.nextBoolean()) {
+                scanner.getToken(random.nextInt(scanner.size()));
+            }
+            assertTokensCoverText(scanner, buf.toString());
+        }
+    }
+
+    private static void assertTokensCoverText(Scanner scanner, String text) {
+        assertEquals(-1, scanner.position());
+        int position = 0;
+        for (int i = 0; i < scanner.size() - 1; i++) {
+            assertEquals(position, scanner.getTokenPosition(i), "token " + i);
+            assertTrue(scanner.getTokenLength(i) > 0, "token " + i);
+            position += scanner.getTokenLength(i);
+        }
+        assertEquals(text.length(), position);
+        assertEquals(text.length(), scanner.getTokenPosition(scanner.size() - 1));
+    }
+
+    /**
+     * Scans the remaining text in portions of the specified size, like
+     * {@code SyntaxHighlighter} does.
+     */
+    private static void scan(Scanner scanner, char[] text, int amount) {
+        for (int offset = scanner.position(); offset >= 0; offset = scanner.position()) {
+            int length = Math.min(amount, text.length - offset);
+            if (scanner.scan(text, offset, length) == 0) {
+                amount *= 2;
+            }
+        }
+    }
+
+    private String loadExampleQuestions() throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(
+                        GIFTScannerTest.class.getResourceAsStream(
+                                "/ch/randelshofer/simplequestion/examples.txt"),
+                        StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.joining("\n"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * @(#)GIFTLexerTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gift.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import static ch.randelshofer.gift.parser.GIFTTestSupport.NOISE;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.damage;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.loadExamples;
+import static ch.randelshofer.gift.parser.GIFTTokenizer.TT_EOF;
+import static ch.randelshofer.gift.parser.GIFTTokenizer.TT_WORD;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link GIFTLexer} produces the same tokens as
+ * {@link StreamPosGIFTTokenizer}.
+ */
+class GIFTLexerTest {
+    @Test
+    void testExamplesAreTokenizedIdentically() throws IOException {
+        for (String name : new String[]{"examples.txt", "examples_de.txt"}) {
+            assertSameTokens(loadExamples(name));
+        }
+    }
+
+    @Test
+    void testShortTextsAreTokenizedIdentically() throws IOException {
+        for (String text : new String[]{"", " ", "\t", "\n", "\r\n", "ab", "ab cd", "ab\n", "ab\t",
+                "a/", "a/b/", "//", "a // b", "a //\nb", "\\{", "::a::b {=c}"}) {
+            assertSameTokens(text);
+        }
+    }
+
+    @Test
+    void testRandomTextsAreTokenizedIdentically() throws IOException {
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder buf = new StringBuilder();
+            for (int j = random.nextInt(40); j > 0; j--) {
+                buf.append(NOISE.charAt(random.nextInt(NOISE.length())));
+            }
+            assertSameTokens(buf.toString());
+        }
+    }
+
+    @Test
+    void testDamagedExamplesAreTokenizedIdentically() throws IOException {
+        String examples = loadExamples("examples.txt");
+        Random random = new Random(2);
+        for (int i = 0; i < 200; i++) {
+            String text = damage(examples, random);
+            // Cut the text at a random position, so that it ends in all
+            // kinds of tokens
+            assertSameTokens(text.substring(0, random.nextInt(text.length() + 1)));
+        }
+    }
+
+    @Test
+    void testEndOfTextIsAfterTheLastCharacter() throws IOException {
+        for (String text : new String[]{"", " ", "ab", "ab\n", "ab\t", "a/"}) {
+            GIFTLexer lexer = new GIFTLexer(text);
+            while (lexer.nextToken() != TT_EOF) {
+            }
+            assertEquals(text.length(), lexer.getStartPosition(), text);
+            assertEquals(text.length() - 1, lexer.getEndPosition(), text);
+            assertEquals(0, lexer.getTokenLength(), text);
+        }
+
+        // The positions are relative to the start of the array
+        char[] buf = "xxab cdxx".toCharArray();
+        GIFTLexer lexer = new GIFTLexer(buf, 2, 5);
+        while (lexer.nextToken() != TT_EOF) {
+        }
+        assertEquals(7, lexer.getStartPosition());
+        assertEquals(6, lexer.getEndPosition());
+    }
+
+    private void assertSameTokens(String text) throws IOException {
+        assertEquals(describe(new StreamPosGIFTTokenizer(new StringReader(text))),
+                describe(new GIFTLexer(text)), text);
+    }
+
+    /**
+     * Describes the type, the text, the start and end position and the line
+     * number of each token including the TT_EOF token.
+     */
+    private String describe(GIFTTokenizer st) throws IOException {
+        StringBuilder buf = new StringBuilder();
+        do {
+            st.nextToken();
+            buf.append(st.getTokenType()).append('|');
+            if (st.getTokenType() == TT_WORD) {
+                buf.append(st.getStringValue());
+            } else if (st.getTokenType() >= 0) {
+                buf.append((char) st.getTokenType());
+            }
+            buf.append('|')
+                    .append(st.getStartPosition()).append('|')
+                    .append(st.getEndPosition()).append('|')
+                    .append(st.lineno()).append('\n');
+        } while (st.getTokenType() != TT_EOF);
+        return buf.toString();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * @(#)GIFTQuestionReaderTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gift.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static ch.randelshofer.gift.parser.GIFTTestSupport.damage;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.describe;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.loadExamples;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link GIFTQuestionReader} reads the same questions and errors
+ * as {@link GIFTParser#parseRecovering}.
+ */
+class GIFTQuestionReaderTest {
+    @Test
+    void testExamplesAreReadLikeTheEntireText() throws IOException {
+        for (String name : new String[]{"examples.txt", "examples_de.txt"}) {
+            String text = loadExamples(name);
+            assertSameResult(text, 8192, 8192);
+            assertSameResult(text, 1, 7);
+            assertSameResult(text, 64, 1000);
+        }
+    }
+
+    @Test
+    void testLargeTextIsReadLikeTheEntireText() throws IOException {
+        String examples = loadExamples("examples.txt");
+        StringBuilder buf = new StringBuilder();
+        while (buf.length() < 8 * 8192) {
+            buf.append(examples).append("\n\n");
+        }
+        // A question which is larger than the initial buffer
+        buf.append("::Long question::");
+        for (int i = 0; i < 3000; i++) {
+            buf.append(" word").append(i);
+        }
+        buf.append(" {=yes ~no}\n\nLast question {T}\n");
+        String text = buf.toString();
+
+        assertSameResult(text, 8192, 8192);
+        assertSameResult(text, 8192, 13);
+        assertSameResult(text, 16, 4096);
+    }
+
+    @Test
+    void testDamagedTextsAreReadLikeTheEntireText() throws IOException {
+        String examples = loadExamples("examples.txt");
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            assertSameResult(damage(examples, random), 1 + random.nextInt(256), 1 + random.nextInt(512));
+        }
+    }
+
+    @Test
+    void testBlankLinesInsideOfAQuestionAreNotParsedRepeatedly() throws IOException {
+        // An unfinished title and escaped line breaks extend a question
+        // beyond blank lines, which look like question boundaries
+        StringBuilder buf = new StringBuilder("First {T}\n\n::Title");
+        for (int i = 0; i < 2000; i++) {
+            buf.append(i % 2 == 0 ? " line\n\n" : " line\\\n\n");
+        }
+        buf.append("::Question {T}\n\nLast {F}\n");
+        String text = buf.toString();
+        assertSameResult(text, 64, 8192);
+
+        final long[] parsed = {0};
+        GIFTParser parser = new GIFTParser() {
+            @Override
+            void parseQuestions(GIFTTokenizer st, QuestionHandler handler) throws IOException {
+                super.parseQuestions(st, handler);
+                // The tokenizer is at the end of the parsed text
+                parsed[0] += st.getStartPosition();
+            }
+        };
+        try (GIFTQuestionReader r = new GIFTQuestionReader(new StringReader(text), parser, 64)) {
+            while (true) {
+                try {
+                    if (r.readQuestion() == null) {
+                        break;
+                    }
+                } catch (GIFTParseException e) {
+                    // The title is not finished
+                }
+            }
+        }
+        assertTrue(parsed[0] < 8L * text.length(), parsed[0] + " characters parsed");
+    }
+
+    /**
+     * Reads the text with a reader which returns at most the specified
+     * number of characters per read.
+     */
+    private void assertSameResult(String text, int bufferSize, final int maxRead) throws IOException {
+        GIFTParser parser = new GIFTParser();
+        GIFTParseResult expected = parser.parseRecovering(text);
+
+        Reader in = new FilterReader(new StringReader(text)) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, maxRead));
+            }
+        };
+        List<Question> questions = new ArrayList<Question>();
+        List<GIFTParseException> errors = new ArrayList<GIFTParseException>();
+        try (GIFTQuestionReader r = new GIFTQuestionReader(in, parser, bufferSize)) {
+            while (true) {
+                try {
+                    Question q = r.readQuestion();
+                    if (q == null) {
+                        break;
+                    }
+                    questions.add(q);
+                } catch (GIFTParseException e) {
+                    errors.add(e);
+                }
+            }
+        }
+        assertEquals(describe(expected), describe(new GIFTParseResult(questions, errors)), text);
+    }
+}
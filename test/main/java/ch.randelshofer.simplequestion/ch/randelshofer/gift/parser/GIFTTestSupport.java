@@ -0,0 +1,93 @@
+/*
+ * @(#)GIFTTestSupport.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gift.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Texts and descriptions which are shared by the tests of the GIFT parser.
+ * <p>
+ * The tests compare the parse results of different parsers by their
+ * descriptions, so that a failing test shows all differences at once.
+ */
+final class GIFTTestSupport {
+    /**
+     * Characters which are inserted into the example questions, to produce
+     * syntax errors, escapes, comments, unbalanced answer lists and all
+     * kinds of line breaks.
+     */
+    static final String NOISE = "{}{}\\//\n\n\r\n\r  =~#:%-.>TF\tabä→";
+
+    private GIFTTestSupport() {
+    }
+
+    /**
+     * Loads a text resource of the SimpleQuestion application, for example
+     * "examples.txt".
+     */
+    static String loadExamples(String name) throws IOException {
+        try (InputStream in = GIFTTestSupport.class.getResourceAsStream("/ch/randelshofer/simplequestion/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Deletes up to 20 random characters of the text, or inserts random
+     * characters of {@link #NOISE}.
+     */
+    static String damage(String text, Random random) {
+        StringBuilder buf = new StringBuilder(text);
+        for (int j = random.nextInt(20); j >= 0; j--) {
+            int pos = random.nextInt(buf.length() + 1);
+            if (random.nextBoolean() && pos < buf.length()) {
+                buf.deleteCharAt(pos);
+            } else {
+                buf.insert(pos, NOISE.charAt(random.nextInt(NOISE.length())));
+            }
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Describes the questions and the syntax errors of a parse result.
+     */
+    static String describe(GIFTParseResult result) {
+        StringBuilder buf = new StringBuilder();
+        buf.append(describe(result.getQuestions()));
+        for (GIFTParseException e : result.getErrors()) {
+            buf.append(describe(e));
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Describes the id, the title, the positions and the body of each
+     * question.
+     */
+    static String describe(List<Question> questions) {
+        StringBuilder buf = new StringBuilder();
+        for (Question q : questions) {
+            buf.append(q.getId()).append('|')
+                    .append(q.getTitle()).append('|')
+                    .append(q.getStartPosition()).append('|')
+                    .append(q.getEndPosition()).append('|')
+                    .append(q.getBody()).append('\n');
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Describes the message and the positions of a syntax error.
+     */
+    static String describe(GIFTParseException e) {
+        return e.getMessageKey() + '|' + e.getMessage() + '|'
+                + e.getStartPosition() + '|' + e.getEndPosition() + '\n';
+    }
+}
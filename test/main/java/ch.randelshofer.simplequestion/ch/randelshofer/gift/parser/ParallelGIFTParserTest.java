@@ -0,0 +1,108 @@
+/*
+ * @(#)ParallelGIFTParserTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gift.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static ch.randelshofer.gift.parser.GIFTTestSupport.damage;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.describe;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.loadExamples;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelGIFTParserTest {
+    @Test
+    void testExamplesAreParsedIdentically() throws Exception {
+        String text = loadExamples("examples.txt");
+        GIFTParser parser = new GIFTParser();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int minChunkSize : new int[]{1, 16, 256, 4096}) {
+                assertSameResult(parser, pool, text, minChunkSize);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLargeTextIsParsedIdentically() throws Exception {
+        String examples = loadExamples("examples.txt");
+        StringBuilder buf = new StringBuilder();
+        while (buf.length() < 8 * ParallelGIFTParser.DEFAULT_MIN_CHUNK_SIZE) {
+            buf.append(examples).append("\n\n");
+        }
+        String text = buf.toString();
+        GIFTParser parser = new GIFTParser();
+
+        assertEquals(describe(parser.parse(text)), describe(parser.parseParallel(text)));
+        assertEquals(describe(parser.parseRecovering(text)), describe(parser.parseRecoveringParallel(text)));
+    }
+
+    @Test
+    void testDamagedTextsAreParsedIdentically() throws Exception {
+        String examples = loadExamples("examples.txt");
+        GIFTParser parser = new GIFTParser();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(4);
+        try {
+            for (int i = 0; i < 200; i++) {
+                assertSameResult(parser, pool, damage(examples, random), 1 + random.nextInt(512));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSplitRespectsAnswerListsAndEscapes() {
+        String text = "a {\n\n} b\n\nc \\{\n\nd // {\n\ne\n";
+        char[] buf = text.toCharArray();
+        int[] lines = new int[buf.length + 2];
+        int[] bounds = ParallelGIFTParser.split(buf, 1, lines);
+
+        List<Integer> actual = new ArrayList<Integer>();
+        for (int bound : bounds) {
+            actual.add(bound);
+        }
+        List<Integer> expected = List.of(0, text.indexOf("c"), text.indexOf("d"), text.indexOf("e"), text.length());
+        assertEquals(expected, actual);
+        assertEquals(1, lines[0]);
+        assertEquals(5, lines[1]);
+        assertEquals(7, lines[2]);
+        assertEquals(9, lines[3]);
+    }
+
+    private void assertSameResult(GIFTParser parser, ForkJoinPool pool, String text, int minChunkSize) throws IOException {
+        ParallelGIFTParser parallel = new ParallelGIFTParser(parser, pool, minChunkSize);
+
+        GIFTParseResult expected = parser.parseRecovering(text);
+        List<GIFTParseException> errors = new ArrayList<GIFTParseException>();
+        List<Question> questions = parallel.parse(text, errors);
+        assertEquals(describe(expected), describe(new GIFTParseResult(questions, errors)), text);
+
+        String expectedStrict;
+        try {
+            expectedStrict = describe(parser.parse(text));
+        } catch (GIFTParseException e) {
+            expectedStrict = describe(e);
+        }
+        String actualStrict;
+        try {
+            actualStrict = describe(parallel.parse(text, null));
+        } catch (GIFTParseException e) {
+            actualStrict = describe(e);
+        }
+        assertEquals(expectedStrict, actualStrict, text);
+        assertTrue(expectedStrict.length() > 0 || text.trim().isEmpty());
+    }
+}
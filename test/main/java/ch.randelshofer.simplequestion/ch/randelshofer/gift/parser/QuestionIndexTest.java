@@ -0,0 +1,125 @@
+/*
+ * @(#)QuestionIndexTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gift.parser;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.text.BadLocationException;
+import javax.swing.text.PlainDocument;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static ch.randelshofer.gift.parser.GIFTTestSupport.describe;
+import static ch.randelshofer.gift.parser.GIFTTestSupport.loadExamples;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link QuestionIndex} produces the same result as
+ * {@link GIFTParser#parseRecovering} after each edit.
+ */
+class QuestionIndexTest {
+    /**
+     * Strings which are inserted into the document, to produce syntax
+     * errors, escapes, comments, unbalanced answer lists and blank lines.
+     */
+    private static final String[] NOISE = {"{", "}", "\\", "//", "\n", "\n\n", "\r\n", "\r", " ", "=", "~",
+            "#", ":", "::", "%", "-", ".", ">", "T", "F", "a b", "{=a ~b}", "::t:: q {T}\n\n"};
+
+    @Test
+    void testRandomEditsAreParsedLikeTheEntireDocument() throws Exception {
+        String examples = loadExamples("examples.txt");
+        GIFTParser parser = new GIFTParser();
+        Random random = new Random(3);
+        for (int run = 0; run < 20; run++) {
+            PlainDocument doc = new PlainDocument();
+            doc.insertString(0, examples, null);
+            QuestionIndex index = QuestionIndex.getInstance(doc);
+            assertSameResult(parser, doc, index);
+
+            for (int i = 0; i < 50; i++) {
+                int pos = getEditPosition(doc, random);
+                if (random.nextBoolean() && pos < doc.getLength()) {
+                    int length = Math.min(doc.getLength() - pos, 1 + random.nextInt(random.nextBoolean() ? 3 : 40));
+                    doc.remove(pos, length);
+                } else {
+                    doc.insertString(pos, NOISE[random.nextInt(NOISE.length)], null);
+                }
+                // Sometimes we do several edits before we reparse
+                if (random.nextInt(4) != 0) {
+                    assertSameResult(parser, doc, index);
+                }
+            }
+            assertSameResult(parser, doc, index);
+        }
+    }
+
+    @Test
+    void testReturnedQuestionsAreNotModified() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        doc.insertString(0, "a {T}\n\nb {F}\n\nc {T}\n", null);
+        QuestionIndex index = QuestionIndex.getInstance(doc);
+        List<Question> first = index.getParseResult().getQuestions();
+        String before = describe(first);
+
+        doc.insertString(0, "x {T}\n\n", null);
+        List<Question> second = index.getParseResult().getQuestions();
+        assertEquals(before, describe(first));
+        assertEquals(4, second.size());
+        assertEquals(first.get(0).getStartPosition() + 7, second.get(1).getStartPosition());
+        assertEquals("2", second.get(1).getId());
+        assertEquals("1", first.get(0).getId());
+    }
+
+    @Test
+    void testErrorsAreKeptUntilTheirChunkChanges() throws Exception {
+        PlainDocument doc = new PlainDocument();
+        doc.insertString(0, "a {T}\n\nb }\n\nc {T}\n", null);
+        QuestionIndex index = QuestionIndex.getInstance(doc);
+        GIFTParseException error = index.getParseResult().getErrors().get(0);
+        assertSame(error, index.getParseResult().getErrors().get(0));
+
+        // The error moves down by three lines, one of them ends with a lone
+        // '\r'
+        doc.insertString(0, "x\ry {T}\n\n", null);
+        GIFTParseException moved = index.getParseResult().getErrors().get(0);
+        assertEquals(error.getStartPosition() + 9, moved.getStartPosition());
+        Object[] args = error.getArguments();
+        assertEquals(3, args[args.length - 1]);
+        args = moved.getArguments();
+        assertEquals(6, args[args.length - 1]);
+        assertEquals(describe(new GIFTParser().parseRecovering(doc.getText(0, doc.getLength()))),
+                describe(index.getParseResult()));
+    }
+
+    /**
+     * Returns a random position, which is often at the start or end of a
+     * question or in a blank line.
+     */
+    private int getEditPosition(PlainDocument doc, Random random) throws BadLocationException {
+        String text = doc.getText(0, doc.getLength());
+        List<Integer> positions = new ArrayList<Integer>();
+        for (int i = text.indexOf("\n\n"); i != -1; i = text.indexOf("\n\n", i + 1)) {
+            positions.add(i);
+            positions.add(i + 1);
+            positions.add(i + 2);
+        }
+        if (positions.isEmpty() || random.nextBoolean()) {
+            return random.nextInt(text.length() + 1);
+        }
+        return positions.get(random.nextInt(positions.size()));
+    }
+
+    private void assertSameResult(GIFTParser parser, PlainDocument doc, QuestionIndex index) throws Exception {
+        String text = doc.getText(0, doc.getLength());
+        GIFTParseResult expected = parser.parseRecovering(text);
+        GIFTParseResult actual = index.getParseResult();
+        assertEquals(describe(expected), describe(actual), text);
+        assertTrue(!expected.getQuestions().isEmpty() || !expected.getErrors().isEmpty() || text.trim().isEmpty());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * @(#)JavaScannerTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the keyword detection of {@link JavaScanner}, and that the symbol
+ * table does not grow while a text is edited.
+ */
+class JavaScannerTest implements TokenTypes {
+
+    @Test
+    void testKeywordsAndLiterals() {
+        String text = "if (done) return null; int x = truer;";
+        Scanner scanner = new JavaScanner();
+        scanner.change(0, 0, text.length());
+        scan(scanner, new StringBuilder(text), 100);
+
+        assertEquals(KEYWORD, typeAt(scanner, text.indexOf("if")));
+        assertEquals(IDENTIFIER, typeAt(scanner, text.indexOf("done")));
+        assertEquals(KEYWORD, typeAt(scanner, text.indexOf("return")));
+        assertEquals(LITERAL, typeAt(scanner, text.indexOf("null")));
+        assertEquals(KEYWORD, typeAt(scanner, text.indexOf("int")));
+        assertEquals(IDENTIFIER, typeAt(scanner, text.indexOf("truer")));
+    }
+
+    @Test
+    void testDeleteToEndOfText() {
+        String text = "if (done) return null;";
+        Scanner scanner = new JavaScanner();
+        scanner.change(0, 0, text.length());
+        scan(scanner, new StringBuilder(text), 100);
+
+        scanner.change(2, text.length() - 2, 0);
+        scan(scanner, new StringBuilder("if"), 100);
+        assertEquals(2, scanner.size());
+        scanner.change(0, 2, 0);
+        scan(scanner, new StringBuilder(), 100);
+        assertEquals(1, scanner.size());
+        assertEquals(-1, scanner.position());
+    }
+
+    @Test
+    void testGetTokenAtWhileScanning() {
+        String text = "if (done) return null; // x\nint x = 1;";
+        Scanner scanner = new JavaScanner();
+        scanner.change(0, 0, text.length());
+        scan(scanner, new StringBuilder(text), 100);
+        int[] expected = new int[text.length()];
+        int[] bounds = new int[2];
+        for (int p = 0; p < text.length(); p++) {
+            expected[p] = scanner.getTokenAt(p, bounds);
+            assertTrue(bounds[0] <= p && p < bounds[1], "bounds at " + p);
+            assertEquals(typeAt(scanner, p), expected[p], "type at " + p);
+        }
+
+        // Before the text is rescanned, the old tokens are used outside of
+        // the changed text
+        String insert = "/* ";
+        int offset = text.indexOf("return");
+        scanner.change(offset, 0, insert.length());
+        int position = scanner.position();
+        assertTrue(position >= 0 && position <= offset);
+        for (int p = 0; p < text.length() + insert.length(); p++) {
+            int type = scanner.getTokenAt(p, bounds);
+            assertTrue(bounds[0] <= p && p < bounds[1], "bounds at " + p);
+            if (p < position) {
+                assertEquals(expected[p], type, "type at " + p);
+            } else if (p >= text.indexOf(" null") + insert.length()) {
+                assertEquals(expected[p - insert.length()], type, "type at " + p);
+            }
+        }
+    }
+
+    /**
+     * Simulates a long editing session, in which many different words are
+     * typed, while the length of the text stays about the same.
+     */
+    @Test
+    void testLongSessionHasStableHeap() {
+        Random random = new Random(22);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < 4000) {
+            text.append("int ").append(randomWord(random)).append(" = null;\n");
+        }
+        Scanner scanner = new JavaScanner();
+        int symbols = scanner.symbolTable.size();
+        scanner.change(0, 0, text.length());
+        scan(scanner, text, 100);
+
+        long usedAfterWarmUp = 0;
+        for (int i = 0; i < 40000; i++) {
+            if (i == 5000) {
+                usedAfterWarmUp = usedMemory();
+            }
+            // Replace a word by a new word
+            int start = random.nextInt(text.length() - 20);
+            int len = 1 + random.nextInt(12);
+            String word = " " + randomWord(random);
+            text.delete(start, start + len);
+            scanner.change(start, len, 0);
+            scan(scanner, text, 100);
+            text.insert(start, word);
+            scanner.change(start, 0, word.length());
+            scan(scanner, text, 100);
+        }
+
+        assertEquals(symbols, scanner.symbolTable.size());
+        long growth = usedMemory() - usedAfterWarmUp;
+        assertTrue(growth < 2 << 20, "heap grew by " + growth + " bytes");
+    }
+
+    private static String randomWord(Random random) {
+        char[] word = new char[4 + random.nextInt(8)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    private static int typeAt(Scanner scanner, int position) {
+        return scanner.getTokenType(scanner.find(position + 1));
+    }
+
+    /**
+     * Scans the remaining text in portions of the specified size, like
+     * {@code SyntaxHighlighter} does.
+     */
+    private static void scan(Scanner scanner, StringBuilder text, int amount) {
+        char[] chars = text.toString().toCharArray();
+        for (int offset = scanner.position(); offset >= 0; offset = scanner.position()) {
+            int length = Math.min(amount, chars.length - offset);
+            if (scanner.scan(chars, offset, length) == 0) {
+                amount *= 2;
+            }
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
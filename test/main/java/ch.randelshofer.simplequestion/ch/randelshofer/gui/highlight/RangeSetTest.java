@@ -0,0 +1,91 @@
+/*
+ * @(#)RangeSetTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link RangeSet} against a {@code BitSet} with one bit per text
+ * position.
+ */
+class RangeSetTest {
+
+    @Test
+    void testAddAndRemove() {
+        RangeSet set = new RangeSet();
+        set.add(10, 20);
+        set.add(30, 40);
+        set.add(20, 25);
+        assertEquals("[10-25, 30-40]", set.toString());
+        set.add(5, 35);
+        assertEquals("[5-40]", set.toString());
+        set.remove(10, 20);
+        assertEquals("[5-10, 20-40]", set.toString());
+        set.remove(0, 30);
+        assertEquals("[30-40]", set.toString());
+    }
+
+    @Test
+    void testChange() {
+        RangeSet set = new RangeSet();
+        set.add(10, 20);
+        set.add(30, 40);
+        set.change(15, 0, 5);
+        assertEquals("[10-15, 20-25, 35-45]", set.toString());
+        set.change(20, 20, 0);
+        assertEquals("[10-15, 20-25]", set.toString());
+        set.change(0, 12, 2);
+        assertEquals("[2-5, 10-15]", set.toString());
+    }
+
+    @Test
+    void testRandomOperations() {
+        Random random = new Random(24);
+        RangeSet set = new RangeSet();
+        BitSet bits = new BitSet();
+        int length = 200;
+        for (int i = 0; i < 5000; i++) {
+            int start = random.nextInt(length);
+            int end = Math.min(length, start + random.nextInt(30));
+            switch (random.nextInt(3)) {
+                case 0:
+                    set.add(start, end);
+                    bits.set(start, end);
+                    break;
+                case 1:
+                    set.remove(start, end);
+                    bits.clear(start, end);
+                    break;
+                default:
+                    // Replace the text between start and end by new text,
+                    // the new text is not in the set
+                    int inserted = random.nextInt(30);
+                    set.change(start, end - start, inserted);
+                    BitSet moved = bits.get(0, start);
+                    for (int b = bits.nextSetBit(end); b >= 0; b = bits.nextSetBit(b + 1)) {
+                        moved.set(b - end + start + inserted);
+                    }
+                    bits = moved;
+                    length += inserted - (end - start);
+                    break;
+            }
+            assertEquals(toString(bits), set.toString());
+        }
+    }
+
+    private static String toString(BitSet bits) {
+        RangeSet set = new RangeSet();
+        for (int b = bits.nextSetBit(0); b >= 0; b = bits.nextSetBit(b + 1)) {
+            set.add(b, b + 1);
+        }
+        return set.toString();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * @(#)SyntaxHighlighterTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.gui.highlight;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+import javax.swing.text.Style;
+import javax.swing.text.StyleContext;
+import javax.swing.text.StyledDocument;
+import java.awt.Color;
+import java.awt.Font;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link SyntaxHighlighter} paints all tokens of the document with
+ * their styles, while the document is edited during highlighting, and that
+ * the document stays plain text.
+ */
+class SyntaxHighlighterTest implements TokenTypes {
+
+    @Test
+    void testHighlightWhileEditing() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            buf.append("if (done) return null; // line ").append(i).append('\n');
+        }
+        Scanner scanner = new JavaScanner();
+        SyntaxHighlighter[] highlighter = new SyntaxHighlighter[1];
+        SwingUtilities.invokeAndWait(() -> {
+            highlighter[0] = new SyntaxHighlighter(24, 80, scanner);
+            highlighter[0].setText(buf.toString());
+        });
+
+        // Edit the document while it is being highlighted
+        Random random = new Random(23);
+        for (int i = 0; i < 50; i++) {
+            SwingUtilities.invokeAndWait(() -> {
+                StyledDocument doc = highlighter[0].getStyledDocument();
+                int offset = random.nextInt(doc.getLength());
+                try {
+                    if (random.nextBoolean()) {
+                        doc.remove(offset, Math.min(10, doc.getLength() - offset));
+                    } else {
+                        doc.insertString(offset, "int x = \"a\"; /* c */", null);
+                    }
+                } catch (BadLocationException e) {
+                    throw new AssertionError(e);
+                }
+            });
+        }
+
+        waitUntilHighlighted(highlighter[0]);
+        SwingUtilities.invokeAndWait(() -> assertTokensHaveStyle(highlighter[0], scanner));
+    }
+
+    @Test
+    void testVisibleTextIsUpdatedFirst() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            buf.append("if (done) return null; // line ").append(i).append('\n');
+        }
+        int visible = buf.length() / 2;
+        List<int[]> updates = new ArrayList<int[]>();
+        Scanner scanner = new JavaScanner();
+        SyntaxHighlighter[] highlighter = new SyntaxHighlighter[1];
+        SwingUtilities.invokeAndWait(() -> {
+            highlighter[0] = new SyntaxHighlighter(24, 80, scanner) {
+                @Override
+                int getVisibleStart() {
+                    return visible;
+                }
+
+                @Override
+                int getVisibleEnd() {
+                    return visible + 2000;
+                }
+
+                @Override
+                void updateViews(int start, int end) {
+                    updates.add(new int[]{start, end});
+                    super.updateViews(start, end);
+                }
+            };
+            highlighter[0].setText(buf.toString());
+        });
+        int keyword = buf.indexOf("return", visible + 1000);
+        int firstKeyword = buf.indexOf("return");
+
+        // Block the event dispatch thread until the document has been
+        // scanned, so that the order of the updates does not depend on how
+        // fast the document is scanned
+        SwingUtilities.invokeAndWait(() -> {
+            long deadline = System.currentTimeMillis() + 20000;
+            while (highlighter[0].isScanning()) {
+                assertFalse(System.currentTimeMillis() > deadline, "scanning did not finish");
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        });
+        waitUntilHighlighted(highlighter[0]);
+
+        int visibleUpdate = -1, firstUpdate = -1;
+        for (int i = 0; i < updates.size(); i++) {
+            int[] update = updates.get(i);
+            if (visibleUpdate == -1 && update[0] <= keyword && keyword < update[1]) {
+                visibleUpdate = i;
+            }
+            if (firstUpdate == -1 && update[0] <= firstKeyword && firstKeyword < update[1]) {
+                firstUpdate = i;
+            }
+        }
+        assertTrue(visibleUpdate != -1 && firstUpdate != -1, "the text was not updated");
+        assertTrue(visibleUpdate < firstUpdate, "the start of the text was updated before the visible text");
+        SwingUtilities.invokeAndWait(() -> assertTokensHaveStyle(highlighter[0], scanner));
+    }
+
+    @Test
+    void testStyleRunsMatchTheTokens() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            buf.append("if (done) return null; // line ").append(i).append("\n\t/* c */ int x = \"a\";\n");
+        }
+        Scanner scanner = new JavaScanner();
+        SyntaxHighlighter[] highlighter = new SyntaxHighlighter[1];
+        SwingUtilities.invokeAndWait(() -> {
+            highlighter[0] = new SyntaxHighlighter(24, 80, scanner);
+            highlighter[0].setText(buf.toString());
+        });
+        waitUntilHighlighted(highlighter[0]);
+        SwingUtilities.invokeAndWait(() -> {
+            SyntaxHighlighter h = highlighter[0];
+            Random random = new Random(7);
+            StyleRuns runs = new StyleRuns();
+            int[] bounds = new int[2];
+            for (int i = 0; i < 500; i++) {
+                int p0 = random.nextInt(buf.length());
+                int p1 = Math.min(buf.length(), p0 + random.nextInt(200));
+                h.getStyleRuns(p0, p1, runs);
+                assertEquals(p0 == p1, runs.size() == 0);
+                for (int j = 0, p = p0; j < runs.size(); j++) {
+                    int end = runs.getEnd(j);
+                    assertTrue(p < end && end <= p1, "run " + j + " of " + p0 + ".." + p1);
+                    if (j > 0) {
+                        assertTrue(runs.getStyle(j - 1) != runs.getStyle(j), "runs are not merged");
+                    }
+                    for (; p < end; p++) {
+                        assertSame(h.getStyleAt(p, bounds), runs.getStyle(j), "style at " + p);
+                    }
+                }
+                if (runs.size() > 0) {
+                    assertEquals(p1, runs.getEnd(runs.size() - 1));
+                }
+            }
+        });
+    }
+
+    @Test
+    void testViewsMeasureTokensWithTheirFont() throws Exception {
+        String line = "if (done) return null; // line\n";
+        Scanner scanner = new JavaScanner();
+        SyntaxHighlighter[] highlighter = new SyntaxHighlighter[1];
+        SwingUtilities.invokeAndWait(() -> {
+            highlighter[0] = new SyntaxHighlighter(24, 80, scanner);
+            highlighter[0].changeStyle(KEYWORD, Color.blue, Font.BOLD);
+            highlighter[0].setText(line + line);
+            highlighter[0].setSize(2000, 200);
+        });
+        waitUntilHighlighted(highlighter[0]);
+        SwingUtilities.invokeAndWait(() -> {
+            SyntaxHighlighter h = highlighter[0];
+            Style keywordStyle = h.getStyle(typeNames[KEYWORD]);
+            Font bold = StyleContext.getDefaultStyleContext().getFont(keywordStyle);
+            int start = line.indexOf("return");
+            int end = start + "return".length();
+            try {
+                float width = (float) (h.modelToView2D(end).getX() - h.modelToView2D(start).getX());
+                assertEquals(h.getFontMetrics(bold).stringWidth("return"), width, 1f);
+            } catch (BadLocationException e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    private static void waitUntilHighlighted(SyntaxHighlighter highlighter)
+            throws InterruptedException, InvocationTargetException {
+        boolean[] isHighlighting = {true};
+        for (long deadline = System.currentTimeMillis() + 20000; isHighlighting[0]; ) {
+            assertFalse(System.currentTimeMillis() > deadline, "highlighting did not finish");
+            Thread.sleep(10);
+            SwingUtilities.invokeAndWait(() -> isHighlighting[0] = highlighter.isHighlighting());
+        }
+    }
+
+    private static void assertTokensHaveStyle(SyntaxHighlighter highlighter, Scanner scanner) {
+        int[] bounds = new int[2];
+        for (int n = 0; n < scanner.size() - 1; n++) {
+            int type = scanner.getTokenType(n);
+            Style style = highlighter.getStyle(typeNames[type < 0 ? UNRECOGNIZED : type]);
+            if (style == null) {
+                continue;
+            }
+            int position = scanner.getTokenPosition(n);
+            assertSame(style, highlighter.getStyleAt(position, bounds),
+                    "token " + n + " at " + position + " has not the style " + typeNames[type]);
+            assertEquals(position, bounds[0]);
+            assertEquals(position + scanner.getTokenLength(n), bounds[1]);
+        }
+
+        // Highlighting does not set character attributes
+        StyledDocument doc = highlighter.getStyledDocument();
+        for (int p = 0; p < doc.getLength(); ) {
+            Element elem = doc.getCharacterElement(p);
+            assertEquals(0, elem.getAttributes().getAttributeCount(), "element at " + p);
+            p = elem.getEndOffset();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * @(#)DeploymentManifestTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.scorm;
+
+import ch.randelshofer.util.TestFiles;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which files {@link DeploymentManifest} considers up to date, and
+ * which files it deletes.
+ */
+class DeploymentManifestTest {
+
+    private static final long PAST = System.currentTimeMillis() - 3600 * 1000;
+
+    /**
+     * Deploys a file, if it is not up to date.
+     *
+     * @return true if the file has been written
+     */
+    private static boolean deploy(DeploymentManifest deployment, Path dir, String path, String content) throws IOException {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        if (deployment.isUpToDate(path, DeploymentManifest.contentKey(data))) {
+            return false;
+        }
+        Path file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, data);
+        // Make sure that a later write changes the modification time
+        Files.setLastModifiedTime(file, FileTime.fromMillis(PAST));
+        return true;
+    }
+
+    @Test
+    void testIncrementalDeployment() throws IOException {
+        Path dir = Files.createTempDirectory("DeploymentManifestTest");
+        Path outside = Files.createTempFile("DeploymentManifestTest", ".txt");
+        try {
+            DeploymentManifest deployment = new DeploymentManifest(dir.toFile(), true);
+            assertTrue(deploy(deployment, dir, "index.html", "index"));
+            assertTrue(deploy(deployment, dir, "course/a.html", "a"));
+            assertTrue(deploy(deployment, dir, "course/b.html", "b"));
+            assertTrue(deploy(deployment, dir, "course/old/c.html", "c"));
+            assertTrue(deploy(deployment, dir, "course/edited.html", "e"));
+            deployment.deleteStale();
+            deployment.save();
+
+            // Nothing has changed
+            deployment = new DeploymentManifest(dir.toFile(), true);
+            assertFalse(deploy(deployment, dir, "index.html", "index"));
+            assertFalse(deploy(deployment, dir, "course/a.html", "a"));
+            assertFalse(deploy(deployment, dir, "course/b.html", "b"));
+            assertFalse(deploy(deployment, dir, "course/old/c.html", "c"));
+            assertFalse(deploy(deployment, dir, "course/edited.html", "e"));
+            deployment.deleteStale();
+            deployment.save();
+
+            // A file has been modified in the target directory
+            Files.write(dir.resolve("course/edited.html"), "edited by hand".getBytes(StandardCharsets.UTF_8));
+            // A manifest entry which points outside of the directory is ignored
+            Files.write(dir.resolve(DeploymentManifest.FILE_NAME),
+                    ("crc:0:0\t0\t0\t../" + outside.getFileName() + "\n").getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+
+            deployment = new DeploymentManifest(dir.toFile(), true);
+            assertFalse(deploy(deployment, dir, "index.html", "index"));
+            assertTrue(deploy(deployment, dir, "course/a.html", "changed"));
+            assertTrue(deploy(deployment, dir, "course/edited.html", "e"));
+            assertTrue(deploy(deployment, dir, "course/new.html", "new"));
+            deployment.deleteStale();
+            deployment.save();
+
+            assertFalse(Files.exists(dir.resolve("course/b.html")));
+            assertFalse(Files.exists(dir.resolve("course/old")));
+            assertTrue(Files.exists(outside));
+            assertEquals("e", new String(Files.readAllBytes(dir.resolve("course/edited.html")), StandardCharsets.UTF_8));
+
+            // A full deployment ignores and removes the manifest
+            deployment = new DeploymentManifest(dir.toFile(), false);
+            assertFalse(Files.exists(dir.resolve(DeploymentManifest.FILE_NAME)));
+            assertTrue(deploy(deployment, dir, "index.html", "index"));
+            deployment.deleteStale();
+            deployment.save();
+            assertTrue(Files.exists(dir.resolve("course/a.html")));
+            assertFalse(Files.exists(dir.resolve(DeploymentManifest.FILE_NAME)));
+        } finally {
+            TestFiles.delete(dir);
+            Files.deleteIfExists(outside);
+        }
+    }
+}
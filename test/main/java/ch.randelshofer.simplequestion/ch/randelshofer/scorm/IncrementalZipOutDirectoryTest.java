@@ -0,0 +1,155 @@
+/*
+ * @(#)IncrementalZipOutDirectoryTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.scorm;
+
+import ch.randelshofer.util.TestFiles;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks which files {@link IncrementalZipOutDirectory} writes and deletes,
+ * that a failed export keeps the previous deployment, and that {@link CourseModel} saves the incrementalDeployment property.
+ */
+class IncrementalZipOutDirectoryTest {
+
+    private static final long PAST = System.currentTimeMillis() - 3600 * 1000;
+
+    /**
+     * Writes the entries, and sets the modification time of the files to
+     * the past before the manifest is saved, so that we can tell which files
+     * are written by the next export.
+     *
+     * @param entries name and content pairs
+     */
+    private static void export(Path dir, String... entries) throws IOException {
+        try (IncrementalZipOutDirectory zout = new IncrementalZipOutDirectory(dir.toFile())) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zout.putNextEntry(new ZipEntry(entries[i]));
+                if (entries[i + 1] != null) {
+                    zout.getOutputStream().write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            zout.closeEntry();
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.filter(Files::isRegularFile).forEach(p -> p.toFile().setLastModified(PAST));
+            }
+            zout.finish();
+        }
+    }
+
+    private static boolean isWritten(Path file) throws IOException {
+        return !Files.getLastModifiedTime(file).equals(FileTime.fromMillis(PAST));
+    }
+
+    @Test
+    void testOnlyChangedFilesAreWritten() throws IOException {
+        Path dir = Files.createTempDirectory("IncrementalZipOutDirectoryTest");
+        try {
+            export(dir, "imsmanifest.xml", "manifest",
+                    "images/", null,
+                    "images/a.gif", "a",
+                    "q1.html", "1",
+                    "q2.html", "2");
+
+            try (IncrementalZipOutDirectory zout = new IncrementalZipOutDirectory(dir.toFile())) {
+                zout.putNextEntry(new ZipEntry("imsmanifest.xml"));
+                zout.write("changed".getBytes(StandardCharsets.UTF_8));
+                zout.putNextEntry(new ZipEntry("images/"));
+                zout.putNextEntry(new ZipEntry("images/a.gif"));
+                zout.write('a');
+                zout.putNextEntry(new ZipEntry("q1.html"));
+                zout.write('1');
+                zout.putNextEntry(new ZipEntry("q3.html"));
+                zout.write('3');
+                zout.closeEntry();
+                zout.finish();
+            }
+
+            assertTrue(isWritten(dir.resolve("imsmanifest.xml")));
+            assertEquals("changed", new String(Files.readAllBytes(dir.resolve("imsmanifest.xml")), StandardCharsets.UTF_8));
+            assertFalse(isWritten(dir.resolve("images/a.gif")));
+            assertFalse(isWritten(dir.resolve("q1.html")));
+            assertFalse(Files.exists(dir.resolve("q2.html")));
+            assertTrue(Files.exists(dir.resolve("q3.html")));
+        } finally {
+            TestFiles.delete(dir);
+        }
+    }
+
+    @Test
+    void testFailedExportKeepsThePreviousDeployment() throws IOException {
+        Path dir = Files.createTempDirectory("IncrementalZipOutDirectoryTest");
+        try {
+            export(dir, "imsmanifest.xml", "manifest",
+                    "q1.html", "1",
+                    "q2.html", "2",
+                    "q3.html", "3");
+            byte[] manifest = Files.readAllBytes(dir.resolve(DeploymentManifest.FILE_NAME));
+
+            // The export fails after it has written some of the files
+            try (IncrementalZipOutDirectory zout = new IncrementalZipOutDirectory(dir.toFile())) {
+                zout.putNextEntry(new ZipEntry("imsmanifest.xml"));
+                zout.write("changed".getBytes(StandardCharsets.UTF_8));
+                zout.putNextEntry(new ZipEntry("q1.html"));
+                zout.write('1');
+                zout.putNextEntry(new ZipEntry("q2.html"));
+                zout.write("partial".getBytes(StandardCharsets.UTF_8));
+            }
+
+            assertTrue(Files.exists(dir.resolve("q2.html")));
+            assertTrue(Files.exists(dir.resolve("q3.html")));
+            assertFalse(isWritten(dir.resolve("q2.html")));
+            assertArrayEquals(manifest, Files.readAllBytes(dir.resolve(DeploymentManifest.FILE_NAME)));
+
+            // The next export rewrites the file which the failed export has
+            // changed, although it has the content of the previous deployment
+            try (IncrementalZipOutDirectory zout = new IncrementalZipOutDirectory(dir.toFile())) {
+                zout.putNextEntry(new ZipEntry("imsmanifest.xml"));
+                zout.write("manifest".getBytes(StandardCharsets.UTF_8));
+                zout.putNextEntry(new ZipEntry("q1.html"));
+                zout.write('1');
+                zout.putNextEntry(new ZipEntry("q3.html"));
+                zout.write('3');
+                zout.finish();
+            }
+            assertEquals("manifest", new String(Files.readAllBytes(dir.resolve("imsmanifest.xml")), StandardCharsets.UTF_8));
+            assertFalse(isWritten(dir.resolve("q1.html")));
+            assertFalse(isWritten(dir.resolve("q3.html")));
+            assertFalse(Files.exists(dir.resolve("q2.html")));
+        } finally {
+            TestFiles.delete(dir);
+        }
+    }
+
+    @Test
+    void testIncrementalDeploymentIsSaved() throws IOException {
+        for (boolean value : new boolean[]{true, false}) {
+            CourseModel model = new CourseModel();
+            model.setIncrementalDeployment(value);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            model.saveProperties(out);
+
+            CourseModel loaded = new CourseModel();
+            loaded.setIncrementalDeployment(!value);
+            loaded.loadProperties(new ByteArrayInputStream(out.toByteArray()));
+            assertEquals(value, loaded.isIncrementalDeployment());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * @(#)FileNameIndexTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.scorm.cam;
+
+import ch.randelshofer.util.TestFiles;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the file names and the caching of {@link FileNameIndex}.
+ */
+class FileNameIndexTest {
+
+    private static final long HOUR = 3600 * 1000;
+
+    private static Set<String> set(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    private static void touch(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1});
+    }
+
+    private static void setLastModified(Path path, long millis) throws IOException {
+        Files.setLastModifiedTime(path, FileTime.fromMillis(millis));
+    }
+
+    @Test
+    void testDirectory() throws IOException {
+        Path root = Files.createTempDirectory("FileNameIndexTest");
+        try {
+            touch(root.resolve("imsmanifest.xml"));
+            touch(root.resolve(".hidden"));
+            touch(root.resolve("sub/a.html"));
+            touch(root.resolve("sub/deeper/b.css"));
+            touch(root.resolve(".hiddendir/c.js"));
+            Files.createDirectories(root.resolve("empty"));
+            long past = System.currentTimeMillis() - HOUR;
+            for (String dir : new String[]{"", "sub", "sub/deeper", ".hiddendir", "empty"}) {
+                setLastModified(root.resolve(dir), past);
+            }
+
+            Set<String> expected = set("imsmanifest.xml", "sub/a.html", "sub/deeper/b.css");
+            assertEquals(expected, FileNameIndex.getDirectoryFileNames(root.toFile()));
+            assertEquals(expected, FileNameIndex.getDirectoryFileNames(root.toFile()));
+
+            // Adding a file changes the modification time of the directory
+            touch(root.resolve("sub/deeper/new.js"));
+            expected.add("sub/deeper/new.js");
+            assertEquals(expected, FileNameIndex.getDirectoryFileNames(root.toFile()));
+
+            // The contents of a directory are cached as long as its
+            // modification time is unchanged.
+            setLastModified(root.resolve("sub/deeper"), past);
+            assertEquals(expected, FileNameIndex.getDirectoryFileNames(root.toFile()));
+            touch(root.resolve("sub/deeper/unnoticed.js"));
+            setLastModified(root.resolve("sub/deeper"), past);
+            assertEquals(expected, FileNameIndex.getDirectoryFileNames(root.toFile()));
+
+            // Removing a directory changes the modification time of its parent
+            TestFiles.delete(root.resolve("sub"));
+            assertEquals(set("imsmanifest.xml"), FileNameIndex.getDirectoryFileNames(root.toFile()));
+        } finally {
+            TestFiles.delete(root);
+        }
+    }
+
+    @Test
+    void testDirectoryCacheIsLimited() throws IOException {
+        Path root = Files.createTempDirectory("FileNameIndexTest");
+        try {
+            long past = System.currentTimeMillis() - HOUR;
+            File[] packages = new File[10];
+            for (int i = 0; i < packages.length; i++) {
+                Path dir = root.resolve("package" + i);
+                touch(dir.resolve("imsmanifest.xml"));
+                touch(dir.resolve("sub/a.html"));
+                setLastModified(dir.resolve("sub"), past);
+                setLastModified(dir, past);
+                packages[i] = dir.toFile();
+                assertEquals(set("imsmanifest.xml", "sub/a.html"), FileNameIndex.getDirectoryFileNames(packages[i]));
+                assertEquals(2, FileNameIndex.getCachedDirectoryCount(packages[i]));
+            }
+            // Only the most recently scanned packages are cached
+            assertEquals(-1, FileNameIndex.getCachedDirectoryCount(packages[0]));
+            assertEquals(-1, FileNameIndex.getCachedDirectoryCount(packages[1]));
+            assertEquals(2, FileNameIndex.getCachedDirectoryCount(packages[2]));
+
+            // Removed directories are removed from the cache
+            TestFiles.delete(root.resolve("package9/sub"));
+            setLastModified(root.resolve("package9"), past + 1000);
+            assertEquals(set("imsmanifest.xml"), FileNameIndex.getDirectoryFileNames(packages[9]));
+            assertEquals(1, FileNameIndex.getCachedDirectoryCount(packages[9]));
+        } finally {
+            TestFiles.delete(root);
+        }
+    }
+
+    private static void writeZip(File file, String... names) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            for (String name : names) {
+                out.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    out.write(new byte[1000]);
+                }
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    void testPIF() throws IOException {
+        File pif = File.createTempFile("FileNameIndexTest", ".zip");
+        try {
+            long past = System.currentTimeMillis() - HOUR;
+            writeZip(pif, "imsmanifest.xml", "dir/", "dir/a.html");
+            pif.setLastModified(past);
+
+            Set<String> names = FileNameIndex.getPIFFileNames(pif);
+            assertEquals(set("imsmanifest.xml", "dir/a.html"), names);
+            assertSame(names, FileNameIndex.getPIFFileNames(pif));
+
+            writeZip(pif, "imsmanifest.xml", "dir/", "dir/a.html", "dir/b.html");
+            pif.setLastModified(past + 1000);
+            assertEquals(set("imsmanifest.xml", "dir/a.html", "dir/b.html"), FileNameIndex.getPIFFileNames(pif));
+        } finally {
+            pif.delete();
+        }
+    }
+}
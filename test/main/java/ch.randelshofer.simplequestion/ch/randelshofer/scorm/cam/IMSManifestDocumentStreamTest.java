@@ -0,0 +1,204 @@
+/*
+ * @(#)IMSManifestDocumentStreamTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.scorm.cam;
+
+import ch.randelshofer.scorm.AbstractElement;
+import ch.randelshofer.scorm.lom.LOM;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreeNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that {@link IMSManifestDocument#readXMLStream} creates the same
+ * element tree as {@link IMSManifestDocument#readXML}.
+ */
+class IMSManifestDocumentStreamTest {
+
+    private static final String RICH_MANIFEST = ""
+            + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!-- exported by a test -->\n"
+            + "<manifest identifier=\"MANIFEST-1\" version=\"1.2\" xml:base=\"base/\" base=\"plain/\"\n"
+            + "    xmlns=\"" + CAM.IMSCP_NS + "\" xmlns:adlcp=\"" + CAM.ADLCP_NS + "\" xmlns:imsmd=\"" + LOM.NS + "\">\n"
+            + "  <metadata>\n"
+            + "    <schema>ADL <!-- c -->SCORM</schema>\n"
+            + "    <schemaversion>1.2</schemaversion>\n"
+            + "    <adlcp:location>meta.xml</adlcp:location>\n"
+            + "    <imsmd:lom>\n"
+            + "      <imsmd:general>\n"
+            + "        <imsmd:identifier>id</imsmd:identifier>\n"
+            + "        <imsmd:title><imsmd:langstring xml:lang=\"de\">Titel</imsmd:langstring>"
+            + "<imsmd:langstring lang=\"en\">Title</imsmd:langstring></imsmd:title>\n"
+            + "        <imsmd:catalogentry><imsmd:catalog>ISBN</imsmd:catalog>"
+            + "<imsmd:entry><imsmd:langstring>0-00</imsmd:langstring></imsmd:entry></imsmd:catalogentry>\n"
+            + "        <imsmd:language>de</imsmd:language>\n"
+            + "        <imsmd:description><imsmd:langstring>Fragen &amp; Antworten</imsmd:langstring></imsmd:description>\n"
+            + "        <imsmd:keyword><imsmd:langstring>k1</imsmd:langstring><imsmd:langstring>k2</imsmd:langstring></imsmd:keyword>\n"
+            + "        <imsmd:coverage><imsmd:langstring>cov</imsmd:langstring></imsmd:coverage>\n"
+            + "        <imsmd:structure><imsmd:source/></imsmd:structure>\n"
+            + "        <imsmd:aggregationlevel><imsmd:source><imsmd:langstring>LOMv1.0</imsmd:langstring></imsmd:source>"
+            + "<imsmd:value><imsmd:langstring>2</imsmd:langstring></imsmd:value></imsmd:aggregationlevel>\n"
+            + "      </imsmd:general>\n"
+            + "      <imsmd:lifecycle/><imsmd:metametadata/><imsmd:technical/><imsmd:educational/>\n"
+            + "      <imsmd:rights/><imsmd:relation/><imsmd:annotation/><imsmd:classification/>\n"
+            + "    </imsmd:lom>\n"
+            + "  </metadata>\n"
+            + "  <organizations default=\"ORG\">\n"
+            + "    <organization identifier=\"ORG\" structure=\"hierarchical\">\n"
+            + "      <title><![CDATA[<Kurs>]]> &lt;1&gt; <?pi data?></title>\n"
+            + "      <unknown><item identifier=\"HIDDEN\"/></unknown>\n"
+            + "      <item identifier=\"I1\" identifierref=\"R1\" isvisible=\"false\" parameters=\"?a=1&amp;b=2\">\n"
+            + "        <title>Eins</title>\n"
+            + "        <adlcp:datafromlms>data</adlcp:datafromlms>\n"
+            + "        <datafromlms>launch data</datafromlms>\n"
+            + "        <metadata><schema>s</schema></metadata>\n"
+            + "        <item identifier=\"I1.1\" identifierref=\"R2\"><title>Eins.Eins</title></item>\n"
+            + "      </item>\n"
+            + "      <item identifier=\"I2\"><title>Zwei</title></item>\n"
+            + "    </organization>\n"
+            + "    <organization identifier=\"ORG2\"><title>Other</title></organization>\n"
+            + "  </organizations>\n"
+            + "  <resources xml:base=\"res/\">\n"
+            + "    <resource identifier=\"R1\" type=\"webcontent\" adlcp:scormtype=\"sco\" href=\"r1.html\">\n"
+            + "      <metadata><schemaversion>1.2</schemaversion></metadata>\n"
+            + "      <metadata><schemaversion>ignored</schemaversion></metadata>\n"
+            + "      <file href=\"r1.html\"><file href=\"nested.html\"/></file>\n"
+            + "      <file href=\"style.css\"/>\n"
+            + "      <dependency identifierref=\"R2\"/>\n"
+            + "    </resource>\n"
+            + "    <resource identifier=\"R2\" type=\"text\" adlcp:href=\"r2.html\" xml:base=\"x/\"/>\n"
+            + "    <resource identifier=\"R3\" type=\"webcontent\" scormtype=\"asset\"><dependency/></resource>\n"
+            + "  </resources>\n"
+            + "  <manifest identifier=\"SUB\">\n"
+            + "    <organizations/>\n"
+            + "    <resources/>\n"
+            + "  </manifest>\n"
+            + "</manifest>\n";
+
+    private static IMSManifestDocument readDOM(String xml) throws Exception {
+        IMSManifestDocument doc = new IMSManifestDocument();
+        doc.readXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        return doc;
+    }
+
+    private static IMSManifestDocument readStream(String xml) throws IOException {
+        IMSManifestDocument doc = new IMSManifestDocument();
+        doc.readXMLStream(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        return doc;
+    }
+
+    /**
+     * Describes the class and the fields of all elements of the tree.
+     * References to elements are described by their preorder index.
+     */
+    private static String describe(IMSManifestDocument doc) throws IllegalAccessException {
+        IdentityHashMap<Object, Integer> indexes = new IdentityHashMap<>();
+        List<AbstractElement> elements = new ArrayList<>();
+        for (Enumeration<TreeNode> e = doc.preorderEnumeration(); e.hasMoreElements(); ) {
+            AbstractElement element = (AbstractElement) e.nextElement();
+            indexes.put(element, elements.size());
+            elements.add(element);
+        }
+        StringBuilder buf = new StringBuilder();
+        for (AbstractElement element : elements) {
+            buf.append('#').append(indexes.get(element)).append(' ').append(element.getClass().getName());
+            buf.append(" parent=").append(indexes.get(element.getParent()));
+            for (Class<?> c = element.getClass(); c != DefaultMutableTreeNode.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(f.getModifiers())) {
+                        continue;
+                    }
+                    f.setAccessible(true);
+                    buf.append(' ').append(f.getName()).append('=');
+                    describeValue(f.get(element), indexes, buf);
+                }
+            }
+            buf.append('\n');
+        }
+        return buf.toString();
+    }
+
+    private static void describeValue(Object value, Map<Object, Integer> indexes, StringBuilder buf) {
+        if (value instanceof AbstractElement) {
+            buf.append('#').append(indexes.get(value));
+        } else if (value instanceof Collection) {
+            buf.append('[');
+            for (Object o : (Collection<?>) value) {
+                describeValue(o, indexes, buf);
+                buf.append(',');
+            }
+            buf.append(']');
+        } else if (value instanceof Map) {
+            buf.append('{');
+            for (Map.Entry<?, ?> entry : new TreeMap<>((Map<?, ?>) value).entrySet()) {
+                buf.append(entry.getKey()).append(':');
+                describeValue(entry.getValue(), indexes, buf);
+                buf.append(',');
+            }
+            buf.append('}');
+        } else {
+            buf.append('[').append(value).append(']');
+        }
+    }
+
+    @Test
+    void testRichManifest() throws Exception {
+        String expected = describe(readDOM(RICH_MANIFEST));
+        assertEquals(expected, describe(readStream(RICH_MANIFEST)));
+    }
+
+    @Test
+    void testLargeManifest() throws Exception {
+        StringBuilder buf = new StringBuilder();
+        buf.append("<manifest identifier=\"M\" xmlns=\"").append(CAM.IMSCP_NS)
+                .append("\" xmlns:adlcp=\"").append(CAM.ADLCP_NS).append("\">\n");
+        buf.append("<organizations default=\"O\"><organization identifier=\"O\"><title>t</title>\n");
+        for (int i = 0; i < 500; i++) {
+            buf.append("<item identifier=\"I").append(i).append("\" identifierref=\"R").append(i)
+                    .append("\"><title>Frage ").append(i).append("</title></item>\n");
+        }
+        buf.append("</organization></organizations>\n<resources>\n");
+        for (int i = 0; i < 500; i++) {
+            buf.append("<resource identifier=\"R").append(i)
+                    .append("\" type=\"webcontent\" adlcp:scormtype=\"sco\" href=\"q").append(i).append(".html\">")
+                    .append("<file href=\"q").append(i).append(".html\"/><dependency identifierref=\"COMMON\"/></resource>\n");
+        }
+        buf.append("</resources></manifest>\n");
+        String xml = buf.toString();
+        assertEquals(describe(readDOM(xml)), describe(readStream(xml)));
+    }
+
+    @Test
+    void testInvalidManifestsAreRejected() {
+        String[] invalid = {
+                "<manifest xmlns=\"" + CAM.IMSCP_NS + "\"><organizations><organization>"
+                        + "<title>a</title><title>b</title></organization></organizations></manifest>",
+                "<manifest xmlns=\"" + CAM.IMSCP_NS + "\"><resources><resource>"
+                        + "<dependency identifierref=\"R\"> </dependency></resource></resources></manifest>",
+                "<resources xmlns=\"" + CAM.IMSCP_NS + "\"/>",
+                "<manifest xmlns=\"" + CAM.IMSCP_NS + "\"><resources>",
+        };
+        for (String xml : invalid) {
+            assertThrows(Exception.class, () -> readDOM(xml), xml);
+            assertThrows(IOException.class, () -> readStream(xml), xml);
+        }
+    }
+}
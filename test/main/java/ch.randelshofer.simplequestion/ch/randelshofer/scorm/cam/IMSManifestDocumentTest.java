@@ -0,0 +1,131 @@
+/*
+ * @(#)IMSManifestDocumentTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.scorm.cam;
+
+import ch.randelshofer.scorm.AbstractElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the validation of identifiers and identifierrefs with the indexes
+ * of {@link IMSManifestDocument}.
+ */
+class IMSManifestDocumentTest {
+
+    private static final String MANIFEST = ""
+            + "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<manifest identifier=\"M\" xmlns=\"" + CAM.IMSCP_NS + "\" xmlns:adlcp=\"" + CAM.ADLCP_NS + "\">\n"
+            + "  <organizations default=\"O\">\n"
+            + "    <organization identifier=\"O\">\n"
+            + "      <title>Course</title>\n"
+            + "      <item identifier=\"I1\" identifierref=\"R1\"><title>1</title></item>\n"
+            + "      <item identifier=\"I2\" identifierref=\"MISSING\"><title>2</title></item>\n"
+            + "      <item identifier=\"I3\"><title>3</title>\n"
+            + "        <item identifier=\"I4\" identifierref=\"R3\"><title>4</title></item>\n"
+            + "      </item>\n"
+            + "    </organization>\n"
+            + "  </organizations>\n"
+            + "  <resources>\n"
+            + "    <resource identifier=\"R1\" type=\"webcontent\" adlcp:scormtype=\"sco\">\n"
+            + "      <dependency identifierref=\"R2\"/>\n"
+            + "    </resource>\n"
+            + "    <resource identifier=\"R2\" type=\"webcontent\" adlcp:scormtype=\"asset\"/>\n"
+            + "    <resource identifier=\"R3\" type=\"webcontent\" adlcp:scormtype=\"asset\"/>\n"
+            + "    <resource identifier=\"R3\" type=\"webcontent\" adlcp:scormtype=\"asset\"/>\n"
+            + "    <resource identifier=\"R4\" type=\"webcontent\" adlcp:scormtype=\"asset\">\n"
+            + "      <dependency identifierref=\"I1\"/>\n"
+            + "    </resource>\n"
+            + "  </resources>\n"
+            + "</manifest>\n";
+
+    private IMSManifestDocument doc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doc = new IMSManifestDocument();
+        doc.readXML(new ByteArrayInputStream(MANIFEST.getBytes(StandardCharsets.UTF_8)));
+        // Validation expects the document to be the first child of the root
+        // node, as in CourseModel.
+        new DefaultMutableTreeNode().add(doc);
+        doc.validateSubtree();
+    }
+
+    private ResourceElement resource(String identifier) {
+        return doc.getResourcesElement().findResource(identifier);
+    }
+
+    @Test
+    void testIdentifiers() {
+        assertTrue(doc.isIdentifierValid());
+        assertTrue(resource("R1").isIdentifierValid());
+        List<AbstractElement> duplicates = doc.getElementsByIdentifier("R3");
+        assertEquals(2, duplicates.size());
+        assertFalse(duplicates.get(0).isIdentifierValid());
+        assertFalse(duplicates.get(1).isIdentifierValid());
+        assertSame(duplicates.get(0), resource("R3"));
+        assertTrue(doc.getElementsByIdentifier("MISSING").isEmpty());
+    }
+
+    @Test
+    void testIdentifierrefs() {
+        ItemElement i1 = (ItemElement) doc.findSubtreeByIdentifier("I1");
+        ItemElement i2 = (ItemElement) doc.findSubtreeByIdentifier("I2");
+        ItemElement i4 = (ItemElement) doc.findSubtreeByIdentifier("I4");
+        assertTrue(i1.isIdentifierrefValid());
+        assertSame(resource("R1"), i1.getResource());
+        assertFalse(i2.isIdentifierrefValid());
+        assertFalse(i2.isValid());
+        assertTrue(i4.isIdentifierrefValid());
+
+        // A dependency must reference an element in the resources.
+        DependencyElement d4 = (DependencyElement) resource("R4").getChildAt(0);
+        assertFalse(d4.isIdentifierrefValid());
+        DependencyElement d1 = (DependencyElement) resource("R1").getChildAt(0);
+        assertTrue(d1.isIdentifierrefValid());
+        assertSame(resource("R2"), d1.getResource());
+    }
+
+    @Test
+    void testReferences() {
+        assertTrue(resource("R1").isReferenced());
+        assertTrue(resource("R2").isReferenced());
+        assertTrue(resource("R3").isReferenced());
+        assertFalse(resource("R4").isReferenced());
+    }
+
+    @Test
+    void testIndexesFollowTreeEdits() {
+        ItemElement i1 = (ItemElement) doc.findSubtreeByIdentifier("I1");
+        OrganizationElement organization = (OrganizationElement) i1.getParent();
+        i1.removeFromParent();
+        assertNull(doc.findSubtreeByIdentifier("I1"));
+        doc.validateSubtree();
+        assertFalse(resource("R1").isReferenced());
+
+        organization.add(i1);
+        assertSame(i1, organization.findChildByIdentifier("I1"));
+        doc.validateSubtree();
+        assertTrue(resource("R1").isReferenced());
+
+        List<AbstractElement> duplicates = doc.getElementsByIdentifier("R3");
+        AbstractElement duplicate = duplicates.get(1);
+        duplicate.removeFromParent();
+        doc.validateSubtree();
+        assertTrue(resource("R3").isIdentifierValid());
+        assertEquals(1, doc.getElementsByIdentifier("R3").size());
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * @(#)BatchConverterTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.simplequestion;
+
+import ch.randelshofer.util.TestFiles;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks where {@link BatchConverter} writes its files, that a failed
+ * export leaves no file behind, and that an incremental conversion only
+ * rewrites the files which have changed.
+ */
+class BatchConverterTest {
+
+    private static File createGIFTFile(Path dir, String name) throws IOException {
+        Files.createDirectories(dir);
+        Path file = dir.resolve(name);
+        try (InputStream in = BatchConverterTest.class.getResourceAsStream(
+                "/ch/randelshofer/simplequestion/examples.txt")) {
+            Files.copy(in, file);
+        }
+        return file.toFile();
+    }
+
+    @Test
+    void testFilesInDirectoriesKeepTheirRelativePath() throws IOException {
+        Path root = Files.createTempDirectory("BatchConverterTest");
+        try {
+            File a = createGIFTFile(root.resolve("in/a"), "questions.gift");
+            File b = createGIFTFile(root.resolve("in/b"), "questions.gift");
+            File out = root.resolve("out").toFile();
+
+            BatchConverter converter = new BatchConverter();
+            converter.parseArguments(new String[]{"-o", out.getPath(), "-f", "ilias",
+                    root.resolve("in").toString()});
+            assertEquals(new File(out, "a" + File.separator + "questions_qpl.zip"), converter.getTarget(a));
+            assertEquals(new File(out, "b" + File.separator + "questions_qpl.zip"), converter.getTarget(b));
+        } finally {
+            TestFiles.delete(root);
+        }
+    }
+
+    @Test
+    void testFilesWithTheSameTargetAreRejected() throws IOException {
+        Path root = Files.createTempDirectory("BatchConverterTest");
+        try {
+            File a = createGIFTFile(root.resolve("a"), "questions.gift");
+            File b = createGIFTFile(root.resolve("b"), "questions.gift");
+            String out = root.resolve("out").toString();
+
+            assertThrows(IllegalArgumentException.class, () -> new BatchConverter().parseArguments(
+                    new String[]{"-o", out, a.getPath(), b.getPath()}));
+
+            // The same file is only converted once
+            BatchConverter converter = new BatchConverter();
+            converter.parseArguments(new String[]{"-o", out, a.getPath(), root.resolve("a").toString()});
+            assertEquals(new File(out, "questions_scorm.zip"), converter.getTarget(a));
+        } finally {
+            TestFiles.delete(root);
+        }
+    }
+
+    @Test
+    void testFailedExportLeavesNoFile() throws IOException {
+        Path root = Files.createTempDirectory("BatchConverterTest");
+        try {
+            // The examples contain an essay question, which can not be
+            // exported to SCORM
+            File file = createGIFTFile(root, "examples.gift");
+            BatchConverter converter = new BatchConverter();
+            converter.parseArguments(new String[]{file.getPath()});
+            File target = converter.getTarget(file);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int status = converter.convert(new PrintStream(out), new PrintStream(err));
+            assertEquals(1, status);
+            assertTrue(out.toString().startsWith("FAILED"), out.toString());
+            assertFalse(target.exists(), target + " exists");
+        } finally {
+            TestFiles.delete(root);
+        }
+    }
+
+    @Test
+    void testIncrementalConversionOnlyRewritesChangedFiles() throws IOException {
+        Path root = Files.createTempDirectory("BatchConverterTest");
+        try {
+            Path gift = root.resolve("questions.gift");
+            Files.write(gift, "::First:: Yes? {T}\n\n::Second:: No? {F}\n".getBytes(StandardCharsets.UTF_8));
+            // The templates are not part of the source tree
+            Path templates = root.resolve("templates");
+            Files.createDirectories(templates.resolve("style"));
+            Files.write(templates.resolve("style/style.css"), "body {}".getBytes(StandardCharsets.UTF_8));
+            String[] args = {"-f", "scorm-dir", "-i", "--templates", templates.toString(), gift.toString()};
+            BatchConverter converter = new BatchConverter();
+            converter.parseArguments(args);
+            File target = converter.getTarget(gift.toFile());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            assertEquals(0, converter.convert(new PrintStream(out), new PrintStream(out)), out.toString());
+            File[] pages = target.listFiles((dir, name) -> name.endsWith(".html"));
+            assertEquals(2, pages.length);
+
+            File first = new File(target, "1_first_sco.html");
+            FileTime firstModified = Files.getLastModifiedTime(first.toPath());
+
+            // A failed conversion keeps the previous deployment. An essay
+            // question can not be exported to SCORM.
+            File manifest = new File(target, ".tinylms-deployment");
+            byte[] deployed = Files.readAllBytes(manifest.toPath());
+            Files.write(gift, "::First:: Yes? {T}\n\n::Essay:: Why? {}\n".getBytes(StandardCharsets.UTF_8));
+            converter = new BatchConverter();
+            converter.parseArguments(args);
+            assertEquals(1, converter.convert(new PrintStream(out), new PrintStream(out)), out.toString());
+            assertEquals(2, target.listFiles((dir, name) -> name.endsWith(".html")).length);
+            assertArrayEquals(deployed, Files.readAllBytes(manifest.toPath()));
+
+            // Remove the second question
+            Files.write(gift, "::First:: Yes? {T}\n".getBytes(StandardCharsets.UTF_8));
+            converter = new BatchConverter();
+            converter.parseArguments(args);
+            assertEquals(0, converter.convert(new PrintStream(out), new PrintStream(out)), out.toString());
+            pages = target.listFiles((dir, name) -> name.endsWith(".html"));
+            assertEquals(1, pages.length);
+            assertEquals(first, pages[0]);
+            assertEquals(firstModified, Files.getLastModifiedTime(first.toPath()));
+        } finally {
+            TestFiles.delete(root);
+        }
+    }
+}
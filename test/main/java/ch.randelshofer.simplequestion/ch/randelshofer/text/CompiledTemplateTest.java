@@ -0,0 +1,53 @@
+/*
+ * @(#)CompiledTemplateTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompiledTemplateTest {
+
+    private static final String TEMPLATE = "<h1>${title}</h1>\n{${ body }}$x ${title}$";
+
+    @Test
+    void testRenderByKey() throws IOException {
+        CompiledTemplate t = TemplateEngine.compile(new StringReader(TEMPLATE));
+        assertEquals("<h1>T</h1>\n{B}$x T$", t.render("title", "T", "body", "B"));
+        assertEquals("<h1>T2</h1>\n{B}$x T2$", t.render("title", "T", "body", "B", "title", "T2"));
+        assertEquals("<h1>T</h1>\n{B}$x T$", TemplateEngine.process(TEMPLATE, "title", "T", "body", "B"));
+    }
+
+    @Test
+    void testRenderBySlot() throws IOException {
+        CompiledTemplate t = TemplateEngine.compile(new StringReader(TEMPLATE));
+        assertEquals(2, t.getSlotCount());
+        assertEquals("title", t.getSlotKey(0));
+        assertEquals(1, t.getSlotIndex("body"));
+        assertEquals(-1, t.getSlotIndex("unknown"));
+
+        String[] values = {"T", "B"};
+        StringWriter out = new StringWriter();
+        t.renderSlots(out, values);
+        assertEquals("<h1>T</h1>\n{B}$x T$", out.toString());
+        assertEquals(out.toString().length(), t.getSize(values));
+        assertArrayEquals(values, t.bind("body", "B", "title", "T", "unknown", "U"));
+    }
+
+    @Test
+    void testMissingValueIsRenderedAsEmptyText() throws IOException {
+        CompiledTemplate t = TemplateEngine.compile(new StringReader(TEMPLATE));
+        assertEquals("<h1>T</h1>\n{}$x T$", t.render("title", "T"));
+        assertEquals("<h1></h1>\n{}$x $", TemplateEngine.process(TEMPLATE, new HashMap<String, String>()));
+        assertEquals(t.getSizeEstimate(), t.render().length());
+    }
+}
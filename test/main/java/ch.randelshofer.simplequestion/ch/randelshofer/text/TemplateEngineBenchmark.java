@@ -0,0 +1,96 @@
+/*
+ * @(#)TemplateEngineBenchmark.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+/**
+ * Compares processing a template with {@link TemplateEngine#process} with
+ * rendering a {@link CompiledTemplate}.
+ * <p>
+ * Usage: {@code java ch.randelshofer.text.TemplateEngineBenchmark [iterations]}
+ *
+ * @author Werner Randelshofer
+ * @version 1.0 2026-10-18 Created.
+ */
+public class TemplateEngineBenchmark {
+    private static final String[] KEY_VALUE_PAIRS = {
+            "chapter", "Chapter 1",
+            "title", "What is the answer?",
+            "middot", "&middot;",
+            "stylesheet", "<link rel=\"stylesheet\" href=\"style.css\">",
+            "question", "What is the answer to life, the universe and everything?",
+            "answer", "<input type=\"radio\" name=\"a\" value=\"42\">42<br>",
+            "resultProcessing", "if (document.forms[0].a.checked) { score = 1; }",
+            "footer", "1",
+            "instructions.title", "Instructions",
+            "instructions.task", "Select the correct answer.",
+            "instructions.correctAnswerTitle", "Correct",
+            "instructions.correctAnswerTask", "Continue with the next question.",
+            "instructions.incorrectAnswerTitle", "Incorrect",
+            "instructions.incorrectAnswerTask", "Try again.",
+            "judge", "Judge", "skip", "Skip", "reset", "Reset", "next", "Next"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        String template = readTemplate("/ch/randelshofer/gift/export/scorm/prototype_scorm_sc.html");
+        HashMap<String, String> map = new HashMap<String, String>();
+        for (int i = 0; i < KEY_VALUE_PAIRS.length; i += 2) {
+            map.put(KEY_VALUE_PAIRS[i], KEY_VALUE_PAIRS[i + 1]);
+        }
+        CompiledTemplate compiled = TemplateEngine.compile(new StringReader(template));
+
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                StringWriter out = new StringWriter();
+                TemplateEngine.process(out, new StringReader(template), map);
+                sink += out.getBuffer().length();
+            }
+            long process = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += compiled.render(KEY_VALUE_PAIRS).length();
+            }
+            long render = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            String[] slotValues = compiled.bind(KEY_VALUE_PAIRS);
+            Writer nullWriter = Writer.nullWriter();
+            for (int i = 0; i < iterations; i++) {
+                compiled.renderSlots(nullWriter, slotValues);
+            }
+            long renderSlots = System.nanoTime() - start;
+
+            System.out.printf("round %d: process %.2f us/op, render %.2f us/op, renderSlots (streaming) %.2f us/op (%d)%n",
+                    round, process / 1e3 / iterations, render / 1e3 / iterations,
+                    renderSlots / 1e3 / iterations, sink);
+        }
+    }
+
+    private static String readTemplate(String name) throws IOException {
+        try (InputStream in = TemplateEngineBenchmark.class.getResourceAsStream(name);
+             Reader r = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            StringBuilder buf = new StringBuilder();
+            char[] cbuf = new char[8192];
+            for (int n = r.read(cbuf); n != -1; n = r.read(cbuf)) {
+                buf.append(cbuf, 0, n);
+            }
+            return buf.toString();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * @(#)FilesTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.util;
+
+import ch.randelshofer.gui.SilentProgressIndicator;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks {@link Files#copyFiles}.
+ */
+class FilesTest {
+
+    @Test
+    void testCopyFiles() throws IOException {
+        Path src = java.nio.file.Files.createTempDirectory("FilesTest");
+        Path tgt = java.nio.file.Files.createTempDirectory("FilesTest");
+        try {
+            List<String> names = new ArrayList<String>();
+            for (int i = 0; i < 100; i++) {
+                String name = "sub" + (i % 5) + "/deeper/file" + i + ".txt";
+                names.add(name);
+                Path file = src.resolve(name);
+                java.nio.file.Files.createDirectories(file.getParent());
+                java.nio.file.Files.write(file, ("file " + i).getBytes(StandardCharsets.UTF_8));
+            }
+            java.nio.file.Files.write(src.resolve("not-copied.txt"), new byte[1]);
+            // An existing file is replaced
+            java.nio.file.Files.createDirectories(tgt.resolve("sub0/deeper"));
+            java.nio.file.Files.write(tgt.resolve("sub0/deeper/file0.txt"), new byte[1000]);
+
+            SilentProgressIndicator p = new SilentProgressIndicator();
+            p.setMaximum(1000);
+            Files.copyFiles(src.toFile(), tgt.toFile(), names, p);
+
+            assertEquals(100, p.getProgress());
+            assertFalse(java.nio.file.Files.exists(tgt.resolve("not-copied.txt")));
+            for (String name : names) {
+                assertArrayEquals(java.nio.file.Files.readAllBytes(src.resolve(name)),
+                        java.nio.file.Files.readAllBytes(tgt.resolve(name)), name);
+            }
+
+            // A missing file fails the copy
+            File srcdir = src.toFile();
+            File tgtdir = tgt.toFile();
+            assertThrows(IOException.class, () -> Files.copyFiles(srcdir, tgtdir, Arrays.asList("missing.txt"), null));
+        } finally {
+            TestFiles.delete(src);
+            TestFiles.delete(tgt);
+        }
+    }
+}
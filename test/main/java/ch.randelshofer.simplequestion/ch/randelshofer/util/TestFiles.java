@@ -0,0 +1,30 @@
+/*
+ * @(#)TestFiles.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * File utilities which are shared by the tests.
+ */
+public final class TestFiles {
+
+    private TestFiles() {
+    }
+
+    /**
+     * Deletes the specified file, or the specified directory with all of its
+     * contents. Files which can not be deleted are left in place.
+     */
+    public static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = java.nio.file.Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
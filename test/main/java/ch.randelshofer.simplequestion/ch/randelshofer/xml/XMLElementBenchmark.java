@@ -0,0 +1,308 @@
+/*
+ * @(#)XMLElementBenchmark.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.xml;
+
+import nanoxml.XMLElement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Compares {@link XMLElement#write} and {@link XMLElement#print} with a
+ * reference implementation which writes and encodes each character
+ * individually, as nanoxml did before.
+ * <p>
+ * The benchmark writes a generated SCORM manifest with many items and
+ * resources. Then it compares parsing the manifest with
+ * {@link XMLElement#parseFromReader} and {@link XMLElement#parseCharArray}.
+ * <p>
+ * Usage: {@code java ch.randelshofer.xml.XMLElementBenchmark [items [iterations]]}
+ *
+ * @author Werner Randelshofer
+ * @version 1.1 2026-10-18 Added parsing.
+ * <br>1.0 2026-10-18 Created.
+ */
+public class XMLElementBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int items = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        XMLElement manifest = createManifest(items);
+
+        StringWriter expected = new StringWriter();
+        writeReference(manifest, expected);
+        StringWriter actual = new StringWriter();
+        manifest.write(actual);
+        if (!expected.toString().equals(actual.toString())) {
+            throw new AssertionError("write differs from the reference implementation");
+        }
+        expected = new StringWriter();
+        printReference(manifest, new PrintWriter(expected), 0);
+        actual = new StringWriter();
+        manifest.print(new PrintWriter(actual));
+        if (!expected.toString().equals(actual.toString())) {
+            throw new AssertionError("print differs from the reference implementation");
+        }
+        System.out.printf("manifest with %d items: %d characters%n", items, actual.getBuffer().length());
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Writer w = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+                writeReference(manifest, w);
+                w.flush();
+            }
+            long reference = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                Writer w = new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8);
+                manifest.write(w);
+                w.flush();
+            }
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                PrintWriter w = new PrintWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8));
+                printReference(manifest, w, 0);
+                w.flush();
+            }
+            long printReference = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                PrintWriter w = new PrintWriter(new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8));
+                manifest.print(w);
+                w.flush();
+            }
+            long print = System.nanoTime() - start;
+
+            System.out.printf("round %d: write reference %.2f ms/op, write %.2f ms/op, print reference %.2f ms/op, print %.2f ms/op%n",
+                    round, reference / 1e6 / iterations, write / 1e6 / iterations,
+                    printReference / 1e6 / iterations, print / 1e6 / iterations);
+        }
+
+        String text = actual.toString();
+        char[] chars = text.toCharArray();
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                XMLElement elem = new XMLElement(null, false, false);
+                elem.parseFromReader(new StringReader(text));
+                sink += elem.countChildren();
+            }
+            long parseFromReader = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                XMLElement elem = new XMLElement(null, false, false);
+                elem.parseCharArray(chars, 0, chars.length);
+                sink += elem.countChildren();
+            }
+            long parseCharArray = System.nanoTime() - start;
+
+            System.out.printf("round %d: parseFromReader %.2f ms/op, parseCharArray %.2f ms/op (%d)%n",
+                    round, parseFromReader / 1e6 / iterations, parseCharArray / 1e6 / iterations, sink);
+        }
+    }
+
+    /**
+     * Creates a manifest similar to the ones written by the SCORM exporter.
+     */
+    private static XMLElement createManifest(int items) {
+        XMLElement dom = new XMLElement(null, false, false);
+        XMLElement manifest = dom.createElement("manifest");
+        manifest.setAttribute("identifier", "MANIFEST-1");
+        manifest.setAttribute("xmlns", "http://www.imsproject.org/xsd/imscp_rootv1p1p2");
+        manifest.setAttribute("xmlns:adlcp", "http://www.adlnet.org/xsd/adlcp_rootv1p2");
+        XMLElement organizations = dom.createElement("organizations");
+        organizations.setAttribute("default", "ORG-1");
+        XMLElement organization = dom.createElement("organization");
+        organization.setAttribute("identifier", "ORG-1");
+        XMLElement title = dom.createElement("title");
+        title.setContent("Übungen zur Vorlesung \"Algorithmen & Datenstrukturen\"");
+        organization.addChild(title);
+        XMLElement resources = dom.createElement("resources");
+        for (int i = 0; i < items; i++) {
+            XMLElement item = dom.createElement("item");
+            item.setAttribute("identifier", "ITEM-" + i);
+            item.setAttribute("identifierref", "RES-" + i);
+            title = dom.createElement("title");
+            title.setContent("Frage " + i + ": Welche Aussagen über Bäume <b>treffen</b> zu?");
+            item.addChild(title);
+            organization.addChild(item);
+
+            XMLElement resource = dom.createElement("resource");
+            resource.setAttribute("identifier", "RES-" + i);
+            resource.setAttribute("type", "webcontent");
+            resource.setAttribute("adlcp:scormtype", "sco");
+            resource.setAttribute("href", "question_" + i + ".html");
+            XMLElement file = dom.createElement("file");
+            file.setAttribute("href", "question_" + i + ".html");
+            resource.addChild(file);
+            XMLElement dependency = dom.createElement("dependency");
+            dependency.setAttribute("identifierref", "COMMON");
+            resource.addChild(dependency);
+            resources.addChild(resource);
+        }
+        organizations.addChild(organization);
+        manifest.addChild(organizations);
+        manifest.addChild(resources);
+        return manifest;
+    }
+
+    private static void writeReference(XMLElement elem, Writer writer) throws IOException {
+        if (elem.getName() == null) {
+            writeEncodedReference(writer, elem.getContent());
+            return;
+        }
+        writer.write('<');
+        writer.write(elem.getName());
+        writeAttributesReference(elem, writer);
+        String contents = elem.getContent();
+        if (contents != null && contents.length() > 0) {
+            writer.write('>');
+            writeEncodedReference(writer, contents);
+            writer.write('<');
+            writer.write('/');
+            writer.write(elem.getName());
+            writer.write('>');
+        } else if (elem.getChildren().isEmpty()) {
+            writer.write('/');
+            writer.write('>');
+        } else {
+            writer.write('>');
+            for (XMLElement child : elem.getChildren()) {
+                writeReference(child, writer);
+            }
+            writer.write('<');
+            writer.write('/');
+            writer.write(elem.getName());
+            writer.write('>');
+        }
+    }
+
+    private static void printReference(XMLElement elem, PrintWriter writer, int indent) {
+        if (elem.getName() == null) {
+            writeEncodedReference(writer, elem.getContent());
+            return;
+        }
+        char[] spaces = new char[indent * 2];
+        Arrays.fill(spaces, ' ');
+        writer.write(spaces);
+        writer.write('<');
+        writer.write(elem.getName());
+        writeAttributesReference(elem, writer);
+        String contents = elem.getContent();
+        if (contents != null && contents.length() > 0) {
+            writer.write('>');
+            writeEncodedReference(writer, contents);
+            writer.write('<');
+            writer.write('/');
+            writer.write(elem.getName());
+            writer.write('>');
+        } else if (elem.getChildren().isEmpty()) {
+            writer.write('/');
+            writer.write('>');
+        } else {
+            writer.write('>');
+            writer.write('\n');
+            for (XMLElement child : elem.getChildren()) {
+                printReference(child, writer, indent + 1);
+            }
+            writer.write(spaces);
+            writer.write('<');
+            writer.write('/');
+            writer.write(elem.getName());
+            writer.write('>');
+        }
+        writer.write('\n');
+    }
+
+    private static void writeAttributesReference(XMLElement elem, Writer writer) {
+        try {
+            for (Iterator<String> i = elem.enumerateAttributeNames(); i.hasNext(); ) {
+                String key = i.next();
+                writer.write(' ');
+                writer.write(key);
+                writer.write('=');
+                writer.write('"');
+                writeEncodedReference(writer, elem.getAttribute(key));
+                writer.write('"');
+            }
+        } catch (IOException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    private static void writeEncodedReference(Writer writer, String str) {
+        try {
+            for (int i = 0; i < str.length(); i += 1) {
+                char ch = str.charAt(i);
+                switch (ch) {
+                    case '<':
+                        writer.write('&');
+                        writer.write('l');
+                        writer.write('t');
+                        writer.write(';');
+                        break;
+                    case '>':
+                        writer.write('&');
+                        writer.write('g');
+                        writer.write('t');
+                        writer.write(';');
+                        break;
+                    case '&':
+                        writer.write('&');
+                        writer.write('a');
+                        writer.write('m');
+                        writer.write('p');
+                        writer.write(';');
+                        break;
+                    case '"':
+                        writer.write('&');
+                        writer.write('q');
+                        writer.write('u');
+                        writer.write('o');
+                        writer.write('t');
+                        writer.write(';');
+                        break;
+                    case '\'':
+                        writer.write('&');
+                        writer.write('a');
+                        writer.write('p');
+                        writer.write('o');
+                        writer.write('s');
+                        writer.write(';');
+                        break;
+                    default:
+                        int unicode = (int) ch;
+                        if (unicode < 32 || unicode > 126) {
+                            writer.write('&');
+                            writer.write('#');
+                            writer.write('x');
+                            writer.write(Integer.toString(unicode, 16));
+                            writer.write(';');
+                        } else {
+                            writer.write(ch);
+                        }
+                }
+            }
+        } catch (IOException e) {
+            throw new InternalError(e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * @(#)XMLElementParseTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.xml;
+
+import nanoxml.XMLElement;
+import nanoxml.XMLParseException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Iterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that {@link XMLElement#parseCharArray} creates the same elements
+ * as {@link XMLElement#parseFromReader}.
+ */
+class XMLElementParseTest {
+
+    private static final String[] DOCUMENTS = {
+            "<a/>",
+            "<a x='1' y=\"2\" >text</a>",
+            "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+                    + "<!DOCTYPE manifest SYSTEM \"x.dtd\" [ <!ENTITY e \"v\"> ]>\n"
+                    + "<!-- comment -->\n"
+                    + "<manifest identifier=\"M\" xmlns:adlcp=\"http://www.adlnet.org\">\r\n"
+                    + "  <organizations default=\"O\">\r\n"
+                    + "    <organization identifier=\"O\"><title>&lt;&#x41;&#66;&amp;&quot;&apos;&gt; ä</title>\n"
+                    + "      <!-- nested comment --><item identifier=\"I\" identifierref=\"R\"\r\n isvisible='true'/>\n"
+                    + "    </organization>\n"
+                    + "  </organizations>\n"
+                    + "  <resources><resource identifier=\"R\" href=\"a&amp;b.html\" note=\"line\r\nbreak\"/></resources>\n"
+                    + "  <text>  leading\r\nand trailing  </text>\n"
+                    + "  <cdata><![CDATA[<not a tag> ]] ]>]]></cdata>\n"
+                    + "  <mixed>before<![CDATA[ inside ]]>after</mixed>\n"
+                    + "</manifest>\n",
+            "<many a1='1' a2='2' a3='3' a4='4' a5='5' a6='6' a7='7' a8='8' a9='9' a10='10'"
+                    + " a11='11' a12='12' a13='13' a14='14' a15='15' a16='16' a17='17' a18='18'"
+                    + " a19='19' a20='20' a21='21' a22='22' a23='23' a24='24' a25='25'><b/></many>",
+    };
+
+    private static String dump(XMLElement elem) {
+        StringBuilder buf = new StringBuilder();
+        dump(elem, buf);
+        return buf.toString();
+    }
+
+    private static void dump(XMLElement elem, StringBuilder buf) {
+        buf.append('<').append(elem.getName());
+        for (Iterator<String> i = elem.enumerateAttributeNames(); i.hasNext(); ) {
+            String key = i.next();
+            buf.append(' ').append(key).append("=[").append(elem.getAttribute(key)).append(']');
+        }
+        buf.append(">[").append(elem.getContent()).append(']');
+        for (XMLElement child : elem.getChildren()) {
+            dump(child, buf);
+        }
+        buf.append("</>");
+    }
+
+    @Test
+    void testCharArrayParserCreatesSameElements() throws IOException {
+        for (boolean skipWhitespace : new boolean[]{false, true}) {
+            for (boolean ignoreCase : new boolean[]{false, true}) {
+                for (String doc : DOCUMENTS) {
+                    XMLElement expected = new XMLElement(null, skipWhitespace, ignoreCase);
+                    expected.parseFromReader(new StringReader(doc));
+                    XMLElement actual = new XMLElement(null, skipWhitespace, ignoreCase);
+                    char[] input = ("  " + doc + "  ").toCharArray();
+                    actual.parseCharArray(input, 2, input.length - 2);
+                    assertEquals(dump(expected), dump(actual), doc);
+                    assertEquals(expected.toString(), actual.toString(), doc);
+
+                    actual = new XMLElement(null, skipWhitespace, ignoreCase);
+                    actual.parseString(doc);
+                    assertEquals(dump(expected), dump(actual), doc);
+                }
+            }
+        }
+    }
+
+    /**
+     * parseFromReader fails on these elements with a pushback buffer
+     * overflow.
+     */
+    @Test
+    void testEmptyElementWithEndTag() {
+        XMLElement elem = new XMLElement(null, true, false);
+        elem.parseString("<root><a></a><b>   </b></root>");
+        assertEquals("<root><a/><b/></root>", elem.toString());
+
+        elem = new XMLElement(null, false, false);
+        elem.parseString("<root><a></a><b>   </b></root>");
+        assertEquals("<root><a/><b>   </b></root>", elem.toString());
+    }
+
+    @Test
+    void testNamesAreInterned() {
+        XMLElement elem = new XMLElement(null, false, false);
+        elem.parseString("<root><child name='1'/><child name='2'/></root>");
+        String name = new String(new char[]{'c', 'h', 'i', 'l', 'd'});
+        assertSame(name.intern(), elem.getChildren().get(0).getName());
+        assertSame(elem.getChildren().get(0).getName(), elem.getChildren().get(1).getName());
+        assertSame("name", elem.getChildren().get(1).enumerateAttributeNames().next());
+    }
+
+    @Test
+    void testLineNumbers() {
+        XMLElement elem = new XMLElement(null, false, false);
+        elem.parseString("<?xml version='1.0'?>\r\n<root>\r\n<a/>\n\n<b\nx='1\n2'/><c/></root>");
+        assertEquals(2, elem.getLineNr());
+        assertEquals(3, elem.getChildren().get(0).getLineNr());
+        assertEquals(5, elem.getChildren().get(1).getLineNr());
+        assertEquals(7, elem.getChildren().get(2).getLineNr());
+
+        XMLParseException e = assertThrows(XMLParseException.class, () -> {
+            new XMLElement(null, false, false).parseString("<root>\n<a>\n</b></root>");
+        });
+        assertEquals(3, e.getLineNr());
+    }
+
+    @Test
+    void testIncompleteElementIsRejected() {
+        assertThrows(XMLParseException.class, () -> {
+            new XMLElement(null, false, false).parseString("<root><a/>");
+        });
+        assertThrows(XMLParseException.class, () -> {
+            new XMLElement(null, false, false).parseString("<root x='1");
+        });
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * @(#)XMLPrinterTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.xml;
+
+import nanoxml.XMLElement;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class XMLPrinterTest {
+
+    private static final String TEXT = "a<b>&\"c'\t\nä€😀\u007f~";
+
+    private static XMLElement createTree() {
+        XMLElement dom = new XMLElement(null, false, false);
+        XMLElement root = dom.createElement("root");
+        root.setAttribute("b", TEXT);
+        root.setAttribute("a", "1");
+        root.setAttribute("ident", "x");
+        XMLElement child = dom.createElement("child");
+        child.setContent(TEXT);
+        root.addChild(child);
+        root.addChild(dom.createElement("empty"));
+        XMLElement nested = dom.createElement("nested");
+        nested.addChild(dom.createElement("leaf"));
+        root.addChild(nested);
+        return root;
+    }
+
+    @Test
+    void testElementIsWrittenLikeXMLElement() throws IOException {
+        XMLElement root = createTree();
+        StringWriter expected = new StringWriter();
+        root.write(expected);
+
+        StringWriter actual = new StringWriter();
+        XMLPrinter p = new XMLPrinter(actual);
+        p.element(root);
+        p.flush();
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void testStreaming() throws IOException {
+        StringWriter out = new StringWriter();
+        XMLPrinter p = new XMLPrinter(out, false);
+        p.raw("<?xml version=\"1.0\"?>\n");
+        p.startElement("a");
+        p.attribute("x", "<ä>");
+        p.startElement("b");
+        p.text("");
+        p.endElement();
+        p.startElement("c");
+        p.text("1 & 2\r");
+        p.endElement();
+        p.endElement();
+        p.startElement("d");
+        p.endElement();
+        p.flush();
+        assertEquals("<?xml version=\"1.0\"?>\n<a x=\"&lt;ä&gt;\"><b/><c>1 &amp; 2&#xd;</c></a><d/>", out.toString());
+    }
+
+    @Test
+    void testLargeOutputIsNotTruncated() throws IOException {
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            buf.append(TEXT);
+        }
+        XMLElement dom = new XMLElement(null, false, false);
+        XMLElement root = dom.createElement("root");
+        root.setContent(buf.toString());
+        StringWriter expected = new StringWriter();
+        root.write(expected);
+
+        StringWriter actual = new StringWriter();
+        XMLPrinter p = new XMLPrinter(actual);
+        p.element(root);
+        p.flush();
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * @(#)ParallelZipOutStreamTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.zip;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelZipOutStreamTest {
+
+    /**
+     * Creates entries of various sizes, including entries which span
+     * several blocks, a directory, an empty entry and a STORED entry.
+     */
+    private static Map<String, byte[]> createEntries() {
+        Random rnd = new Random(7);
+        LinkedHashMap<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+        entries.put("dir/", new byte[0]);
+        entries.put("empty.txt", new byte[0]);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            text.append("Question ").append(rnd.nextInt(1000)).append(" {=yes ~no}\n");
+        }
+        byte[] large = text.toString().getBytes(StandardCharsets.UTF_8);
+        entries.put("dir/large.txt", large);
+        byte[] noise = new byte[300 * 1024 + 17];
+        rnd.nextBytes(noise);
+        entries.put("dir/noise.bin", noise);
+        for (int i = 0; i < 50; i++) {
+            entries.put("page_" + i + "_ä.html", ("<html>" + i + "</html>").getBytes(StandardCharsets.UTF_8));
+        }
+        entries.put("stored.txt", "stored".getBytes(StandardCharsets.UTF_8));
+        return entries;
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries, ExecutorService executor, int chunkSize) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        ParallelZipOutStream out = new ParallelZipOutStream(buf, executor, 32 * 1024);
+        out.setDefaultTime(1_600_000_000_000L);
+        for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+            ZipEntry entry = new ZipEntry(e.getKey());
+            if (e.getKey().startsWith("stored")) {
+                entry.setMethod(ZipEntry.STORED);
+            }
+            out.putNextEntry(entry);
+            byte[] data = e.getValue();
+            for (int off = 0; off < data.length; off += chunkSize) {
+                out.write(data, off, Math.min(chunkSize, data.length - off));
+            }
+            out.closeEntry();
+        }
+        out.close();
+        return buf.toByteArray();
+    }
+
+    @Test
+    void testOutputIsReadableAndReproducible() throws IOException {
+        Map<String, byte[]> entries = createEntries();
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        ExecutorService multi = Executors.newFixedThreadPool(4);
+        try {
+            byte[] expected = zip(entries, single, 1 << 20);
+            assertArrayEquals(expected, zip(entries, multi, 1 << 20));
+            assertArrayEquals(expected, zip(entries, multi, 1000));
+
+            // Read with ZipInputStream
+            LinkedHashMap<String, byte[]> actual = new LinkedHashMap<String, byte[]>();
+            try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(expected))) {
+                for (ZipEntry e = in.getNextEntry(); e != null; e = in.getNextEntry()) {
+                    actual.put(e.getName(), in.readAllBytes());
+                }
+            }
+            assertEquals(entries.keySet().toString(), actual.keySet().toString());
+            for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                assertArrayEquals(e.getValue(), actual.get(e.getKey()), e.getKey());
+            }
+
+            // Read with ZipFile, which uses the central directory
+            File file = File.createTempFile("ParallelZipOutStreamTest", ".zip");
+            try {
+                Files.write(file.toPath(), expected);
+                try (ZipFile zf = new ZipFile(file)) {
+                    assertEquals(entries.size(), zf.size());
+                    for (Enumeration<? extends ZipEntry> en = zf.entries(); en.hasMoreElements(); ) {
+                        ZipEntry e = en.nextElement();
+                        assertArrayEquals(entries.get(e.getName()), zf.getInputStream(e).readAllBytes(), e.getName());
+                    }
+                }
+            } finally {
+                file.delete();
+            }
+        } finally {
+            single.shutdown();
+            multi.shutdown();
+        }
+    }
+
+    @Test
+    void testMoreThan65535EntriesAreWrittenWithZip64() throws IOException {
+        int count = 70000;
+        File file = File.createTempFile("ParallelZipOutStreamTest", ".zip");
+        try {
+            try (ParallelZipOutStream out = new ParallelZipOutStream(new FileOutputStream(file))) {
+                for (int i = 0; i < count; i++) {
+                    ZipEntry entry = new ZipEntry("e" + i);
+                    if (i % 2 == 0) {
+                        entry.setMethod(ZipEntry.STORED);
+                    }
+                    out.putNextEntry(entry);
+                    out.write(i);
+                    out.closeEntry();
+                }
+            }
+
+            // ZipFile reads the entry count from the ZIP64 end of central
+            // directory record
+            try (ZipFile zf = new ZipFile(file)) {
+                assertEquals(count, zf.size());
+                for (int i : new int[]{0, 65534, 65535, 65536, count - 1}) {
+                    assertArrayEquals(new byte[]{(byte) i}, zf.getInputStream(zf.getEntry("e" + i)).readAllBytes());
+                }
+            }
+            try (RawZipFile raw = new RawZipFile(file)) {
+                assertEquals(count, raw.getEntries().size());
+                assertEquals("e" + (count - 1), raw.getEntries().get(count - 1).getName());
+            }
+            int n = 0;
+            try (ZipInputStream in = new ZipInputStream(new FileInputStream(file))) {
+                for (ZipEntry e = in.getNextEntry(); e != null; e = in.getNextEntry()) {
+                    assertArrayEquals(new byte[]{(byte) n}, in.readAllBytes(), e.getName());
+                    n++;
+                }
+            }
+            assertEquals(count, n);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    void testDuplicateEntryIsRejected() throws IOException {
+        ParallelZipOutStream out = new ParallelZipOutStream(new ByteArrayOutputStream());
+        out.putNextEntry(new ZipEntry("a"));
+        assertThrows(java.util.zip.ZipException.class, () -> out.putNextEntry(new ZipEntry("a")));
+        out.close();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * @(#)RawZipFileTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.zip;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that entries copied with {@link ZipFiles#rezipRaw} have the same
+ * contents as the original entries.
+ */
+class RawZipFileTest {
+
+    private static Map<String, byte[]> createEntries() {
+        Random rnd = new Random(11);
+        LinkedHashMap<String, byte[]> entries = new LinkedHashMap<String, byte[]>();
+        entries.put("dir/", new byte[0]);
+        entries.put("imsmanifest.xml", "<manifest/>".getBytes(StandardCharsets.UTF_8));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("<p>Frage ").append(rnd.nextInt(1000)).append("</p>\n");
+        }
+        entries.put("dir/large_ä.html", text.toString().getBytes(StandardCharsets.UTF_8));
+        byte[] noise = new byte[200 * 1024];
+        rnd.nextBytes(noise);
+        entries.put("dir/noise.bin", noise);
+        entries.put("stored.txt", "stored".getBytes(StandardCharsets.UTF_8));
+        entries.put("excluded.txt", "excluded".getBytes(StandardCharsets.UTF_8));
+        return entries;
+    }
+
+    private static void writeZip(File file, Map<String, byte[]> entries) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            out.setComment("a comment");
+            for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                ZipEntry entry = new ZipEntry(e.getKey());
+                if (e.getKey().startsWith("stored")) {
+                    CRC32 crc = new CRC32();
+                    crc.update(e.getValue());
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(e.getValue().length);
+                    entry.setCrc(crc.getValue());
+                }
+                entry.setExtra(new byte[]{(byte) 0xfe, (byte) 0xca, 2, 0, 1, 2});
+                out.putNextEntry(entry);
+                out.write(e.getValue());
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Test
+    void testRezipRaw() throws IOException {
+        Map<String, byte[]> entries = createEntries();
+        File input = File.createTempFile("RawZipFileTest", ".zip");
+        File output = File.createTempFile("RawZipFileTest", ".zip");
+        try {
+            writeZip(input, entries);
+            try (RawZipFile raw = new RawZipFile(input)) {
+                assertEquals(entries.keySet().toString(), raw.getEntries().toString());
+            }
+
+            HashSet<String> exclude = new HashSet<String>(Arrays.asList("excluded.txt"));
+            try (ParallelZipOutStream out = new ParallelZipOutStream(new FileOutputStream(output))) {
+                out.putNextEntry(new ZipEntry("before.txt"));
+                out.write(1);
+                ZipFiles.rezipRaw(input, out, "course", new DefaultZipEntryFilter(exclude, false));
+                out.putNextEntry(new ZipEntry("after.txt"));
+                out.write(2);
+                out.closeEntry();
+            }
+
+            try (ZipFile in = new ZipFile(input); ZipFile out = new ZipFile(output)) {
+                assertEquals(entries.size() - 1 + 2, out.size());
+                assertArrayEquals(new byte[]{1}, out.getInputStream(out.getEntry("before.txt")).readAllBytes());
+                assertArrayEquals(new byte[]{2}, out.getInputStream(out.getEntry("after.txt")).readAllBytes());
+                assertNull(out.getEntry("course/excluded.txt"));
+                for (String name : entries.keySet()) {
+                    if (exclude.contains(name)) {
+                        continue;
+                    }
+                    ZipEntry expected = in.getEntry(name);
+                    ZipEntry actual = out.getEntry("course/" + name);
+                    assertEquals(expected.getMethod(), actual.getMethod(), name);
+                    assertEquals(expected.getCrc(), actual.getCrc(), name);
+                    assertEquals(expected.getCompressedSize(), actual.getCompressedSize(), name);
+                    assertEquals(expected.getTime(), actual.getTime(), name);
+                    assertArrayEquals(entries.get(name), out.getInputStream(actual).readAllBytes(), name);
+                }
+            }
+        } finally {
+            input.delete();
+            output.delete();
+        }
+    }
+
+    @Test
+    void testZip64() throws IOException {
+        // ZipOutputStream writes a ZIP64 end of central directory if there
+        // are more than 65535 entries
+        File input = File.createTempFile("RawZipFileTest", ".zip");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(input))) {
+                for (int i = 0; i < 66000; i++) {
+                    out.putNextEntry(new ZipEntry("e" + i));
+                    out.write(i);
+                    out.closeEntry();
+                }
+            }
+            try (RawZipFile raw = new RawZipFile(input)) {
+                assertEquals(66000, raw.getEntries().size());
+                RawZipFile.Entry last = raw.getEntries().get(65999);
+                assertEquals("e65999", last.getName());
+
+                ByteArrayOutputStream buf = new ByteArrayOutputStream();
+                try (ParallelZipOutStream out = new ParallelZipOutStream(buf)) {
+                    out.copyRawEntry(raw, last, "copy");
+                }
+                File output = File.createTempFile("RawZipFileTest", ".zip");
+                try {
+                    Files.write(output.toPath(), buf.toByteArray());
+                    try (ZipFile zf = new ZipFile(output)) {
+                        assertArrayEquals(new byte[]{(byte) 65999}, zf.getInputStream(zf.getEntry("copy")).readAllBytes());
+                    }
+                } finally {
+                    output.delete();
+                }
+            }
+        } finally {
+            input.delete();
+        }
+    }
+
+    @Test
+    void testNotAZipFile() throws IOException {
+        File input = File.createTempFile("RawZipFileTest", ".zip");
+        try {
+            Files.write(input.toPath(), new byte[100]);
+            assertThrows(ZipException.class, () -> new RawZipFile(input));
+        } finally {
+            input.delete();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * @(#)ZipFilesTest.java
+ * Copyright © 2020 Werner Randelshofer, Switzerland. MIT License.
+ */
+
+package ch.randelshofer.zip;
+
+import ch.randelshofer.gui.SilentProgressIndicator;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link ZipFiles#unzip(File, File, ZipEntryFilter,
+ * ch.randelshofer.gui.ProgressIndicator)}.
+ */
+class ZipFilesTest {
+
+    private static byte[] content(int i) {
+        StringBuilder buf = new StringBuilder();
+        for (int j = 0; j <= i % 50; j++) {
+            buf.append("<p>Datei ").append(i).append(", Zeile ").append(j).append("</p>\n");
+        }
+        return buf.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testUnzip() throws IOException {
+        File zip = File.createTempFile("ZipFilesTest", ".zip");
+        Path dir = Files.createTempDirectory("ZipFilesTest");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+                out.putNextEntry(new ZipEntry("empty/"));
+                out.closeEntry();
+                for (int i = 0; i < 200; i++) {
+                    out.putNextEntry(new ZipEntry("d" + (i % 7) + "/f" + i + ".html"));
+                    out.write(content(i));
+                    out.closeEntry();
+                }
+            }
+
+            SilentProgressIndicator p = new SilentProgressIndicator();
+            p.setMaximum(1000);
+            HashSet<String> exclude = new HashSet<String>(Arrays.asList("d1/f1.html"));
+            ZipFiles.unzip(zip, dir.toFile(), new DefaultZipEntryFilter(exclude, false), p);
+
+            assertEquals(199, p.getProgress());
+            assertTrue(Files.isDirectory(dir.resolve("empty")));
+            assertFalse(Files.exists(dir.resolve("d1/f1.html")));
+            for (int i = 0; i < 200; i++) {
+                if (i != 1) {
+                    assertArrayEquals(content(i), Files.readAllBytes(dir.resolve("d" + (i % 7) + "/f" + i + ".html")));
+                }
+            }
+        } finally {
+            zip.delete();
+            try (Stream<Path> paths = Files.walk(dir)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+            }
+        }
+    }
+}